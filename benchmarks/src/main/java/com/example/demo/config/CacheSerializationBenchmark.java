@@ -0,0 +1,64 @@
+package com.example.demo.config;
+
+import com.example.demo.model.entity.UserPoints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a cached {@link UserPoints} with the value serializer {@link CacheConfig} gives the user_points
+ * Redis cache in each {@code points.cache.format}, i.e. the cost paid on every L2 put and every L1 miss that hits
+ * Redis. The encoded size of the entry is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializationBenchmark {
+
+    @Param({"JDK", "COMPACT"})
+    public PointsProperties.CacheFormat format;
+
+    private RedisSerializationContext.SerializationPair<Object> valueSerialization;
+    private UserPoints userPoints;
+    private ByteBuffer serialized;
+
+    @Setup
+    public void setUp() {
+        PointsProperties.Cache settings = new PointsProperties().getCache();
+        settings.setFormat(format);
+        valueSerialization = CacheConfig.userPointsCacheConfiguration(getClass().getClassLoader(), settings)
+                .getValueSerializationPair();
+        userPoints = new UserPoints();
+        userPoints.setUserId("user-42");
+        userPoints.setTotalPoints(123_456L);
+        userPoints.setUpdatedAt(LocalDateTime.now());
+        serialized = valueSerialization.write(userPoints);
+        System.out.println(format + " entry: " + serialized.remaining() + " bytes");
+    }
+
+    @Benchmark
+    public ByteBuffer serialize() {
+        return valueSerialization.write(userPoints);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return valueSerialization.read(serialized.duplicate());
+    }
+}
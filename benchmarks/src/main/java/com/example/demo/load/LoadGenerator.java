@@ -0,0 +1,137 @@
+package com.example.demo.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Open-loop traffic: request {@code i} of a stage is due at {@code start + i / rate} whether or not earlier
+ * requests have completed, and its latency is measured from that due time. A slow server therefore shows up as
+ * queueing delay in the percentiles instead of silently lowering the request rate (coordinated omission).
+ */
+public class LoadGenerator {
+
+    /**
+     * Latencies above this are recorded as this value.
+     */
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUri;
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final ZipfianUserIds userIds;
+    private final Operation[] weightedOperations;
+
+    public LoadGenerator(URI baseUri, LoadTestOptions options) {
+        this.baseUri = baseUri;
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.userIds = new ZipfianUserIds(options.users(), options.zipfExponent());
+        this.weightedOperations = options.mix().entrySet().stream()
+                .flatMap(weight -> Stream.generate(weight::getKey).limit(weight.getValue()))
+                .toArray(Operation[]::new);
+    }
+
+    /**
+     * Creates every user with one point through the batch endpoint, so GETs hit existing rows.
+     */
+    public void seedUsers() throws Exception {
+        int batchSize = 500;
+        for (int first = 1; first <= userIds.size(); first += batchSize) {
+            StringBuilder body = new StringBuilder("[");
+            for (int rank = first; rank < first + batchSize && rank <= userIds.size(); rank++) {
+                if (rank > first) {
+                    body.append(',');
+                }
+                body.append("{\"userId\":\"").append(ZipfianUserIds.userId(rank))
+                        .append("\",\"amount\":1,\"reason\":\"load test seed\"}");
+            }
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/points/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.append(']').toString()))
+                    .build();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding users failed with HTTP " + response.statusCode());
+            }
+        }
+    }
+
+    /**
+     * Sends {@code rate} req/s for {@code duration}, then waits for outstanding requests. {@code stage} is mixed
+     * into the seed, so every stage replays its own fixed sequence of operations and userIds.
+     */
+    public StageResult run(int stage, int rate, Duration duration) throws InterruptedException {
+        Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(MAX_LATENCY_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicLong dropped = new AtomicLong();
+        SplittableRandom random = new SplittableRandom(options.seed() * 31 + stage);
+
+        long requests = rate * duration.toSeconds();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long due = start + i * intervalNanos;
+            Operation operation = weightedOperations[random.nextInt(weightedOperations.length)];
+            String userId = userIds.next(random);
+            waitUntil(due);
+            if (inFlight.get() >= options.maxInFlight()) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            client.sendAsync(operation.request(baseUri, userId), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+                        inFlight.decrementAndGet();
+                        // 404 is a valid answer for GET /points/{userId}, everything else non-2xx is an error
+                        if (failure != null || (response.statusCode() >= 300 && response.statusCode() != 404)) {
+                            errors.get(operation).incrementAndGet();
+                        } else {
+                            recorders.get(operation).recordValue(Math.min(latencyMicros, MAX_LATENCY_MICROS));
+                        }
+                    });
+        }
+        long sendingNanos = System.nanoTime() - start;
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        recorders.forEach((operation, recorder) -> histograms.put(operation, recorder.getIntervalHistogram()));
+        errors.forEach((operation, count) -> errorCounts.put(operation, count.get()));
+        return new StageResult(stage, rate, requests, sendingNanos, histograms, errorCounts, dropped.get(),
+                inFlight.get());
+    }
+
+    private static void waitUntil(long dueNanos) {
+        long remaining;
+        while ((remaining = dueNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
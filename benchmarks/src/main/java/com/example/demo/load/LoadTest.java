@@ -0,0 +1,50 @@
+package com.example.demo.load;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * End-to-end load test of POST /points, GET /points/{userId} and GET /points/leaderboard.
+ * <p>
+ * Boots the service against {@link LocalServices}, creates the users, warms up, then runs one open-loop stage
+ * per rate in {@code --rates} with Zipf-distributed userIds and prints p50/p90/p99/p99.9/max per operation.
+ * The highest rate whose stage met {@code --slo-p99} and {@code --max-error-ratio} is reported as the
+ * maximum sustainable rate. {@code --stack=reactive} runs the same traffic against the WebFlux/R2DBC variant.
+ * See {@link LoadTestOptions} for all options.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.println("Load test options: " + options);
+        try (LocalServices services = LocalServices.start(options.stack(), options.mqSendLatency())) {
+            LoadGenerator generator = new LoadGenerator(services.baseUri(), options);
+            generator.seedUsers();
+            generator.run(0, options.rates().get(0), options.warmup());
+
+            List<StageResult> results = new ArrayList<>();
+            for (int i = 0; i < options.rates().size(); i++) {
+                StageResult result = generator.run(i + 1, options.rates().get(i), options.stageDuration());
+                result.printSummary(System.out);
+                result.writeHistograms(options.outputDir());
+                results.add(result);
+            }
+
+            int maxSustainable = results.stream()
+                    .filter(result -> result.isSustainable(options.sloP99(), options.maxErrorRatio()))
+                    .mapToInt(StageResult::targetRate)
+                    .max()
+                    .orElse(0);
+            System.out.printf("%nMax sustainable rate: %s (p99 <= %s ms, errors <= %.1f%%)%n",
+                    maxSustainable == 0 ? "none of the stages" : maxSustainable + " req/s",
+                    options.sloP99().toMillis(), options.maxErrorRatio() * 100);
+            System.out.println("RocketMQ messages sent through the outbox: " + services.sentMessages());
+            System.out.println("Latency distributions written to " + options.outputDir().toAbsolutePath());
+        }
+        // The app's scheduler and client threads are not daemons
+        System.exit(0);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line options of {@link LoadTest}, given as {@code --name=value}. Every option has a default so a bare
+ * run is a short smoke test.
+ *
+ * @param rates          target request rates in req/s, one stage each, run in order
+ * @param stageDuration  how long each stage sends at its rate
+ * @param warmup         sent at the first rate before the first stage and not reported
+ * @param users          number of distinct userIds, all created before the first request
+ * @param zipfExponent   skew of the userId distribution; 0 is uniform, around 1 is typical of real traffic
+ * @param mix            relative weight of each operation
+ * @param sloP99         a stage is sustainable when its p99 stays at or below this for every operation
+ * @param maxErrorRatio  ... and at most this share of its requests failed or were dropped
+ * @param maxInFlight    requests due while this many are outstanding are dropped and counted as errors
+ * @param mqSendLatency  added to every RocketMQ send by the stub template
+ * @param seed           seeds the operation and userId sequence, so runs replay the same traffic
+ * @param outputDir      where the HdrHistogram percentile distributions (.hgrm) are written
+ * @param stack          the servlet controllers on JPA, or the {@code reactive} profile's WebFlux/R2DBC routes
+ */
+public record LoadTestOptions(List<Integer> rates,
+                              Duration stageDuration,
+                              Duration warmup,
+                              int users,
+                              double zipfExponent,
+                              Map<Operation, Integer> mix,
+                              Duration sloP99,
+                              double maxErrorRatio,
+                              int maxInFlight,
+                              Duration mqSendLatency,
+                              long seed,
+                              Path outputDir,
+                              Stack stack) {
+
+    public enum Stack {
+        SERVLET, REACTIVE
+    }
+
+    public static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                Arrays.stream(take(values, "rates", "100,200").split(",")).map(String::trim).map(Integer::valueOf)
+                        .toList(),
+                DurationStyle.detectAndParse(take(values, "duration", "20s")),
+                DurationStyle.detectAndParse(take(values, "warmup", "10s")),
+                Integer.parseInt(take(values, "users", "10000")),
+                Double.parseDouble(take(values, "zipf", "0.99")),
+                parseMix(take(values, "mix", "add:20,get:70,leaderboard:10")),
+                DurationStyle.detectAndParse(take(values, "slo-p99", "100ms")),
+                Double.parseDouble(take(values, "max-error-ratio", "0.01")),
+                Integer.parseInt(take(values, "max-in-flight", "1000")),
+                DurationStyle.detectAndParse(take(values, "mq-send-latency", "2ms")),
+                Long.parseLong(take(values, "seed", "42")),
+                Path.of(take(values, "output", "target/load")),
+                Stack.valueOf(take(values, "stack", "servlet").toUpperCase(Locale.ROOT)));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        if (options.rates.stream().anyMatch(rate -> rate <= 0) || options.users < 1) {
+            throw new IllegalArgumentException("rates and users must be positive");
+        }
+        return options;
+    }
+
+    private static String take(Map<String, String> values, String name, String defaultValue) {
+        String value = values.remove(name);
+        return value == null ? defaultValue : value;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] weight = part.trim().split(":");
+            weights.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.valueOf(weight[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix must have a positive total weight: " + mix);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.load;
+
+import com.example.demo.DemoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * The service on a free port with its dependencies replaced by local stand-ins: H2 in MySQL mode (the
+ * {@code load} profile), an embedded redis-server and a {@link StubRocketMQTemplate}. The reactive stack adds the
+ * {@code reactive} profile and reaches the same in-memory database through r2dbc-h2.
+ */
+public final class LocalServices implements AutoCloseable {
+
+    private final RedisServer redisServer;
+    private final ConfigurableApplicationContext context;
+
+    private LocalServices(RedisServer redisServer, ConfigurableApplicationContext context) {
+        this.redisServer = redisServer;
+        this.context = context;
+    }
+
+    public static LocalServices start(LoadTestOptions.Stack stack, Duration mqSendLatency) throws IOException {
+        int redisPort = freePort();
+        RedisServer redisServer = new RedisServer(redisPort);
+        redisServer.start();
+        try {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class,
+                    StubMessagingConfig.class)
+                    // load comes last so its database settings win over the reactive profile's
+                    .profiles(stack == LoadTestOptions.Stack.REACTIVE
+                            ? new String[]{"reactive", "load"} : new String[]{"load"})
+                    .run("--server.port=0",
+                            "--spring.data.redis.port=" + redisPort,
+                            "--load.mq-send-latency=" + mqSendLatency.toMillis() + "ms");
+            return new LocalServices(redisServer, context);
+        } catch (RuntimeException e) {
+            redisServer.stop();
+            throw e;
+        }
+    }
+
+    public URI baseUri() {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return URI.create("http://localhost:" + port);
+    }
+
+    public long sentMessages() {
+        return context.getBean(StubRocketMQTemplate.class).getSentMessages();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            context.close();
+        } finally {
+            redisServer.stop();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class StubMessagingConfig {
+
+        @Bean
+        StubRocketMQTemplate rocketMQTemplate(Environment environment) {
+            return new StubRocketMQTemplate(environment.getProperty("load.mq-send-latency", Duration.class,
+                    Duration.ZERO));
+        }
+    }
+}
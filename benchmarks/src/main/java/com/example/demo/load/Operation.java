@@ -0,0 +1,45 @@
+package com.example.demo.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+
+/**
+ * The requests in the load mix.
+ */
+public enum Operation {
+
+    ADD("POST /points") {
+        @Override
+        HttpRequest request(URI baseUri, String userId) {
+            String body = "{\"userId\":\"" + userId + "\",\"amount\":10,\"reason\":\"load test\"}";
+            return HttpRequest.newBuilder(baseUri.resolve("/points"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    },
+    GET("GET /points/{userId}") {
+        @Override
+        HttpRequest request(URI baseUri, String userId) {
+            return HttpRequest.newBuilder(baseUri.resolve("/points/" + userId)).GET().build();
+        }
+    },
+    LEADERBOARD("GET /points/leaderboard") {
+        @Override
+        HttpRequest request(URI baseUri, String userId) {
+            return HttpRequest.newBuilder(baseUri.resolve("/points/leaderboard")).GET().build();
+        }
+    };
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    abstract HttpRequest request(URI baseUri, String userId);
+}
@@ -0,0 +1,82 @@
+package com.example.demo.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies (in microseconds) and errors of one load stage, per operation.
+ *
+ * @param dropped    requests not sent because {@code max-in-flight} requests were outstanding
+ * @param unfinished requests still outstanding when the stage stopped waiting for them
+ */
+public record StageResult(int stage,
+                          int targetRate,
+                          long requests,
+                          long sendingNanos,
+                          Map<Operation, Histogram> latencies,
+                          Map<Operation, Long> errors,
+                          long dropped,
+                          long unfinished) {
+
+    public double achievedRate() {
+        long completed = latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        return completed * (double) TimeUnit.SECONDS.toNanos(1) / sendingNanos;
+    }
+
+    public double errorRatio() {
+        long failed = errors.values().stream().mapToLong(Long::longValue).sum() + dropped + unfinished;
+        return requests == 0 ? 0 : (double) failed / requests;
+    }
+
+    /**
+     * Whether every operation kept its p99 within the SLO, few enough requests failed and the target rate was
+     * actually reached.
+     */
+    public boolean isSustainable(Duration sloP99, double maxErrorRatio) {
+        long sloMicros = TimeUnit.NANOSECONDS.toMicros(sloP99.toNanos());
+        boolean withinSlo = latencies.values().stream()
+                .allMatch(histogram -> histogram.getTotalCount() == 0
+                        || histogram.getValueAtPercentile(99) <= sloMicros);
+        return withinSlo && errorRatio() <= maxErrorRatio && achievedRate() >= targetRate * 0.95;
+    }
+
+    public void printSummary(PrintStream out) {
+        out.printf(Locale.ROOT, "%nStage %d: target %d req/s, achieved %.1f req/s, %d dropped, %d unfinished%n",
+                stage, targetRate, achievedRate(), dropped, unfinished);
+        out.printf(Locale.ROOT, "%-24s %8s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        latencies.forEach((operation, histogram) -> out.printf(Locale.ROOT,
+                "%-24s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                operation.getLabel(), histogram.getTotalCount(), errors.get(operation),
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue())));
+    }
+
+    /**
+     * Writes one HdrHistogram percentile distribution per operation, in milliseconds, which the HdrHistogram
+     * plotter and most dashboards read directly.
+     */
+    public void writeHistograms(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            String name = String.format(Locale.ROOT, "stage-%d-%drps-%s.hgrm", stage, targetRate,
+                    entry.getKey().name().toLowerCase(Locale.ROOT));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name)))) {
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
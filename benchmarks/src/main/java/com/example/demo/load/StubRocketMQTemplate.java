@@ -0,0 +1,72 @@
+package com.example.demo.load;
+
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.springframework.messaging.Message;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accepts every send without a broker, optionally waiting {@code sendLatency} per call to stand in for the
+ * round trip to RocketMQ. Registered as {@code rocketMQTemplate}, so the auto-configured template (and its
+ * producer) is never created.
+ */
+public class StubRocketMQTemplate extends RocketMQTemplate {
+
+    private final long sendLatencyNanos;
+    private final AtomicLong sentMessages = new AtomicLong();
+
+    public StubRocketMQTemplate(Duration sendLatency) {
+        this.sendLatencyNanos = sendLatency.toNanos();
+    }
+
+    public long getSentMessages() {
+        return sentMessages.get();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public SendResult syncSend(String destination, Message<?> message) {
+        return send(1);
+    }
+
+    @Override
+    public <T extends Message> SendResult syncSend(String destination, Collection<T> messages) {
+        return send(messages.size());
+    }
+
+    @Override
+    public <T extends Message> SendResult syncSend(String destination, Collection<T> messages, long timeout) {
+        return send(messages.size());
+    }
+
+    @Override
+    protected void doSend(String destination, Message<?> message) {
+        send(1);
+    }
+
+    private SendResult send(int messages) {
+        if (sendLatencyNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(sendLatencyNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sentMessages.addAndGet(messages);
+        SendResult result = new SendResult();
+        result.setSendStatus(SendStatus.SEND_OK);
+        return result;
+    }
+}
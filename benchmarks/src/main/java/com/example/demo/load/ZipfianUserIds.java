@@ -0,0 +1,47 @@
+package com.example.demo.load;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Draws userIds so that the user of rank {@code k} is picked with probability proportional to
+ * {@code 1 / k^exponent}: a few users get most of the traffic, as in production. Sampling is a binary search
+ * over the precomputed cumulative distribution.
+ */
+public class ZipfianUserIds {
+
+    static final String USER_ID_PREFIX = "load-user-";
+
+    private final double[] cumulative;
+
+    public ZipfianUserIds(int users, double exponent) {
+        cumulative = new double[users];
+        double sum = 0;
+        for (int rank = 1; rank <= users; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < users; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public String next(SplittableRandom random) {
+        return userId(nextRank(random));
+    }
+
+    int nextRank(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        // A miss returns -(insertion point) - 1; the insertion point is the first rank whose share covers it.
+        // Rounding can leave the last cumulative value just below 1, hence the clamp
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1) + 1;
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+
+    static String userId(int rank) {
+        return USER_ID_PREFIX + rank;
+    }
+}
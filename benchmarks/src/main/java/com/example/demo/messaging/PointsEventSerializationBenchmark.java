@@ -0,0 +1,98 @@
+package com.example.demo.messaging;
+
+import com.example.demo.model.entity.PointRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of the user-points-topic bodies for {@code credits} point records: the JSON of the
+ * PointRecord entity (one message per credit), and a PointsEventCodec envelope with and without deflate. Scores
+ * are per invocation, i.e. per {@code credits} records; the total message bytes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointsEventSerializationBenchmark {
+
+    public enum Format { JSON, BINARY, BINARY_DEFLATE }
+
+    @Param({"JSON", "BINARY", "BINARY_DEFLATE"})
+    public Format format;
+
+    @Param({"1", "100"})
+    public int credits;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private List<PointRecord> pointRecords;
+    private List<byte[]> encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        pointRecords = new ArrayList<>(credits);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < credits; i++) {
+            PointRecord pointRecord = new PointRecord();
+            pointRecord.setId(1_000_000L + i);
+            pointRecord.setUserId("user-" + (i * 7919 % 100_000));
+            pointRecord.setAmount(10 + i % 90);
+            pointRecord.setReason("campaign reward");
+            pointRecord.setCreatedAt(now.plusNanos(i * 1000L));
+            pointRecords.add(pointRecord);
+        }
+        encoded = encode();
+        int bytes = encoded.stream().mapToInt(body -> body.length).sum();
+        System.out.println(format + " x" + credits + ": " + encoded.size() + " messages, " + bytes + " bytes, "
+                + bytes / credits + " bytes per credit");
+    }
+
+    @Benchmark
+    public List<byte[]> encode() throws IOException {
+        if (format == Format.JSON) {
+            List<byte[]> bodies = new ArrayList<>(credits);
+            for (PointRecord pointRecord : pointRecords) {
+                bodies.add(objectMapper.writeValueAsBytes(pointRecord));
+            }
+            return bodies;
+        }
+        return List.of(PointsEventCodec.encode(pointRecords.stream().map(PointsEvent::of).toList(),
+                format == Format.BINARY_DEFLATE ? 0 : -1));
+    }
+
+    @Benchmark
+    public List<PointRecord> decode() throws IOException {
+        List<PointRecord> decoded = new ArrayList<>(credits);
+        for (byte[] body : encoded) {
+            if (format == Format.JSON) {
+                decoded.add(objectMapper.readValue(body, PointRecord.class));
+            } else {
+                PointsEventCodec.decode(body).forEach(event -> decoded.add(event.toPointRecord()));
+            }
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.repository;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.model.entity.PointRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * point_records rows per second inserted by {@link PointRecordRepository#saveAllInBatch} with AUTO_INCREMENT ids
+ * and with pooled ids, one row per transaction as addPoints does and {@value #BATCH_SIZE} rows per transaction as
+ * addPointsBatch does. Runs against H2 in MySQL mode like {@code PointsServiceBenchmark}; H2 has no equivalent of
+ * MySQL's rewriteBatchedStatements, so the gap on MySQL, where pooled batches become multi-row INSERTs, is wider.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class PointRecordInsertBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"identity", "pooled"})
+    private String strategy;
+
+    private RedisServer redisServer;
+    private ConfigurableApplicationContext context;
+    private PointRecordRepository pointRecordRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int redisPort = freePort();
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("benchmark")
+                .run("--spring.data.redis.port=" + redisPort, "--points.ids.strategy=" + strategy);
+        pointRecordRepository = context.getBean(PointRecordRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public List<PointRecord> insertOne() {
+        return transactionTemplate.execute(status -> pointRecordRepository.saveAllInBatch(List.of(record())));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<PointRecord> insertBatch() {
+        List<PointRecord> records = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            records.add(record());
+        }
+        return transactionTemplate.execute(status -> pointRecordRepository.saveAllInBatch(records));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static PointRecord record() {
+        PointRecord pointRecord = new PointRecord();
+        pointRecord.setUserId("user-" + ThreadLocalRandom.current().nextInt(10_000));
+        pointRecord.setAmount(ThreadLocalRandom.current().nextInt(1, 100));
+        pointRecord.setReason("benchmark");
+        return pointRecord;
+    }
+}
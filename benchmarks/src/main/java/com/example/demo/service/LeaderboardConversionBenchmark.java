@@ -0,0 +1,59 @@
+package com.example.demo.service;
+
+import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.RankedEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of the tuples returned by ZREVRANGE WITHSCORES into the leaderboard DTOs, for the top-N list and
+ * for ranked pages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardConversionBenchmark {
+
+    @Param({"10", "100"})
+    private int size;
+
+    private Set<ZSetOperations.TypedTuple<String>> tuples;
+
+    @Setup
+    public void setUp() {
+        // Lettuce returns a LinkedHashSet in score order
+        tuples = new LinkedHashSet<>(size);
+        for (int i = 0; i < size; i++) {
+            tuples.add(new DefaultTypedTuple<>("user-" + i, (double) (1_000_000 - i)));
+        }
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> toLeaderboardEntries() {
+        return LeaderboardService.entries(tuples);
+    }
+
+    @Benchmark
+    public List<RankedEntry> toRankedEntries() {
+        return LeaderboardService.ranked(tuples, 0);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.service;
+
+import com.example.demo.model.dto.AddPointsRequest;
+import com.example.demo.model.dto.BatchAddPointsResponse;
+import com.example.demo.model.dto.BatchItemResult;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.model.entity.UserPoints;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-to-entity mapping done by {@link PointsServiceImpl} and the JSON mapping of the entities and DTOs the
+ * controller returns, using an ObjectMapper configured like Boot's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private AddPointsRequest request;
+    private String requestJson;
+    private UserPoints userPoints;
+    private PointRecord pointRecord;
+    private List<BatchItemResult> batchResults;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        request = new AddPointsRequest();
+        request.setUserId("user-42");
+        request.setAmount(100);
+        request.setReason("Daily login bonus");
+        requestJson = objectMapper.writeValueAsString(request);
+
+        userPoints = new UserPoints();
+        userPoints.setUserId("user-42");
+        userPoints.setTotalPoints(123_456L);
+        userPoints.setUpdatedAt(LocalDateTime.now());
+
+        pointRecord = PointsServiceImpl.toPointRecord(request);
+        pointRecord.setId(987_654L);
+        pointRecord.setCreatedAt(LocalDateTime.now());
+
+        batchResults = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batchResults.add(i % 10 == 0
+                    ? BatchItemResult.failed(i, "user-" + i, "amount is required")
+                    : BatchItemResult.succeeded(i, "user-" + i, (long) i));
+        }
+    }
+
+    @Benchmark
+    public PointRecord requestToPointRecord() {
+        return PointsServiceImpl.toPointRecord(request);
+    }
+
+    @Benchmark
+    public BatchAddPointsResponse batchResponse() {
+        return BatchAddPointsResponse.of(batchResults);
+    }
+
+    @Benchmark
+    public AddPointsRequest readAddPointsRequest() throws JsonProcessingException {
+        return objectMapper.readValue(requestJson, AddPointsRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeUserPoints() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userPoints);
+    }
+
+    @Benchmark
+    public byte[] writePointRecord() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(pointRecord);
+    }
+}
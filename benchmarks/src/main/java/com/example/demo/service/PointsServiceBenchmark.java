@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.model.dto.AddPointsRequest;
+import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.model.entity.UserPoints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The public {@link PointsService} methods through the full Spring context (transactions, cache proxies, the
+ * outbox) with H2 in MySQL mode standing in for MySQL and an embedded redis-server started on a free port.
+ * <p>
+ * Absolute numbers are not comparable with production since both stand-ins run on the benchmark host; compare
+ * runs of this benchmark against each other. See application-benchmark.yaml for the settings that differ.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointsServiceBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int HOT_USERS = 100;
+
+    private RedisServer redisServer;
+    private ConfigurableApplicationContext context;
+    private PointsService pointsService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int redisPort = freePort();
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("benchmark")
+                .run("--spring.data.redis.port=" + redisPort);
+        pointsService = context.getBean(PointsService.class);
+        for (int i = 0; i < USERS; i++) {
+            pointsService.addPoints(request("user-" + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public PointRecord addPoints() {
+        return pointsService.addPoints(request(randomUser()));
+    }
+
+    /**
+     * Random users out of {@value #USERS}, so most reads miss the L1 and many reach H2.
+     */
+    @Benchmark
+    public UserPoints getTotalPoints() {
+        return pointsService.getTotalPoints(randomUser());
+    }
+
+    /**
+     * A few users read over and over, served from the L1 once loaded.
+     */
+    @Benchmark
+    public UserPoints getTotalPointsHot() {
+        return pointsService.getTotalPoints("user-" + ThreadLocalRandom.current().nextInt(HOT_USERS));
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> getLeaderboard() {
+        return pointsService.getLeaderboard(LeaderboardWindow.ALL_TIME);
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> getWeeklyLeaderboard() {
+        return pointsService.getLeaderboard(LeaderboardWindow.WEEK);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String randomUser() {
+        return "user-" + ThreadLocalRandom.current().nextInt(USERS);
+    }
+
+    private static AddPointsRequest request(String userId) {
+        AddPointsRequest request = new AddPointsRequest();
+        request.setUserId(userId);
+        request.setAmount(ThreadLocalRandom.current().nextInt(1, 100));
+        request.setReason("benchmark");
+        return request;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.service;
+
+import com.example.demo.model.entity.UserPoints;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of timing one stage with {@link PointsStageTimers}, compared with calling the step directly. The step
+ * itself does nothing, so the difference is the whole overhead added to each timed stage of a request.
+ * {@code prometheus-histogram} matches the {@code management.metrics.distribution} settings in application.yaml.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StageTimerBenchmark {
+
+    @Param({"simple", "prometheus", "prometheus-histogram"})
+    public String registry;
+
+    private PointsStageTimers stageTimers;
+    private UserPoints userPoints;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = switch (registry) {
+            case "simple" -> new SimpleMeterRegistry();
+            case "prometheus" -> new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            case "prometheus-histogram" -> withHistograms(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+            default -> throw new IllegalArgumentException(registry);
+        };
+        stageTimers = new PointsStageTimers(meterRegistry);
+        userPoints = new UserPoints();
+        userPoints.setUserId("user-1");
+    }
+
+    @Benchmark
+    public UserPoints untimed() {
+        return load();
+    }
+
+    @Benchmark
+    public UserPoints timed() {
+        return stageTimers.record(PointsStage.GET_TOTAL_USER_POINTS_LOAD, this::load);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UserPoints timedContended() {
+        return stageTimers.record(PointsStage.GET_TOTAL_USER_POINTS_LOAD, this::load);
+    }
+
+    private UserPoints load() {
+        return userPoints;
+    }
+
+    private static MeterRegistry withHistograms(MeterRegistry meterRegistry) {
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofNanos(50_000).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(5).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        });
+        return meterRegistry;
+    }
+}
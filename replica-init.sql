@@ -0,0 +1,10 @@
+-- Runs once, when mysql-replica initializes its data directory: follow mysql from its first GTID on, so the
+-- taskdb schema and taskuser created by mysql's own initialization are replicated too
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST = 'mysql',
+    SOURCE_PORT = 3306,
+    SOURCE_USER = 'root',
+    SOURCE_PASSWORD = 'root',
+    SOURCE_AUTO_POSITION = 1,
+    GET_SOURCE_PUBLIC_KEY = 1;
+START REPLICA;
@@ -0,0 +1,111 @@
+package com.example.demo.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * A limit on concurrent requests that follows their latency (additive increase, multiplicative decrease).
+ * <p>
+ * The limit starts at {@code maxLimit}. A request slower than {@code targetLatency} cuts it by
+ * {@value #BACKOFF_RATIO}, at most once per target latency so one slow burst counts once; a faster request
+ * raises it by {@code 1 / limit} while at least half the limit is in use, i.e. by about one per round of
+ * requests. When MySQL or Redis slow down, fewer requests are let in and the rest are shed at once instead of
+ * queueing for a pool connection.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private double limit;
+    private long lastDecreaseAt;
+    private volatile int currentLimit;
+
+    public AdaptiveConcurrencyLimit(int minLimit, int maxLimit, long targetLatencyNanos, LongSupplier nanoTime) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency bounds must satisfy 1 <= min <= max, got "
+                    + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.nanoTime = nanoTime;
+        this.limit = maxLimit;
+        this.currentLimit = maxLimit;
+        this.lastDecreaseAt = nanoTime.getAsLong() - targetLatencyNanos;
+    }
+
+    /**
+     * A permit for one more concurrent request, or null if the limit is reached.
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(nanoTime.getAsLong());
+            }
+        }
+    }
+
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void release(Permit permit, boolean sample) {
+        int before = inFlight.getAndDecrement();
+        if (!sample) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        long latency = now - permit.startedAt;
+        synchronized (this) {
+            if (latency > targetLatencyNanos) {
+                if (now - lastDecreaseAt >= targetLatencyNanos) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    lastDecreaseAt = now;
+                }
+            } else if (before * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            currentLimit = (int) limit;
+        }
+    }
+
+    public final class Permit {
+
+        private final long startedAt;
+        private boolean sample = true;
+        private boolean released;
+
+        private Permit(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * Leaves this request's latency out of the limit, for requests whose duration says nothing about load,
+         * such as a streamed export.
+         */
+        public void skipSample() {
+            sample = false;
+        }
+
+        public void release() {
+            if (!released) {
+                released = true;
+                AdaptiveConcurrencyLimit.this.release(this, sample);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.demo.admission;
+
+/**
+ * The two request classes admitted separately, each with its own token buckets and concurrency limit, so a
+ * storm of writes cannot starve reads of their share and the other way round.
+ */
+public enum AdmissionBudget {
+    READ,
+    WRITE
+}
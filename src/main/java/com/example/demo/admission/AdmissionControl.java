@@ -0,0 +1,139 @@
+package com.example.demo.admission;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.redis.RedisCircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides whether a request to PointsController may run, with separate budgets for reads and writes
+ * ({@code points.admission.read} and {@code .write}): a token bucket per endpoint, one per userId, then the
+ * budget's {@link AdaptiveConcurrencyLimit}. A request refused by any of them fails with
+ * {@link AdmissionRejectedException} before it touches MySQL or Redis, counted in
+ * {@code points.admission.rejected{budget,reason}}.
+ * <p>
+ * The buckets are kept per node or, with {@code points.admission.store=redis}, in Redis for all nodes. The
+ * concurrency limits are always per node, since they protect this node's connection pool.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "points.admission", name = "enabled", havingValue = "true")
+public class AdmissionControl {
+
+    private final TokenBuckets buckets;
+    private final PointsProperties.Admission settings;
+    private final MeterRegistry meterRegistry;
+    private final Map<AdmissionBudget, AdaptiveConcurrencyLimit> limits = new EnumMap<>(AdmissionBudget.class);
+
+    @Autowired
+    public AdmissionControl(PointsProperties properties,
+                            MeterRegistry meterRegistry,
+                            ObjectProvider<RedisTemplate<String, String>> redisTemplate,
+                            ObjectProvider<RedisCircuitBreaker> circuitBreaker) {
+        this(tokenBuckets(properties.getAdmission(), meterRegistry, redisTemplate, circuitBreaker), properties,
+                meterRegistry, System::nanoTime);
+    }
+
+    AdmissionControl(TokenBuckets buckets,
+                     PointsProperties properties,
+                     MeterRegistry meterRegistry,
+                     LongSupplier nanoTime) {
+        this.buckets = buckets;
+        this.settings = properties.getAdmission();
+        this.meterRegistry = meterRegistry;
+        for (AdmissionBudget budget : AdmissionBudget.values()) {
+            PointsProperties.Admission.Budget config = budget(budget);
+            AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(config.getMinConcurrency(),
+                    config.getMaxConcurrency(), config.getTargetLatency().toNanos(), nanoTime);
+            this.limits.put(budget, limit);
+            Gauge.builder("points.admission.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Concurrent requests currently admitted per budget")
+                    .tag("budget", tag(budget))
+                    .register(meterRegistry);
+            Gauge.builder("points.admission.concurrency.in_flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Admitted requests in progress per budget")
+                    .tag("budget", tag(budget))
+                    .register(meterRegistry);
+        }
+    }
+
+    private static TokenBuckets tokenBuckets(PointsProperties.Admission settings,
+                                             MeterRegistry meterRegistry,
+                                             ObjectProvider<RedisTemplate<String, String>> redisTemplate,
+                                             ObjectProvider<RedisCircuitBreaker> circuitBreaker) {
+        TokenBuckets local = new LocalTokenBuckets(settings.getMaxTrackedKeys());
+        if (settings.getStore() == PointsProperties.RateLimitStore.REDIS) {
+            return new RedisTokenBuckets(redisTemplate.getObject(), circuitBreaker.getObject(), local, meterRegistry);
+        }
+        return local;
+    }
+
+    /**
+     * Takes a token from the bucket of {@code endpoint}, e.g. {@code "POST /points"}.
+     */
+    public void admitEndpoint(AdmissionBudget budget, String endpoint) {
+        PointsProperties.Admission.Budget config = budget(budget);
+        if (config.getEndpointRate() > 0) {
+            take(budget, "endpoint", endpoint, config.getEndpointRate(), config.getEndpointBurst());
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of {@code userId}, shared by all endpoints of the budget.
+     */
+    public void admitUser(AdmissionBudget budget, String userId) {
+        PointsProperties.Admission.Budget config = budget(budget);
+        if (config.getUserRate() > 0) {
+            take(budget, "user", userId, config.getUserRate(), config.getUserBurst());
+        }
+    }
+
+    /**
+     * A concurrency permit to release when the request completes.
+     */
+    public AdaptiveConcurrencyLimit.Permit acquire(AdmissionBudget budget) {
+        AdaptiveConcurrencyLimit.Permit permit = limits.get(budget).tryAcquire();
+        if (permit == null) {
+            rejected(budget, "concurrency");
+            throw new AdmissionRejectedException(tag(budget) + " concurrency limit reached", 0);
+        }
+        return permit;
+    }
+
+    private void take(AdmissionBudget budget, String scope, String key, double rate, int burst) {
+        long waitMillis = buckets.tryAcquire(tag(budget) + ":" + scope + ":" + key, rate, burst);
+        if (waitMillis > 0) {
+            rejected(budget, scope);
+            throw new AdmissionRejectedException(tag(budget) + " rate limit of " + scope + " exceeded", waitMillis);
+        }
+    }
+
+    private void rejected(AdmissionBudget budget, String reason) {
+        Counter.builder("points.admission.rejected")
+                .description("Requests shed with 429 by admission control")
+                .tag("budget", tag(budget))
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private PointsProperties.Admission.Budget budget(AdmissionBudget budget) {
+        return budget == AdmissionBudget.READ ? settings.getRead() : settings.getWrite();
+    }
+
+    private static String tag(AdmissionBudget budget) {
+        return budget.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.admission;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs {@link AdmissionControl} for each request once its handler is known: the endpoint bucket (keyed by method
+ * and path pattern), the user bucket when the path names a {@code userId}, then a concurrency permit that is
+ * released when the request completes. Users named in a request body are checked by
+ * {@link UserAdmissionAdvice}.
+ * <p>
+ * GET requests and {@link #READ_POSTS} use the read budget, everything else the write budget. An async request
+ * (the NDJSON export) keeps its permit until the async dispatch completes, without feeding its duration to the
+ * limit.
+ */
+@RequiredArgsConstructor
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    /**
+     * POST endpoints that only read; their body is a query too large for the URL.
+     */
+    static final Set<String> READ_POSTS = Set.of("/points/lookup");
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final AdmissionControl admissionControl;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            // Async and error dispatches of a request that was already admitted
+            return true;
+        }
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        AdmissionBudget budget = budget(request.getMethod(), pattern);
+        admissionControl.admitEndpoint(budget, request.getMethod() + " " + pattern);
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String userId = variables == null ? null : variables.get("userId");
+        if (userId != null) {
+            admissionControl.admitUser(budget, userId);
+        }
+        // Last, so a request refused by a bucket never holds a permit; afterCompletion is not called then
+        request.setAttribute(PERMIT_ATTRIBUTE, admissionControl.acquire(budget));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof AdaptiveConcurrencyLimit.Permit permit) {
+            permit.skipSample();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof AdaptiveConcurrencyLimit.Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.release();
+        }
+    }
+
+    static AdmissionBudget budget(String method, String pattern) {
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                || (HttpMethod.POST.matches(method) && READ_POSTS.contains(pattern))) {
+            return AdmissionBudget.READ;
+        }
+        return AdmissionBudget.WRITE;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets in this node's memory. Buckets unused for {@link #IDLE_TIMEOUT} are dropped, as are the least
+ * recently used beyond {@code maxKeys}; a dropped bucket comes back full.
+ */
+public class LocalTokenBuckets implements TokenBuckets {
+
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+    private final Cache<String, Bucket> buckets;
+    private final LongSupplier nanoTime;
+
+    public LocalTokenBuckets(long maxKeys) {
+        this(maxKeys, System::nanoTime);
+    }
+
+    LocalTokenBuckets(long maxKeys, LongSupplier nanoTime) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(IDLE_TIMEOUT)
+                .build();
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public long tryAcquire(String key, double ratePerSecond, int burst) {
+        long now = nanoTime.getAsLong();
+        return buckets.get(key, k -> new Bucket(burst, now)).tryAcquire(ratePerSecond, burst, now);
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(int burst, long now) {
+            this.tokens = burst;
+            this.refilledAt = now;
+        }
+
+        // Only arithmetic under the monitor, so it never pins a virtual thread for long
+        synchronized long tryAcquire(double ratePerSecond, int burst, long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(burst, tokens + (now - refilledAt) / 1e9 * ratePerSecond);
+                refilledAt = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / ratePerSecond * 1000);
+        }
+    }
+}
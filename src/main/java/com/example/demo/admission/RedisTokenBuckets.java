@@ -0,0 +1,74 @@
+package com.example.demo.admission;
+
+import com.example.demo.redis.RedisCircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Token buckets shared by all nodes: each bucket is a Redis hash refilled and drawn from by one Lua script, so
+ * concurrent requests on different nodes cannot both take the last token. The script reads the clock with TIME,
+ * so node clocks need not agree. While Redis fails or its circuit is open, requests are admitted by
+ * {@code fallback} instead, which keeps each node within the configured rate on its own.
+ */
+@Slf4j
+public class RedisTokenBuckets implements TokenBuckets {
+
+    static final String KEY_PREFIX = "points:admission:";
+
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT = RedisScript.of("""
+            local rate = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1]) or burst
+            local ts = tonumber(state[2]) or now
+            if now > ts then
+              tokens = math.min(burst, tokens + (now - ts) / 1000 * rate)
+            end
+            local wait = 0
+            if tokens >= 1 then
+              tokens = tokens - 1
+            else
+              wait = math.ceil((1 - tokens) / rate * 1000)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tokens, 'ts', now)
+            redis.call('PEXPIRE', KEYS[1], math.ceil(burst / rate * 1000) + 1000)
+            return wait
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final TokenBuckets fallback;
+    private final Counter failures;
+
+    public RedisTokenBuckets(RedisTemplate<String, String> redisTemplate,
+                             RedisCircuitBreaker circuitBreaker,
+                             TokenBuckets fallback,
+                             MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.fallback = fallback;
+        this.failures = Counter.builder("points.admission.redis.failures")
+                .description("Token bucket checks answered by the local buckets because Redis was unavailable")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public long tryAcquire(String key, double ratePerSecond, int burst) {
+        try {
+            Long wait = circuitBreaker.execute(() -> redisTemplate.execute(TOKEN_BUCKET_SCRIPT,
+                    List.of(KEY_PREFIX + key), Double.toString(ratePerSecond), Integer.toString(burst)));
+            return wait == null ? 0 : wait;
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.debug("Token bucket {} checked locally, Redis unavailable", key, e);
+            return fallback.tryAcquire(key, ratePerSecond, burst);
+        }
+    }
+}
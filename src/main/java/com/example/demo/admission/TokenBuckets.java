@@ -0,0 +1,14 @@
+package com.example.demo.admission;
+
+/**
+ * Token buckets by key, refilled continuously at {@code ratePerSecond} up to {@code burst} tokens.
+ */
+public interface TokenBuckets {
+
+    /**
+     * Takes a token from the bucket of {@code key}.
+     *
+     * @return 0 if a token was taken, otherwise the milliseconds until the next token is available
+     */
+    long tryAcquire(String key, double ratePerSecond, int burst);
+}
@@ -0,0 +1,43 @@
+package com.example.demo.admission;
+
+import com.example.demo.controller.PointsController;
+import com.example.demo.model.dto.AddPointsRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Applies the write budget's user bucket to {@code POST /points}, whose userId is in the body rather than the
+ * path. Bulk bodies are only limited by the endpoint bucket and the concurrency limit.
+ */
+@ControllerAdvice(assignableTypes = PointsController.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "points.admission", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class UserAdmissionAdvice extends RequestBodyAdviceAdapter {
+
+    private final AdmissionControl admissionControl;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType == AddPointsRequest.class;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        String userId = ((AddPointsRequest) body).getUserId();
+        if (userId != null) {
+            admissionControl.admitUser(AdmissionBudget.WRITE, userId);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.cache;
+
+/**
+ * Tells the other nodes to drop their L1 copy of a key (or of a whole cache).
+ */
+public interface CacheInvalidationPublisher {
+
+    void publishEvict(String cacheName, Object key);
+
+    void publishClear(String cacheName);
+}
@@ -0,0 +1,102 @@
+package com.example.demo.cache;
+
+import com.example.demo.redis.RedisCircuitBreaker;
+import org.springframework.cache.Cache;
+import org.springframework.dao.DataAccessException;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A Redis cache behind the {@link RedisCircuitBreaker}. While Redis is unavailable reads are misses, puts are
+ * skipped and evictions are kept in {@link DeferredCacheEvictions} until Redis is back; keys with a deferred
+ * eviction read as misses until it is replayed.
+ */
+public class CircuitBreakingCache implements Cache {
+
+    private final Cache delegate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final DeferredCacheEvictions deferredEvictions;
+
+    public CircuitBreakingCache(Cache delegate,
+                                RedisCircuitBreaker circuitBreaker,
+                                DeferredCacheEvictions deferredEvictions) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.deferredEvictions = deferredEvictions;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        if (deferredEvictions.isPending(getName(), key)) {
+            return null;
+        }
+        return circuitBreaker.execute(() -> delegate.get(key), () -> null);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        if (deferredEvictions.isPending(getName(), key)) {
+            return null;
+        }
+        return circuitBreaker.execute(() -> delegate.get(key, type), () -> null);
+    }
+
+    /**
+     * With Redis healthy, a miss goes through the delegate, which loads once per node at a time; otherwise the
+     * value is loaded directly. Only the first GET is timed by the circuit, not the load.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        if (circuitBreaker.isClosed() && !deferredEvictions.isPending(getName(), key)) {
+            try {
+                return delegate.get(key, valueLoader);
+            } catch (DataAccessException e) {
+                // Redis failed between the GET and the load; fall through and load without it
+            }
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        circuitBreaker.run(() -> delegate.put(key, value), () -> {
+        });
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return circuitBreaker.execute(() -> delegate.putIfAbsent(key, value), () -> null);
+    }
+
+    @Override
+    public void evict(Object key) {
+        circuitBreaker.run(() -> delegate.evict(key), () -> deferredEvictions.evict(this, key));
+    }
+
+    @Override
+    public void clear() {
+        circuitBreaker.run(delegate::clear, () -> deferredEvictions.clear(this));
+    }
+}
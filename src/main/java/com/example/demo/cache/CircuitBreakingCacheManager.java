@@ -0,0 +1,47 @@
+package com.example.demo.cache;
+
+import com.example.demo.redis.RedisCircuitBreaker;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps every cache of the Redis {@link CacheManager} in a {@link CircuitBreakingCache}.
+ */
+public class CircuitBreakingCacheManager implements CacheManager {
+
+    private final CacheManager redisCacheManager;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final DeferredCacheEvictions deferredEvictions;
+    private final ConcurrentMap<String, CircuitBreakingCache> caches = new ConcurrentHashMap<>();
+
+    public CircuitBreakingCacheManager(CacheManager redisCacheManager,
+                                       RedisCircuitBreaker circuitBreaker,
+                                       DeferredCacheEvictions deferredEvictions) {
+        this.redisCacheManager = redisCacheManager;
+        this.circuitBreaker = circuitBreaker;
+        this.deferredEvictions = deferredEvictions;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        CircuitBreakingCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name,
+                key -> new CircuitBreakingCache(redisCache, circuitBreaker, deferredEvictions));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.cache;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Applies evictions and clears of one cache to the same keys under the key prefixes of its other encodings too,
+ * so nodes still reading another encoding during a rollout do not keep serving a value this node invalidated.
+ * Everything else is passed through to the delegate unchanged.
+ */
+public class CrossFormatEvictingCacheWriter implements RedisCacheWriter {
+
+    private final RedisCacheWriter delegate;
+    private final String cacheName;
+    private final byte[] prefix;
+    private final List<byte[]> otherPrefixes;
+
+    public CrossFormatEvictingCacheWriter(RedisCacheWriter delegate,
+                                          String cacheName,
+                                          String prefix,
+                                          List<String> otherPrefixes) {
+        this.delegate = delegate;
+        this.cacheName = cacheName;
+        this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+        this.otherPrefixes = otherPrefixes.stream().map(other -> other.getBytes(StandardCharsets.UTF_8)).toList();
+    }
+
+    private CrossFormatEvictingCacheWriter(RedisCacheWriter delegate,
+                                           String cacheName,
+                                           byte[] prefix,
+                                           List<byte[]> otherPrefixes) {
+        this.delegate = delegate;
+        this.cacheName = cacheName;
+        this.prefix = prefix;
+        this.otherPrefixes = otherPrefixes;
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        delegate.remove(name, key);
+        forOtherPrefixes(name, key, otherKey -> delegate.remove(name, otherKey));
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        delegate.clean(name, pattern);
+        forOtherPrefixes(name, pattern, otherPattern -> delegate.clean(name, otherPattern));
+    }
+
+    private void forOtherPrefixes(String name, byte[] key, Consumer<byte[]> action) {
+        if (!cacheName.equals(name) || !startsWithPrefix(key)) {
+            return;
+        }
+        for (byte[] otherPrefix : otherPrefixes) {
+            byte[] otherKey = Arrays.copyOf(otherPrefix, otherPrefix.length + key.length - prefix.length);
+            System.arraycopy(key, prefix.length, otherKey, otherPrefix.length, key.length - prefix.length);
+            action.accept(otherKey);
+        }
+    }
+
+    private boolean startsWithPrefix(byte[] key) {
+        return key.length >= prefix.length && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        return delegate.get(name, key, ttl);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueLoader, Duration ttl, boolean timeToIdleEnabled) {
+        return delegate.get(name, key, valueLoader, ttl, timeToIdleEnabled);
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegate.retrieve(name, key, ttl);
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, ttl);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.store(name, key, value, ttl);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.putIfAbsent(name, key, value, ttl);
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        delegate.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        return new CrossFormatEvictingCacheWriter(delegate.withStatisticsCollector(cacheStatisticsCollector),
+                cacheName, prefix, otherPrefixes);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.PointsProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Evictions of Redis cache entries that {@link CircuitBreakingCache} could not apply while Redis was unavailable.
+ * Until they are replayed the keys count as misses, so a value evicted on this node is not read back from Redis
+ * after it recovers. Past {@code points.redis.max-deferred-evictions} keys a cache is cleared as a whole instead.
+ */
+@Component
+public class DeferredCacheEvictions {
+
+    private final int maxKeys;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Cache> caches = new HashMap<>();
+    private final Map<String, Set<Object>> keys = new HashMap<>();
+    private final Set<String> clears = new LinkedHashSet<>();
+    private int size;
+    // size + clears.size(), written under the lock so isPending can skip it while nothing is deferred
+    private volatile int pending;
+
+    public DeferredCacheEvictions(PointsProperties properties, MeterRegistry meterRegistry) {
+        this.maxKeys = properties.getRedis().getMaxDeferredEvictions();
+        Gauge.builder("points.cache.deferred_evictions", this, DeferredCacheEvictions::size)
+                .description("Redis cache evictions waiting for Redis to recover")
+                .register(meterRegistry);
+    }
+
+    public void evict(Cache cache, Object key) {
+        lock.lock();
+        try {
+            caches.put(cache.getName(), cache);
+            if (clears.contains(cache.getName())) {
+                return;
+            }
+            if (size >= maxKeys) {
+                clear(cache);
+                return;
+            }
+            if (keys.computeIfAbsent(cache.getName(), name -> new LinkedHashSet<>()).add(key)) {
+                size++;
+                pending = size + clears.size();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear(Cache cache) {
+        lock.lock();
+        try {
+            caches.put(cache.getName(), cache);
+            clears.add(cache.getName());
+            Set<Object> dropped = keys.remove(cache.getName());
+            if (dropped != null) {
+                size -= dropped.size();
+            }
+            pending = size + clears.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isPending(String cacheName, Object key) {
+        if (pending == 0) {
+            return false;
+        }
+        lock.lock();
+        try {
+            if (clears.contains(cacheName)) {
+                return true;
+            }
+            Set<Object> cacheKeys = keys.get(cacheName);
+            return cacheKeys != null && cacheKeys.contains(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return pending;
+    }
+
+    /**
+     * Applies the deferred evictions through their caches; those that fail again are deferred anew.
+     */
+    public void replay() {
+        Map<String, List<Object>> evictions = new HashMap<>();
+        List<String> clearing;
+        lock.lock();
+        try {
+            keys.forEach((cacheName, cacheKeys) -> evictions.put(cacheName, List.copyOf(cacheKeys)));
+            clearing = List.copyOf(clears);
+        } finally {
+            lock.unlock();
+        }
+        for (String cacheName : clearing) {
+            Cache cache = cache(cacheName);
+            // Taken off first, so a failing eviction that defers itself again stays pending
+            done(cacheName, null);
+            cache.clear();
+        }
+        evictions.forEach((cacheName, cacheKeys) -> {
+            Cache cache = cache(cacheName);
+            for (Object key : cacheKeys) {
+                done(cacheName, key);
+                cache.evict(key);
+            }
+        });
+    }
+
+    private Cache cache(String cacheName) {
+        lock.lock();
+        try {
+            return caches.get(cacheName);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void done(String cacheName, Object key) {
+        lock.lock();
+        try {
+            if (key == null) {
+                clears.remove(cacheName);
+            } else {
+                Set<Object> cacheKeys = keys.get(cacheName);
+                if (cacheKeys != null && cacheKeys.remove(key)) {
+                    size--;
+                    if (cacheKeys.isEmpty()) {
+                        keys.remove(cacheName);
+                    }
+                }
+            }
+            pending = size + clears.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.UserPoints;
+import com.example.demo.service.UserPointsReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * The user_points Redis cache for the reactive stack. Entries are shared with the blocking cache: same key
+ * prefix, encoding and TTLs (from {@link CacheConfig#userPointsCacheConfiguration}), and unknown users are
+ * cached as the same null marker. There is no L1 on this path.
+ * <p>
+ * Like {@code @Cacheable(sync = true)}, a miss is loaded once per node while concurrent readers of the same user
+ * wait for it. An eviction deletes the key, also under the other formats' prefixes during a rollout, and tells
+ * the nodes that keep an L1 to drop their copy.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserPointsCache {
+
+    private static final String CACHE_NAME = UserPointsReader.USER_POINTS_CACHE_KEY;
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    private final ReactiveRedisTemplate<String, byte[]> redisTemplate;
+    private final RedisCacheConfiguration configuration;
+    private final String prefix;
+    private final List<String> otherPrefixes;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, CompletableFuture<Optional<UserPoints>>> loads = new ConcurrentHashMap<>();
+
+    public ReactiveUserPointsCache(ReactiveRedisConnectionFactory connectionFactory, PointsProperties properties) {
+        this.redisTemplate = new ReactiveRedisTemplate<>(connectionFactory,
+                RedisSerializationContext.<String, byte[]>newSerializationContext(RedisSerializer.string())
+                        .value(RedisSerializer.byteArray())
+                        .build());
+        PointsProperties.Cache settings = properties.getCache();
+        this.configuration = CacheConfig.userPointsCacheConfiguration(getClass().getClassLoader(), settings);
+        this.prefix = configuration.getKeyPrefixFor(CACHE_NAME);
+        this.otherPrefixes = settings.getRollout().isEnabled()
+                ? Arrays.stream(PointsProperties.CacheFormat.values())
+                        .filter(format -> format != settings.getFormat())
+                        .map(format -> CacheConfig.keyPrefix(CACHE_NAME, format))
+                        .toList()
+                : List.of();
+    }
+
+    /**
+     * Cached value of the user, or {@code loader}'s result on a miss, which is then cached; empty for an unknown
+     * user.
+     */
+    public Mono<UserPoints> get(String userId, Function<String, Mono<UserPoints>> loader) {
+        CompletableFuture<Optional<UserPoints>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<UserPoints>> running = loads.putIfAbsent(userId, load);
+        if (running == null) {
+            running = load;
+            readThrough(userId, loader).subscribe(load::complete, load::completeExceptionally);
+            load.whenComplete((value, error) -> loads.remove(userId, load));
+        }
+        return Mono.fromFuture(running, true).flatMap(value -> Mono.justOrEmpty(value));
+    }
+
+    private Mono<Optional<UserPoints>> readThrough(String userId, Function<String, Mono<UserPoints>> loader) {
+        String key = prefix + userId;
+        return redisTemplate.opsForValue().get(key)
+                .map(this::decode)
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.info("Fetching points for user {} from database", userId);
+                    return loader.apply(userId)
+                            .map(Optional::of)
+                            .defaultIfEmpty(Optional.empty())
+                            .flatMap(loaded -> put(key, userId, loaded.orElse(null)).thenReturn(loaded));
+                }));
+    }
+
+    private Mono<Boolean> put(String key, String userId, UserPoints value) {
+        Duration ttl = configuration.getTtlFunction().getTimeToLive(userId, value);
+        byte[] encoded = value == null ? BINARY_NULL_VALUE : encode(value);
+        return (ttl == null || ttl.isZero() || ttl.isNegative()
+                ? redisTemplate.opsForValue().set(key, encoded)
+                : redisTemplate.opsForValue().set(key, encoded, ttl))
+                .onErrorResume(e -> {
+                    log.warn("Failed to cache points of user {}", userId, e);
+                    return Mono.just(false);
+                });
+    }
+
+    public Mono<Void> evict(String userId) {
+        return evictAll(List.of(userId));
+    }
+
+    public Mono<Void> evictAll(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Mono.empty();
+        }
+        List<String> keys = new ArrayList<>(userIds.size() * (1 + otherPrefixes.size()));
+        for (String userId : userIds) {
+            keys.add(prefix + userId);
+            otherPrefixes.forEach(otherPrefix -> keys.add(otherPrefix + userId));
+        }
+        Mono<Void> invalidations = Mono.when(userIds.stream()
+                .map(userId -> TwoLevelCacheManager.invalidationMessage(nodeId, CACHE_NAME, userId))
+                .map(message -> redisTemplate.convertAndSend(TwoLevelCacheManager.INVALIDATION_CHANNEL,
+                        message.getBytes(StandardCharsets.UTF_8)))
+                .toList())
+                .onErrorResume(e -> {
+                    // Other nodes fall back to their L1 TTL
+                    log.warn("Failed to publish invalidation of {} in cache {}", userIds, CACHE_NAME, e);
+                    return Mono.empty();
+                });
+        return redisTemplate.delete(keys.toArray(String[]::new)).then(invalidations);
+    }
+
+    private Optional<UserPoints> decode(byte[] bytes) {
+        if (Arrays.equals(bytes, BINARY_NULL_VALUE)) {
+            return Optional.empty();
+        }
+        Object value = configuration.getValueSerializationPair().read(ByteBuffer.wrap(bytes));
+        return Optional.ofNullable((UserPoints) value);
+    }
+
+    private byte[] encode(UserPoints value) {
+        ByteBuffer buffer = configuration.getValueSerializationPair().write(value);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
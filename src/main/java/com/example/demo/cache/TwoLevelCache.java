@@ -0,0 +1,204 @@
+package com.example.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A bounded in-process L1 (Caffeine) in front of a shared L2 (the Redis cache).
+ * <p>
+ * Reads try L1 first and populate it from L2 on a miss. Evictions and clears are applied to both levels and
+ * broadcast so every other node drops its L1 copy; puts are not broadcast, since a put only ever follows a
+ * load of the current value. Null values are kept as {@link NullValue} so lookups of unknown keys are cached too,
+ * with the shorter TTL chosen by {@link TwoLevelCacheManager}.
+ */
+public class TwoLevelCache implements org.springframework.cache.Cache {
+
+    private final String name;
+    private final Cache<Object, Object> l1;
+    private final org.springframework.cache.Cache l2;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final TwoLevelCacheMetrics metrics;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+
+    public TwoLevelCache(String name,
+                         Cache<Object, Object> l1,
+                         org.springframework.cache.Cache l2,
+                         CacheInvalidationPublisher invalidationPublisher,
+                         TwoLevelCacheMetrics metrics) {
+        this.name = name;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.invalidationPublisher = invalidationPublisher;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object local = l1.getIfPresent(key);
+        if (local != null) {
+            metrics.l1Hit();
+            return new SimpleValueWrapper(fromStoreValue(local));
+        }
+        metrics.l1Miss();
+        ValueWrapper shared = l2.get(key);
+        if (shared == null) {
+            metrics.l2Miss();
+            return null;
+        }
+        metrics.l2Hit();
+        l1.put(key, toStoreValue(shared.get()));
+        return shared;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Loads a missing key at most once per node at a time: concurrent callers for the same key wait for the
+     * first caller's load instead of each hitting the database. A failed load is propagated to every waiter
+     * and nothing is cached.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            metrics.loadCoalesced();
+            return (T) await(key, valueLoader, inFlight);
+        }
+        try {
+            // The previous load may have finished between our miss and taking the slot
+            Object local = l1.getIfPresent(key);
+            if (local != null) {
+                T value = (T) fromStoreValue(local);
+                load.complete(value);
+                return value;
+            }
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                load.completeExceptionally(e);
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            metrics.loaded();
+            put(key, value);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    /**
+     * L1 lookup only, for callers that read L2 themselves (see {@link UserPointsBulkCache}); counts the L1 hit or
+     * miss.
+     */
+    public ValueWrapper getLocal(Object key) {
+        Object local = l1.getIfPresent(key);
+        if (local == null) {
+            metrics.l1Miss();
+            return null;
+        }
+        metrics.l1Hit();
+        return new SimpleValueWrapper(fromStoreValue(local));
+    }
+
+    /**
+     * Keeps in L1 a value such a caller read from L2, or loaded and wrote to L2 itself ({@code loaded}), and
+     * counts it as {@link #get(Object, Callable)} would.
+     */
+    public void putLocal(Object key, Object value, boolean loaded) {
+        if (loaded) {
+            metrics.l2Miss();
+            metrics.loaded();
+        } else {
+            metrics.l2Hit();
+        }
+        l1.put(key, toStoreValue(value));
+    }
+
+    private static Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ValueRetrievalException retrievalException) {
+                throw retrievalException;
+            }
+            throw new ValueRetrievalException(key, valueLoader, cause);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        l2.put(key, value);
+        l1.put(key, toStoreValue(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        invalidateLocal(key);
+        invalidationPublisher.publishEvict(name, key);
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        l1.invalidateAll();
+        invalidationPublisher.publishClear(name);
+    }
+
+    /**
+     * Drops the L1 entry only; used when another node has evicted the key.
+     */
+    public void invalidateLocal(Object key) {
+        l1.invalidate(key);
+    }
+
+    public void clearLocal() {
+        l1.invalidateAll();
+    }
+
+    private static Object toStoreValue(Object value) {
+        return value == null ? NullValue.INSTANCE : value;
+    }
+
+    private static Object fromStoreValue(Object value) {
+        return value == NullValue.INSTANCE ? null : value;
+    }
+}
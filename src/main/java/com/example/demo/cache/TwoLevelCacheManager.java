@@ -0,0 +1,150 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.redis.RedisCircuitBreaker;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps every cache of the Redis {@link CacheManager} in a {@link TwoLevelCache} and keeps the L1 copies of all
+ * nodes coherent over Redis pub/sub.
+ * <p>
+ * Invalidations are published as {@code nodeId|cacheName|key} on {@link #INVALIDATION_CHANNEL}; an empty key
+ * clears the whole cache. Keys are sent in their string form, which matches the String userIds used as keys. A node
+ * ignores its own messages, having already applied the change locally. A node that misses a message (e.g. during a
+ * reconnect, or while the Redis circuit is open) serves a stale entry for at most the L1 TTL.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, CacheInvalidationPublisher, MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "points:cache-invalidation";
+    private static final String SEPARATOR = "|";
+
+    private final CacheManager redisCacheManager;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final long l1MaxSize;
+    private final Duration l1Ttl;
+    private final Duration negativeTtl;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TwoLevelCacheMetrics> metrics = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager redisCacheManager,
+                                RedisTemplate<String, String> redisTemplate,
+                                MeterRegistry meterRegistry,
+                                PointsProperties.Cache settings,
+                                RedisCircuitBreaker circuitBreaker) {
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = circuitBreaker;
+        this.l1MaxSize = settings.getL1().getMaxSize();
+        this.l1Ttl = settings.getL1().getTtl();
+        // A cached miss never outlives a regular entry
+        this.negativeTtl = settings.getNegativeTtl().compareTo(l1Ttl) < 0 ? settings.getNegativeTtl() : l1Ttl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache shared = redisCacheManager.getCache(name);
+        if (shared == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> createCache(key, shared));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    private TwoLevelCache createCache(String name, Cache shared) {
+        TwoLevelCacheMetrics cacheMetrics = metrics.computeIfAbsent(name,
+                key -> new TwoLevelCacheMetrics(key, meterRegistry));
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> local = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfter(Expiry.writing((key, value) -> value == NullValue.INSTANCE ? negativeTtl : l1Ttl))
+                // Run the listener on the calling thread; it only increments a counter
+                .executor(Runnable::run)
+                .removalListener((key, value, cause) -> cacheMetrics.l1Removed(cause))
+                .build();
+        return new TwoLevelCache(name, local, shared, this, cacheMetrics);
+    }
+
+    @Override
+    public void publishEvict(String cacheName, Object key) {
+        publish(cacheName, String.valueOf(key));
+    }
+
+    @Override
+    public void publishClear(String cacheName) {
+        publish(cacheName, "");
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            circuitBreaker.execute(() ->
+                    redisTemplate.convertAndSend(INVALIDATION_CHANNEL, invalidationMessage(nodeId, cacheName, key)));
+        } catch (RuntimeException e) {
+            // Other nodes fall back to the L1 TTL; the local eviction has already been applied
+            log.warn("Failed to publish invalidation of {} in cache {}", key, cacheName, e);
+        }
+    }
+
+    /**
+     * Body of an invalidation sent by {@code nodeId}; an empty {@code key} clears the whole cache.
+     */
+    public static String invalidationMessage(String nodeId, String cacheName, String key) {
+        return nodeId + SEPARATOR + cacheName + SEPARATOR + key;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 3);
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed cache invalidation message: {}", body);
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            // Nothing was ever cached locally under this name
+            return;
+        }
+        if (parts[2].isEmpty()) {
+            cache.clearLocal();
+        } else {
+            cache.invalidateLocal(parts[2]);
+        }
+        metrics.get(parts[1]).remoteInvalidation();
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+}
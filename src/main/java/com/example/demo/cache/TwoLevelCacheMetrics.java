@@ -0,0 +1,94 @@
+package com.example.demo.cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Hit/miss counters per cache level ({@code points.cache.requests}), loader runs versus coalesced misses
+ * ({@code points.cache.loads}) and L1 removals by cause ({@code points.cache.l1.evictions}).
+ */
+public class TwoLevelCacheMetrics {
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter remoteInvalidations;
+    private final Counter loads;
+    private final Counter coalescedLoads;
+    private final Map<RemovalCause, Counter> l1Evictions = new EnumMap<>(RemovalCause.class);
+
+    public TwoLevelCacheMetrics(String cacheName, MeterRegistry meterRegistry) {
+        this.l1Hits = request(cacheName, "l1", "hit", meterRegistry);
+        this.l1Misses = request(cacheName, "l1", "miss", meterRegistry);
+        this.l2Hits = request(cacheName, "l2", "hit", meterRegistry);
+        this.l2Misses = request(cacheName, "l2", "miss", meterRegistry);
+        this.remoteInvalidations = Counter.builder("points.cache.remote.invalidations")
+                .description("L1 entries dropped because another node evicted them")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+        this.loads = load(cacheName, "loaded", meterRegistry);
+        this.coalescedLoads = load(cacheName, "coalesced", meterRegistry);
+        for (RemovalCause cause : RemovalCause.values()) {
+            l1Evictions.put(cause, Counter.builder("points.cache.l1.evictions")
+                    .description("Entries removed from the in-process L1 cache")
+                    .tag("cache", cacheName)
+                    .tag("cause", cause.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    private static Counter request(String cacheName, String level, String result, MeterRegistry meterRegistry) {
+        return Counter.builder("points.cache.requests")
+                .description("Cache lookups by level and outcome")
+                .tag("cache", cacheName)
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter load(String cacheName, String result, MeterRegistry meterRegistry) {
+        return Counter.builder("points.cache.loads")
+                .description("Cache misses that ran the loader, or waited on a load already in flight")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    void l1Hit() {
+        l1Hits.increment();
+    }
+
+    void l1Miss() {
+        l1Misses.increment();
+    }
+
+    void l2Hit() {
+        l2Hits.increment();
+    }
+
+    void l2Miss() {
+        l2Misses.increment();
+    }
+
+    void remoteInvalidation() {
+        remoteInvalidations.increment();
+    }
+
+    void loaded() {
+        loads.increment();
+    }
+
+    void loadCoalesced() {
+        coalescedLoads.increment();
+    }
+
+    void l1Removed(RemovalCause cause) {
+        l1Evictions.get(cause).increment();
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.UserPoints;
+import com.example.demo.redis.RedisCircuitBreaker;
+import com.example.demo.service.UserPointsReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Multi-key reads of the user_points cache for {@link UserPointsReader#loadAll}. Entries are the ones the
+ * {@code @Cacheable} path reads and writes: same key prefix, encoding and TTLs (from
+ * {@link CacheConfig#userPointsCacheConfiguration}), unknown users cached as the same null marker, and the L1 of a
+ * {@link TwoLevelCache} consulted first and filled from what is read or loaded.
+ * <p>
+ * Users missing from L1 are read with one MGET, the users missing from Redis too are loaded with one call of the
+ * loader and written back in one pipeline. Unlike the single-user read, concurrent loads of the same user are not
+ * coalesced. Without L1 the reads are not counted in {@code cache.gets}.
+ * <p>
+ * Both round trips go through the {@link RedisCircuitBreaker}: while Redis is unavailable every user not in L1 is
+ * a miss and nothing is written back. Users with a deferred eviction are misses too.
+ */
+@Slf4j
+@Component
+public class UserPointsBulkCache {
+
+    private static final String CACHE_NAME = UserPointsReader.USER_POINTS_CACHE_KEY;
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheManager cacheManager;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final DeferredCacheEvictions deferredEvictions;
+    private final RedisCacheConfiguration configuration;
+    private final String prefix;
+
+    public UserPointsBulkCache(RedisConnectionFactory connectionFactory,
+                               CacheManager cacheManager,
+                               RedisCircuitBreaker circuitBreaker,
+                               DeferredCacheEvictions deferredEvictions,
+                               PointsProperties properties) {
+        this.connectionFactory = connectionFactory;
+        this.cacheManager = cacheManager;
+        this.circuitBreaker = circuitBreaker;
+        this.deferredEvictions = deferredEvictions;
+        this.configuration = CacheConfig.userPointsCacheConfiguration(getClass().getClassLoader(), properties);
+        this.prefix = configuration.getKeyPrefixFor(CACHE_NAME);
+    }
+
+    /**
+     * Cached values of the users, with {@code loader}'s results for the misses, which are then cached; unknown
+     * users are absent from the result.
+     *
+     * @param loader loads the given users from the database; users it leaves out are unknown
+     */
+    public Map<String, UserPoints> getAll(Collection<String> userIds,
+                                          Function<Collection<String>, Map<String, UserPoints>> loader) {
+        Map<String, UserPoints> result = new HashMap<>();
+        TwoLevelCache twoLevel = cacheManager.getCache(CACHE_NAME) instanceof TwoLevelCache cache ? cache : null;
+        List<String> remaining = new ArrayList<>(userIds.size());
+        for (String userId : new LinkedHashSet<>(userIds)) {
+            Cache.ValueWrapper local = twoLevel == null ? null : twoLevel.getLocal(userId);
+            if (local == null) {
+                remaining.add(userId);
+            } else if (local.get() != null) {
+                result.put(userId, (UserPoints) local.get());
+            }
+        }
+        if (remaining.isEmpty()) {
+            return result;
+        }
+
+        List<String> misses = new ArrayList<>();
+        List<byte[]> cached = circuitBreaker.execute(() -> multiGet(remaining), () -> null);
+        for (int i = 0; i < remaining.size(); i++) {
+            String userId = remaining.get(i);
+            byte[] bytes = cached == null || deferredEvictions.isPending(CACHE_NAME, userId) ? null : cached.get(i);
+            if (bytes == null) {
+                misses.add(userId);
+                continue;
+            }
+            UserPoints value = decode(bytes);
+            if (twoLevel != null) {
+                twoLevel.putLocal(userId, value, false);
+            }
+            if (value != null) {
+                result.put(userId, value);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        log.info("Fetching points for {} users from database", misses.size());
+        Map<String, UserPoints> loaded = loader.apply(misses);
+        circuitBreaker.run(() -> putAll(misses, loaded), () -> {
+        });
+        for (String userId : misses) {
+            UserPoints value = loaded.get(userId);
+            if (twoLevel != null) {
+                twoLevel.putLocal(userId, value, true);
+            }
+            if (value != null) {
+                result.put(userId, value);
+            }
+        }
+        return result;
+    }
+
+    private List<byte[]> multiGet(List<String> userIds) {
+        byte[][] keys = userIds.stream().map(this::key).toArray(byte[][]::new);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            return connection.stringCommands().mGet(keys);
+        }
+    }
+
+    private void putAll(List<String> userIds, Map<String, UserPoints> values) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            try {
+                for (String userId : userIds) {
+                    UserPoints value = values.get(userId);
+                    Duration ttl = configuration.getTtlFunction().getTimeToLive(userId, value);
+                    Expiration expiration = ttl == null || ttl.isZero() || ttl.isNegative()
+                            ? Expiration.persistent()
+                            : Expiration.from(ttl);
+                    connection.stringCommands().set(key(userId), value == null ? BINARY_NULL_VALUE : encode(value),
+                            expiration, RedisStringCommands.SetOption.upsert());
+                }
+            } finally {
+                connection.closePipeline();
+            }
+        }
+    }
+
+    private byte[] key(String userId) {
+        return (prefix + userId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private UserPoints decode(byte[] bytes) {
+        if (Arrays.equals(bytes, BINARY_NULL_VALUE)) {
+            return null;
+        }
+        return (UserPoints) configuration.getValueSerializationPair().read(ByteBuffer.wrap(bytes));
+    }
+
+    private byte[] encode(UserPoints value) {
+        ByteBuffer buffer = configuration.getValueSerializationPair().write(value);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.config;
+
+import com.example.demo.admission.AdmissionControl;
+import com.example.demo.admission.AdmissionInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts admission control in front of /points/** when {@code points.admission.enabled} is true. The admin and
+ * actuator endpoints are left out, so an operator can still reach a node that is shedding load.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "points.admission", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private final AdmissionControl admissionControl;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(admissionControl)).addPathPatterns("/points/**");
+    }
+}
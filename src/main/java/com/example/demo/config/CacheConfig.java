@@ -0,0 +1,176 @@
+package com.example.demo.config;
+
+import com.example.demo.cache.CircuitBreakingCacheManager;
+import com.example.demo.cache.CrossFormatEvictingCacheWriter;
+import com.example.demo.cache.DeferredCacheEvictions;
+import com.example.demo.cache.TwoLevelCacheManager;
+import com.example.demo.cache.UserPointsCodec;
+import com.example.demo.redis.RedisCircuitBreaker;
+import com.example.demo.service.UserPointsReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Replaces Boot's auto-configured Redis cache manager with one that adds an in-process L1 in front of it,
+ * unless {@code points.cache.l1.enabled} is false.
+ * <p>
+ * Hit/miss counts: with L1 they are {@code points.cache.requests} per level; without it the user_points cache is
+ * created up front with statistics on and bound as {@code cache.gets}.
+ * <p>
+ * The Redis caches are wrapped in {@link CircuitBreakingCacheManager}, so while the {@link RedisCircuitBreaker} is
+ * open cache reads miss and fall back to MySQL.
+ * <p>
+ * user_points entries are encoded as {@code points.cache.format} under a key prefix per format, so a rolling
+ * upgrade that changes the format needs no flush: each node only reads entries it can decode, and with
+ * {@code points.cache.rollout.enabled} evictions cover the other formats' keys too.
+ * <p>
+ * With read replicas, a user_points miss may load a row the replica has not caught up on yet, after the writer
+ * already evicted the key; while {@code points.replicas.enabled} such entries expire in Redis after at most
+ * {@code points.replicas.max-lag}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class CacheConfig {
+
+    // Keys per SCAN and DEL round when a cache is cleared, instead of one blocking KEYS over the whole keyspace
+    private static final int CLEAR_SCAN_BATCH_SIZE = 1000;
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     RedisTemplate<String, String> redisTemplate,
+                                     MeterRegistry meterRegistry,
+                                     PointsProperties properties,
+                                     RedisCircuitBreaker circuitBreaker,
+                                     DeferredCacheEvictions deferredEvictions) {
+        PointsProperties.Cache settings = properties.getCache();
+        String userPoints = UserPointsReader.USER_POINTS_CACHE_KEY;
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory,
+                BatchStrategies.scan(CLEAR_SCAN_BATCH_SIZE));
+        if (settings.getRollout().isEnabled()) {
+            List<String> otherPrefixes = Arrays.stream(PointsProperties.CacheFormat.values())
+                    .filter(format -> format != settings.getFormat())
+                    .map(format -> keyPrefix(userPoints, format))
+                    .toList();
+            cacheWriter = new CrossFormatEvictingCacheWriter(cacheWriter, userPoints,
+                    keyPrefix(userPoints, settings.getFormat()), otherPrefixes);
+        }
+        ClassLoader classLoader = getClass().getClassLoader();
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(cacheWriter)
+                .cacheDefaults(redisCacheConfiguration(classLoader, settings))
+                .withCacheConfiguration(userPoints, userPointsCacheConfiguration(classLoader, properties))
+                .enableStatistics()
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        CacheManager sharedCacheManager =
+                new CircuitBreakingCacheManager(redisCacheManager, circuitBreaker, deferredEvictions);
+        if (!settings.getL1().isEnabled()) {
+            // Boot only binds the statistics of unwrapped RedisCaches
+            for (String name : redisCacheManager.getCacheNames()) {
+                RedisCache cache = (RedisCache) redisCacheManager.getCache(name);
+                new RedisCacheMetrics(cache, Tags.of("cache.manager", "cacheManager")).bindTo(meterRegistry);
+            }
+            return sharedCacheManager;
+        }
+        return new TwoLevelCacheManager(sharedCacheManager, redisTemplate, meterRegistry, settings, circuitBreaker);
+    }
+
+    static RedisCacheConfiguration redisCacheConfiguration(ClassLoader classLoader, PointsProperties.Cache settings) {
+        return redisCacheConfiguration(classLoader, settings.getRedisTtl(), settings.getNegativeTtl());
+    }
+
+    private static RedisCacheConfiguration redisCacheConfiguration(ClassLoader classLoader,
+                                                                   Duration redisTtl,
+                                                                   Duration negativeTtl) {
+        // Cached nulls expire quickly so a user created on another path is not hidden for long
+        return RedisCacheConfiguration.defaultCacheConfig(classLoader)
+                .entryTtl((key, value) -> value == null ? negativeTtl : redisTtl);
+    }
+
+    /**
+     * The user_points cache configuration of the servlet stack, where misses may be loaded from a read replica.
+     */
+    public static RedisCacheConfiguration userPointsCacheConfiguration(ClassLoader classLoader,
+                                                                       PointsProperties properties) {
+        PointsProperties.Replicas replicas = properties.getReplicas();
+        return userPointsCacheConfiguration(classLoader, properties.getCache(),
+                replicas.isEnabled() ? replicas.getMaxLag() : null);
+    }
+
+    public static RedisCacheConfiguration userPointsCacheConfiguration(ClassLoader classLoader,
+                                                                       PointsProperties.Cache settings) {
+        return userPointsCacheConfiguration(classLoader, settings, null);
+    }
+
+    private static RedisCacheConfiguration userPointsCacheConfiguration(ClassLoader classLoader,
+                                                                        PointsProperties.Cache settings,
+                                                                        Duration replicaMaxLag) {
+        Duration redisTtl = settings.getRedisTtl();
+        Duration negativeTtl = settings.getNegativeTtl();
+        if (settings.getRollout().isEnabled()) {
+            // Nodes on another format do not evict our keys, so our entries must not outlive the rollout bound
+            Duration maxTtl = settings.getRollout().getMaxTtl();
+            redisTtl = redisTtl.isZero() || redisTtl.compareTo(maxTtl) > 0 ? maxTtl : redisTtl;
+            negativeTtl = negativeTtl.compareTo(maxTtl) > 0 ? maxTtl : negativeTtl;
+        }
+        if (replicaMaxLag != null) {
+            // A row loaded from a lagging replica is cached after the writer's evict; keep it no longer than the lag
+            redisTtl = atMost(redisTtl, replicaMaxLag);
+            negativeTtl = atMost(negativeTtl, replicaMaxLag);
+        }
+        RedisCacheConfiguration configuration = redisCacheConfiguration(classLoader, redisTtl, negativeTtl)
+                .computePrefixWith(cacheName -> keyPrefix(cacheName, settings.getFormat()));
+        if (settings.getFormat() == PointsProperties.CacheFormat.COMPACT) {
+            configuration = configuration.serializeValuesWith(
+                    RedisSerializationContext.SerializationPair.fromSerializer(new UserPointsCodec()));
+        }
+        return configuration;
+    }
+
+    /**
+     * {@code ttl} capped at {@code max}, where a zero {@code ttl} (no expiry) counts as longer than any cap.
+     */
+    private static Duration atMost(Duration ttl, Duration max) {
+        return ttl.isZero() || ttl.compareTo(max) > 0 ? max : ttl;
+    }
+
+    /**
+     * {@code user_points::} for JDK serialization, as used before formats were versioned, and
+     * {@code user_points:v2::} for the compact codec.
+     */
+    public static String keyPrefix(String cacheName, PointsProperties.CacheFormat format) {
+        return switch (format) {
+            case JDK -> CacheKeyPrefix.simple().compute(cacheName);
+            case COMPACT -> cacheName + ":v" + UserPointsCodec.VERSION + CacheKeyPrefix.SEPARATOR;
+        };
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                             ObjectProvider<CacheManager> cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheManager.getIfAvailable() instanceof TwoLevelCacheManager twoLevel) {
+            container.addMessageListener(twoLevel, new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        }
+        return container;
+    }
+}
@@ -0,0 +1,512 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "points")
+public class PointsProperties {
+
+    private final Accrual accrual = new Accrual();
+    private final Batch batch = new Batch();
+    private final Outbox outbox = new Outbox();
+    private final WriteBehind writeBehind = new WriteBehind();
+    private final Projection projection = new Projection();
+    private final Events events = new Events();
+    private final Ids ids = new Ids();
+    private final Cache cache = new Cache();
+    private final Leaderboard leaderboard = new Leaderboard();
+    private final Rebuild rebuild = new Rebuild();
+    private final Purge purge = new Purge();
+    private final History history = new History();
+    private final Lookup lookup = new Lookup();
+    private final Admission admission = new Admission();
+    private final Redis redis = new Redis();
+    private final Replicas replicas = new Replicas();
+
+    @Data
+    public static class Accrual {
+        /**
+         * How addPoints applies a credit to user_points and the leaderboard.
+         */
+        private AccrualMode mode = AccrualMode.ATOMIC;
+    }
+
+    @Data
+    public static class Batch {
+        /**
+         * Maximum number of items accepted by a single POST /points/batch call.
+         */
+        private int maxSize = 1000;
+        /**
+         * Number of events packed into one RocketMQ batch send (the broker caps a batch at 4MB).
+         */
+        private int messageBatchSize = 200;
+        /**
+         * Items the reactive stack decodes, validates and writes at a time while reading a POST /points/batch
+         * body, so a large body is not held in memory as a whole before processing starts.
+         */
+        private int ingestChunkSize = 100;
+    }
+
+    @Data
+    public static class Outbox {
+        /**
+         * Write events to the points_outbox table in the request transaction and relay them in the background.
+         * When false, events are sent to RocketMQ synchronously from the request thread.
+         */
+        private boolean enabled = true;
+        /**
+         * Maximum number of rows a relay worker locks and sends per batch.
+         */
+        private int batchSize = 200;
+        /**
+         * Delay between relay polls once the backlog has been drained.
+         */
+        private Duration flushInterval = Duration.ofMillis(200);
+        /**
+         * Number of concurrent relay workers per node.
+         */
+        private int parallelism = 2;
+        /**
+         * How long sent rows are kept before they are purged.
+         */
+        private Duration retention = Duration.ofDays(1);
+    }
+
+    @Data
+    public static class WriteBehind {
+        /**
+         * Interval between flushes of pending deltas when accrual mode is write-behind.
+         */
+        private Duration flushInterval = Duration.ofMillis(500);
+        /**
+         * Number of users with pending deltas that triggers an immediate flush.
+         */
+        private int maxPendingUsers = 10_000;
+    }
+
+    @Data
+    public static class Projection {
+        /**
+         * Consumer group of the user-points-topic consumer that applies credits to user_points and the leaderboard
+         * when accrual mode is projection.
+         */
+        private String consumerGroup = "user-points-projection-group";
+        /**
+         * Maximum number of messages of one queue applied together, in one transaction and one Redis pipeline.
+         */
+        private int batchSize = 100;
+        /**
+         * Consumer threads per node; each queue is consumed by one thread at a time.
+         */
+        private int consumeThreads = 4;
+        /**
+         * Number of ordering keys events are spread over. All events of a user share a key and therefore a queue,
+         * so they are consumed in order; more keys than queues keeps every queue in use.
+         */
+        private int orderingKeys = 64;
+        /**
+         * How long the ids of applied records are kept to recognize redelivered messages.
+         */
+        private Duration dedupRetention = Duration.ofDays(3);
+    }
+
+    @Data
+    public static class Events {
+        /**
+         * Body of user-points-topic messages. Switch to binary only once every consumer of the topic reads it.
+         */
+        private EventFormat format = EventFormat.JSON;
+        /**
+         * Binary envelopes with a body at least this long are deflated; negative disables compression.
+         */
+        private int compressionMinBytes = 512;
+    }
+
+    @Data
+    public static class Ids {
+        /**
+         * How point_records ids are generated. Switch every writer at once; see PointRecordIdAllocator.
+         */
+        private IdStrategy strategy = IdStrategy.IDENTITY;
+        /**
+         * Ids a node reserves from points_id_sequence per round trip in the pooled strategy.
+         */
+        private int allocationSize = 1000;
+    }
+
+    @Data
+    public static class Cache {
+        /**
+         * Time to live of entries in the shared Redis cache. Zero keeps them until evicted. While read replicas
+         * are enabled, user_points entries expire after at most {@code points.replicas.max-lag}.
+         */
+        private Duration redisTtl = Duration.ZERO;
+        /**
+         * Time to live of cached misses (unknown userIds), in Redis and in L1.
+         */
+        private Duration negativeTtl = Duration.ofSeconds(30);
+        /**
+         * Encoding of user_points entries in Redis. Each format is kept under its own key prefix, so nodes using
+         * different formats never read each other's entries.
+         */
+        private CacheFormat format = CacheFormat.COMPACT;
+        private final L1 l1 = new L1();
+        private final Rollout rollout = new Rollout();
+
+        @Data
+        public static class L1 {
+            /**
+             * Put a bounded in-process cache in front of the Redis cache.
+             */
+            private boolean enabled = true;
+            /**
+             * Maximum number of entries kept per cache on each node.
+             */
+            private long maxSize = 10_000;
+            /**
+             * Upper bound on how long a node can serve an entry after a missed invalidation message.
+             */
+            private Duration ttl = Duration.ofSeconds(5);
+        }
+
+        /**
+         * Keeps entries coherent while nodes using another {@code format} are still running; turn on only for the
+         * rolling upgrade that changes the format, and off once every node writes the same format.
+         */
+        @Data
+        public static class Rollout {
+            /**
+             * Also evict a key under the other formats' prefixes, so nodes still on another format do not serve
+             * the value this node just invalidated. Off by default: it doubles every eviction and caps the TTL.
+             */
+            private boolean enabled = false;
+            /**
+             * Upper bound on the Redis TTL of entries written while enabled: nodes on another format evict only
+             * their own keys, so this bounds how long this node's entries can be stale.
+             */
+            private Duration maxTtl = Duration.ofSeconds(5);
+        }
+    }
+
+    @Data
+    public static class Leaderboard {
+        /**
+         * Number of entries returned by GET /points/leaderboard.
+         */
+        private int topSize = 10;
+        /**
+         * Maximum age of the in-process top-N snapshot before it is re-read from Redis.
+         */
+        private Duration snapshotRefresh = Duration.ofMillis(250);
+        /**
+         * Largest page size accepted by GET /points/leaderboard/page.
+         */
+        private int maxPageSize = 100;
+        /**
+         * Deepest position, {@code page * size}, GET /points/leaderboard/page starts a page at. With several
+         * shards every shard is read from its top down to the end of the page, so this bounds each read.
+         */
+        private int maxOffset = 10_000;
+        /**
+         * Largest number of neighbours on each side accepted by GET /points/{userId}/rank.
+         */
+        private int maxNeighbours = 10;
+        /**
+         * Time zone whose calendar days the daily buckets follow.
+         */
+        private ZoneId zone = ZoneOffset.UTC;
+        /**
+         * How long a weekly or monthly view built with ZUNIONSTORE is served before it is rebuilt.
+         */
+        private Duration windowRefresh = Duration.ofSeconds(30);
+        /**
+         * Number of sorted sets the all-time leaderboard and each daily bucket are hash-partitioned into, so
+         * that writes spread over several keys (and cluster slots). 1 keeps a single key. Existing scores stay in
+         * the old keys after a change until POST /admin/leaderboard/rebuild re-adds them.
+         */
+        private int shards = 1;
+        /**
+         * How long a top-N list merged from the shards is served before the shards are read again.
+         */
+        private Duration shardMergeRefresh = Duration.ofMillis(500);
+    }
+
+    @Data
+    public static class Rebuild {
+        /**
+         * Rebuild the leaderboard from user_points at startup when the Redis sorted set is empty.
+         */
+        private boolean onStartup = true;
+        /**
+         * Number of user_points rows read per keyset page and ZADDed per pipeline.
+         */
+        private int chunkSize = 1000;
+        /**
+         * Upper bound on the rebuild rate, to spare MySQL and Redis while serving traffic. 0 disables throttling.
+         */
+        private int maxUsersPerSecond = 50_000;
+        /**
+         * Number of top-ranked users whose user_points entries are put in the cache after a rebuild.
+         */
+        private int warmTopK = 1000;
+        /**
+         * Expiry of the Redis lock that keeps other nodes from rebuilding at the same time; renewed per chunk.
+         */
+        private Duration lockTtl = Duration.ofMinutes(1);
+        /**
+         * How far before the scan started the catch-up pass looks for changed user_points rows. Covers clock skew
+         * between this node and the nodes that wrote updated_at.
+         */
+        private Duration catchUpMargin = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Purge {
+        /**
+         * Number of point_records rows deleted per statement, each in its own short transaction.
+         */
+        private int chunkSize = 5000;
+        /**
+         * Pause between chunks, to leave room for replication and other writers.
+         */
+        private Duration pauseBetweenChunks = Duration.ofMillis(20);
+        /**
+         * How long the status of a finished purge job stays available for polling.
+         */
+        private Duration statusRetention = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class History {
+        /**
+         * Largest page size accepted by GET /points/{userId}/records.
+         */
+        private int maxPageSize = 500;
+        /**
+         * Rows fetched per round trip when exporting a user's history as NDJSON. Not used on MySQL, where
+         * Connector/J streams the export row by row.
+         */
+        private int exportFetchSize = 500;
+    }
+
+    @Data
+    public static class Lookup {
+        /**
+         * Most userIds accepted by one POST /points/lookup.
+         */
+        private int maxUsers = 500;
+    }
+
+    @Data
+    public static class Admission {
+        /**
+         * Rate-limit and shed requests to /points/** before they reach PointsController (servlet stack only).
+         */
+        private boolean enabled = false;
+        /**
+         * Where the token buckets are kept; REDIS falls back to the local buckets while Redis is unreachable.
+         */
+        private RateLimitStore store = RateLimitStore.LOCAL;
+        /**
+         * Buckets a node keeps in memory; the least recently used are dropped beyond this.
+         */
+        private long maxTrackedKeys = 100_000;
+        /**
+         * GET endpoints and POST /points/lookup.
+         */
+        private final Budget read = Budget.of(2000, 2000, 50, 100, 10, 200, Duration.ofMillis(100));
+        /**
+         * Every other endpoint.
+         */
+        private final Budget write = Budget.of(500, 500, 10, 20, 4, 40, Duration.ofMillis(250));
+
+        @Data
+        public static class Budget {
+            /**
+             * Requests per second admitted per endpoint across all users; 0 disables the endpoint bucket.
+             */
+            private double endpointRate;
+            private int endpointBurst;
+            /**
+             * Requests per second admitted per userId on the endpoints that name one; 0 disables the user bucket.
+             */
+            private double userRate;
+            private int userBurst;
+            /**
+             * Bounds of the concurrent requests limit, which starts at the maximum, shrinks while requests take
+             * longer than target-latency and grows back while they do not.
+             */
+            private int minConcurrency;
+            private int maxConcurrency;
+            private Duration targetLatency;
+
+            static Budget of(double endpointRate, int endpointBurst, double userRate, int userBurst,
+                             int minConcurrency, int maxConcurrency, Duration targetLatency) {
+                Budget budget = new Budget();
+                budget.setEndpointRate(endpointRate);
+                budget.setEndpointBurst(endpointBurst);
+                budget.setUserRate(userRate);
+                budget.setUserBurst(userBurst);
+                budget.setMinConcurrency(minConcurrency);
+                budget.setMaxConcurrency(maxConcurrency);
+                budget.setTargetLatency(targetLatency);
+                return budget;
+            }
+        }
+    }
+
+    @Data
+    public static class Redis {
+        /**
+         * The circuit opens when at least this share of the last window-size Redis calls failed or took longer
+         * than slow-call-threshold.
+         */
+        private double failureRateThreshold = 0.5;
+        private Duration slowCallThreshold = Duration.ofMillis(250);
+        private int windowSize = 20;
+        /**
+         * How long an open circuit fails Redis calls at once before one trial call is let through.
+         */
+        private Duration openDuration = Duration.ofSeconds(5);
+        /**
+         * While the circuit is not closed, at most this many cache misses are loaded from MySQL at once; the
+         * others wait up to fallback-max-wait and then get 503.
+         */
+        private int fallbackConcurrency = 32;
+        private Duration fallbackMaxWait = Duration.ofMillis(50);
+        /**
+         * Users whose leaderboard writes are queued for replay while Redis is unavailable; past this the
+         * all-time leaderboard is rebuilt from user_points on recovery instead.
+         */
+        private int replayMaxUsers = 100_000;
+        /**
+         * Cache evictions kept for replay while Redis is unavailable; past this the cache is cleared on recovery.
+         */
+        private int maxDeferredEvictions = 100_000;
+        /**
+         * How often an open circuit is probed and, once closed, the deferred writes are replayed.
+         */
+        private Duration recoveryInterval = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Replicas {
+        /**
+         * Route read-only transactions to the replicas below and everything else to spring.datasource (servlet
+         * stack only).
+         */
+        private boolean enabled = false;
+        /**
+         * Replica pools; the driver and, unless set here, the credentials are those of spring.datasource.
+         */
+        private List<Instance> instances = new ArrayList<>();
+        private int maximumPoolSize = 10;
+        /**
+         * How long a read waits for a replica connection before it goes to the primary instead.
+         */
+        private Duration connectionTimeout = Duration.ofMillis(250);
+        /**
+         * How often each node rewrites the heartbeat row on the primary and reads its age on every replica.
+         */
+        private Duration healthCheckInterval = Duration.ofMillis(500);
+        /**
+         * A replica whose heartbeat is older than this serves no reads until it catches up. The age includes up
+         * to one health-check-interval, so keep this well above it.
+         */
+        private Duration maxLag = Duration.ofSeconds(2);
+        /**
+         * After a node handled a write for a user, that user's reads on the node go to the primary for this long;
+         * above max-lag plus health-check-interval the user always reads their own writes there.
+         */
+        private Duration stickyPrimaryWindow = Duration.ofSeconds(5);
+        /**
+         * Users a node keeps in the sticky-primary window; the oldest writes are forgotten beyond this.
+         */
+        private int maxStickyUsers = 100_000;
+
+        @Data
+        public static class Instance {
+            /**
+             * Used in the pool name, replica-{name}, and the metric tags; defaults to the position in the list.
+             */
+            private String name;
+            private String url;
+            private String username;
+            private String password;
+        }
+    }
+
+    public enum RateLimitStore {
+        /**
+         * Token buckets in each node's memory; a client spread over N nodes gets up to N times the rate.
+         */
+        LOCAL,
+        /**
+         * Token buckets in Redis, updated atomically by a Lua script, shared by all nodes.
+         */
+        REDIS
+    }
+
+    public enum CacheFormat {
+        /**
+         * JDK serialization under the default {@code user_points::} prefix, as written by earlier releases.
+         */
+        JDK,
+        /**
+         * Fixed binary layout of the three columns (see UserPointsCodec) under {@code user_points:v2::}.
+         */
+        COMPACT
+    }
+
+    public enum EventFormat {
+        /**
+         * JSON serialization of the PointRecord entity, one message per credit, as written by earlier releases.
+         */
+        JSON,
+        /**
+         * PointsEvent envelopes encoded by PointsEventCodec; bulk credits share one envelope per message batch.
+         */
+        BINARY
+    }
+
+    public enum IdStrategy {
+        /**
+         * AUTO_INCREMENT assigns the id on insert and the driver reads it back.
+         */
+        IDENTITY,
+        /**
+         * Ids are assigned in memory from blocks reserved in points_id_sequence (hi/lo) and inserted explicitly.
+         */
+        POOLED
+    }
+
+    public enum AccrualMode {
+        /**
+         * Load the UserPoints entity, add the amount and save it back, then ZADD the absolute total.
+         * Concurrent credits to the same user can overwrite each other.
+         */
+        READ_MODIFY_WRITE,
+        /**
+         * Single INSERT ... ON DUPLICATE KEY UPDATE on user_points and ZINCRBY on the leaderboard.
+         */
+        ATOMIC,
+        /**
+         * Store the PointRecord synchronously, but accumulate per-user deltas in memory and flush them
+         * periodically as batched upserts and pipelined ZINCRBYs.
+         */
+        WRITE_BEHIND,
+        /**
+         * Store the PointRecord and publish its event only; a user-points-topic consumer applies the event to
+         * user_points and the leaderboard in micro-batches.
+         */
+        PROJECTION
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.config;
+
+import com.example.demo.datasource.ReadReplicas;
+import com.example.demo.datasource.ReplicaHealthChecker;
+import com.example.demo.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+/**
+ * Read/write splitting, enabled with {@code points.replicas.enabled} (servlet stack only).
+ * <p>
+ * The DataSource used by JPA and the JdbcTemplate is a {@link LazyConnectionDataSourceProxy} over the primary
+ * pool, which fetches the physical connection at the first statement rather than when the transaction begins. By
+ * then a read-only transaction ({@code @Transactional(readOnly = true)}, which Spring Data's find methods have by
+ * default) has marked the connection read-only, and the proxy takes it from the {@link ReplicaRoutingDataSource}
+ * instead. Everything else stays on the primary, including reads outside a transaction and read-only calls that
+ * join a read-write transaction.
+ * <p>
+ * Boot backs off its own pool once a DataSource bean exists, so the primary pool is declared here from the same
+ * {@code spring.datasource} properties.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "points.replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadReplicas readReplicas(PointsProperties properties,
+                                     DataSourceProperties dataSourceProperties,
+                                     MeterRegistry meterRegistry) {
+        return ReadReplicas.create(properties.getReplicas(), dataSourceProperties, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public LazyConnectionDataSourceProxy dataSource(HikariDataSource primaryDataSource,
+                                                    ReadReplicas readReplicas,
+                                                    MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primaryDataSource, readReplicas, meterRegistry));
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaHealthChecker replicaHealthChecker(HikariDataSource primaryDataSource,
+                                                     ReadReplicas readReplicas,
+                                                     TaskScheduler taskScheduler,
+                                                     PointsProperties properties) {
+        return new ReplicaHealthChecker(primaryDataSource, readReplicas, taskScheduler, properties);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Runs the shared {@code TaskScheduler} on virtual threads when {@code spring.threads.virtual.enabled} is true.
+ * <p>
+ * Boot would otherwise switch to a {@code SimpleAsyncTaskScheduler}, which runs every fixed-delay task on its
+ * single scheduler thread, so the outbox workers, the write-behind flush and the leaderboard/purge jobs would
+ * queue behind each other. This keeps {@code spring.task.scheduling.pool.size} workers as in platform mode,
+ * with each worker being a virtual thread that releases its carrier while blocked on MySQL, Redis or RocketMQ.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadSchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        ThreadPoolTaskScheduler scheduler = builder.build();
+        scheduler.setVirtualThreads(true);
+        return scheduler;
+    }
+}
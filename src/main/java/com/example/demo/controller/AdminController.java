@@ -0,0 +1,31 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.dto.LeaderboardRebuildStatus;
+import com.example.demo.service.LeaderboardRebuildJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final LeaderboardRebuildJob leaderboardRebuildJob;
+
+    @PostMapping("/leaderboard/rebuild")
+    public ResponseEntity<LeaderboardRebuildStatus> rebuildLeaderboard() {
+        if (leaderboardRebuildJob.start("admin")) {
+            return ResponseEntity.accepted().body(leaderboardRebuildJob.status());
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(leaderboardRebuildJob.status());
+    }
+
+    @GetMapping("/leaderboard/rebuild")
+    public ResponseEntity<LeaderboardRebuildStatus> getRebuildStatus() {
+        return ResponseEntity.ok(leaderboardRebuildJob.status());
+    }
+}
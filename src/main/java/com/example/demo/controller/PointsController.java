@@ -1,23 +1,50 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.dto.AddPointsRequest;
+import com.example.demo.model.dto.BatchAddPointsResponse;
 import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.LeaderboardPage;
+import com.example.demo.model.dto.PointRecordPage;
+import com.example.demo.model.dto.PointsLookupResponse;
+import com.example.demo.model.dto.PurgeJobStatus;
 import com.example.demo.model.dto.UpdateReasonRequest;
+import com.example.demo.model.dto.UserRank;
 import com.example.demo.model.entity.PointRecord;
 import com.example.demo.model.entity.UserPoints;
+import com.example.demo.service.LeaderboardWindow;
 import com.example.demo.service.PointsService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/points")
 @RequiredArgsConstructor
 public class PointsController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    /**
+     * Set on GET /points/leaderboard while it serves a snapshot kept because Redis could not be read.
+     */
+    static final String STALE_HEADER = "X-Leaderboard-Stale";
+
     private final PointsService pointsService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<PointRecord> addPoints(@RequestBody AddPointsRequest request) {
@@ -25,19 +52,118 @@ public class PointsController {
         return ResponseEntity.ok(newRecord);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchAddPointsResponse> addPointsBatch(@RequestBody List<AddPointsRequest> requests) {
+        try {
+            return ResponseEntity.ok(pointsService.addPointsBatch(requests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{userId}")
-    public ResponseEntity<UserPoints> getTotalPoints(@PathVariable String userId) {
-        UserPoints userPoints = pointsService.getTotalPoints(userId);
+    public ResponseEntity<UserPoints> getTotalPoints(@PathVariable String userId,
+                                                    @RequestParam(required = false) Long minRecordId) {
+        // minRecordId: id returned by an earlier POST, for a read that must include that credit
+        UserPoints userPoints = minRecordId == null
+                ? pointsService.getTotalPoints(userId)
+                : pointsService.getTotalPoints(userId, minRecordId);
         if (userPoints != null) {
             return ResponseEntity.ok(userPoints);
         }
         return ResponseEntity.notFound().build();
     }
 
+    /**
+     * Totals of several users in one call; the body is a JSON array of userIds.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<PointsLookupResponse> lookupTotalPoints(@RequestBody List<String> userIds) {
+        try {
+            return ResponseEntity.ok(pointsService.lookupTotalPoints(userIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/leaderboard")
-    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard() {
-        List<LeaderboardEntry> leaderboard = pointsService.getLeaderboard();
-        return ResponseEntity.ok(leaderboard);
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(@RequestParam(required = false) String window) {
+        try {
+            LeaderboardWindow leaderboardWindow = LeaderboardWindow.fromParam(window);
+            List<LeaderboardEntry> leaderboard = pointsService.getLeaderboard(leaderboardWindow);
+            if (leaderboardWindow == LeaderboardWindow.ALL_TIME && pointsService.isLeaderboardStale()) {
+                return ResponseEntity.ok().header(STALE_HEADER, "true").body(leaderboard);
+            }
+            return ResponseEntity.ok(leaderboard);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/leaderboard/page")
+    public ResponseEntity<LeaderboardPage> getLeaderboardPage(@RequestParam(required = false) String window,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(pointsService.getLeaderboardPage(LeaderboardWindow.fromParam(window), page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{userId}/rank")
+    public ResponseEntity<UserRank> getUserRank(@PathVariable String userId,
+                                                @RequestParam(defaultValue = "2") int neighbours) {
+        try {
+            UserRank rank = pointsService.getUserRank(userId, neighbours);
+            if (rank != null) {
+                return ResponseEntity.ok(rank);
+            }
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{userId}/records")
+    public ResponseEntity<PointRecordPage> getPointRecords(@PathVariable String userId,
+                                                           @RequestParam(required = false) Long before,
+                                                           @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(pointsService.getPointRecords(userId, before, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Streams the user's whole history as newline-delimited JSON, newest first, writing records to the
+     * response as they are read from the cursor.
+     */
+    @GetMapping("/{userId}/records/export")
+    public ResponseEntity<StreamingResponseBody> exportPointRecords(@PathVariable String userId) {
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+        StreamingResponseBody body = out -> {
+            AtomicBoolean written = new AtomicBoolean();
+            try (SequenceWriter records = writer.writeValues(out)) {
+                pointsService.exportPointRecords(userId, pointRecord -> {
+                    try {
+                        records.write(pointRecord);
+                        written.set(true);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            // Terminates the last record; an empty history is an empty body
+            if (written.get()) {
+                out.write('\n');
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     @PutMapping("/{id}")
@@ -51,8 +177,19 @@ public class PointsController {
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Void> deleteUserPoints(@PathVariable String userId) {
-        pointsService.deleteUserPoints(userId);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<PurgeJobStatus> deleteUserPoints(@PathVariable String userId) {
+        PurgeJobStatus purge = pointsService.deleteUserPoints(userId);
+        return ResponseEntity.accepted()
+                .location(URI.create("/points/purge-jobs/" + purge.getJobId()))
+                .body(purge);
+    }
+
+    @GetMapping("/purge-jobs/{jobId}")
+    public ResponseEntity<PurgeJobStatus> getPurgeStatus(@PathVariable String jobId) {
+        PurgeJobStatus purge = pointsService.getPurgeStatus(jobId);
+        if (purge != null) {
+            return ResponseEntity.ok(purge);
+        }
+        return ResponseEntity.notFound().build();
     }
 }
@@ -0,0 +1,142 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.dto.AddPointsRequest;
+import com.example.demo.model.dto.UpdateReasonRequest;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.service.LeaderboardRebuildJob;
+import com.example.demo.service.LeaderboardWindow;
+import com.example.demo.service.ReactivePointsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.util.function.Supplier;
+
+/**
+ * Handlers behind {@link ReactivePointsRouter}, with the status codes of {@link PointsController} and
+ * {@link AdminController}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePointsHandler {
+
+    private final ReactivePointsService pointsService;
+    private final LeaderboardRebuildJob leaderboardRebuildJob;
+
+    public Mono<ServerResponse> addPoints(ServerRequest request) {
+        return request.bodyToMono(AddPointsRequest.class)
+                .flatMap(pointsService::addPoints)
+                .flatMap(pointRecord -> ServerResponse.ok().bodyValue(pointRecord));
+    }
+
+    public Mono<ServerResponse> addPointsBatch(ServerRequest request) {
+        return badRequestOnInvalid(() -> pointsService.addPointsBatch(request.bodyToFlux(AddPointsRequest.class))
+                .flatMap(response -> ServerResponse.ok().bodyValue(response)));
+    }
+
+    public Mono<ServerResponse> getTotalPoints(ServerRequest request) {
+        return pointsService.getTotalPoints(request.pathVariable("userId"))
+                .flatMap(userPoints -> ServerResponse.ok().bodyValue(userPoints))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> getLeaderboard(ServerRequest request) {
+        return badRequestOnInvalid(() -> pointsService.getLeaderboard(window(request))
+                .flatMap(leaderboard -> ServerResponse.ok().bodyValue(leaderboard)));
+    }
+
+    public Mono<ServerResponse> getLeaderboardPage(ServerRequest request) {
+        return badRequestOnInvalid(() -> pointsService.getLeaderboardPage(window(request),
+                        intParam(request, "page", 0), intParam(request, "size", 10))
+                .flatMap(page -> ServerResponse.ok().bodyValue(page)));
+    }
+
+    public Mono<ServerResponse> getUserRank(ServerRequest request) {
+        return badRequestOnInvalid(() -> pointsService.getUserRank(request.pathVariable("userId"),
+                        intParam(request, "neighbours", 2))
+                .flatMap(rank -> ServerResponse.ok().bodyValue(rank))
+                .switchIfEmpty(ServerResponse.notFound().build()));
+    }
+
+    public Mono<ServerResponse> getPointRecords(ServerRequest request) {
+        return badRequestOnInvalid(() -> pointsService.getPointRecords(request.pathVariable("userId"),
+                        request.queryParam("before").map(Long::valueOf).orElse(null),
+                        intParam(request, "limit", 50))
+                .flatMap(page -> ServerResponse.ok().bodyValue(page)));
+    }
+
+    /**
+     * Streams the user's whole history as newline-delimited JSON, newest first. Rows are read from the database
+     * as fast as the client consumes the response.
+     */
+    public Mono<ServerResponse> exportPointRecords(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(pointsService.exportPointRecords(request.pathVariable("userId")), PointRecord.class);
+    }
+
+    public Mono<ServerResponse> updateReason(ServerRequest request) {
+        Long id;
+        try {
+            id = Long.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return request.bodyToMono(UpdateReasonRequest.class)
+                .flatMap(body -> pointsService.updateReason(id, body))
+                .flatMap(updated -> ServerResponse.ok().bodyValue(updated))
+                .onErrorResume(IllegalArgumentException.class, e -> ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> deleteUserPoints(ServerRequest request) {
+        return pointsService.deleteUserPoints(request.pathVariable("userId"))
+                .flatMap(purge -> ServerResponse.accepted()
+                        .location(URI.create("/points/purge-jobs/" + purge.getJobId()))
+                        .bodyValue(purge));
+    }
+
+    public Mono<ServerResponse> getPurgeStatus(ServerRequest request) {
+        return pointsService.getPurgeStatus(request.pathVariable("jobId"))
+                .flatMap(purge -> ServerResponse.ok().bodyValue(purge))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    /**
+     * The rebuild job takes its lock and reads its state with blocking calls, so they run off the event loop.
+     */
+    public Mono<ServerResponse> rebuildLeaderboard(ServerRequest request) {
+        return Mono.fromCallable(() -> leaderboardRebuildJob.start("admin"))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(started -> ServerResponse.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                        .bodyValue(leaderboardRebuildJob.status()));
+    }
+
+    public Mono<ServerResponse> getRebuildStatus(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(leaderboardRebuildJob.status());
+    }
+
+    private static LeaderboardWindow window(ServerRequest request) {
+        return LeaderboardWindow.fromParam(request.queryParam("window").orElse(null));
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+    }
+
+    /**
+     * Invalid parameters, thrown while building the pipeline or signalled by it, answer 400 like the
+     * controller's {@code IllegalArgumentException} handlers.
+     */
+    private static Mono<ServerResponse> badRequestOnInvalid(Supplier<Mono<ServerResponse>> handler) {
+        return Mono.defer(handler)
+                .onErrorResume(IllegalArgumentException.class, e -> ServerResponse.badRequest().build());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Routes of the {@code reactive} profile: the endpoints of {@link PointsController} and {@link AdminController}
+ * on WebFlux. Fixed paths come before the {@code {userId}} ones they would otherwise match.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePointsRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> pointsRoutes(ReactivePointsHandler handler) {
+        return RouterFunctions.route()
+                .path("/points", points -> points
+                        .POST("", handler::addPoints)
+                        .POST("/batch", handler::addPointsBatch)
+                        .GET("/leaderboard", handler::getLeaderboard)
+                        .GET("/leaderboard/page", handler::getLeaderboardPage)
+                        .GET("/purge-jobs/{jobId}", handler::getPurgeStatus)
+                        .GET("/{userId}", handler::getTotalPoints)
+                        .GET("/{userId}/rank", handler::getUserRank)
+                        .GET("/{userId}/records", handler::getPointRecords)
+                        .GET("/{userId}/records/export", handler::exportPointRecords)
+                        .PUT("/{id}", handler::updateReason)
+                        .DELETE("/{userId}", handler::deleteUserPoints))
+                .path("/admin", admin -> admin
+                        .POST("/leaderboard/rebuild", handler::rebuildLeaderboard)
+                        .GET("/leaderboard/rebuild", handler::getRebuildStatus))
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.datasource;
+
+import com.example.demo.config.PointsProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes on top of replica reads: once this node handled a write for a user, that user's reads on the
+ * node go to the primary for {@code points.replicas.sticky-primary-window}. The window is kept per node, so a read
+ * served by another node right after the write may still see the replica's older value, at most
+ * {@code max-lag} behind. Nothing is tracked while replicas are disabled.
+ */
+@Component
+public class PrimaryStickiness {
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxUsers;
+    private final LongSupplier nanoTime;
+    private final ReentrantLock lock = new ReentrantLock();
+    // In the order of the writes, so the expired windows are the first entries
+    private final Map<String, Long> stickyUntil = new LinkedHashMap<>();
+
+    @Autowired
+    public PrimaryStickiness(PointsProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    PrimaryStickiness(PointsProperties properties, LongSupplier nanoTime) {
+        this.enabled = properties.getReplicas().isEnabled();
+        this.windowNanos = properties.getReplicas().getStickyPrimaryWindow().toNanos();
+        this.maxUsers = properties.getReplicas().getMaxStickyUsers();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Starts or extends the user's sticky-primary window.
+     */
+    public void wrote(String userId) {
+        if (!enabled) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        lock.lock();
+        try {
+            expire(now);
+            stickyUntil.remove(userId);
+            stickyUntil.put(userId, now + windowNanos);
+            if (stickyUntil.size() > maxUsers) {
+                Iterator<String> oldest = stickyUntil.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void wroteAll(Collection<String> userIds) {
+        userIds.forEach(this::wrote);
+    }
+
+    public boolean isSticky(String userId) {
+        if (!enabled) {
+            return false;
+        }
+        long now = nanoTime.getAsLong();
+        lock.lock();
+        try {
+            Long until = stickyUntil.get(userId);
+            return until != null && until - now > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs a read of the user's data, on the primary while the user is in the sticky-primary window.
+     */
+    public <T> T read(String userId, Supplier<T> read) {
+        return isSticky(userId) ? ReplicaRoutingDataSource.onPrimary(read) : read.get();
+    }
+
+    /**
+     * Runs a read of several users' data, on the primary while any of them is in the sticky-primary window.
+     */
+    public <T> T readAll(Collection<String> userIds, Supplier<T> read) {
+        if (!enabled) {
+            return read.get();
+        }
+        return userIds.stream().anyMatch(this::isSticky) ? ReplicaRoutingDataSource.onPrimary(read) : read.get();
+    }
+
+    private void expire(long now) {
+        Iterator<Long> windows = stickyUntil.values().iterator();
+        while (windows.hasNext() && windows.next() - now <= 0) {
+            windows.remove();
+        }
+    }
+}
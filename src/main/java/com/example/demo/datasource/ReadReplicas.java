@@ -0,0 +1,92 @@
+package com.example.demo.datasource;
+
+import com.example.demo.config.PointsProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The replicas of {@code points.replicas.instances}, taken in turn by reads, skipping those the last health check
+ * found unusable. The lag and usability of each are gauges {@code points.datasource.replica.lag{replica}} and
+ * {@code points.datasource.replica.usable{replica}}.
+ */
+public class ReadReplicas implements AutoCloseable {
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadReplicas(List<Replica> replicas, MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        for (Replica replica : this.replicas) {
+            Gauge.builder("points.datasource.replica.lag", replica, Replica::getLagSeconds)
+                    .description("Age of the newest primary heartbeat applied by the replica")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("points.datasource.replica.usable", replica, r -> r.isUsable() ? 1 : 0)
+                    .description("1 while the replica serves read-only transactions")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * One read-only Hikari pool per instance, with the driver and, unless the instance sets its own, the
+     * credentials of {@code spring.datasource}; the pools report to Micrometer as {@code replica-<name>}.
+     */
+    public static ReadReplicas create(PointsProperties.Replicas settings,
+                                      DataSourceProperties primary,
+                                      MeterRegistry meterRegistry) {
+        List<Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < settings.getInstances().size(); i++) {
+            PointsProperties.Replicas.Instance instance = settings.getInstances().get(i);
+            if (instance.getUrl() == null || instance.getUrl().isBlank()) {
+                throw new IllegalArgumentException("points.replicas.instances[" + i + "].url is required");
+            }
+            String name = instance.getName() != null ? instance.getName() : Integer.toString(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + name);
+            pool.setJdbcUrl(instance.getUrl());
+            pool.setDriverClassName(primary.determineDriverClassName());
+            pool.setUsername(instance.getUsername() != null ? instance.getUsername() : primary.determineUsername());
+            pool.setPassword(instance.getPassword() != null ? instance.getPassword() : primary.determinePassword());
+            pool.setMaximumPoolSize(settings.getMaximumPoolSize());
+            pool.setConnectionTimeout(settings.getConnectionTimeout().toMillis());
+            pool.setReadOnly(true);
+            pool.setMetricRegistry(meterRegistry);
+            replicas.add(new Replica(name, pool));
+        }
+        return new ReadReplicas(replicas, meterRegistry);
+    }
+
+    public List<Replica> all() {
+        return replicas;
+    }
+
+    /**
+     * The next usable replica in turn, or null if there is none.
+     */
+    public Replica next() {
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (replica.isUsable()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * A read replica's connection pool and what was last seen of it: whether it may serve reads and how far it lags
+ * behind the primary. A replica is unusable until its first health check succeeds.
+ */
+@Slf4j
+public class Replica {
+
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean usable;
+    private volatile boolean seen;
+    private volatile double lagSeconds = Double.NaN;
+
+    public Replica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    /**
+     * Age of the newest heartbeat the replica has applied, NaN while it is unreachable or has none yet.
+     */
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    /**
+     * Records a health check that reached the replica; {@code lag} is null when it has no heartbeat yet.
+     */
+    void checked(Duration lag, Duration maxLag) {
+        lagSeconds = lag == null ? Double.NaN : lag.toNanos() / 1e9;
+        if (lag == null) {
+            update(false, "it has no heartbeat yet");
+        } else if (lag.compareTo(maxLag) > 0) {
+            update(false, "it lags " + lag.toMillis() + "ms behind the primary");
+        } else {
+            update(true, "it lags " + lag.toMillis() + "ms behind the primary");
+        }
+    }
+
+    /**
+     * Takes the replica out of the rotation until the next health check finds it reachable again.
+     */
+    void failed(Exception cause) {
+        lagSeconds = Double.NaN;
+        update(false, cause.getMessage());
+    }
+
+    private void update(boolean nowUsable, String reason) {
+        boolean changed = !seen || usable != nowUsable;
+        usable = nowUsable;
+        seen = true;
+        if (changed && nowUsable) {
+            log.info("Replica {} serves reads: {}", name, reason);
+        } else if (changed) {
+            log.warn("Replica {} serves no reads: {}", name, reason);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.datasource;
+
+import com.example.demo.config.PointsProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Every {@code points.replicas.health-check-interval}: rewrites the replica_heartbeat row on the primary with the
+ * primary's time, then reads on every replica how old the newest heartbeat it applied is. A replica that answers
+ * with a heartbeat at most {@code max-lag} old serves reads; one that fails, has no heartbeat yet or lags further
+ * does not until a later check finds it caught up.
+ * <p>
+ * The age is measured with the replica's clock against the primary's, so both must agree, and it includes up to
+ * one interval since the heartbeat was written, less when several nodes write it.
+ */
+@Slf4j
+public class ReplicaHealthChecker implements SmartLifecycle {
+
+    static final String BEAT_SQL = "UPDATE replica_heartbeat SET beat_at = LOCALTIMESTAMP(6) WHERE id = 1";
+    static final String SEED_SQL = "INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, LOCALTIMESTAMP(6))";
+    static final String AGE_SQL = "SELECT beat_at, LOCALTIMESTAMP(6) FROM replica_heartbeat WHERE id = 1";
+
+    private final JdbcTemplate primary;
+    private final Map<Replica, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final TaskScheduler taskScheduler;
+    private final PointsProperties.Replicas settings;
+
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private ScheduledFuture<?> scheduledCheck;
+    private volatile boolean running;
+
+    public ReplicaHealthChecker(DataSource primary,
+                                ReadReplicas readReplicas,
+                                TaskScheduler taskScheduler,
+                                PointsProperties properties) {
+        this.settings = properties.getReplicas();
+        int timeoutSeconds = (int) Math.max(1, settings.getHealthCheckInterval().toSeconds());
+        this.primary = new JdbcTemplate(primary);
+        this.primary.setQueryTimeout(timeoutSeconds);
+        for (Replica replica : readReplicas.all()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.getDataSource());
+            jdbcTemplate.setQueryTimeout(timeoutSeconds);
+            replicas.put(replica, jdbcTemplate);
+        }
+        this.taskScheduler = taskScheduler;
+    }
+
+    @Override
+    public void start() {
+        lifecycleLock.lock();
+        try {
+            scheduledCheck = taskScheduler.scheduleWithFixedDelay(this::check, settings.getHealthCheckInterval());
+            running = true;
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        lifecycleLock.lock();
+        try {
+            running = false;
+            if (scheduledCheck != null) {
+                scheduledCheck.cancel(false);
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    void check() {
+        beat();
+        replicas.forEach((replica, jdbcTemplate) -> {
+            try {
+                replica.checked(heartbeatAge(jdbcTemplate), settings.getMaxLag());
+            } catch (DataAccessException e) {
+                log.debug("Health check of replica {} failed", replica.getName(), e);
+                replica.failed(e);
+            }
+        });
+    }
+
+    private void beat() {
+        try {
+            if (primary.update(BEAT_SQL) == 0) {
+                primary.update(SEED_SQL);
+            }
+        } catch (DuplicateKeyException e) {
+            // Another node seeded the row first
+        } catch (DataAccessException e) {
+            log.warn("Could not write the replica heartbeat on the primary", e);
+        }
+    }
+
+    private static Duration heartbeatAge(JdbcTemplate replica) {
+        return replica.query(AGE_SQL, rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            Duration age = Duration.between(rs.getTimestamp(1).toLocalDateTime(), rs.getTimestamp(2).toLocalDateTime());
+            return age.isNegative() ? Duration.ZERO : age;
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.function.Supplier;
+
+/**
+ * Where read-only transactions get their connection (the read-only DataSource of the LazyConnectionDataSourceProxy
+ * set up by ReplicaRoutingConfig): the next usable replica, or the primary when there is none, when the replica's
+ * pool has no connection within its timeout, or while the thread reads for a user in the sticky-primary window of
+ * {@link PrimaryStickiness}. A replica that fails to hand out a connection leaves the rotation until its next health
+ * check.
+ * <p>
+ * Counted in {@code points.datasource.reads{target}} (the replica's name or {@code primary}) and
+ * {@code points.datasource.primary_fallbacks{reason}}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final ReadReplicas replicas;
+    private final MeterRegistry meterRegistry;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReadReplicas replicas, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs {@code read} with the read-only connections it opens taken from the primary. Only connections opened
+     * inside count: a transaction that already holds a replica connection keeps it.
+     */
+    static <T> T onPrimary(Supplier<T> read) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        }
+    }
+
+    static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isPrimaryRequired()) {
+            return fromPrimary("sticky");
+        }
+        Replica replica = replicas.next();
+        if (replica == null) {
+            return fromPrimary("no_usable_replica");
+        }
+        Connection connection;
+        try {
+            connection = replica.getDataSource().getConnection();
+        } catch (SQLException e) {
+            log.warn("No connection from replica {}, reading from the primary", replica.getName(), e);
+            replica.failed(e);
+            return fromPrimary("connection_failure");
+        }
+        count(replica.getName());
+        return connection;
+    }
+
+    /**
+     * Not supported: the replica pools connect with their own configured credentials.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica routing does not take per-call credentials");
+    }
+
+    private Connection fromPrimary(String reason) throws SQLException {
+        Counter.builder("points.datasource.primary_fallbacks")
+                .description("Read-only transactions served by the primary instead of a replica")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        Connection connection = primary.getConnection();
+        count(PRIMARY);
+        return connection;
+    }
+
+    private void count(String target) {
+        Counter.builder("points.datasource.reads")
+                .description("Connections opened for read-only transactions, by database")
+                .tag("target", target)
+                .register(meterRegistry)
+                .increment();
+    }
+}
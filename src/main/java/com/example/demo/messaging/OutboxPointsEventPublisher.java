@@ -0,0 +1,36 @@
+package com.example.demo.messaging;
+
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Writes events to the points_outbox table in the caller's transaction; {@link OutboxRelay} sends them later.
+ * A rolled back credit therefore never produces an event, and the request never waits on the broker.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "points.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxPointsEventPublisher implements PointsEventPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final PointsEventSerializer serializer;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(PointRecord pointRecord) {
+        outboxEventRepository.save(serializer.toOutboxEvents(List.of(pointRecord)).get(0));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(List<PointRecord> pointRecords) {
+        outboxEventRepository.saveAllInBatch(serializer.toOutboxEvents(pointRecords));
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.demo.messaging;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.OutboxEvent;
+import com.example.demo.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background relay that moves points_outbox rows to RocketMQ.
+ * <p>
+ * Each of the {@code points.outbox.parallelism} workers repeatedly locks up to {@code batch-size} unsent rows,
+ * sends them with one batch send per topic and marks them sent in the same transaction. A failed send rolls the
+ * transaction back and the rows are retried on the next tick, so delivery is at-least-once. In projection mode the
+ * rows are sent orderly instead, one batch per topic and ordering key, so a user's events share a queue.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "points.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final int CLEANUP_CHUNK_SIZE = 1000;
+    private static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(1);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RocketMQTemplate rocketMQTemplate;
+    private final RocketMQSendMetrics sendMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final PointsProperties.Outbox settings;
+    private final boolean orderly;
+    private final int orderingKeys;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter relayedCounter;
+    private final Counter failureCounter;
+    private final Timer deliveryDelay;
+
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+    private volatile boolean running;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       RocketMQTemplate rocketMQTemplate,
+                       RocketMQSendMetrics sendMetrics,
+                       PlatformTransactionManager transactionManager,
+                       TaskScheduler taskScheduler,
+                       PointsProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rocketMQTemplate = rocketMQTemplate;
+        this.sendMetrics = sendMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+        this.settings = properties.getOutbox();
+        this.orderly = properties.getAccrual().getMode() == PointsProperties.AccrualMode.PROJECTION;
+        this.orderingKeys = properties.getProjection().getOrderingKeys();
+
+        Gauge.builder("points.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox rows not yet sent to RocketMQ")
+                .register(meterRegistry);
+        TimeGauge.builder("points.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest unsent outbox row")
+                .register(meterRegistry);
+        this.relayedCounter = Counter.builder("points.outbox.relayed")
+                .description("Outbox rows sent to RocketMQ")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("points.outbox.relay.failures")
+                .description("Outbox relay batches that failed and will be retried")
+                .register(meterRegistry);
+        this.deliveryDelay = Timer.builder("points.outbox.delivery.delay")
+                .description("Time from outbox insert to successful send")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        Duration interval = settings.getFlushInterval();
+        for (int i = 0; i < settings.getParallelism(); i++) {
+            tasks.add(taskScheduler.scheduleWithFixedDelay(this::drain, interval));
+        }
+        tasks.add(taskScheduler.scheduleWithFixedDelay(this::refreshMetrics, interval));
+        tasks.add(taskScheduler.scheduleWithFixedDelay(this::purgeSent, CLEANUP_INTERVAL));
+        running = true;
+        log.info("Outbox relay started with {} workers, batch size {}, flush interval {}",
+                settings.getParallelism(), settings.getBatchSize(), interval);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        tasks.forEach(task -> task.cancel(false));
+        tasks.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Keeps relaying full batches until the backlog is drained, then waits for the next tick.
+     */
+    void drain() {
+        int sent;
+        do {
+            sent = relayBatch();
+        } while (running && sent == settings.getBatchSize());
+    }
+
+    int relayBatch() {
+        try {
+            Integer sent = transactionTemplate.execute(status -> {
+                List<OutboxEvent> events = outboxEventRepository.lockPending(settings.getBatchSize());
+                if (events.isEmpty()) {
+                    return 0;
+                }
+                if (orderly) {
+                    sendOrderly(events);
+                } else {
+                    Map<String, List<Message<?>>> messagesByTopic = new LinkedHashMap<>();
+                    for (OutboxEvent event : events) {
+                        messagesByTopic.computeIfAbsent(event.getTopic(), topic -> new ArrayList<>())
+                                .add(PointsEventSerializer.toMessage(event));
+                    }
+                    messagesByTopic.forEach((topic, messages) ->
+                            sendMetrics.record(topic, () -> rocketMQTemplate.syncSend(topic, messages)));
+                }
+
+                LocalDateTime now = LocalDateTime.now();
+                outboxEventRepository.markSent(events.stream().map(OutboxEvent::getId).toList(), now);
+                events.forEach(event -> deliveryDelay.record(Duration.between(event.getCreatedAt(), now)));
+                return events.size();
+            });
+            int count = sent == null ? 0 : sent;
+            relayedCounter.increment(count);
+            return count;
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.warn("Outbox relay batch failed, rows will be retried", e);
+            return 0;
+        }
+    }
+
+    private void sendOrderly(List<OutboxEvent> events) {
+        Map<OrderedBatchKey, List<Message<?>>> batches = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            String hashKey = event.getMessageKey() == null
+                    ? "" : PointsEventPublisher.orderingKey(event.getMessageKey(), orderingKeys);
+            batches.computeIfAbsent(new OrderedBatchKey(event.getTopic(), hashKey), key -> new ArrayList<>())
+                    .add(PointsEventSerializer.toMessage(event));
+        }
+        batches.forEach((key, messages) -> sendMetrics.record(key.topic(),
+                () -> rocketMQTemplate.syncSendOrderly(key.topic(), messages, key.hashKey())));
+    }
+
+    void refreshMetrics() {
+        try {
+            pending.set(outboxEventRepository.countBySentAtIsNull());
+            LocalDateTime oldest = outboxEventRepository.findOldestPendingCreatedAt();
+            lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh outbox metrics", e);
+        }
+    }
+
+    void purgeSent() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(settings.getRetention());
+        try {
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status ->
+                        outboxEventRepository.deleteSentBefore(cutoff, CLEANUP_CHUNK_SIZE));
+            } while (running && deleted == CLEANUP_CHUNK_SIZE);
+        } catch (RuntimeException e) {
+            log.warn("Failed to purge sent outbox rows", e);
+        }
+    }
+
+    long getPending() {
+        return pending.get();
+    }
+
+    long getLagMillis() {
+        return lagMillis.get();
+    }
+
+    private record OrderedBatchKey(String topic, String hashKey) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.messaging;
+
+import com.example.demo.model.entity.PointRecord;
+
+import java.time.LocalDateTime;
+
+/**
+ * A point credit as published to {@value PointsEventPublisher#POINTS_TOPIC} in the binary format, decoupled from
+ * the {@link PointRecord} entity. Encoded and decoded by {@link PointsEventCodec}.
+ *
+ * @param recordId  id of the point_records row
+ * @param userId    credited user
+ * @param amount    points credited, negative for a debit
+ * @param reason    free-text reason, may be null
+ * @param createdAt when the record was stored, may be null
+ */
+public record PointsEvent(long recordId, String userId, int amount, String reason, LocalDateTime createdAt) {
+
+    public static PointsEvent of(PointRecord pointRecord) {
+        if (pointRecord.getId() == null) {
+            throw new IllegalArgumentException("Point record has no id yet");
+        }
+        return new PointsEvent(pointRecord.getId(), pointRecord.getUserId(), pointRecord.getAmount(),
+                pointRecord.getReason(), pointRecord.getCreatedAt());
+    }
+
+    public PointRecord toPointRecord() {
+        PointRecord pointRecord = new PointRecord();
+        pointRecord.setId(recordId);
+        pointRecord.setUserId(userId);
+        pointRecord.setAmount(amount);
+        pointRecord.setReason(reason);
+        pointRecord.setCreatedAt(createdAt);
+        return pointRecord;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.demo.messaging;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary encoding of {@link PointsEvent}s. One message body is an envelope of one or more events:
+ * {@code version(1) flags(1) body}, where body is {@code count(varint)} followed by the events, each as
+ * {@code fields(1) recordId(zigzag varint delta) amount(zigzag varint) userId(varint length + UTF-8)
+ * [createdAt epoch micros UTC(zigzag varint delta)] [reason(varint length + UTF-8)]}. Record ids and timestamps
+ * are deltas from the previous event of the envelope, so a bulk envelope costs a few bytes per credit beyond the
+ * strings. When {@link #DEFLATED} is set, body is {@code length(varint)} followed by the deflated body.
+ * <p>
+ * Messages carry the user property {@value #FORMAT_PROPERTY}={@value #FORMAT}; messages without it are the JSON
+ * serialization of the PointRecord entity. Envelopes of another version are rejected rather than guessed at, so a
+ * layout change needs a new {@link #VERSION} and consumers that read it before producers write it. The class has
+ * no Spring dependencies so that consumers of the topic can reuse it.
+ */
+public final class PointsEventCodec {
+
+    public static final String FORMAT_PROPERTY = "pointsFormat";
+    public static final String FORMAT = "binary";
+    public static final byte VERSION = 1;
+
+    public static final int DEFLATED = 1;
+
+    /**
+     * Upper bound of a decoded body; RocketMQ rejects messages over 4 MiB, so anything larger is corrupt.
+     */
+    private static final int MAX_BODY_BYTES = 4 * 1024 * 1024;
+
+    private static final int HAS_CREATED_AT = 1;
+    private static final int HAS_REASON = 1 << 1;
+
+    private PointsEventCodec() {
+    }
+
+    public static byte[] encode(PointsEvent event) {
+        return encode(List.of(event), -1);
+    }
+
+    /**
+     * Encodes the events as one envelope, deflated when the body is at least {@code compressionMinBytes} long
+     * and compressing makes it smaller. A negative threshold never compresses.
+     */
+    public static byte[] encode(List<PointsEvent> events, int compressionMinBytes) {
+        if (events.isEmpty()) {
+            throw new IllegalArgumentException("An envelope needs at least one event");
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(16 + events.size() * 32);
+        writeVarLong(body, events.size());
+        long previousId = 0;
+        long previousMicros = 0;
+        for (PointsEvent event : events) {
+            LocalDateTime createdAt = event.createdAt();
+            int fields = (createdAt != null ? HAS_CREATED_AT : 0) | (event.reason() != null ? HAS_REASON : 0);
+            body.write(fields);
+            writeVarLong(body, zigZag(event.recordId() - previousId));
+            previousId = event.recordId();
+            writeVarLong(body, zigZag(event.amount()));
+            writeString(body, event.userId());
+            if (createdAt != null) {
+                long micros = ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), createdAt);
+                writeVarLong(body, zigZag(micros - previousMicros));
+                previousMicros = micros;
+            }
+            if (event.reason() != null) {
+                writeString(body, event.reason());
+            }
+        }
+
+        byte[] plain = body.toByteArray();
+        if (compressionMinBytes >= 0 && plain.length >= compressionMinBytes) {
+            byte[] deflated = deflate(plain);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(deflated.length + 8);
+            out.write(VERSION);
+            out.write(DEFLATED);
+            writeVarLong(out, plain.length);
+            out.writeBytes(deflated);
+            if (out.size() < plain.length + 2) {
+                return out.toByteArray();
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(plain.length + 2);
+        out.write(VERSION);
+        out.write(0);
+        out.writeBytes(plain);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes an envelope into its events, in the order they were encoded.
+     *
+     * @throws IllegalArgumentException if the bytes are not an envelope of this version
+     */
+    public static List<PointsEvent> decode(byte[] bytes) {
+        if (bytes == null || bytes.length < 2) {
+            throw new IllegalArgumentException("Points event envelope is truncated");
+        }
+        if (bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported points event envelope version " + bytes[0]);
+        }
+        try {
+            ByteBuffer body = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+            if ((bytes[1] & DEFLATED) != 0) {
+                body = ByteBuffer.wrap(inflate(body, checkedLength(readVarLong(body), MAX_BODY_BYTES)));
+            }
+            int count = checkedLength(readVarLong(body), body.remaining());
+            List<PointsEvent> events = new ArrayList<>(count);
+            long previousId = 0;
+            long previousMicros = 0;
+            for (int i = 0; i < count; i++) {
+                int fields = body.get();
+                long recordId = previousId + unZigZag(readVarLong(body));
+                previousId = recordId;
+                int amount = Math.toIntExact(unZigZag(readVarLong(body)));
+                String userId = readString(body);
+                LocalDateTime createdAt = null;
+                if ((fields & HAS_CREATED_AT) != 0) {
+                    long micros = previousMicros + unZigZag(readVarLong(body));
+                    previousMicros = micros;
+                    createdAt = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                            (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+                }
+                String reason = (fields & HAS_REASON) != 0 ? readString(body) : null;
+                events.add(new PointsEvent(recordId, userId, amount, reason, createdAt));
+            }
+            return events;
+        } catch (BufferUnderflowException | ArithmeticException | DataFormatException e) {
+            throw new IllegalArgumentException("Malformed points event envelope", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] plain) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(plain);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(plain.length / 2 + 16);
+            byte[] chunk = new byte[Math.min(plain.length + 16, 8192)];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(ByteBuffer deflated, int length) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            byte[] plain = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(plain, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length || !inflater.finished()) {
+                throw new DataFormatException("Deflated body does not match its declared length " + length);
+            }
+            return plain;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = checkedLength(readVarLong(in), in.remaining());
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new ArithmeticException("Varint longer than 10 bytes");
+    }
+
+    private static int checkedLength(long length, int max) {
+        if (length < 0 || length > max) {
+            throw new ArithmeticException("Length " + length + " out of range");
+        }
+        return (int) length;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.messaging;
+
+import com.example.demo.model.entity.PointRecord;
+
+import java.util.List;
+
+/**
+ * Publishes point credits to {@value #POINTS_TOPIC}. Messages are keyed by userId; in projection mode they are
+ * also sent orderly by {@link #orderingKey}, so all credits of a user land on the same queue.
+ */
+public interface PointsEventPublisher {
+
+    String POINTS_TOPIC = "user-points-topic";
+
+    void publish(PointRecord pointRecord);
+
+    void publishAll(List<PointRecord> pointRecords);
+
+    /**
+     * Hash key used to select the queue of a user's events. Spreading users over a fixed number of keys rather
+     * than hashing the userId directly keeps the mapping stable however the userIds are distributed.
+     */
+    static String orderingKey(String userId, int keys) {
+        return "k" + Math.floorMod(userId.hashCode(), keys);
+    }
+}
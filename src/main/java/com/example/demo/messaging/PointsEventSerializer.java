@@ -0,0 +1,123 @@
+package com.example.demo.messaging;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.OutboxEvent;
+import com.example.demo.model.entity.PointRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.apache.rocketmq.spring.support.RocketMQHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns point records into user-points-topic message bodies in the configured {@code points.events.format}, for
+ * the outbox and for direct sends alike.
+ * <p>
+ * In the binary format the records of a bulk credit are packed into envelopes of up to
+ * {@code points.batch.message-batch-size} events, one message each. In projection mode an envelope only holds users
+ * of one ordering key, so it can be sent orderly. The message key of an envelope is its first userId.
+ */
+@Component
+@RequiredArgsConstructor
+public class PointsEventSerializer {
+
+    private final ObjectMapper objectMapper;
+    private final PointsProperties properties;
+
+    public boolean isBinary() {
+        return properties.getEvents().getFormat() == PointsProperties.EventFormat.BINARY;
+    }
+
+    /**
+     * One outbox row per record in the JSON format, one per envelope in the binary format.
+     */
+    public List<OutboxEvent> toOutboxEvents(List<PointRecord> pointRecords) {
+        if (!isBinary()) {
+            return pointRecords.stream().map(this::toJsonOutboxEvent).toList();
+        }
+        return envelopes(pointRecords).stream()
+                .map(envelope -> {
+                    OutboxEvent event = new OutboxEvent();
+                    event.setTopic(PointsEventPublisher.POINTS_TOPIC);
+                    event.setMessageKey(envelope.get(0).getUserId());
+                    // The outbox payload column is text, so the envelope is stored as Base64 and decoded by the relay
+                    event.setPayload(Base64.getEncoder().encodeToString(encode(envelope)));
+                    event.setPayloadFormat(PointsEventCodec.FORMAT);
+                    return event;
+                })
+                .toList();
+    }
+
+    /**
+     * Binary envelope messages for direct sends; only used in the binary format.
+     */
+    public List<Message<byte[]>> toMessages(List<PointRecord> pointRecords) {
+        return envelopes(pointRecords).stream()
+                .map(envelope -> binaryMessage(encode(envelope), envelope.get(0).getUserId()))
+                .toList();
+    }
+
+    /**
+     * The message the outbox relay sends for a stored row.
+     */
+    public static Message<?> toMessage(OutboxEvent event) {
+        if (PointsEventCodec.FORMAT.equals(event.getPayloadFormat())) {
+            return binaryMessage(Base64.getDecoder().decode(event.getPayload()), event.getMessageKey());
+        }
+        return MessageBuilder.withPayload(event.getPayload())
+                .setHeader(RocketMQHeaders.KEYS, event.getMessageKey())
+                .build();
+    }
+
+    List<List<PointRecord>> envelopes(List<PointRecord> pointRecords) {
+        int envelopeSize = properties.getBatch().getMessageBatchSize();
+        Map<String, List<PointRecord>> groups = new LinkedHashMap<>();
+        if (properties.getAccrual().getMode() == PointsProperties.AccrualMode.PROJECTION) {
+            int keys = properties.getProjection().getOrderingKeys();
+            pointRecords.forEach(pointRecord -> groups.computeIfAbsent(
+                    PointsEventPublisher.orderingKey(pointRecord.getUserId(), keys),
+                    key -> new ArrayList<>()).add(pointRecord));
+        } else {
+            groups.put("", pointRecords);
+        }
+        List<List<PointRecord>> envelopes = new ArrayList<>();
+        for (List<PointRecord> group : groups.values()) {
+            for (int from = 0; from < group.size(); from += envelopeSize) {
+                envelopes.add(group.subList(from, Math.min(from + envelopeSize, group.size())));
+            }
+        }
+        return envelopes;
+    }
+
+    private byte[] encode(List<PointRecord> envelope) {
+        return PointsEventCodec.encode(envelope.stream().map(PointsEvent::of).toList(),
+                properties.getEvents().getCompressionMinBytes());
+    }
+
+    private OutboxEvent toJsonOutboxEvent(PointRecord pointRecord) {
+        OutboxEvent event = new OutboxEvent();
+        event.setTopic(PointsEventPublisher.POINTS_TOPIC);
+        event.setMessageKey(pointRecord.getUserId());
+        try {
+            event.setPayload(objectMapper.writeValueAsString(pointRecord));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize point record " + pointRecord.getId(), e);
+        }
+        return event;
+    }
+
+    private static Message<byte[]> binaryMessage(byte[] body, String messageKey) {
+        return MessageBuilder.withPayload(body)
+                .setHeader(RocketMQHeaders.KEYS, messageKey)
+                .setHeader(PointsEventCodec.FORMAT_PROPERTY, PointsEventCodec.FORMAT)
+                .build();
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.messaging;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.service.PointsProjector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
+import org.apache.rocketmq.client.consumer.listener.ConsumeOrderlyStatus;
+import org.apache.rocketmq.client.consumer.listener.MessageListenerOrderly;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consumes {@value PointsEventPublisher#POINTS_TOPIC} in projection mode and hands each queue's messages to
+ * {@link PointsProjector} in micro-batches of up to {@code points.projection.batch-size} messages. Both event
+ * formats are read, so {@code points.events.format} can be switched while messages of the other are queued.
+ * <p>
+ * The listener is orderly: a queue is consumed by one thread at a time and a failed batch is retried before the
+ * queue moves on. Publishers pick the queue from the userId in projection mode, so a user's credits are applied in
+ * the order they were sent. Per queue, {@code points.projection.lag} is the age of the newest applied message and
+ * {@code points.projection.lag.messages} the number of messages behind it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "points.accrual", name = "mode", havingValue = "projection")
+public class PointsProjectionConsumer implements SmartLifecycle {
+
+    private static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(1);
+
+    private final PointsProjector projector;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+    private final MeterRegistry meterRegistry;
+    private final PointsProperties.Projection settings;
+    private final String nameServer;
+
+    private final ConcurrentMap<String, QueueLag> lagByQueue = new ConcurrentHashMap<>();
+    private final Counter malformedCounter;
+
+    private DefaultMQPushConsumer consumer;
+    private ScheduledFuture<?> cleanupTask;
+    private volatile boolean running;
+
+    public PointsProjectionConsumer(PointsProjector projector,
+                                    ObjectMapper objectMapper,
+                                    TaskScheduler taskScheduler,
+                                    MeterRegistry meterRegistry,
+                                    PointsProperties properties,
+                                    @Value("${rocketmq.name-server}") String nameServer) {
+        this.projector = projector;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.meterRegistry = meterRegistry;
+        this.settings = properties.getProjection();
+        this.nameServer = nameServer;
+        this.malformedCounter = Counter.builder("points.projection.malformed")
+                .description("user-points-topic messages the projection could not read and skipped")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        consumer = new DefaultMQPushConsumer(settings.getConsumerGroup());
+        consumer.setNamesrvAddr(nameServer);
+        consumer.setConsumeMessageBatchMaxSize(settings.getBatchSize());
+        consumer.setPullBatchSize(Math.max(consumer.getPullBatchSize(), settings.getBatchSize()));
+        consumer.setConsumeThreadMin(settings.getConsumeThreads());
+        consumer.setConsumeThreadMax(settings.getConsumeThreads());
+        consumer.registerMessageListener((MessageListenerOrderly) (messages, context) ->
+                consume(messages, context.getMessageQueue()));
+        try {
+            consumer.subscribe(PointsEventPublisher.POINTS_TOPIC, "*");
+            consumer.start();
+        } catch (MQClientException e) {
+            throw new IllegalStateException("Failed to start the points projection consumer", e);
+        }
+        cleanupTask = taskScheduler.scheduleWithFixedDelay(projector::purgeExpired, CLEANUP_INTERVAL);
+        running = true;
+        log.info("Points projection consuming {} as {}, up to {} messages per batch",
+                PointsEventPublisher.POINTS_TOPIC, settings.getConsumerGroup(), settings.getBatchSize());
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (cleanupTask != null) {
+            cleanupTask.cancel(false);
+        }
+        if (consumer != null) {
+            // Waits for in-flight batches and persists the consumed offsets
+            consumer.shutdown();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    ConsumeOrderlyStatus consume(List<MessageExt> messages, MessageQueue queue) {
+        List<PointRecord> records = new ArrayList<>(messages.size());
+        for (MessageExt message : messages) {
+            try {
+                if (PointsEventCodec.FORMAT.equals(message.getProperty(PointsEventCodec.FORMAT_PROPERTY))) {
+                    PointsEventCodec.decode(message.getBody()).forEach(event -> records.add(event.toPointRecord()));
+                } else {
+                    records.add(objectMapper.readValue(message.getBody(), PointRecord.class));
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                // Retrying cannot fix the payload, and an orderly queue would stall on it
+                malformedCounter.increment();
+                log.error("Skipping malformed {} message {}", message.getTopic(), message.getMsgId(), e);
+            }
+        }
+        try {
+            projector.apply(records);
+        } catch (RuntimeException e) {
+            log.warn("Projection of {} messages from {} failed, retrying", messages.size(), queue, e);
+            return ConsumeOrderlyStatus.SUSPEND_CURRENT_QUEUE_A_MOMENT;
+        }
+        recordLag(queue, messages.get(messages.size() - 1));
+        return ConsumeOrderlyStatus.SUCCESS;
+    }
+
+    private void recordLag(MessageQueue queue, MessageExt last) {
+        QueueLag lag = lagByQueue.computeIfAbsent(queue.getBrokerName() + "-" + queue.getQueueId(), this::registerLag);
+        lag.millis().set(Math.max(0, System.currentTimeMillis() - last.getStoreTimestamp()));
+        String maxOffset = last.getProperty(MessageConst.PROPERTY_MAX_OFFSET);
+        if (maxOffset != null) {
+            lag.messages().set(Math.max(0, Long.parseLong(maxOffset) - last.getQueueOffset() - 1));
+        }
+    }
+
+    private QueueLag registerLag(String queue) {
+        QueueLag lag = new QueueLag(new AtomicLong(), new AtomicLong());
+        TimeGauge.builder("points.projection.lag", lag.millis(), TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the newest user-points-topic message the projection has applied")
+                .tag("queue", queue)
+                .register(meterRegistry);
+        Gauge.builder("points.projection.lag.messages", lag.messages(), AtomicLong::get)
+                .description("user-points-topic messages stored after the newest one the projection has applied")
+                .tag("queue", queue)
+                .register(meterRegistry);
+        return lag;
+    }
+
+    long lagMillis(String queue) {
+        QueueLag lag = lagByQueue.get(queue);
+        return lag == null ? -1 : lag.millis().get();
+    }
+
+    long lagMessages(String queue) {
+        QueueLag lag = lagByQueue.get(queue);
+        return lag == null ? -1 : lag.messages().get();
+    }
+
+    private record QueueLag(AtomicLong millis, AtomicLong messages) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.messaging;
+
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.repository.ReactivePointsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Writes events to the points_outbox table with R2DBC in the caller's reactive transaction; {@link OutboxRelay}
+ * sends them like those written by {@link OutboxPointsEventPublisher}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(prefix = "points.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveOutboxPointsEventPublisher implements ReactivePointsEventPublisher {
+
+    private final ReactivePointsRepository reactivePointsRepository;
+    private final PointsEventSerializer serializer;
+
+    @Override
+    public Mono<Void> publish(PointRecord pointRecord) {
+        return publishAll(List.of(pointRecord));
+    }
+
+    @Override
+    public Mono<Void> publishAll(List<PointRecord> pointRecords) {
+        return Mono.fromCallable(() -> serializer.toOutboxEvents(pointRecords))
+                .flatMap(reactivePointsRepository::insertOutboxEvents);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.messaging;
+
+import com.example.demo.model.entity.PointRecord;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * {@link PointsEventPublisher} for the reactive stack: same topic, keys and payloads, completing when the event
+ * is written to the outbox or acknowledged by the broker.
+ */
+public interface ReactivePointsEventPublisher {
+
+    Mono<Void> publish(PointRecord pointRecord);
+
+    Mono<Void> publishAll(List<PointRecord> pointRecords);
+}
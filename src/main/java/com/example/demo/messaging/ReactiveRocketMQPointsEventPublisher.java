@@ -0,0 +1,89 @@
+package com.example.demo.messaging;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.PointRecord;
+import lombok.RequiredArgsConstructor;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.apache.rocketmq.spring.support.RocketMQHeaders;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Sends events straight to the broker with RocketMQ's async send, completing on the send callback instead of
+ * blocking an event-loop thread. Used when the outbox is disabled.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(prefix = "points.outbox", name = "enabled", havingValue = "false")
+public class ReactiveRocketMQPointsEventPublisher implements ReactivePointsEventPublisher {
+
+    private static final String POINTS_TOPIC = PointsEventPublisher.POINTS_TOPIC;
+
+    private final RocketMQTemplate rocketMQTemplate;
+    private final PointsProperties properties;
+    private final RocketMQSendMetrics sendMetrics;
+    private final PointsEventSerializer serializer;
+
+    @Override
+    public Mono<Void> publish(PointRecord pointRecord) {
+        if (serializer.isBinary()) {
+            return publishAll(List.of(pointRecord));
+        }
+        return send(callback -> rocketMQTemplate.asyncSend(POINTS_TOPIC, pointRecord, callback));
+    }
+
+    @Override
+    public Mono<Void> publishAll(List<PointRecord> pointRecords) {
+        if (serializer.isBinary()) {
+            return Flux.defer(() -> Flux.fromIterable(serializer.toMessages(pointRecords)))
+                    .concatMap(message -> send(callback -> rocketMQTemplate.asyncSend(POINTS_TOPIC, message, callback)))
+                    .then();
+        }
+        int chunkSize = properties.getBatch().getMessageBatchSize();
+        return Flux.range(0, (pointRecords.size() + chunkSize - 1) / chunkSize)
+                .map(chunk -> pointRecords
+                        .subList(chunk * chunkSize, Math.min((chunk + 1) * chunkSize, pointRecords.size())).stream()
+                        .map(pointRecord -> MessageBuilder.withPayload(pointRecord)
+                                .setHeader(RocketMQHeaders.KEYS, pointRecord.getUserId())
+                                .build())
+                        .toList())
+                .concatMap(messages -> send(callback -> rocketMQTemplate.<Message<PointRecord>>asyncSend(
+                        POINTS_TOPIC, messages, callback)))
+                .then();
+    }
+
+    private Mono<Void> send(Consumer<SendCallback> asyncSend) {
+        return Mono.<Void>create(sink -> {
+            long start = System.nanoTime();
+            try {
+                asyncSend.accept(new SendCallback() {
+                    @Override
+                    public void onSuccess(SendResult sendResult) {
+                        sendMetrics.succeeded(POINTS_TOPIC, start);
+                        sink.success();
+                    }
+
+                    @Override
+                    public void onException(Throwable e) {
+                        sendMetrics.failed(POINTS_TOPIC, start, e);
+                        sink.error(e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                sendMetrics.failed(POINTS_TOPIC, start, e);
+                sink.error(e);
+            }
+        });
+    }
+}
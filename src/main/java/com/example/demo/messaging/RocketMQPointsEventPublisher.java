@@ -0,0 +1,99 @@
+package com.example.demo.messaging;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.PointRecord;
+import lombok.RequiredArgsConstructor;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.apache.rocketmq.spring.support.RocketMQHeaders;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends events straight to the broker on the calling thread, inside the caller's transaction.
+ * Used when the outbox is disabled. In the binary event format a bulk credit is sent as envelopes, one per message.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "points.outbox", name = "enabled", havingValue = "false")
+public class RocketMQPointsEventPublisher implements PointsEventPublisher {
+
+    private final RocketMQTemplate rocketMQTemplate;
+    private final PointsProperties properties;
+    private final RocketMQSendMetrics sendMetrics;
+    private final PointsEventSerializer serializer;
+
+    @Override
+    public void publish(PointRecord pointRecord) {
+        if (serializer.isBinary()) {
+            sendEnvelopes(List.of(pointRecord));
+            return;
+        }
+        if (isOrderly()) {
+            String hashKey = PointsEventPublisher.orderingKey(pointRecord.getUserId(),
+                    properties.getProjection().getOrderingKeys());
+            sendMetrics.record(POINTS_TOPIC, () -> rocketMQTemplate.syncSendOrderly(POINTS_TOPIC, pointRecord, hashKey));
+            return;
+        }
+        sendMetrics.record(POINTS_TOPIC, () -> rocketMQTemplate.convertAndSend(POINTS_TOPIC, pointRecord));
+    }
+
+    @Override
+    public void publishAll(List<PointRecord> pointRecords) {
+        if (serializer.isBinary()) {
+            sendEnvelopes(pointRecords);
+            return;
+        }
+        int chunkSize = properties.getBatch().getMessageBatchSize();
+        for (int from = 0; from < pointRecords.size(); from += chunkSize) {
+            List<Message<PointRecord>> messages = pointRecords
+                    .subList(from, Math.min(from + chunkSize, pointRecords.size())).stream()
+                    .map(pointRecord -> MessageBuilder.withPayload(pointRecord)
+                            .setHeader(RocketMQHeaders.KEYS, pointRecord.getUserId())
+                            .build())
+                    .toList();
+            if (isOrderly()) {
+                sendOrderly(messages);
+            } else {
+                sendMetrics.record(POINTS_TOPIC, () -> rocketMQTemplate.syncSend(POINTS_TOPIC, messages));
+            }
+        }
+    }
+
+    /**
+     * A batch send goes to a single queue, so the chunk is split into one batch per ordering key.
+     */
+    private void sendOrderly(List<Message<PointRecord>> messages) {
+        int keys = properties.getProjection().getOrderingKeys();
+        Map<String, List<Message<PointRecord>>> byKey = new LinkedHashMap<>();
+        for (Message<PointRecord> message : messages) {
+            byKey.computeIfAbsent(PointsEventPublisher.orderingKey(message.getPayload().getUserId(), keys),
+                    key -> new ArrayList<>()).add(message);
+        }
+        byKey.forEach((hashKey, batch) ->
+                sendMetrics.record(POINTS_TOPIC, () -> rocketMQTemplate.syncSendOrderly(POINTS_TOPIC, batch, hashKey)));
+    }
+
+    private void sendEnvelopes(List<PointRecord> pointRecords) {
+        int keys = properties.getProjection().getOrderingKeys();
+        for (Message<byte[]> message : serializer.toMessages(pointRecords)) {
+            if (isOrderly()) {
+                String hashKey = PointsEventPublisher.orderingKey(
+                        (String) message.getHeaders().get(RocketMQHeaders.KEYS), keys);
+                sendMetrics.record(POINTS_TOPIC, () -> rocketMQTemplate.syncSendOrderly(POINTS_TOPIC, message, hashKey));
+            } else {
+                sendMetrics.record(POINTS_TOPIC, () -> rocketMQTemplate.syncSend(POINTS_TOPIC, message));
+            }
+        }
+    }
+
+    private boolean isOrderly() {
+        return properties.getAccrual().getMode() == PointsProperties.AccrualMode.PROJECTION;
+    }
+}
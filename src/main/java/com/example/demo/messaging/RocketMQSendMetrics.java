@@ -0,0 +1,74 @@
+package com.example.demo.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latency of RocketMQ sends ({@code points.mq.send}, tagged by topic and outcome) and failed sends by exception
+ * type ({@code points.mq.send.failures}). A batch send is one send.
+ */
+@Component
+public class RocketMQSendMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> successTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> failureTimers = new ConcurrentHashMap<>();
+
+    public RocketMQSendMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String topic, Runnable send) {
+        record(topic, () -> {
+            send.run();
+            return null;
+        });
+    }
+
+    public <T> T record(String topic, Supplier<T> send) {
+        long start = System.nanoTime();
+        try {
+            T result = send.get();
+            succeeded(topic, start);
+            return result;
+        } catch (RuntimeException e) {
+            failed(topic, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Records a send started at {@code startNanos} ({@link System#nanoTime()}) that succeeded, for sends whose
+     * outcome arrives on a callback.
+     */
+    public void succeeded(String topic, long startNanos) {
+        successTimers.computeIfAbsent(topic, key -> timer(key, "success")).record(System.nanoTime() - startNanos,
+                TimeUnit.NANOSECONDS);
+    }
+
+    public void failed(String topic, long startNanos, Throwable error) {
+        failureTimers.computeIfAbsent(topic, key -> timer(key, "failure")).record(System.nanoTime() - startNanos,
+                TimeUnit.NANOSECONDS);
+        Counter.builder("points.mq.send.failures")
+                .description("RocketMQ sends that threw, by exception type")
+                .tag("topic", topic)
+                .tag("exception", error.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer timer(String topic, String outcome) {
+        return Timer.builder("points.mq.send")
+                .description("Time taken by RocketMQ sends, including batch sends")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
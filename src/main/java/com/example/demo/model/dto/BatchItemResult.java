@@ -0,0 +1,24 @@
+package com.example.demo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+    private int index;
+    private String userId;
+    private boolean success;
+    private Long recordId;
+    private String error;
+
+    public static BatchItemResult succeeded(int index, String userId, Long recordId) {
+        return new BatchItemResult(index, userId, true, recordId, null);
+    }
+
+    public static BatchItemResult failed(int index, String userId, String error) {
+        return new BatchItemResult(index, userId, false, null, error);
+    }
+}
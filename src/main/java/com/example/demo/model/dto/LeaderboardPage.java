@@ -0,0 +1,17 @@
+package com.example.demo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardPage {
+    private int page;
+    private int size;
+    private long totalUsers;
+    private List<RankedEntry> entries;
+}
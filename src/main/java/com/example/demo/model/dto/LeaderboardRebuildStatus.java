@@ -0,0 +1,36 @@
+package com.example.demo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardRebuildStatus {
+
+    public enum State {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        /**
+         * Another node held the rebuild lock.
+         */
+        SKIPPED,
+        FAILED
+    }
+
+    private State state;
+    private String trigger;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long processedUsers;
+    /**
+     * Row count of user_points when the rebuild started.
+     */
+    private long totalUsers;
+    private int warmedCacheEntries;
+    private String error;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.model.dto;
+
+import com.example.demo.model.entity.PointRecord;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PointRecordPage {
+    private List<PointRecord> records;
+    /**
+     * Value for the {@code before} parameter of the next page, or null when this is the last page.
+     */
+    private Long nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.example.demo.model.dto;
+
+import com.example.demo.model.entity.UserPoints;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PointsLookupResponse {
+    /**
+     * Totals of the known users, in request order.
+     */
+    private List<UserPoints> users;
+    /**
+     * Requested userIds without points, in request order.
+     */
+    private List<String> unknownUserIds;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankedEntry {
+    /**
+     * 1-based position on the leaderboard.
+     */
+    private long rank;
+    private String userId;
+    private Double total;
+}
@@ -0,0 +1,23 @@
+package com.example.demo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRank {
+    private String userId;
+    /**
+     * 1-based position on the leaderboard.
+     */
+    private long rank;
+    private Double total;
+    /**
+     * The entries ranked just above and below the user, including the user.
+     */
+    private List<RankedEntry> neighbours;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Next unallocated id of a table whose ids are handed out in blocks by the application instead of
+ * AUTO_INCREMENT (see PointRecordIdAllocator).
+ */
+@Data
+@Entity
+@Table(name = "points_id_sequence")
+public class IdSequence {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "next_val", nullable = false)
+    private Long nextVal;
+}
@@ -0,0 +1,47 @@
+package com.example.demo.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "points_outbox", indexes = @Index(name = "idx_outbox_pending", columnList = "sent_at, id"))
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(name = "message_key")
+    private String messageKey;
+
+    /**
+     * Message body; Base64 of the envelope when {@link #payloadFormat} is binary.
+     */
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    /**
+     * {@code PointsEventCodec.FORMAT} for binary envelopes, null for JSON (rows written by earlier releases).
+     */
+    @Column(name = "payload_format", length = 16)
+    private String payloadFormat;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
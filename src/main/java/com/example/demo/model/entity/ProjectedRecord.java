@@ -0,0 +1,22 @@
+package com.example.demo.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * A point record whose credit the projection has applied to user_points and the leaderboard, so a redelivered
+ * event for it is skipped.
+ */
+@Data
+@Entity
+@Table(name = "points_projected_records", indexes = @Index(name = "idx_projected_at", columnList = "projected_at"))
+public class ProjectedRecord {
+
+    @Id
+    @Column(name = "record_id")
+    private Long recordId;
+
+    @Column(name = "projected_at", nullable = false)
+    private LocalDateTime projectedAt;
+}
@@ -0,0 +1,22 @@
+package com.example.demo.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single row the nodes rewrite on the primary with its current time; its age on a replica is how far the replica
+ * lags behind (see ReplicaHealthChecker).
+ */
+@Data
+@Entity
+@Table(name = "replica_heartbeat")
+public class ReplicaHeartbeat {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "beat_at", nullable = false)
+    private LocalDateTime beatAt;
+}
@@ -0,0 +1,282 @@
+package com.example.demo.redis;
+
+import com.example.demo.config.PointsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker for this node's Redis calls, so a slow or unreachable Redis costs a request nothing instead of
+ * a command timeout.
+ * <p>
+ * CLOSED: calls run, and the outcome of the last {@code points.redis.window-size} is kept; a call counts as
+ * failed when it throws a {@link DataAccessException} or takes longer than {@code slow-call-threshold}. Once
+ * {@code failure-rate-threshold} of a full window failed, the circuit opens. OPEN: calls fail at once with
+ * {@link RedisCircuitOpenException} for {@code open-duration}. HALF_OPEN: one trial call is let through (from a
+ * request or from {@code RedisRecoveryJob}'s probe); it closes the circuit with an empty window or opens it again.
+ * <p>
+ * Callers with a degraded answer pass it as the fallback of {@link #execute(Supplier, Supplier)}; MySQL loads
+ * that stand in for the cache go through {@link #fallback(Supplier)}, which caps them while the circuit is not
+ * closed. Transitions are logged and counted in {@code points.redis.circuit.transitions{from,to}}, the current
+ * state is {@code points.redis.circuit.state{state}} (1 for the current one).
+ */
+@Slf4j
+@Component
+public class RedisCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final PointsProperties.Redis settings;
+    private final LongSupplier nanoTime;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final Semaphore fallbackPermits;
+    private final Counter fallbackRejected;
+    private final Map<String, Counter> calls = new HashMap<>();
+    private final Map<State, Map<State, Counter>> transitions = new EnumMap<>(State.class);
+
+    // A lock rather than synchronized: transitions are logged, which must not pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCalls;
+    private int windowFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private volatile State state = State.CLOSED;
+
+    @Autowired
+    public RedisCircuitBreaker(PointsProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RedisCircuitBreaker(PointsProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.settings = properties.getRedis();
+        this.nanoTime = nanoTime;
+        this.slowCallNanos = settings.getSlowCallThreshold().toNanos();
+        this.openNanos = settings.getOpenDuration().toNanos();
+        this.window = new boolean[settings.getWindowSize()];
+        this.fallbackPermits = new Semaphore(settings.getFallbackConcurrency());
+        this.fallbackRejected = Counter.builder("points.redis.fallback.rejected")
+                .description("MySQL fallback reads refused with 503 because fallback-concurrency was reached")
+                .register(meterRegistry);
+        for (String outcome : List.of("success", "slow", "failure", "not_permitted")) {
+            calls.put(outcome, Counter.builder("points.redis.circuit.calls")
+                    .description("Redis calls seen by the circuit breaker, by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+        for (State from : State.values()) {
+            Map<State, Counter> fromCounters = new EnumMap<>(State.class);
+            for (State to : State.values()) {
+                if (to != from) {
+                    fromCounters.put(to, Counter.builder("points.redis.circuit.transitions")
+                            .description("State changes of the Redis circuit breaker")
+                            .tag("from", tag(from))
+                            .tag("to", tag(to))
+                            .register(meterRegistry));
+                }
+            }
+            transitions.put(from, fromCounters);
+        }
+        for (State candidate : State.values()) {
+            Gauge.builder("points.redis.circuit.state", this, breaker -> breaker.state == candidate ? 1 : 0)
+                    .description("1 for the current state of the Redis circuit breaker")
+                    .tag("state", tag(candidate))
+                    .register(meterRegistry);
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Runs {@code call} unless the circuit is open, recording its outcome.
+     *
+     * @throws RedisCircuitOpenException when the circuit refuses the call
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (!tryAcquirePermission()) {
+            count("not_permitted");
+            throw new RedisCircuitOpenException("Redis circuit is " + tag(state));
+        }
+        long startedAt = nanoTime.getAsLong();
+        boolean failed = false;
+        try {
+            return call.get();
+        } catch (DataAccessException e) {
+            failed = true;
+            throw e;
+        } finally {
+            onCompleted(failed, nanoTime.getAsLong() - startedAt);
+        }
+    }
+
+    /**
+     * {@link #execute(Supplier)}, answering with {@code fallback} when the circuit refuses the call or Redis
+     * fails it.
+     */
+    public <T> T execute(Supplier<T> call, Supplier<T> fallback) {
+        try {
+            return execute(call);
+        } catch (DataAccessException e) {
+            log.debug("Redis call failed or refused, using the fallback", e);
+            return fallback.get();
+        }
+    }
+
+    public void run(Runnable call, Runnable fallback) {
+        execute(() -> {
+            call.run();
+            return null;
+        }, () -> {
+            fallback.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a MySQL load that replaces a cache read. While the circuit is not closed at most
+     * {@code fallback-concurrency} run at once, so the database takes over the reads without being flooded.
+     *
+     * @throws RedisCircuitOpenException when no permit frees up within {@code fallback-max-wait}
+     */
+    public <T> T fallback(Supplier<T> load) {
+        if (state == State.CLOSED) {
+            return load.get();
+        }
+        boolean acquired;
+        try {
+            acquired = fallbackPermits.tryAcquire(settings.getFallbackMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            fallbackRejected.increment();
+            throw new RedisCircuitOpenException("Redis is unavailable and " + settings.getFallbackConcurrency()
+                    + " database fallback reads are already running");
+        }
+        try {
+            return load.get();
+        } finally {
+            fallbackPermits.release();
+        }
+    }
+
+    private boolean tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN && nanoTime.getAsLong() - openedAt >= openNanos) {
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN && !trialInFlight) {
+                trialInFlight = true;
+                return true;
+            }
+            return state == State.CLOSED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onCompleted(boolean failed, long elapsedNanos) {
+        boolean slow = !failed && elapsedNanos > slowCallNanos;
+        count(failed ? "failure" : slow ? "slow" : "success");
+        lock.lock();
+        try {
+            switch (state) {
+                case HALF_OPEN -> {
+                    trialInFlight = false;
+                    if (failed || slow) {
+                        open();
+                    } else {
+                        resetWindow();
+                        transition(State.CLOSED);
+                    }
+                }
+                case CLOSED -> record(failed || slow);
+                case OPEN -> {
+                    // Started before the circuit opened; the window has been cleared meanwhile
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failed) {
+        if (windowCalls == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        window[windowNext] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+        if (windowCalls == window.length
+                && windowFailures >= settings.getFailureRateThreshold() * window.length) {
+            open();
+        }
+    }
+
+    private void open() {
+        openedAt = nanoTime.getAsLong();
+        resetWindow();
+        transition(State.OPEN);
+    }
+
+    private void resetWindow() {
+        windowNext = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        transitions.get(from).get(to).increment();
+        if (to == State.CLOSED) {
+            log.info("Redis circuit {} -> {}", from, to);
+        } else {
+            log.warn("Redis circuit {} -> {}", from, to);
+        }
+    }
+
+    private void count(String outcome) {
+        calls.get(outcome).increment();
+    }
+
+    private static String tag(State state) {
+        return state.name().toLowerCase(Locale.ROOT);
+    }
+}
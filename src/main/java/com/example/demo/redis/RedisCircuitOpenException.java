@@ -0,0 +1,18 @@
+package com.example.demo.redis;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A Redis call refused by the open {@link RedisCircuitBreaker}, or a MySQL fallback refused because its
+ * concurrency cap is reached. A {@link org.springframework.dao.DataAccessException} like the failures the circuit
+ * counts, so callers that handle those handle this too; otherwise the request gets 503.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class RedisCircuitOpenException extends DataAccessResourceFailureException {
+
+    public RedisCircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refuses to start the identity id strategy on a MySQL server whose {@code innodb_autoinc_lock_mode} is 2.
+ * <p>
+ * With {@code rewriteBatchedStatements=true} the driver sends {@link PointRecordRepositoryCustom#saveAllInBatch}
+ * as multi-row INSERTs and derives each row's id from the first one, assuming the statement got consecutive
+ * AUTO_INCREMENT values. Lock modes 0 and 1 guarantee that for such inserts; mode 2 (the MySQL 8.0 default) lets
+ * concurrent statements interleave their values, so the ids read back, and with them the outbox events, could name
+ * another request's rows.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "points.ids", name = "strategy", havingValue = "identity", matchIfMissing = true)
+public class AutoIncrementLockModeCheck {
+
+    static final int INTERLEAVED = 2;
+    private static final String MYSQL = "MySQL";
+
+    public AutoIncrementLockModeCheck(JdbcTemplate jdbcTemplate) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!MYSQL.equals(product)) {
+            return;
+        }
+        Integer lockMode = jdbcTemplate.queryForObject("SELECT @@innodb_autoinc_lock_mode", Integer.class);
+        if (lockMode != null && lockMode == INTERLEAVED) {
+            throw new IllegalStateException("innodb_autoinc_lock_mode=2 can hand a batched INSERT non-consecutive "
+                    + "ids, which points.ids.strategy=identity reads back as consecutive; run MySQL with "
+                    + "innodb_autoinc_lock_mode=1 or use points.ids.strategy=pooled");
+        }
+        log.debug("innodb_autoinc_lock_mode={}, batched INSERTs get consecutive ids", lockMode);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventRepositoryCustom {
+
+    /**
+     * Locks the oldest unsent events. SKIP LOCKED lets several relay workers, on one node or many,
+     * claim disjoint batches without waiting on each other.
+     */
+    @Query(value = """
+            SELECT * FROM points_outbox
+            WHERE sent_at IS NULL
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEvent> lockPending(@Param("limit") int limit);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.sentAt = :sentAt where e.id in :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    long countBySentAtIsNull();
+
+    @Query("select min(e.createdAt) from OutboxEvent e where e.sentAt is null")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    @Modifying
+    @Query(value = "DELETE FROM points_outbox WHERE sent_at < :cutoff LIMIT :limit", nativeQuery = true)
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,13 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.entity.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxEventRepositoryCustom {
+
+    /**
+     * Inserts all events with a single JDBC batch. Generated ids are not read back.
+     */
+    void saveAllInBatch(List<OutboxEvent> events);
+}
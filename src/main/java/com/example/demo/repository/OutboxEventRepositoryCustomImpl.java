@@ -0,0 +1,36 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.entity.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO points_outbox (topic, message_key, payload, payload_format, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void saveAllInBatch(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> args = events.stream()
+                .map(e -> {
+                    if (e.getCreatedAt() == null) {
+                        e.setCreatedAt(now);
+                    }
+                    return new Object[]{e.getTopic(), e.getMessageKey(), e.getPayload(), e.getPayloadFormat(),
+                            Timestamp.valueOf(e.getCreatedAt())};
+                })
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.repository;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.PointRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Assigns point_records ids in memory from blocks reserved in points_id_sequence (hi/lo), so inserts carry their
+ * ids and are batched without reading generated keys back.
+ * <p>
+ * Each node reserves {@code points.ids.allocation-size} ids at a time in a transaction of its own, so a rolled back
+ * request never returns its block and ids have gaps. Ids stay unique across nodes and increase per node, but two
+ * nodes interleave their blocks, so across nodes id order only approximates insert order. The sequence row is
+ * seeded with {@code MAX(id) + 1} of point_records on first use, continuing after the AUTO_INCREMENT ids.
+ * <p>
+ * The column keeps AUTO_INCREMENT, and InnoDB moves the counter past every explicit id, so a node still on the
+ * identity strategy would be handed ids inside blocks reserved here. Every writer has to switch at once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "points.ids", name = "strategy", havingValue = "pooled")
+public class PointRecordIdAllocator {
+
+    static final String SEQUENCE_NAME = "point_records";
+
+    private static final String LOCK_SQL = "SELECT next_val FROM points_id_sequence WHERE name = ? FOR UPDATE";
+    private static final String SEED_SQL = """
+            INSERT INTO points_id_sequence (name, next_val)
+            SELECT ?, COALESCE(MAX(id), 0) + 1 FROM point_records
+            """;
+    private static final String ADVANCE_SQL = "UPDATE points_id_sequence SET next_val = ? WHERE name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int allocationSize;
+
+    // Not synchronized: a virtual thread refilling the block would pin its carrier for the JDBC round trips
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long limit;
+
+    public PointRecordIdAllocator(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  PointsProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.allocationSize = properties.getIds().getAllocationSize();
+    }
+
+    /**
+     * Sets an id on every record that has none.
+     */
+    public void assignIds(List<PointRecord> records) {
+        int missing = (int) records.stream().filter(pointRecord -> pointRecord.getId() == null).count();
+        if (missing == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (limit - next < missing) {
+                // The rest of the current block is abandoned; a large batch gets one block that fits it
+                reserve(Math.max(allocationSize, missing));
+            }
+            for (PointRecord pointRecord : records) {
+                if (pointRecord.getId() == null) {
+                    pointRecord.setId(next++);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reserve(int size) {
+        Long first = transactionTemplate.execute(status -> {
+            Long current = lockedNextValue();
+            if (current == null) {
+                try {
+                    jdbcTemplate.update(SEED_SQL, SEQUENCE_NAME);
+                } catch (DuplicateKeyException e) {
+                    // Another node seeded it first
+                }
+                current = lockedNextValue();
+            }
+            jdbcTemplate.update(ADVANCE_SQL, current + size, SEQUENCE_NAME);
+            return current;
+        });
+        next = first;
+        limit = first + size;
+        log.debug("Reserved point_records ids [{}, {})", next, limit);
+    }
+
+    private Long lockedNextValue() {
+        List<Long> values = jdbcTemplate.queryForList(LOCK_SQL, Long.class, SEQUENCE_NAME);
+        return values.isEmpty() ? null : values.get(0);
+    }
+}
@@ -2,12 +2,44 @@ package com.example.demo.repository;
 
 import com.example.demo.model.entity.PointRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface PointRecordRepository extends JpaRepository<PointRecord, Long> {
-    void deleteByUserId(String userId);
+public interface PointRecordRepository extends JpaRepository<PointRecord, Long>, PointRecordRepositoryCustom {
     List<PointRecord> findByUserId(String userId);
+
+    @Query("select max(r.id) from PointRecord r where r.userId = :userId")
+    Long findMaxIdByUserId(@Param("userId") String userId);
+
+    /**
+     * The user's total computed from the records themselves, for reads that must not wait for the projection.
+     */
+    @Query("select coalesce(sum(r.amount), 0) from PointRecord r where r.userId = :userId")
+    long sumAmountByUserId(@Param("userId") String userId);
+
+    /**
+     * Deletes up to {@code limit} of the user's records with an id up to {@code maxId}, without loading them.
+     * Bounding by id leaves records created after a purge started alone.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM point_records WHERE user_id = :userId AND id <= :maxId LIMIT :limit",
+            nativeQuery = true)
+    int deleteChunkByUserId(@Param("userId") String userId, @Param("maxId") long maxId, @Param("limit") int limit);
+
+    /**
+     * Deletes up to {@code limit} of the user's records created up to {@code createdUntil}, without loading them.
+     * For pooled ids, whose order across nodes does not follow insert order.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM point_records WHERE user_id = :userId AND created_at <= :createdUntil LIMIT :limit",
+            nativeQuery = true)
+    int deleteChunkByUserIdCreatedUntil(@Param("userId") String userId,
+                                        @Param("createdUntil") LocalDateTime createdUntil,
+                                        @Param("limit") int limit);
 }
@@ -0,0 +1,36 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.entity.PointRecord;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface PointRecordRepositoryCustom {
+
+    /**
+     * Inserts all records with a single JDBC batch and assigns the generated ids back onto them.
+     * Bypasses the persistence context, so IDENTITY ids do not force one round trip per row. On MySQL the
+     * generated ids are only right with {@code innodb_autoinc_lock_mode} 0 or 1; see AutoIncrementLockModeCheck.
+     */
+    List<PointRecord> saveAllInBatch(List<PointRecord> records);
+
+    /**
+     * Current time of the database, in microseconds. With pooled ids, created_at and the purge bound both come from
+     * it, so the application nodes' clocks do not need to agree.
+     */
+    LocalDateTime databaseNow();
+
+    /**
+     * Keyset page of the user's records, newest first: at most {@code limit} records with an id below
+     * {@code beforeId} (null for the first page). Served by the (user_id, id) index without an offset scan.
+     */
+    List<PointRecord> findPageByUserId(String userId, Long beforeId, int limit);
+
+    /**
+     * Streams all of the user's records, newest first, through a forward-only result set fetching
+     * {@code fetchSize} rows at a time (row by row on MySQL). Records are detached and handed to {@code consumer} one by one,
+     * so memory use does not grow with the history size.
+     */
+    void streamByUserId(String userId, int fetchSize, Consumer<PointRecord> consumer);
+}
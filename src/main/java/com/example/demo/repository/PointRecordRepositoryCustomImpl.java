@@ -0,0 +1,168 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.entity.PointRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+class PointRecordRepositoryCustomImpl implements PointRecordRepositoryCustom {
+
+    private static final String MYSQL = "MySQL";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO point_records (user_id, amount, reason, created_at) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_WITH_ID_SQL =
+            "INSERT INTO point_records (id, user_id, amount, reason, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String NOW_SQL = "SELECT CURRENT_TIMESTAMP(6)";
+
+    private static final String FIRST_PAGE_SQL = """
+            SELECT id, user_id, amount, reason, created_at FROM point_records
+            WHERE user_id = ?
+            ORDER BY id DESC
+            LIMIT ?
+            """;
+
+    private static final String NEXT_PAGE_SQL = """
+            SELECT id, user_id, amount, reason, created_at FROM point_records
+            WHERE user_id = ? AND id < ?
+            ORDER BY id DESC
+            LIMIT ?
+            """;
+
+    private static final String STREAM_SQL = """
+            SELECT id, user_id, amount, reason, created_at FROM point_records
+            WHERE user_id = ?
+            ORDER BY id DESC
+            """;
+
+    private static final RowMapper<PointRecord> ROW_MAPPER = (rs, rowNum) -> {
+        PointRecord pointRecord = new PointRecord();
+        pointRecord.setId(rs.getLong("id"));
+        pointRecord.setUserId(rs.getString("user_id"));
+        pointRecord.setAmount(rs.getInt("amount"));
+        pointRecord.setReason(rs.getString("reason"));
+        pointRecord.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        return pointRecord;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<PointRecordIdAllocator> idAllocator;
+
+    @Override
+    public List<PointRecord> saveAllInBatch(List<PointRecord> records) {
+        if (records.isEmpty()) {
+            return records;
+        }
+        PointRecordIdAllocator allocator = idAllocator.getIfAvailable();
+        if (allocator != null) {
+            allocator.assignIds(records);
+            return insertWithIds(records);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PointRecord pointRecord = records.get(i);
+                        if (pointRecord.getCreatedAt() == null) {
+                            pointRecord.setCreatedAt(now);
+                        }
+                        ps.setString(1, pointRecord.getUserId());
+                        ps.setInt(2, pointRecord.getAmount());
+                        ps.setString(3, pointRecord.getReason());
+                        ps.setTimestamp(4, Timestamp.valueOf(pointRecord.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return records.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < records.size() && i < keys.size(); i++) {
+            Object id = keys.get(i).values().iterator().next();
+            records.get(i).setId(((Number) id).longValue());
+        }
+        return records;
+    }
+
+    /**
+     * Pooled ids: the ids are known up front, so there are no generated keys to read back and the driver is free
+     * to rewrite the batch into multi-row INSERTs. created_at comes from the database clock, which the purge of
+     * pooled ids compares it with.
+     */
+    private List<PointRecord> insertWithIds(List<PointRecord> records) {
+        LocalDateTime now = records.stream().allMatch(pointRecord -> pointRecord.getCreatedAt() != null)
+                ? null : databaseNow();
+        jdbcTemplate.batchUpdate(INSERT_WITH_ID_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PointRecord pointRecord = records.get(i);
+                if (pointRecord.getCreatedAt() == null) {
+                    pointRecord.setCreatedAt(now);
+                }
+                ps.setLong(1, pointRecord.getId());
+                ps.setString(2, pointRecord.getUserId());
+                ps.setInt(3, pointRecord.getAmount());
+                ps.setString(4, pointRecord.getReason());
+                ps.setTimestamp(5, Timestamp.valueOf(pointRecord.getCreatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return records.size();
+            }
+        });
+        return records;
+    }
+
+    @Override
+    public LocalDateTime databaseNow() {
+        return jdbcTemplate.queryForObject(NOW_SQL, Timestamp.class).toLocalDateTime();
+    }
+
+    @Override
+    public List<PointRecord> findPageByUserId(String userId, Long beforeId, int limit) {
+        if (beforeId == null) {
+            return jdbcTemplate.query(FIRST_PAGE_SQL, ROW_MAPPER, userId, limit);
+        }
+        return jdbcTemplate.query(NEXT_PAGE_SQL, ROW_MAPPER, userId, beforeId, limit);
+    }
+
+    @Override
+    public void streamByUserId(String userId, int fetchSize, Consumer<PointRecord> consumer) {
+        // Connector/J reads the whole result into memory unless the fetch size is Integer.MIN_VALUE, which streams
+        // rows one by one for this statement only; useCursorFetch on the URL would make every statement in the
+        // pool a server-side prepared statement
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(STREAM_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            boolean mySql = MYSQL.equals(connection.getMetaData().getDatabaseProductName());
+            ps.setFetchSize(mySql ? Integer.MIN_VALUE : fetchSize);
+            ps.setString(1, userId);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(ROW_MAPPER.mapRow(rs, rs.getRow())));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.entity.ProjectedRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProjectedRecordRepository extends JpaRepository<ProjectedRecord, Long>, ProjectedRecordRepositoryCustom {
+
+    /**
+     * Locks the rows of the given records that exist, so a concurrent consumer of the same records (after a queue
+     * rebalance) waits here instead of applying them a second time.
+     */
+    @Query(value = "SELECT record_id FROM points_projected_records WHERE record_id IN (:ids) FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockProjectedIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM points_projected_records WHERE projected_at < :cutoff LIMIT :limit", nativeQuery = true)
+    int deleteProjectedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,13 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ProjectedRecordRepositoryCustom {
+
+    /**
+     * Records the ids as applied with a single JDBC batch. Fails on an id that is already there, which rolls the
+     * caller's transaction back rather than applying a credit twice.
+     */
+    void saveAllInBatch(Collection<Long> recordIds, LocalDateTime projectedAt);
+}
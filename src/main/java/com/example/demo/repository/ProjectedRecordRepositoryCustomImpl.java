@@ -0,0 +1,30 @@
+package com.example.demo.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+class ProjectedRecordRepositoryCustomImpl implements ProjectedRecordRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO points_projected_records (record_id, projected_at) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void saveAllInBatch(Collection<Long> recordIds, LocalDateTime projectedAt) {
+        if (recordIds.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(projectedAt);
+        List<Object[]> args = recordIds.stream()
+                .map(id -> new Object[]{id, timestamp})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+}
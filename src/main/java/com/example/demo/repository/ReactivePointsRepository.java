@@ -0,0 +1,223 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.entity.OutboxEvent;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.model.entity.UserPoints;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * R2DBC access to point_records, user_points and points_outbox for the reactive stack, with the same statements
+ * as the JDBC repositories. Multi-row writes bind every row to one statement, which the driver sends as a batch.
+ * Joins the surrounding reactive transaction when there is one.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePointsRepository {
+
+    private static final String INSERT_RECORD_SQL =
+            "INSERT INTO point_records (user_id, amount, reason, created_at) VALUES (?, ?, ?, ?)";
+
+    private static final String ACCRUE_SQL = """
+            INSERT INTO user_points (user_id, total_points, updated_at)
+            VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE total_points = total_points + ?, updated_at = ?
+            """;
+
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO points_outbox (topic, message_key, payload, payload_format, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String FIND_USER_POINTS_SQL =
+            "SELECT user_id, total_points, updated_at FROM user_points WHERE user_id = :userId";
+
+    private static final String DELETE_USER_POINTS_SQL = "DELETE FROM user_points WHERE user_id = :userId";
+
+    private static final String FIND_RECORD_SQL =
+            "SELECT id, user_id, amount, reason, created_at FROM point_records WHERE id = :id";
+
+    private static final String UPDATE_REASON_SQL = "UPDATE point_records SET reason = :reason WHERE id = :id";
+
+    private static final String FIRST_PAGE_SQL = """
+            SELECT id, user_id, amount, reason, created_at FROM point_records
+            WHERE user_id = :userId
+            ORDER BY id DESC
+            LIMIT :limit
+            """;
+
+    private static final String NEXT_PAGE_SQL = """
+            SELECT id, user_id, amount, reason, created_at FROM point_records
+            WHERE user_id = :userId AND id < :beforeId
+            ORDER BY id DESC
+            LIMIT :limit
+            """;
+
+    private static final String STREAM_SQL = """
+            SELECT id, user_id, amount, reason, created_at FROM point_records
+            WHERE user_id = :userId
+            ORDER BY id DESC
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Inserts the records and sets their generated ids and creation time.
+     */
+    public Mono<List<PointRecord>> insertRecords(List<PointRecord> records) {
+        if (records.isEmpty()) {
+            return Mono.just(records);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_RECORD_SQL).returnGeneratedValues("id");
+                    for (int i = 0; i < records.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        PointRecord pointRecord = records.get(i);
+                        pointRecord.setCreatedAt(now);
+                        statement.bind(0, pointRecord.getUserId()).bind(1, pointRecord.getAmount());
+                        bindNullable(statement, 2, pointRecord.getReason(), String.class);
+                        statement.bind(3, now);
+                    }
+                    return Flux.from(statement.execute())
+                            .concatMap(result -> result.map(row -> row.get(0, Long.class)));
+                })
+                .index()
+                .doOnNext(id -> records.get(id.getT1().intValue()).setId(id.getT2()))
+                .then(Mono.just(records));
+    }
+
+    public Mono<Void> accrue(String userId, long delta, LocalDateTime now) {
+        return accrueAll(Map.of(userId, delta), now);
+    }
+
+    /**
+     * One upsert per user, all in one batch.
+     */
+    public Mono<Void> accrueAll(Map<String, Long> deltas, LocalDateTime now) {
+        if (deltas.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(ACCRUE_SQL);
+            boolean first = true;
+            for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+                if (!first) {
+                    statement.add();
+                }
+                first = false;
+                statement.bind(0, delta.getKey()).bind(1, delta.getValue()).bind(2, now)
+                        .bind(3, delta.getValue()).bind(4, now);
+            }
+            return Flux.from(statement.execute()).concatMap(result -> result.getRowsUpdated());
+        }).then();
+    }
+
+    public Mono<Void> insertOutboxEvents(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT_OUTBOX_SQL);
+            for (int i = 0; i < events.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                OutboxEvent event = events.get(i);
+                statement.bind(0, event.getTopic());
+                bindNullable(statement, 1, event.getMessageKey(), String.class);
+                statement.bind(2, event.getPayload());
+                bindNullable(statement, 3, event.getPayloadFormat(), String.class);
+                statement.bind(4, event.getCreatedAt() == null ? now : event.getCreatedAt());
+            }
+            return Flux.from(statement.execute()).concatMap(result -> result.getRowsUpdated());
+        }).then();
+    }
+
+    public Mono<UserPoints> findUserPoints(String userId) {
+        return databaseClient.sql(FIND_USER_POINTS_SQL)
+                .bind("userId", userId)
+                .map(ReactivePointsRepository::toUserPoints)
+                .one();
+    }
+
+    public Mono<Long> deleteUserPoints(String userId) {
+        return databaseClient.sql(DELETE_USER_POINTS_SQL)
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<PointRecord> findRecord(Long id) {
+        return databaseClient.sql(FIND_RECORD_SQL)
+                .bind("id", id)
+                .map(ReactivePointsRepository::toPointRecord)
+                .one();
+    }
+
+    public Mono<Long> updateReason(Long id, String reason) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(UPDATE_REASON_SQL).bind("id", id);
+        spec = reason == null ? spec.bindNull("reason", String.class) : spec.bind("reason", reason);
+        return spec.fetch().rowsUpdated();
+    }
+
+    public Flux<PointRecord> findPageByUserId(String userId, Long beforeId, int limit) {
+        DatabaseClient.GenericExecuteSpec spec = beforeId == null
+                ? databaseClient.sql(FIRST_PAGE_SQL)
+                : databaseClient.sql(NEXT_PAGE_SQL).bind("beforeId", beforeId);
+        return spec.bind("userId", userId)
+                .bind("limit", limit)
+                .map(ReactivePointsRepository::toPointRecord)
+                .all();
+    }
+
+    /**
+     * Streams the user's records newest first. Rows are requested from the driver as the subscriber asks for
+     * them; {@code fetchSize} is how many the driver reads ahead per round trip.
+     */
+    public Flux<PointRecord> streamByUserId(String userId, int fetchSize) {
+        return databaseClient.sql(STREAM_SQL)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .bind("userId", userId)
+                .map(ReactivePointsRepository::toPointRecord)
+                .all();
+    }
+
+    private static <T> void bindNullable(Statement statement, int index, T value, Class<T> type) {
+        if (value == null) {
+            statement.bindNull(index, type);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+
+    private static UserPoints toUserPoints(Readable row) {
+        UserPoints userPoints = new UserPoints();
+        userPoints.setUserId(row.get("user_id", String.class));
+        userPoints.setTotalPoints(row.get("total_points", Long.class));
+        userPoints.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        return userPoints;
+    }
+
+    private static PointRecord toPointRecord(Readable row) {
+        PointRecord pointRecord = new PointRecord();
+        pointRecord.setId(row.get("id", Long.class));
+        pointRecord.setUserId(row.get("user_id", String.class));
+        pointRecord.setAmount(row.get("amount", Integer.class));
+        pointRecord.setReason(row.get("reason", String.class));
+        pointRecord.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        return pointRecord;
+    }
+}
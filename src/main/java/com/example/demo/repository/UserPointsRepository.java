@@ -2,8 +2,25 @@ package com.example.demo.repository;
 
 import com.example.demo.model.entity.UserPoints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 @Repository
-public interface UserPointsRepository extends JpaRepository<UserPoints, String> {
+public interface UserPointsRepository extends JpaRepository<UserPoints, String>, UserPointsRepositoryCustom {
+
+    /**
+     * Adds {@code amount} to the user's total in a single statement, creating the row on first credit.
+     * Concurrent calls for the same user serialize on the row lock instead of losing updates.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_points (user_id, total_points, updated_at)
+            VALUES (:userId, :amount, :now)
+            ON DUPLICATE KEY UPDATE total_points = total_points + :amount, updated_at = :now
+            """, nativeQuery = true)
+    int accrue(@Param("userId") String userId, @Param("amount") long amount, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,25 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public interface UserPointsRepositoryCustom {
+
+    /**
+     * Batched form of {@link UserPointsRepository#accrue}: one upsert per user, sent as a single JDBC batch.
+     * Rows are written in userId order so concurrent batches lock them in the same order.
+     */
+    void accrueAll(Map<String, Long> deltas, LocalDateTime now);
+
+    /**
+     * Keyset page of user totals in userId order, starting after {@code afterUserId} (null for the first page).
+     * Reads plain columns through JDBC, so scanning the whole table never fills the persistence context.
+     */
+    LinkedHashMap<String, Long> findTotalsAfter(String afterUserId, int limit);
+
+    /**
+     * Like {@link #findTotalsAfter}, restricted to rows whose updated_at is at or after {@code since}.
+     */
+    LinkedHashMap<String, Long> findTotalsUpdatedSince(LocalDateTime since, String afterUserId, int limit);
+}
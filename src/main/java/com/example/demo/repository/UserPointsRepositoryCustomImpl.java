@@ -0,0 +1,88 @@
+package com.example.demo.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+class UserPointsRepositoryCustomImpl implements UserPointsRepositoryCustom {
+
+    private static final String ACCRUE_SQL = """
+            INSERT INTO user_points (user_id, total_points, updated_at)
+            VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE total_points = total_points + ?, updated_at = ?
+            """;
+
+    private static final String FIRST_PAGE_SQL = """
+            SELECT user_id, total_points FROM user_points
+            ORDER BY user_id
+            LIMIT ?
+            """;
+
+    private static final String NEXT_PAGE_SQL = """
+            SELECT user_id, total_points FROM user_points
+            WHERE user_id > ?
+            ORDER BY user_id
+            LIMIT ?
+            """;
+
+    private static final String FIRST_UPDATED_PAGE_SQL = """
+            SELECT user_id, total_points FROM user_points
+            WHERE updated_at >= ?
+            ORDER BY user_id
+            LIMIT ?
+            """;
+
+    private static final String NEXT_UPDATED_PAGE_SQL = """
+            SELECT user_id, total_points FROM user_points
+            WHERE user_id > ? AND updated_at >= ?
+            ORDER BY user_id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void accrueAll(Map<String, Long> deltas, LocalDateTime now) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> args = new TreeMap<>(deltas).entrySet().stream()
+                .map(e -> new Object[]{e.getKey(), e.getValue(), timestamp, e.getValue(), timestamp})
+                .toList();
+        jdbcTemplate.batchUpdate(ACCRUE_SQL, args);
+    }
+
+    @Override
+    public LinkedHashMap<String, Long> findTotalsAfter(String afterUserId, int limit) {
+        LinkedHashMap<String, Long> totals = new LinkedHashMap<>();
+        RowCallbackHandler collect = rs -> totals.put(rs.getString("user_id"), rs.getLong("total_points"));
+        if (afterUserId == null) {
+            jdbcTemplate.query(FIRST_PAGE_SQL, collect, limit);
+        } else {
+            jdbcTemplate.query(NEXT_PAGE_SQL, collect, afterUserId, limit);
+        }
+        return totals;
+    }
+
+    @Override
+    public LinkedHashMap<String, Long> findTotalsUpdatedSince(LocalDateTime since, String afterUserId, int limit) {
+        LinkedHashMap<String, Long> totals = new LinkedHashMap<>();
+        RowCallbackHandler collect = rs -> totals.put(rs.getString("user_id"), rs.getLong("total_points"));
+        Timestamp timestamp = Timestamp.valueOf(since);
+        if (afterUserId == null) {
+            jdbcTemplate.query(FIRST_UPDATED_PAGE_SQL, collect, timestamp, limit);
+        } else {
+            jdbcTemplate.query(NEXT_UPDATED_PAGE_SQL, collect, afterUserId, timestamp, limit);
+        }
+        return totals;
+    }
+}
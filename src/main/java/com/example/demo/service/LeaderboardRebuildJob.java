@@ -0,0 +1,271 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.LeaderboardRebuildStatus;
+import com.example.demo.model.entity.UserPoints;
+import com.example.demo.repository.UserPointsRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Rebuilds the all-time leaderboard from user_points, e.g. after Redis restarted empty.
+ * <p>
+ * Streams the table with keyset pagination ({@code points.rebuild.chunk-size} rows per page), ZADDs each page
+ * in one pipeline and throttles to {@code max-users-per-second}. Afterwards the user_points entries of the
+ * top {@code warm-top-k} users are put in the cache with one query. A Redis lock keeps nodes that start
+ * together from rebuilding twice.
+ * <p>
+ * Scores are absolute totals. A credit committed after its user's row was read but applied to Redis before the
+ * ZADD is overwritten, and later ZINCRBYs add to the overwritten score, so the error would persist. A catch-up pass
+ * therefore re-reads the rows updated since the scan started (less {@code catch-up-margin} for clock skew) and sets
+ * them again. Only credits in flight while the catch-up pass reads their row can still be lost or counted twice.
+ * Daily buckets for the windowed views cannot be derived from user_points and are not rebuilt.
+ * <p>
+ * The lock is renewed per page and released only while this node still owns it; a node that finds the lock taken
+ * over stops rebuilding.
+ */
+@Slf4j
+@Component
+public class LeaderboardRebuildJob {
+
+    static final String LOCK_KEY = LeaderboardService.LEADERBOARD_KEY + ":rebuild-lock";
+
+    static final RedisScript<Long> RENEW_LOCK_SCRIPT = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    static final RedisScript<Long> RELEASE_LOCK_SCRIPT = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final UserPointsRepository userPointsRepository;
+    private final LeaderboardService leaderboardService;
+    private final CacheManager cacheManager;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TaskScheduler taskScheduler;
+    private final PointsProperties.Rebuild settings;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processedUsers = new AtomicLong();
+    private volatile LeaderboardRebuildStatus.State state = LeaderboardRebuildStatus.State.IDLE;
+    private volatile String trigger;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long totalUsers;
+    private volatile int warmedCacheEntries;
+    private volatile String error;
+    private volatile boolean stopRequested;
+
+    public LeaderboardRebuildJob(UserPointsRepository userPointsRepository,
+                                 LeaderboardService leaderboardService,
+                                 CacheManager cacheManager,
+                                 RedisTemplate<String, String> redisTemplate,
+                                 TaskScheduler taskScheduler,
+                                 PointsProperties properties) {
+        this.userPointsRepository = userPointsRepository;
+        this.leaderboardService = leaderboardService;
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.taskScheduler = taskScheduler;
+        this.settings = properties.getRebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (!settings.isOnStartup()) {
+            return;
+        }
+        try {
+            if (leaderboardService.size() > 0) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not check the leaderboard size, skipping the startup rebuild", e);
+            return;
+        }
+        log.info("Leaderboard is empty, rebuilding it from user_points");
+        start("startup");
+    }
+
+    /**
+     * Starts a rebuild in the background. Returns false when one is already running on this node.
+     */
+    public boolean start(String trigger) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        this.trigger = trigger;
+        this.state = LeaderboardRebuildStatus.State.RUNNING;
+        this.startedAt = LocalDateTime.now();
+        this.finishedAt = null;
+        this.totalUsers = 0;
+        this.warmedCacheEntries = 0;
+        this.error = null;
+        processedUsers.set(0);
+        try {
+            taskScheduler.schedule(this::run, Instant.now());
+        } catch (RuntimeException e) {
+            finish(LeaderboardRebuildStatus.State.FAILED, e.getMessage());
+            throw e;
+        }
+        return true;
+    }
+
+    public LeaderboardRebuildStatus status() {
+        return new LeaderboardRebuildStatus(state, trigger, startedAt, finishedAt, processedUsers.get(),
+                totalUsers, warmedCacheEntries, error);
+    }
+
+    @PreDestroy
+    void requestStop() {
+        stopRequested = true;
+    }
+
+    void run() {
+        boolean locked = false;
+        try {
+            locked = Boolean.TRUE.equals(
+                    redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, nodeId, settings.getLockTtl()));
+            if (!locked) {
+                log.info("Leaderboard rebuild skipped, another node holds the lock");
+                finish(LeaderboardRebuildStatus.State.SKIPPED, null);
+                return;
+            }
+            totalUsers = userPointsRepository.count();
+            LocalDateTime scanStartedAt = LocalDateTime.now().minus(settings.getCatchUpMargin());
+            int chunkSize = settings.getChunkSize();
+            copyPages(cursor -> userPointsRepository.findTotalsAfter(cursor, chunkSize), processedUsers);
+            long caughtUp = stopRequested ? 0 : copyPages(cursor ->
+                    userPointsRepository.findTotalsUpdatedSince(scanStartedAt, cursor, chunkSize), new AtomicLong());
+
+            if (stopRequested) {
+                finish(LeaderboardRebuildStatus.State.FAILED, "Stopped before completion");
+                return;
+            }
+            warmedCacheEntries = warmCache();
+            log.info("Leaderboard rebuilt from {} users, {} re-set after changing meanwhile, {} cache entries warmed",
+                    processedUsers.get(), caughtUp, warmedCacheEntries);
+            finish(LeaderboardRebuildStatus.State.COMPLETED, null);
+        } catch (RuntimeException e) {
+            log.error("Leaderboard rebuild failed after {} users", processedUsers.get(), e);
+            finish(LeaderboardRebuildStatus.State.FAILED, e.getMessage());
+        } finally {
+            if (running.get()) {
+                // Only an Error gets here: still leave the job restartable
+                finish(LeaderboardRebuildStatus.State.FAILED, "Aborted");
+            }
+            if (locked) {
+                releaseLock();
+            }
+        }
+    }
+
+    /**
+     * Sets the scores of every page until one comes back short, renewing the lock and throttling per page. Returns
+     * the number of users copied, which is also added to {@code progress}.
+     */
+    private long copyPages(Function<String, LinkedHashMap<String, Long>> nextPage, AtomicLong progress) {
+        long started = System.nanoTime();
+        long copied = 0;
+        String cursor = null;
+        LinkedHashMap<String, Long> page;
+        do {
+            page = nextPage.apply(cursor);
+            if (page.isEmpty()) {
+                break;
+            }
+            leaderboardService.setScores(page);
+            cursor = page.lastEntry().getKey();
+            copied += page.size();
+            progress.addAndGet(page.size());
+            renewLock();
+            throttle(copied, started);
+        } while (page.size() == settings.getChunkSize() && !stopRequested);
+        return copied;
+    }
+
+    private void renewLock() {
+        Long renewed = redisTemplate.execute(RENEW_LOCK_SCRIPT, List.of(LOCK_KEY), nodeId,
+                Long.toString(settings.getLockTtl().toMillis()));
+        if (renewed == null || renewed == 0) {
+            throw new IllegalStateException("Lost the leaderboard rebuild lock to another node");
+        }
+    }
+
+    /**
+     * Deletes the lock if this node still holds it; otherwise it expires after {@code lock-ttl}.
+     */
+    private void releaseLock() {
+        try {
+            redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(LOCK_KEY), nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Could not release the leaderboard rebuild lock, it expires after {}", settings.getLockTtl(), e);
+        }
+    }
+
+    private void throttle(long processed, long startedNanos) {
+        int maxUsersPerSecond = settings.getMaxUsersPerSecond();
+        if (maxUsersPerSecond <= 0) {
+            return;
+        }
+        long dueNanos = TimeUnit.SECONDS.toNanos(processed) / maxUsersPerSecond;
+        long aheadNanos = dueNanos - (System.nanoTime() - startedNanos);
+        if (aheadNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopRequested = true;
+            }
+        }
+    }
+
+    private int warmCache() {
+        Cache cache = cacheManager.getCache(UserPointsReader.USER_POINTS_CACHE_KEY);
+        if (cache == null || settings.getWarmTopK() <= 0) {
+            return 0;
+        }
+        List<String> userIds = leaderboardService.top(settings.getWarmTopK()).stream()
+                .map(LeaderboardEntry::getUserId)
+                .toList();
+        int warmed = 0;
+        for (UserPoints userPoints : userPointsRepository.findAllById(userIds)) {
+            cache.put(userPoints.getUserId(), userPoints);
+            warmed++;
+        }
+        return warmed;
+    }
+
+    private void finish(LeaderboardRebuildStatus.State finalState, String failure) {
+        error = failure;
+        finishedAt = LocalDateTime.now();
+        state = finalState;
+        running.set(false);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Leaderboard writes that could not reach Redis, kept per user until {@link RedisRecoveryJob} replays them: the
+ * summed credits, and whether the user was removed before them. At most {@code points.redis.replay-max-users}
+ * users are kept; writes for further users are dropped and the queue is marked overflowed, so recovery rebuilds
+ * the all-time leaderboard from user_points instead.
+ * <p>
+ * Credits are replayed as ZINCRBY, also those that were absolute ZADDs in read-modify-write mode, and land in
+ * the day bucket of the replay. A write that timed out after Redis had applied it is replayed once more.
+ */
+@Component
+public class LeaderboardReplayQueue {
+
+    private final int maxUsers;
+    private final Counter overflows;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<String, Pending> pending = new LinkedHashMap<>();
+    private boolean overflowed;
+
+    public LeaderboardReplayQueue(PointsProperties properties, MeterRegistry meterRegistry) {
+        this.maxUsers = properties.getRedis().getReplayMaxUsers();
+        this.overflows = Counter.builder("points.leaderboard.replay.overflows")
+                .description("Leaderboard writes dropped because the replay queue was full")
+                .register(meterRegistry);
+        Gauge.builder("points.leaderboard.replay.pending", this, LeaderboardReplayQueue::size)
+                .description("Users with leaderboard writes waiting for Redis")
+                .register(meterRegistry);
+    }
+
+    public void increment(String userId, long delta) {
+        lock.lock();
+        try {
+            Pending entry = entry(userId);
+            if (entry != null) {
+                entry.delta += delta;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void incrementAll(Map<String, Long> deltas) {
+        lock.lock();
+        try {
+            deltas.forEach((userId, delta) -> {
+                Pending entry = entry(userId);
+                if (entry != null) {
+                    entry.delta += delta;
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The user's queued credits are dropped along with the user; credits queued afterwards are replayed after
+     * the removal.
+     */
+    public void remove(String userId) {
+        lock.lock();
+        try {
+            Pending entry = entry(userId);
+            if (entry != null) {
+                entry.removed = true;
+                entry.delta = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes everything queued so far; writes that fail again during the replay are queued anew.
+     */
+    public Deferred drain() {
+        lock.lock();
+        Map<String, Pending> drained;
+        boolean drainedOverflow;
+        try {
+            drained = pending;
+            drainedOverflow = overflowed;
+            pending = new LinkedHashMap<>();
+            overflowed = false;
+        } finally {
+            lock.unlock();
+        }
+        Set<String> removals = new LinkedHashSet<>();
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        drained.forEach((userId, entry) -> {
+            if (entry.removed) {
+                removals.add(userId);
+            }
+            if (entry.delta != 0) {
+                deltas.put(userId, entry.delta);
+            }
+        });
+        return new Deferred(removals, deltas, drainedOverflow);
+    }
+
+    private Pending entry(String userId) {
+        Pending entry = pending.get(userId);
+        if (entry == null) {
+            if (pending.size() >= maxUsers) {
+                overflowed = true;
+                overflows.increment();
+                return null;
+            }
+            entry = new Pending();
+            pending.put(userId, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * What to replay: the removals first, then the credits.
+     */
+    public record Deferred(Set<String> removals, Map<String, Long> deltas, boolean overflowed) {
+
+        public boolean isEmpty() {
+            return removals.isEmpty() && deltas.isEmpty() && !overflowed;
+        }
+    }
+
+    private static final class Pending {
+
+        private long delta;
+        private boolean removed;
+    }
+}
@@ -0,0 +1,569 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.LeaderboardPage;
+import com.example.demo.model.dto.RankedEntry;
+import com.example.demo.model.dto.UserRank;
+import com.example.demo.redis.RedisCircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the {@value #LEADERBOARD_KEY} sorted set in Redis and the time-windowed views next to it.
+ * <p>
+ * Every credit is also added to a sorted set for the current day ({@code leaderboard:day:yyyy-MM-dd}), which
+ * expires once no window covers it any more, so a write costs the same no matter how many windows exist.
+ * Weekly and monthly views are built on read with ZUNIONSTORE over their day buckets and kept for
+ * {@code points.leaderboard.window-refresh} before the next read rebuilds them.
+ * <p>
+ * With {@code points.leaderboard.shards} above 1, the all-time set and each day bucket are split into that many
+ * keys ({@code {leaderboard:s3}}, {@code {leaderboard:s3}:day:yyyy-MM-dd}) by a hash of the userId, and writes
+ * touch only the user's shard. The hash tag keeps every key of a shard in one Redis Cluster slot, so a weekly or
+ * monthly view is one ZUNIONSTORE per shard into that shard's {@code {leaderboard:s3}:week:yyyy-MM-dd}. Reads
+ * fetch every shard in one pipeline and merge them in ZREVRANGE order: score descending, then member descending.
+ * <p>
+ * Every round trip goes through the {@link RedisCircuitBreaker}. While Redis is unavailable, reads fail with
+ * {@link com.example.demo.redis.RedisCircuitOpenException} and writes from credits and removals are queued in
+ * {@link LeaderboardReplayQueue} for {@link RedisRecoveryJob}.
+ */
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+
+    static final String LEADERBOARD_KEY = "leaderboard";
+    private static final String DAY_KEY_PREFIX = LEADERBOARD_KEY + ":day:";
+    static final Duration DAY_BUCKET_TTL = Duration.ofDays(LeaderboardWindow.MONTH.getDays() + 2);
+
+    /**
+     * Same order as ZREVRANGE: higher score first, ties by member in reverse lexicographic order.
+     */
+    static final Comparator<ZSetOperations.TypedTuple<String>> RANK_ORDER =
+            Comparator.<ZSetOperations.TypedTuple<String>>comparingDouble(tuple -> -tuple.getScore())
+                    .thenComparing(ZSetOperations.TypedTuple::getValue, Comparator.reverseOrder());
+
+    /**
+     * Counts the members of KEYS[1] ranked above score ARGV[1] and member ARGV[2] in {@code ZREVRANGE} order: the
+     * higher scores, plus the tied members that sort after ARGV[2], found by binary search over the tied ranks. Members
+     * are compared byte-wise as Redis orders them, not with Lua's locale-dependent {@code >}.
+     */
+    static final RedisScript<Long> RANKED_ABOVE_SCRIPT = RedisScript.of("""
+            local function greater(a, b)
+              for i = 1, math.min(#a, #b) do
+                local x, y = string.byte(a, i), string.byte(b, i)
+                if x ~= y then
+                  return x > y
+                end
+              end
+              return #a > #b
+            end
+            local higher = redis.call('ZCOUNT', KEYS[1], '(' .. ARGV[1], '+inf')
+            local lo = 0
+            local hi = redis.call('ZCOUNT', KEYS[1], ARGV[1], ARGV[1])
+            while lo < hi do
+              local mid = math.floor((lo + hi) / 2)
+              local member = redis.call('ZREVRANGE', KEYS[1], higher + mid, higher + mid)[1]
+              if greater(member, ARGV[2]) then
+                lo = mid + 1
+              else
+                hi = mid
+              end
+            end
+            return higher + lo
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final PointsProperties properties;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final LeaderboardReplayQueue replayQueue;
+
+    private final ConcurrentMap<String, MergedTop> mergedTops = new ConcurrentHashMap<>();
+
+    /**
+     * ZINCRBY on the all-time leaderboard and today's bucket, in one pipelined round trip.
+     */
+    public void increment(String userId, double delta) {
+        int shard = shardOf(userId);
+        String dayKey = shardKey(dayKey(today()), shard);
+        circuitBreaker.run(() -> pipelined(zSet -> {
+            zSet.incrementScore(shardKey(LEADERBOARD_KEY, shard), userId, delta);
+            zSet.incrementScore(dayKey, userId, delta);
+        }, List.of(dayKey), DAY_BUCKET_TTL), () -> replayQueue.increment(userId, (long) delta));
+    }
+
+    /**
+     * Applies all increments in one pipelined round trip.
+     */
+    public void incrementAll(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        String dayKey = dayKey(today());
+        Set<String> dayKeys = new LinkedHashSet<>();
+        circuitBreaker.run(() -> pipelined(zSet -> deltas.forEach((userId, delta) -> {
+            int shard = shardOf(userId);
+            String userDayKey = shardKey(dayKey, shard);
+            zSet.incrementScore(shardKey(LEADERBOARD_KEY, shard), userId, delta);
+            zSet.incrementScore(userDayKey, userId, delta);
+            dayKeys.add(userDayKey);
+        }), dayKeys, DAY_BUCKET_TTL), () -> replayQueue.incrementAll(deltas));
+    }
+
+    /**
+     * ZADD of the absolute {@code total}; {@code delta}, the credit that produced it, goes to today's bucket.
+     * Queued for replay as the {@code delta}, since later credits would make the queued total outdated.
+     */
+    public void setScore(String userId, double total, double delta) {
+        int shard = shardOf(userId);
+        String dayKey = shardKey(dayKey(today()), shard);
+        circuitBreaker.run(() -> pipelined(zSet -> {
+            zSet.add(shardKey(LEADERBOARD_KEY, shard), userId, total);
+            zSet.incrementScore(dayKey, userId, delta);
+        }, List.of(dayKey), DAY_BUCKET_TTL), () -> replayQueue.increment(userId, (long) delta));
+    }
+
+    /**
+     * ZADDs absolute totals to the all-time leaderboard in one pipelined round trip, overwriting existing scores.
+     * Used to rebuild the leaderboard from user_points.
+     */
+    public void setScores(Map<String, Long> totals) {
+        if (totals.isEmpty()) {
+            return;
+        }
+        executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                ZSetOperations<String, String> zSet = (ZSetOperations<String, String>) operations.opsForZSet();
+                totals.forEach((userId, total) -> zSet.add(shardKey(LEADERBOARD_KEY, shardOf(userId)), userId, total));
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Number of users on the all-time leaderboard.
+     */
+    public long size() {
+        List<String> keys = shardKeys(LEADERBOARD_KEY);
+        if (keys.size() == 1) {
+            Long size = circuitBreaker.execute(() -> redisTemplate.opsForZSet().zCard(LEADERBOARD_KEY));
+            return size == null ? 0 : size;
+        }
+        return totalSize(circuitBreaker.execute(() -> pipelinedPerKey(keys, ZSetOperations::zCard)));
+    }
+
+    /**
+     * Removes the user from the all-time leaderboard and every live day bucket, and drops today's weekly and
+     * monthly views of the user's shard so they are rebuilt without the user.
+     */
+    @SuppressWarnings("unchecked")
+    public void remove(String userId) {
+        LocalDate today = today();
+        int shard = shardOf(userId);
+        circuitBreaker.run(() -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForZSet().remove(shardKey(LEADERBOARD_KEY, shard), userId);
+                for (int i = 0; i < DAY_BUCKET_TTL.toDays(); i++) {
+                    ops.opsForZSet().remove(shardKey(dayKey(today.minusDays(i)), shard), userId);
+                }
+                ops.delete(List.of(shardKey(windowKey(LeaderboardWindow.WEEK, today), shard),
+                        shardKey(windowKey(LeaderboardWindow.MONTH, today), shard)));
+                return null;
+            }
+        }), () -> replayQueue.remove(userId));
+        mergedTops.clear();
+    }
+
+    public List<LeaderboardEntry> top(int count) {
+        return top(LeaderboardWindow.ALL_TIME, count);
+    }
+
+    public List<LeaderboardEntry> top(LeaderboardWindow window, int count) {
+        List<String> keys = readKeys(window);
+        if (keys.size() == 1) {
+            return entries(circuitBreaker.execute(() ->
+                    redisTemplate.opsForZSet().reverseRangeWithScores(keys.get(0), 0, count - 1)));
+        }
+        return mergedTop(keys, count);
+    }
+
+    /**
+     * Reads one page and the leaderboard size in a single pipelined round trip. Across shards, every shard is
+     * read from its top down to the end of the page, which {@code points.leaderboard.max-offset} bounds.
+     */
+    @SuppressWarnings("unchecked")
+    public LeaderboardPage page(LeaderboardWindow window, int page, int size) {
+        List<String> keys = readKeys(window);
+        long start = (long) page * size;
+        List<Object> results = executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                ZSetOperations<String, String> zSet = (ZSetOperations<String, String>) operations.opsForZSet();
+                if (keys.size() == 1) {
+                    zSet.reverseRangeWithScores(keys.get(0), start, start + size - 1);
+                } else {
+                    keys.forEach(key -> zSet.reverseRangeWithScores(key, 0, start + size - 1));
+                }
+                keys.forEach(zSet::zCard);
+                return null;
+            }
+        });
+        List<Set<ZSetOperations.TypedTuple<String>>> ranges = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            ranges.add((Set<ZSetOperations.TypedTuple<String>>) results.get(i));
+        }
+        long totalUsers = totalSize(results.subList(keys.size(), results.size()));
+        List<ZSetOperations.TypedTuple<String>> tuples = keys.size() == 1
+                ? (ranges.get(0) == null ? List.of() : List.copyOf(ranges.get(0)))
+                : merge(ranges, start, size);
+        return new LeaderboardPage(page, size, totalUsers, ranked(tuples, start));
+    }
+
+    /**
+     * Looks up the user's rank and score with ZREVRANK + ZSCORE in one pipeline, then reads at most
+     * {@code 2 * neighbours + 1} entries around it. Returns null when the user is not on the leaderboard.
+     */
+    @SuppressWarnings("unchecked")
+    public UserRank rankOf(String userId, int neighbours) {
+        int shard = shardOf(userId);
+        String ownKey = shardKey(LEADERBOARD_KEY, shard);
+        List<Object> results = executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                ZSetOperations<String, String> zSet = (ZSetOperations<String, String>) operations.opsForZSet();
+                zSet.reverseRank(ownKey, userId);
+                zSet.score(ownKey, userId);
+                return null;
+            }
+        });
+        Long rank = (Long) results.get(0);
+        if (rank == null) {
+            return null;
+        }
+        Double score = (Double) results.get(1);
+        if (properties.getLeaderboard().getShards() > 1) {
+            return shardedRankOf(userId, shard, rank, score, neighbours);
+        }
+        long start = Math.max(0, rank - neighbours);
+        Set<ZSetOperations.TypedTuple<String>> around = circuitBreaker.execute(() ->
+                redisTemplate.opsForZSet().reverseRangeWithScores(LEADERBOARD_KEY, start, rank + neighbours));
+        return new UserRank(userId, rank + 1, score, ranked(around, start));
+    }
+
+    /**
+     * The user's position in every other shard is the number of its members ranked above the user: those with a
+     * higher score plus those tied with a greater member. {@link #RANKED_ABOVE_SCRIPT} counts both inside Redis, so
+     * the tied members are never transferred. Their sum plus the rank in the user's own shard is the global rank. The
+     * neighbours are among the {@code neighbours} entries on either side of that position in each shard, so merging
+     * those windows yields them exactly.
+     */
+    @SuppressWarnings("unchecked")
+    private UserRank shardedRankOf(String userId, int ownShard, long ownRank, double score, int neighbours) {
+        List<String> keys = shardKeys(LEADERBOARD_KEY);
+        byte[] script = RANKED_ABOVE_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        byte[] scoreArg = Double.toString(score).getBytes(StandardCharsets.UTF_8);
+        byte[] memberArg = userId.getBytes(StandardCharsets.UTF_8);
+        List<Object> counts = circuitBreaker.execute(() -> redisTemplate.executePipelined((RedisCallback<Object>) c -> {
+            for (int shard = 0; shard < keys.size(); shard++) {
+                if (shard != ownShard) {
+                    // EVAL rather than EVALSHA: a NOSCRIPT reply only surfaces when the pipeline is closed
+                    c.scriptingCommands().eval(script, ReturnType.INTEGER, 1,
+                            keys.get(shard).getBytes(StandardCharsets.UTF_8), scoreArg, memberArg);
+                }
+            }
+            return null;
+        }));
+        long[] above = new long[keys.size()];
+        long rank = ownRank;
+        int result = 0;
+        for (int shard = 0; shard < keys.size(); shard++) {
+            if (shard == ownShard) {
+                above[shard] = ownRank;
+                continue;
+            }
+            Long count = (Long) counts.get(result++);
+            above[shard] = count == null ? 0 : count;
+            rank += above[shard];
+        }
+
+        List<Object> windows = executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                ZSetOperations<String, String> zSet = (ZSetOperations<String, String>) operations.opsForZSet();
+                for (int shard = 0; shard < keys.size(); shard++) {
+                    // The own shard's window includes the user, the others end right before its position
+                    long end = shard == ownShard ? above[shard] + neighbours : above[shard] + neighbours - 1;
+                    zSet.reverseRangeWithScores(keys.get(shard), Math.max(0, above[shard] - neighbours), end);
+                }
+                return null;
+            }
+        });
+        List<ZSetOperations.TypedTuple<String>> around =
+                merge((List<Set<ZSetOperations.TypedTuple<String>>>) (List<?>) windows, 0, Integer.MAX_VALUE);
+        int index = 0;
+        while (index < around.size() && !userId.equals(around.get(index).getValue())) {
+            index++;
+        }
+        int from = Math.max(0, index - neighbours);
+        int to = Math.min(around.size(), index + neighbours + 1);
+        return new UserRank(userId, rank + 1, score, ranked(around.subList(from, to), rank - (index - from)));
+    }
+
+    /**
+     * Top {@code count} across the shards, reused for {@code points.leaderboard.shard-merge-refresh}.
+     */
+    @SuppressWarnings("unchecked")
+    private List<LeaderboardEntry> mergedTop(List<String> keys, int count) {
+        String cacheKey = keys.get(0) + "#" + count;
+        long now = System.nanoTime();
+        long refreshNanos = properties.getLeaderboard().getShardMergeRefresh().toNanos();
+        MergedTop cached = mergedTops.get(cacheKey);
+        if (cached != null && now - cached.readAt() < refreshNanos) {
+            return cached.entries();
+        }
+        List<Object> ranges = circuitBreaker.execute(() ->
+                pipelinedPerKey(keys, (zSet, key) -> zSet.reverseRangeWithScores(key, 0, count - 1)));
+        List<LeaderboardEntry> entries =
+                List.copyOf(entries(merge((List<Set<ZSetOperations.TypedTuple<String>>>) (List<?>) ranges, 0, count)));
+        // Day buckets roll over, so drop expired merges of old keys on the way
+        mergedTops.values().removeIf(merged -> now - merged.readAt() >= refreshNanos);
+        mergedTops.put(cacheKey, new MergedTop(entries, now));
+        return entries;
+    }
+
+    /**
+     * Keys to read a window from, rebuilding the weekly or monthly views that have expired.
+     */
+    private List<String> readKeys(LeaderboardWindow window) {
+        return switch (window) {
+            case ALL_TIME -> shardKeys(LEADERBOARD_KEY);
+            case DAY -> shardKeys(dayKey(today()));
+            case WEEK, MONTH -> {
+                LocalDate today = today();
+                List<String> keys = shardKeys(windowKey(window, today));
+                List<Integer> missing = missingShards(keys);
+                if (!missing.isEmpty()) {
+                    rebuildWindow(window, today, missing);
+                }
+                yield keys;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> missingShards(List<String> keys) {
+        if (keys.size() == 1) {
+            return Boolean.TRUE.equals(circuitBreaker.execute(() -> redisTemplate.hasKey(keys.get(0))))
+                    ? List.of() : List.of(0);
+        }
+        List<Object> exists = executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                keys.forEach(key -> operations.hasKey((K) key));
+                return null;
+            }
+        });
+        List<Integer> missing = new ArrayList<>();
+        for (int shard = 0; shard < keys.size(); shard++) {
+            if (!Boolean.TRUE.equals(exists.get(shard))) {
+                missing.add(shard);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * One ZUNIONSTORE per shard, of the shard's day buckets into its view, so that all keys of a command share
+     * the shard's hash tag.
+     */
+    private void rebuildWindow(LeaderboardWindow window, LocalDate today, List<Integer> shards) {
+        List<String> windowKeys = new ArrayList<>(shards.size());
+        for (int shard : shards) {
+            windowKeys.add(shardKey(windowKey(window, today), shard));
+        }
+        // Concurrent rebuilds on other nodes store the same union, so no lock is needed
+        circuitBreaker.execute(() -> {
+            pipelined(zSet -> {
+                for (int i = 0; i < shards.size(); i++) {
+                    List<String> dayKeys = new ArrayList<>(window.getDays());
+                    for (int day = 0; day < window.getDays(); day++) {
+                        dayKeys.add(shardKey(dayKey(today.minusDays(day)), shards.get(i)));
+                    }
+                    zSet.unionAndStore(dayKeys.get(0), dayKeys.subList(1, dayKeys.size()), windowKeys.get(i));
+                }
+            }, windowKeys, properties.getLeaderboard().getWindowRefresh());
+            return null;
+        });
+    }
+
+    /**
+     * A pipelined round trip through the circuit breaker, for calls that have nothing to fall back on.
+     */
+    private List<Object> executePipelined(SessionCallback<Object> session) {
+        return circuitBreaker.execute(() -> redisTemplate.executePipelined(session));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pipelined(Consumer<ZSetOperations<String, String>> commands, Collection<String> expireKeys,
+                           Duration ttl) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                commands.accept(ops.opsForZSet());
+                expireKeys.forEach(key -> ops.expire(key, ttl));
+                return null;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> pipelinedPerKey(List<String> keys,
+                                         BiConsumer<ZSetOperations<String, String>, String> command) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                ZSetOperations<String, String> zSet = (ZSetOperations<String, String>) operations.opsForZSet();
+                keys.forEach(key -> command.accept(zSet, key));
+                return null;
+            }
+        });
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(properties.getLeaderboard().getZone());
+    }
+
+    private int shardOf(String userId) {
+        return shardOf(userId, properties.getLeaderboard().getShards());
+    }
+
+    /**
+     * The shard's copy of a {@value #LEADERBOARD_KEY} key: {@code leaderboard:day:2024-01-31} becomes
+     * {@code {leaderboard:s3}:day:2024-01-31}. Unchanged with a single shard.
+     */
+    private String shardKey(String key, int shard) {
+        if (properties.getLeaderboard().getShards() == 1) {
+            return key;
+        }
+        return "{" + LEADERBOARD_KEY + ":s" + shard + "}" + key.substring(LEADERBOARD_KEY.length());
+    }
+
+    private List<String> shardKeys(String key) {
+        int shards = properties.getLeaderboard().getShards();
+        List<String> keys = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            keys.add(shardKey(key, shard));
+        }
+        return keys;
+    }
+
+    /**
+     * String#hashCode is fixed by the language spec, so every node agrees on a user's shard.
+     */
+    static int shardOf(String userId, int shards) {
+        return Math.floorMod(userId.hashCode(), shards);
+    }
+
+    static String dayKey(LocalDate day) {
+        return DAY_KEY_PREFIX + day;
+    }
+
+    static String windowKey(LeaderboardWindow window, LocalDate endDay) {
+        return LEADERBOARD_KEY + ":" + window.name().toLowerCase(Locale.ROOT) + ":" + endDay;
+    }
+
+    /**
+     * K-way merge of ranges that are each in {@link #RANK_ORDER}, skipping the first {@code offset} merged entries
+     * and returning at most {@code limit} after them.
+     */
+    static List<ZSetOperations.TypedTuple<String>> merge(List<? extends Collection<ZSetOperations.TypedTuple<String>>> ranges,
+                                                         long offset, int limit) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, ranges.size()),
+                Comparator.comparing(Head::tuple, RANK_ORDER));
+        for (Collection<ZSetOperations.TypedTuple<String>> range : ranges) {
+            if (range != null && !range.isEmpty()) {
+                Iterator<ZSetOperations.TypedTuple<String>> iterator = range.iterator();
+                heads.add(new Head(iterator.next(), iterator));
+            }
+        }
+        List<ZSetOperations.TypedTuple<String>> merged = new ArrayList<>();
+        long skipped = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Head head = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged.add(head.tuple());
+            }
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest()));
+            }
+        }
+        return merged;
+    }
+
+    private static long totalSize(List<Object> sizes) {
+        long total = 0;
+        for (Object size : sizes) {
+            total += size == null ? 0 : (Long) size;
+        }
+        return total;
+    }
+
+    static List<LeaderboardEntry> entries(Collection<ZSetOperations.TypedTuple<String>> tuples) {
+        if (tuples == null) {
+            return List.of();
+        }
+        return tuples.stream()
+                .map(tuple -> new LeaderboardEntry(tuple.getValue(), tuple.getScore()))
+                .collect(Collectors.toList());
+    }
+
+    static List<RankedEntry> ranked(Collection<ZSetOperations.TypedTuple<String>> tuples, long start) {
+        if (tuples == null) {
+            return List.of();
+        }
+        List<RankedEntry> entries = new ArrayList<>(tuples.size());
+        long rank = start;
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            entries.add(new RankedEntry(++rank, tuple.getValue(), tuple.getScore()));
+        }
+        return entries;
+    }
+
+    private record Head(ZSetOperations.TypedTuple<String> tuple, Iterator<ZSetOperations.TypedTuple<String>> rest) {
+    }
+
+    private record MergedTop(List<LeaderboardEntry> entries, long readAt) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.redis.RedisCircuitOpenException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process copy of the top of the leaderboard, re-read from Redis at most once per
+ * {@code points.leaderboard.snapshot-refresh}. Only one thread refreshes; the others keep serving the previous
+ * snapshot meanwhile, and also when the refresh fails. A snapshot can therefore lag the sorted set by the
+ * refresh interval; one kept after a failed refresh, e.g. while the Redis circuit is open, is {@link #isStale()}
+ * until a refresh succeeds.
+ */
+@Slf4j
+@Component
+public class LeaderboardSnapshot {
+
+    private final LeaderboardService leaderboardService;
+    private final int size;
+    private final long refreshNanos;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Snapshot current;
+
+    public LeaderboardSnapshot(LeaderboardService leaderboardService, PointsProperties properties) {
+        this.leaderboardService = leaderboardService;
+        this.size = properties.getLeaderboard().getTopSize();
+        this.refreshNanos = properties.getLeaderboard().getSnapshotRefresh().toNanos();
+    }
+
+    public List<LeaderboardEntry> top() {
+        Snapshot snapshot = current;
+        if (snapshot != null && !isExpired(snapshot)) {
+            return snapshot.entries();
+        }
+        if (snapshot == null) {
+            // Nothing to serve yet: the first callers wait for one load
+            refreshLock.lock();
+        } else if (!refreshLock.tryLock()) {
+            return snapshot.entries();
+        }
+        try {
+            snapshot = current;
+            if (snapshot == null || isExpired(snapshot)) {
+                snapshot = refresh(snapshot);
+            }
+            return snapshot.entries();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Whether the snapshot served now is one kept after a failed refresh, so it may lag the sorted set by more
+     * than the refresh interval.
+     */
+    public boolean isStale() {
+        Snapshot snapshot = current;
+        return snapshot != null && snapshot.stale();
+    }
+
+    /**
+     * Drops the snapshot so the next read goes to Redis, e.g. after a user was removed from the leaderboard.
+     */
+    public void invalidate() {
+        current = null;
+    }
+
+    private Snapshot refresh(Snapshot previous) {
+        try {
+            Snapshot refreshed = new Snapshot(List.copyOf(leaderboardService.top(size)), System.nanoTime(), false);
+            current = refreshed;
+            return refreshed;
+        } catch (RuntimeException e) {
+            if (previous == null) {
+                throw e;
+            }
+            if (e instanceof RedisCircuitOpenException) {
+                log.debug("Redis circuit is open, serving the previous leaderboard snapshot");
+            } else {
+                log.warn("Leaderboard snapshot refresh failed, serving the previous snapshot", e);
+            }
+            // Back off for one interval instead of retrying on every read
+            Snapshot retained = new Snapshot(previous.entries(), System.nanoTime(), true);
+            current = retained;
+            return retained;
+        }
+    }
+
+    private boolean isExpired(Snapshot snapshot) {
+        return System.nanoTime() - snapshot.loadedAt() >= refreshNanos;
+    }
+
+    private record Snapshot(List<LeaderboardEntry> entries, long loadedAt, boolean stale) {
+    }
+}
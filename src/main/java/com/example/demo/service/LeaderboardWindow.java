@@ -0,0 +1,43 @@
+package com.example.demo.service;
+
+import java.util.Locale;
+
+/**
+ * Period a leaderboard view covers. Windowed views are rolling and end with the current day.
+ */
+public enum LeaderboardWindow {
+    ALL_TIME(0),
+    DAY(1),
+    WEEK(7),
+    MONTH(30);
+
+    private final int days;
+
+    LeaderboardWindow(int days) {
+        this.days = days;
+    }
+
+    /**
+     * Number of day buckets the view spans, 0 for the all-time leaderboard.
+     */
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * Parses the {@code window} request parameter: {@code all}, {@code day}, {@code week} or {@code month},
+     * case-insensitive. A missing value selects the all-time leaderboard.
+     */
+    public static LeaderboardWindow fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return ALL_TIME;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "all", "all-time", "all_time" -> ALL_TIME;
+            case "day" -> DAY;
+            case "week" -> WEEK;
+            case "month" -> MONTH;
+            default -> throw new IllegalArgumentException("Unknown leaderboard window: " + value);
+        };
+    }
+}
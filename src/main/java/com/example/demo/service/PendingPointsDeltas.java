@@ -0,0 +1,185 @@
+package com.example.demo.service;
+
+import com.example.demo.model.entity.UserPoints;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user point deltas accepted in write-behind mode but not yet written to user_points and the leaderboard.
+ * <p>
+ * Credits go into a {@link LongAdder} per userId, so concurrent credits to a hot user land on different cells
+ * instead of contending on one counter. {@link #drain} hands the accumulated deltas to the flusher; they stay
+ * visible to {@link #overlay} as an in-flight batch until {@link #completeFlush} or {@link #abortFlush}.
+ * <p>
+ * Users with nothing pending are retired from the map on drain. A credit racing with retirement may still land
+ * on the retired counter; the crediting thread notices the flag and moves whatever the drain did not sweep to a
+ * fresh counter. Every cell is reset with an atomic swap, so each credit is drained exactly once.
+ * <p>
+ * A user discarded while in the in-flight batch is recorded there: {@link #discardedDuringFlush} tells the flusher
+ * which of its writes to skip or undo, and {@link #abortFlush} does not give the user's delta back.
+ */
+@Component
+public class PendingPointsDeltas {
+
+    private final ConcurrentHashMap<String, Counter> live = new ConcurrentHashMap<>();
+    private volatile InFlight inFlight = InFlight.NONE;
+    /**
+     * Odd while deltas move between the live adders and the in-flight batch; readers retry instead of
+     * observing a credit in neither place.
+     */
+    private final AtomicLong moveSequence = new AtomicLong();
+    private volatile int flushThreshold = Integer.MAX_VALUE;
+    private volatile Runnable thresholdListener = () -> { };
+
+    public void add(String userId, long delta) {
+        long remaining = delta;
+        while (remaining != 0) {
+            Counter counter = live.computeIfAbsent(userId, key -> new Counter());
+            counter.adder.add(remaining);
+            if (!counter.retired) {
+                break;
+            }
+            // Retired while we were adding: reclaim what the drain has not swept and retry on a fresh counter
+            remaining = counter.adder.sumThenReset();
+        }
+        if (live.size() >= flushThreshold) {
+            thresholdListener.run();
+        }
+    }
+
+    /**
+     * Registers a callback fired when the number of users with pending deltas reaches {@code threshold}.
+     */
+    public void onThresholdReached(int threshold, Runnable listener) {
+        this.flushThreshold = threshold;
+        this.thresholdListener = listener;
+    }
+
+    public long pending(String userId) {
+        Counter counter = live.get(userId);
+        return counter == null ? 0 : counter.adder.sum();
+    }
+
+    /**
+     * Returns the stored points plus everything not yet reflected in them. The in-flight delta is only added
+     * when the stored row predates the flush that is writing it. Never mutates {@code stored}.
+     */
+    public UserPoints overlay(String userId, UserPoints stored) {
+        long delta;
+        long sequence;
+        do {
+            sequence = moveSequence.get();
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            delta = pending(userId);
+            InFlight current = inFlight;
+            Long inFlightDelta = current.deltas().get(userId);
+            if (inFlightDelta != null && !current.discarded().contains(userId)
+                    && (stored == null || stored.getUpdatedAt() == null
+                    || stored.getUpdatedAt().isBefore(current.flushedAt()))) {
+                delta += inFlightDelta;
+            }
+            if (moveSequence.get() == sequence) {
+                break;
+            }
+        } while (true);
+        if (delta == 0) {
+            return stored;
+        }
+        UserPoints overlaid = new UserPoints();
+        overlaid.setUserId(userId);
+        overlaid.setTotalPoints((stored == null ? 0 : stored.getTotalPoints()) + delta);
+        overlaid.setUpdatedAt(stored == null ? null : stored.getUpdatedAt());
+        return overlaid;
+    }
+
+    /**
+     * Drops everything still accumulated for the user, e.g. when the user is deleted. Call it before deleting the
+     * user's row, so a flush that writes the row afterwards finds the user in {@link #discardedDuringFlush}.
+     */
+    public void discard(String userId) {
+        live.remove(userId);
+        // After the removal: a drain in between would otherwise move the deltas into a batch not yet marked
+        InFlight current = inFlight;
+        if (current.deltas().containsKey(userId)) {
+            current.discarded().add(userId);
+        }
+    }
+
+    /**
+     * Users of the in-flight batch discarded since it was drained.
+     */
+    public Set<String> discardedDuringFlush() {
+        return Set.copyOf(inFlight.discarded());
+    }
+
+    public int size() {
+        return live.size();
+    }
+
+    /**
+     * Moves all accumulated deltas into an in-flight batch stamped with {@code flushedAt}. Callers must not
+     * drain again before completing or aborting the previous batch.
+     */
+    public synchronized Map<String, Long> drain(LocalDateTime flushedAt) {
+        moveSequence.incrementAndGet();
+        Map<String, Long> drained = new HashMap<>();
+        for (Map.Entry<String, Counter> entry : live.entrySet()) {
+            Counter counter = entry.getValue();
+            long sum = counter.adder.sumThenReset();
+            if (sum == 0) {
+                counter.retired = true;
+                live.remove(entry.getKey(), counter);
+                sum = counter.adder.sumThenReset();
+            }
+            collect(drained, entry.getKey(), sum);
+        }
+        inFlight = new InFlight(Map.copyOf(drained), flushedAt, ConcurrentHashMap.newKeySet());
+        moveSequence.incrementAndGet();
+        return drained;
+    }
+
+    public void completeFlush() {
+        inFlight = InFlight.NONE;
+    }
+
+    /**
+     * Returns the in-flight deltas to the accumulator so the next flush retries them, except those of users
+     * discarded meanwhile.
+     */
+    public synchronized void abortFlush() {
+        moveSequence.incrementAndGet();
+        InFlight failed = inFlight;
+        failed.deltas().forEach((userId, delta) -> {
+            if (!failed.discarded().contains(userId)) {
+                add(userId, delta);
+            }
+        });
+        inFlight = InFlight.NONE;
+        moveSequence.incrementAndGet();
+    }
+
+    private static void collect(Map<String, Long> drained, String userId, long delta) {
+        if (delta != 0) {
+            drained.merge(userId, delta, Long::sum);
+        }
+    }
+
+    private static final class Counter {
+        final LongAdder adder = new LongAdder();
+        volatile boolean retired;
+    }
+
+    private record InFlight(Map<String, Long> deltas, LocalDateTime flushedAt, Set<String> discarded) {
+        static final InFlight NONE = new InFlight(Map.of(), LocalDateTime.MIN, Set.of());
+    }
+}
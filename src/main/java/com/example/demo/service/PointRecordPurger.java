@@ -0,0 +1,159 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.dto.PurgeJobStatus;
+import com.example.demo.repository.PointRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes a user's point_records in the background with bulk {@code DELETE ... LIMIT} statements, each in its
+ * own short transaction, instead of loading and deleting every entity in one transaction.
+ * <p>
+ * A purge only covers records up to the highest id the user had when it was submitted, so credits that arrive
+ * after the user was deleted survive. Pooled ids ({@code points.ids.strategy=pooled}) are not in insert order
+ * across nodes, so there the purge covers the records created up to its submission instead, which relies on the
+ * nodes' clocks agreeing. Job status is kept in memory on the node that runs the purge for
+ * {@code points.purge.status-retention}. A purge interrupted by a restart leaves the remaining records behind;
+ * deleting the user again purges them.
+ */
+@Slf4j
+@Component
+public class PointRecordPurger {
+
+    private final PointRecordRepository pointRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final PointsProperties.Purge settings;
+    private final boolean pooledIds;
+
+    private final ConcurrentMap<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public PointRecordPurger(PointRecordRepository pointRecordRepository,
+                             PlatformTransactionManager transactionManager,
+                             TaskScheduler taskScheduler,
+                             PointsProperties properties) {
+        this.pointRecordRepository = pointRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+        this.settings = properties.getPurge();
+        this.pooledIds = properties.getIds().getStrategy() == PointsProperties.IdStrategy.POOLED;
+    }
+
+    /**
+     * Registers a purge of the user's current records. When called inside a transaction, the purge starts
+     * after it commits and is marked failed if it rolls back.
+     */
+    public PurgeJobStatus submit(String userId) {
+        removeExpiredJobs();
+        // Taken in the deleting transaction, after user_points was removed, from the clock that stamps created_at
+        LocalDateTime createdUntil = pooledIds ? pointRecordRepository.databaseNow() : null;
+        Long maxId = pointRecordRepository.findMaxIdByUserId(userId);
+        Job job = new Job(UUID.randomUUID().toString(), userId, maxId == null ? 0 : maxId, createdUntil);
+        jobs.put(job.id, job);
+        if (maxId == null) {
+            job.finish(PurgeJobStatus.State.COMPLETED, null);
+            return job.status();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        schedule(job);
+                    } else {
+                        job.finish(PurgeJobStatus.State.FAILED, "User deletion was rolled back");
+                    }
+                }
+            });
+        } else {
+            schedule(job);
+        }
+        return job.status();
+    }
+
+    public Optional<PurgeJobStatus> status(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::status);
+    }
+
+    private void schedule(Job job) {
+        try {
+            taskScheduler.schedule(() -> run(job), Instant.now());
+        } catch (RuntimeException e) {
+            log.error("Could not schedule purge of point records for user {}", job.userId, e);
+            job.finish(PurgeJobStatus.State.FAILED, e.getMessage());
+        }
+    }
+
+    void run(Job job) {
+        int chunkSize = settings.getChunkSize();
+        try {
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status -> job.createdUntil != null
+                        ? pointRecordRepository.deleteChunkByUserIdCreatedUntil(job.userId, job.createdUntil, chunkSize)
+                        : pointRecordRepository.deleteChunkByUserId(job.userId, job.maxId, chunkSize));
+                job.deletedRecords.addAndGet(deleted);
+                if (deleted == chunkSize) {
+                    Thread.sleep(settings.getPauseBetweenChunks().toMillis());
+                }
+            } while (deleted == chunkSize);
+            log.info("Purged {} point records of user {}", job.deletedRecords.get(), job.userId);
+            job.finish(PurgeJobStatus.State.COMPLETED, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(PurgeJobStatus.State.FAILED, "Interrupted");
+        } catch (RuntimeException e) {
+            log.error("Purge of point records for user {} failed after {} rows", job.userId,
+                    job.deletedRecords.get(), e);
+            job.finish(PurgeJobStatus.State.FAILED, e.getMessage());
+        }
+    }
+
+    private void removeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(settings.getStatusRetention());
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    static final class Job {
+        final String id;
+        final String userId;
+        final long maxId;
+        final LocalDateTime createdUntil;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final AtomicLong deletedRecords = new AtomicLong();
+        volatile PurgeJobStatus.State state = PurgeJobStatus.State.RUNNING;
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+
+        Job(String id, String userId, long maxId, LocalDateTime createdUntil) {
+            this.id = id;
+            this.userId = userId;
+            this.maxId = maxId;
+            this.createdUntil = createdUntil;
+        }
+
+        void finish(PurgeJobStatus.State finalState, String failure) {
+            error = failure;
+            finishedAt = LocalDateTime.now();
+            state = finalState;
+        }
+
+        PurgeJobStatus status() {
+            return new PurgeJobStatus(id, userId, state, deletedRecords.get(), submittedAt, finishedAt, error);
+        }
+    }
+}
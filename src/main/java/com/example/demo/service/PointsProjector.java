@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.repository.ProjectedRecordRepository;
+import com.example.demo.repository.UserPointsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies point credits to user_points and the leaderboard in projection mode, fed by the user-points-topic
+ * consumer with the messages of one queue at a time.
+ * <p>
+ * A micro-batch is applied in one transaction: the ids of records already applied are locked and skipped, the
+ * others are recorded in points_projected_records and their per-user deltas upserted. Redelivered messages are
+ * therefore no-ops. The leaderboard is updated with one pipeline once the transaction has committed; a failure
+ * there cannot be retried without double counting user_points, so like the write-behind flusher it is logged and
+ * the leaderboard drifts until the next rebuild.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "points.accrual", name = "mode", havingValue = "projection")
+public class PointsProjector {
+
+    private static final int CLEANUP_CHUNK_SIZE = 1000;
+
+    private final ProjectedRecordRepository projectedRecordRepository;
+    private final UserPointsRepository userPointsRepository;
+    private final LeaderboardService leaderboardService;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final PointsProperties.Projection settings;
+
+    private final Counter appliedCounter;
+    private final Counter duplicateCounter;
+
+    public PointsProjector(ProjectedRecordRepository projectedRecordRepository,
+                           UserPointsRepository userPointsRepository,
+                           LeaderboardService leaderboardService,
+                           CacheManager cacheManager,
+                           PlatformTransactionManager transactionManager,
+                           PointsProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.projectedRecordRepository = projectedRecordRepository;
+        this.userPointsRepository = userPointsRepository;
+        this.leaderboardService = leaderboardService;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = properties.getProjection();
+        this.appliedCounter = Counter.builder("points.projection.applied")
+                .description("Point records applied to user_points and the leaderboard by the projection")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("points.projection.duplicates")
+                .description("Redelivered point records the projection skipped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies the records not applied before and returns how many that were. Throws when the database update
+     * fails, so the consumer retries the whole batch.
+     */
+    public int apply(List<PointRecord> records) {
+        Map<Long, PointRecord> byId = new LinkedHashMap<>();
+        records.forEach(pointRecord -> byId.putIfAbsent(pointRecord.getId(), pointRecord));
+        if (byId.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> projected = Set.copyOf(projectedRecordRepository.lockProjectedIds(byId.keySet()));
+            byId.keySet().removeAll(projected);
+            if (byId.isEmpty()) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            projectedRecordRepository.saveAllInBatch(byId.keySet(), now);
+            byId.values().forEach(pointRecord ->
+                    deltas.merge(pointRecord.getUserId(), (long) pointRecord.getAmount(), Long::sum));
+            userPointsRepository.accrueAll(deltas, now);
+        });
+        duplicateCounter.increment(records.size() - byId.size());
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            leaderboardService.incrementAll(deltas);
+        } catch (RuntimeException e) {
+            log.error("Projection leaderboard update failed for {} users", deltas.size(), e);
+        }
+        Cache cache = cacheManager.getCache(UserPointsReader.USER_POINTS_CACHE_KEY);
+        if (cache != null) {
+            deltas.keySet().forEach(cache::evict);
+        }
+        appliedCounter.increment(byId.size());
+        return byId.size();
+    }
+
+    /**
+     * Whether the projection has applied the record, for reads that want to see a credit they just made.
+     */
+    public boolean isProjected(long recordId) {
+        return projectedRecordRepository.existsById(recordId);
+    }
+
+    /**
+     * Deletes the ids of records applied longer than {@code points.projection.dedup-retention} ago.
+     */
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(settings.getDedupRetention());
+        try {
+            Integer deleted;
+            do {
+                deleted = transactionTemplate.execute(status ->
+                        projectedRecordRepository.deleteProjectedBefore(cutoff, CLEANUP_CHUNK_SIZE));
+            } while (deleted != null && deleted == CLEANUP_CHUNK_SIZE);
+        } catch (RuntimeException e) {
+            log.warn("Failed to purge expired projected record ids", e);
+        }
+    }
+}
@@ -1,22 +1,58 @@
 package com.example.demo.service;
 
 import com.example.demo.model.dto.AddPointsRequest;
+import com.example.demo.model.dto.BatchAddPointsResponse;
 import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.LeaderboardPage;
+import com.example.demo.model.dto.PointRecordPage;
+import com.example.demo.model.dto.PointsLookupResponse;
+import com.example.demo.model.dto.PurgeJobStatus;
 import com.example.demo.model.dto.UpdateReasonRequest;
+import com.example.demo.model.dto.UserRank;
 import com.example.demo.model.entity.PointRecord;
 import com.example.demo.model.entity.UserPoints;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PointsService {
 
     PointRecord addPoints(AddPointsRequest request);
 
+    BatchAddPointsResponse addPointsBatch(List<AddPointsRequest> requests);
+
     UserPoints getTotalPoints(String userId);
 
-    List<LeaderboardEntry> getLeaderboard();
+    /**
+     * Like {@link #getTotalPoints(String)}, but guaranteed to include the record {@code minRecordId} even when the
+     * projection has not applied it yet.
+     */
+    UserPoints getTotalPoints(String userId, long minRecordId);
+
+    /**
+     * {@link #getTotalPoints(String)} for up to {@code points.lookup.max-users} users at once, with one cache
+     * round trip and one query for the cache misses.
+     */
+    PointsLookupResponse lookupTotalPoints(List<String> userIds);
+
+    List<LeaderboardEntry> getLeaderboard(LeaderboardWindow window);
+
+    /**
+     * Whether the all-time leaderboard served now is an older snapshot kept because Redis could not be read.
+     */
+    boolean isLeaderboardStale();
+
+    LeaderboardPage getLeaderboardPage(LeaderboardWindow window, int page, int size);
+
+    UserRank getUserRank(String userId, int neighbours);
+
+    PointRecordPage getPointRecords(String userId, Long before, int limit);
+
+    void exportPointRecords(String userId, Consumer<PointRecord> consumer);
 
     PointRecord updateReason(Long id, UpdateReasonRequest request);
 
-    void deleteUserPoints(String userId);
+    PurgeJobStatus deleteUserPoints(String userId);
+
+    PurgeJobStatus getPurgeStatus(String jobId);
 }
@@ -1,117 +1,366 @@
 package com.example.demo.service;
 
+import com.example.demo.config.PointsProperties;
+import com.example.demo.datasource.PrimaryStickiness;
+import com.example.demo.messaging.PointsEventPublisher;
 import com.example.demo.model.dto.AddPointsRequest;
+import com.example.demo.model.dto.BatchAddPointsResponse;
+import com.example.demo.model.dto.BatchItemResult;
 import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.LeaderboardPage;
+import com.example.demo.model.dto.PointRecordPage;
+import com.example.demo.model.dto.PointsLookupResponse;
+import com.example.demo.model.dto.PurgeJobStatus;
 import com.example.demo.model.dto.UpdateReasonRequest;
+import com.example.demo.model.dto.UserRank;
 import com.example.demo.model.entity.PointRecord;
 import com.example.demo.model.entity.UserPoints;
 import com.example.demo.repository.PointRecordRepository;
 import com.example.demo.repository.UserPointsRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PointsServiceImpl implements PointsService {
 
-    private static final String LEADERBOARD_KEY = "leaderboard";
-    private static final String USER_POINTS_CACHE_KEY = "user_points";
-    private static final String POINTS_TOPIC = "user-points-topic";
+    private static final String USER_POINTS_CACHE_KEY = UserPointsReader.USER_POINTS_CACHE_KEY;
 
     private final PointRecordRepository pointRecordRepository;
     private final UserPointsRepository userPointsRepository;
-    private final RedisTemplate<String, String> redisTemplate;
-    private final RocketMQTemplate rocketMQTemplate;
+    private final LeaderboardService leaderboardService;
+    private final LeaderboardSnapshot leaderboardSnapshot;
+    private final UserPointsReader userPointsReader;
+    private final PendingPointsDeltas pendingDeltas;
+    private final PointRecordPurger pointRecordPurger;
+    private final PointsEventPublisher eventPublisher;
+    private final PointsProperties properties;
+    private final CacheManager cacheManager;
+    private final PointsStageTimers stageTimers;
+    private final ObjectProvider<PointsProjector> projector;
+    private final PrimaryStickiness primaryStickiness;
 
     @Override
     @Transactional
-    @CacheEvict(value = USER_POINTS_CACHE_KEY, key = "#request.userId")
+    @CacheEvict(value = USER_POINTS_CACHE_KEY, key = "#request.userId", condition = "#root.target.accruesSynchronously()")
     public PointRecord addPoints(AddPointsRequest request) {
         // 1. Store the points record in MySQL
+        PointRecord pointRecord = toPointRecord(request);
+        stageTimers.record(PointsStage.ADD_POINT_RECORD_INSERT, () -> insertPointRecord(pointRecord));
+
+        // 2. Update the user's total points and 3. the leaderboard in Redis
+        switch (properties.getAccrual().getMode()) {
+            case ATOMIC -> accrueAtomically(request.getUserId(), request.getAmount());
+            case READ_MODIFY_WRITE -> accrueReadModifyWrite(request.getUserId(), request.getAmount());
+            case WRITE_BEHIND -> stageTimers.record(PointsStage.ADD_USER_POINTS_BUFFER,
+                    () -> pendingDeltas.add(request.getUserId(), request.getAmount()));
+            case PROJECTION -> {
+                // Applied by PointsProjector when the event is consumed
+            }
+        }
+
+        // 4. Publish a message to RocketMQ (through the outbox when enabled)
+        stageTimers.record(PointsStage.ADD_EVENT_PUBLISH, () -> eventPublisher.publish(pointRecord));
+        primaryStickiness.wrote(request.getUserId());
+
+        log.info("Added {} points to user {} for reason: {}",
+                request.getAmount(), request.getUserId(), request.getReason());
+        return pointRecord;
+    }
+
+    /**
+     * Accrues with the batched upsert regardless of the accrual mode: per-user deltas are merged first, so a
+     * batch costs one JDBC batch per table, one Redis pipeline and one batched event publish. Only projection
+     * mode differs, where the records are stored and published and the projection applies them.
+     */
+    @Override
+    @Transactional
+    public BatchAddPointsResponse addPointsBatch(List<AddPointsRequest> requests) {
+        int maxSize = properties.getBatch().getMaxSize();
+        if (requests == null || requests.isEmpty() || requests.size() > maxSize) {
+            throw new IllegalArgumentException("Batch must contain between 1 and " + maxSize + " items");
+        }
+
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<PointRecord> pointRecords = new ArrayList<>();
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AddPointsRequest request = requests.get(i);
+            String error = validate(request);
+            if (error != null) {
+                results[i] = BatchItemResult.failed(i, request == null ? null : request.getUserId(), error);
+                continue;
+            }
+            PointRecord pointRecord = toPointRecord(request);
+            pointRecords.add(pointRecord);
+            acceptedIndexes.add(i);
+            deltas.merge(request.getUserId(), (long) request.getAmount(), Long::sum);
+        }
+
+        if (!pointRecords.isEmpty()) {
+            // 1. Store the points records with one JDBC batch
+            pointRecordRepository.saveAllInBatch(pointRecords);
+
+            if (properties.getAccrual().getMode() != PointsProperties.AccrualMode.PROJECTION) {
+                // 2. One upsert per distinct user
+                userPointsRepository.accrueAll(deltas, LocalDateTime.now());
+
+                // 3. All leaderboard increments in one pipelined round trip
+                leaderboardService.incrementAll(deltas);
+                Cache cache = cacheManager.getCache(USER_POINTS_CACHE_KEY);
+                if (cache != null) {
+                    deltas.keySet().forEach(cache::evict);
+                }
+            }
+
+            // 4. Publish with RocketMQ batch sends (through the outbox when enabled)
+            eventPublisher.publishAll(pointRecords);
+            primaryStickiness.wroteAll(deltas.keySet());
+        }
+
+        for (int i = 0; i < pointRecords.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            PointRecord pointRecord = pointRecords.get(i);
+            results[index] = BatchItemResult.succeeded(index, pointRecord.getUserId(), pointRecord.getId());
+        }
+        log.info("Added points batch: {} records for {} users, {} rejected",
+                pointRecords.size(), deltas.size(), requests.size() - pointRecords.size());
+        return BatchAddPointsResponse.of(List.of(results));
+    }
+
+    private PointRecord insertPointRecord(PointRecord pointRecord) {
+        if (properties.getIds().getStrategy() == PointsProperties.IdStrategy.POOLED) {
+            // A preset id would turn the JPA save into a merge, so pooled ids go through the JDBC insert
+            pointRecordRepository.saveAllInBatch(List.of(pointRecord));
+            return pointRecord;
+        }
+        return pointRecordRepository.save(pointRecord);
+    }
+
+    static PointRecord toPointRecord(AddPointsRequest request) {
         PointRecord pointRecord = new PointRecord();
         pointRecord.setUserId(request.getUserId());
         pointRecord.setAmount(request.getAmount());
         pointRecord.setReason(request.getReason());
-        pointRecordRepository.save(pointRecord);
+        return pointRecord;
+    }
 
-        // 2. Update the user's total points
-        UserPoints userPoints = userPointsRepository.findById(request.getUserId())
+    static String validate(AddPointsRequest request) {
+        if (request == null) {
+            return "Request item is null";
+        }
+        if (request.getUserId() == null || request.getUserId().isBlank()) {
+            return "userId is required";
+        }
+        if (request.getAmount() == null) {
+            return "amount is required";
+        }
+        return null;
+    }
+
+    private void accrueAtomically(String userId, int amount) {
+        stageTimers.record(PointsStage.ADD_USER_POINTS_UPDATE,
+                () -> userPointsRepository.accrue(userId, amount, LocalDateTime.now()));
+        stageTimers.record(PointsStage.ADD_LEADERBOARD_UPDATE, () -> leaderboardService.increment(userId, amount));
+    }
+
+    private void accrueReadModifyWrite(String userId, int amount) {
+        UserPoints userPoints = stageTimers.record(PointsStage.ADD_USER_POINTS_READ,
+                () -> userPointsRepository.findById(userId))
                 .orElseGet(() -> {
                     UserPoints newUser = new UserPoints();
-                    newUser.setUserId(request.getUserId());
+                    newUser.setUserId(userId);
                     return newUser;
                 });
 
-        userPoints.setTotalPoints(userPoints.getTotalPoints() + request.getAmount());
-        userPointsRepository.save(userPoints);
-
-        // 3. Update the leaderboard in Redis
-        redisTemplate.opsForZSet().add(LEADERBOARD_KEY, request.getUserId(), userPoints.getTotalPoints());
+        userPoints.setTotalPoints(userPoints.getTotalPoints() + amount);
+        stageTimers.record(PointsStage.ADD_USER_POINTS_UPDATE, () -> userPointsRepository.save(userPoints));
 
-        // 4. Publish a message to RocketMQ
-        rocketMQTemplate.convertAndSend(POINTS_TOPIC, pointRecord);
+        stageTimers.record(PointsStage.ADD_LEADERBOARD_UPDATE,
+                () -> leaderboardService.setScore(userId, userPoints.getTotalPoints(), amount));
+    }
 
-        log.info("Added {} points to user {} for reason: {}",
-                request.getAmount(), request.getUserId(), request.getReason());
-        return pointRecord;
+    /**
+     * Whether addPoints has updated user_points by the time it returns, so the cached entry must be evicted.
+     * In write-behind mode the flusher evicts after writing instead, in projection mode the projector.
+     */
+    public boolean accruesSynchronously() {
+        PointsProperties.AccrualMode mode = properties.getAccrual().getMode();
+        return mode != PointsProperties.AccrualMode.WRITE_BEHIND && mode != PointsProperties.AccrualMode.PROJECTION;
     }
 
     @Override
-    @Cacheable(value = USER_POINTS_CACHE_KEY, key = "#userId")
     public UserPoints getTotalPoints(String userId) {
-        log.info("Fetching points for user {} from database", userId);
-        return userPointsRepository.findById(userId).orElse(null);
+        // Cached row plus any write-behind deltas this node has accepted but not flushed yet
+        UserPoints persisted = stageTimers.record(PointsStage.GET_TOTAL_USER_POINTS_LOAD,
+                () -> userPointsReader.load(userId));
+        return stageTimers.record(PointsStage.GET_TOTAL_PENDING_OVERLAY,
+                () -> pendingDeltas.overlay(userId, persisted));
+    }
+
+    /**
+     * In projection mode a caller that just added {@code minRecordId} may read before the projection has applied
+     * it; the total is then summed from point_records instead of read from user_points. In the other modes
+     * user_points is updated before addPoints returns, so this is the same as {@link #getTotalPoints(String)}.
+     */
+    @Override
+    public UserPoints getTotalPoints(String userId, long minRecordId) {
+        PointsProjector pointsProjector = projector.getIfAvailable();
+        if (pointsProjector == null || pointsProjector.isProjected(minRecordId)) {
+            return getTotalPoints(userId);
+        }
+        UserPoints userPoints = new UserPoints();
+        userPoints.setUserId(userId);
+        userPoints.setTotalPoints(primaryStickiness.read(userId,
+                () -> pointRecordRepository.sumAmountByUserId(userId)));
+        userPoints.setUpdatedAt(LocalDateTime.now());
+        return userPoints;
+    }
+
+    @Override
+    public PointsLookupResponse lookupTotalPoints(List<String> userIds) {
+        int maxUsers = properties.getLookup().getMaxUsers();
+        if (userIds == null || userIds.isEmpty() || userIds.size() > maxUsers) {
+            throw new IllegalArgumentException("userIds must hold between 1 and " + maxUsers + " entries");
+        }
+        if (userIds.stream().anyMatch(userId -> userId == null || userId.isBlank())) {
+            throw new IllegalArgumentException("userIds must not be blank");
+        }
+        List<String> distinct = userIds.stream().distinct().toList();
+        Map<String, UserPoints> persisted = stageTimers.record(PointsStage.LOOKUP_USER_POINTS_LOAD,
+                () -> userPointsReader.loadAll(distinct));
+        return stageTimers.record(PointsStage.LOOKUP_PENDING_OVERLAY, () -> {
+            List<UserPoints> users = new ArrayList<>(distinct.size());
+            List<String> unknownUserIds = new ArrayList<>();
+            for (String userId : distinct) {
+                UserPoints userPoints = pendingDeltas.overlay(userId, persisted.get(userId));
+                if (userPoints != null) {
+                    users.add(userPoints);
+                } else {
+                    unknownUserIds.add(userId);
+                }
+            }
+            return new PointsLookupResponse(users, unknownUserIds);
+        });
     }
 
     @Override
-    public List<LeaderboardEntry> getLeaderboard() {
-        Set<ZSetOperations.TypedTuple<String>> rangeWithScores =
-                redisTemplate.opsForZSet().reverseRangeWithScores(LEADERBOARD_KEY, 0, 9);
-        if (rangeWithScores == null) {
-            return List.of();
+    public List<LeaderboardEntry> getLeaderboard(LeaderboardWindow window) {
+        if (window == LeaderboardWindow.ALL_TIME) {
+            return stageTimers.record(PointsStage.GET_LEADERBOARD_SNAPSHOT, leaderboardSnapshot::top);
         }
-        return rangeWithScores.stream()
-                .map(tuple -> new LeaderboardEntry(tuple.getValue(), tuple.getScore()))
-                .collect(Collectors.toList());
+        return stageTimers.record(PointsStage.GET_LEADERBOARD_REDIS,
+                () -> leaderboardService.top(window, properties.getLeaderboard().getTopSize()));
+    }
+
+    @Override
+    public boolean isLeaderboardStale() {
+        return leaderboardSnapshot.isStale();
+    }
+
+    @Override
+    public LeaderboardPage getLeaderboardPage(LeaderboardWindow window, int page, int size) {
+        int maxPageSize = properties.getLeaderboard().getMaxPageSize();
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + maxPageSize);
+        }
+        int maxOffset = properties.getLeaderboard().getMaxOffset();
+        if ((long) page * size > maxOffset) {
+            throw new IllegalArgumentException("page * size must be at most " + maxOffset);
+        }
+        return leaderboardService.page(window, page, size);
+    }
+
+    @Override
+    public UserRank getUserRank(String userId, int neighbours) {
+        int maxNeighbours = properties.getLeaderboard().getMaxNeighbours();
+        if (neighbours < 0 || neighbours > maxNeighbours) {
+            throw new IllegalArgumentException("neighbours must be between 0 and " + maxNeighbours);
+        }
+        return leaderboardService.rankOf(userId, neighbours);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PointRecordPage getPointRecords(String userId, Long before, int limit) {
+        int maxPageSize = properties.getHistory().getMaxPageSize();
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        List<PointRecord> records = primaryStickiness.read(userId,
+                () -> pointRecordRepository.findPageByUserId(userId, before, limit));
+        Long nextCursor = records.size() == limit ? records.get(records.size() - 1).getId() : null;
+        return new PointRecordPage(records, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportPointRecords(String userId, Consumer<PointRecord> consumer) {
+        primaryStickiness.read(userId, () -> {
+            pointRecordRepository.streamByUserId(userId, properties.getHistory().getExportFetchSize(), consumer);
+            return null;
+        });
     }
 
     @Override
     @Transactional
     public PointRecord updateReason(Long id, UpdateReasonRequest request) {
-        PointRecord pointRecord = pointRecordRepository.findById(id)
+        PointRecord pointRecord = stageTimers.record(PointsStage.UPDATE_REASON_READ,
+                () -> pointRecordRepository.findById(id))
                 .orElseThrow(() -> new IllegalArgumentException("Point record not found with id: " + id));
 
         pointRecord.setReason(request.getReason());
-        PointRecord updatedRecord = pointRecordRepository.save(pointRecord);
+        primaryStickiness.wrote(pointRecord.getUserId());
+        // Flushed here rather than at commit so the UPDATE is part of the timed stage
+        PointRecord updatedRecord = stageTimers.record(PointsStage.UPDATE_REASON_WRITE,
+                () -> pointRecordRepository.saveAndFlush(pointRecord));
         log.info("Updated reason for point record id {}: {}", id, request.getReason());
         return updatedRecord;
     }
 
+    /**
+     * Removes the user from user_points, the cache and the leaderboard right away; the point_records rows are
+     * purged in the background by {@link PointRecordPurger} once this transaction commits.
+     */
     @Override
     @Transactional
     @CacheEvict(value = USER_POINTS_CACHE_KEY, key = "#userId")
-    public void deleteUserPoints(String userId) {
-        // 1. Remove all point records for the user from MySQL
-        pointRecordRepository.deleteByUserId(userId);
+    public PurgeJobStatus deleteUserPoints(String userId) {
+        // 1. Drop unflushed write-behind deltas first, so a flush racing the delete undoes what it writes, then
+        // remove user's total points summary
+        pendingDeltas.discard(userId);
+        stageTimers.record(PointsStage.DELETE_USER_POINTS_DELETE, () -> userPointsRepository.deleteById(userId));
+
+        // 2. Remove user from Redis leaderboard
+        stageTimers.record(PointsStage.DELETE_LEADERBOARD_REMOVE, () -> leaderboardService.remove(userId));
+        leaderboardSnapshot.invalidate();
+        primaryStickiness.wrote(userId);
 
-        // 2. Remove user's total points summary
-        userPointsRepository.deleteById(userId);
+        // 3. Purge the point records for the user from MySQL in chunks
+        PurgeJobStatus purge = stageTimers.record(PointsStage.DELETE_PURGE_SUBMIT,
+                () -> pointRecordPurger.submit(userId));
 
-        // 3. Remove user from Redis leaderboard
-        redisTemplate.opsForZSet().remove(LEADERBOARD_KEY, userId);
+        log.info("Deleted points for user {}, purging point records in job {}", userId, purge.getJobId());
+        return purge;
+    }
 
-        log.info("Deleted all points and data for user {}", userId);
+    @Override
+    public PurgeJobStatus getPurgeStatus(String jobId) {
+        return pointRecordPurger.status(jobId).orElse(null);
     }
 }
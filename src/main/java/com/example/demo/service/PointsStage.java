@@ -0,0 +1,48 @@
+package com.example.demo.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The steps of the {@link PointsService} operations timed by {@link PointsStageTimers}, tagged
+ * {@code operation} and {@code stage} on {@code points.stage}.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum PointsStage {
+
+    ADD_POINT_RECORD_INSERT("addPoints", "point_record_insert"),
+    /**
+     * read-modify-write mode only
+     */
+    ADD_USER_POINTS_READ("addPoints", "user_points_read"),
+    ADD_USER_POINTS_UPDATE("addPoints", "user_points_update"),
+    /**
+     * write-behind mode only; the flush is timed by the flusher's own metrics
+     */
+    ADD_USER_POINTS_BUFFER("addPoints", "user_points_buffer"),
+    ADD_LEADERBOARD_UPDATE("addPoints", "leaderboard_update"),
+    /**
+     * The outbox insert, or the RocketMQ send itself when the outbox is disabled
+     */
+    ADD_EVENT_PUBLISH("addPoints", "event_publish"),
+
+    GET_TOTAL_USER_POINTS_LOAD("getTotalPoints", "user_points_load"),
+    GET_TOTAL_PENDING_OVERLAY("getTotalPoints", "pending_overlay"),
+
+    LOOKUP_USER_POINTS_LOAD("lookupTotalPoints", "user_points_load"),
+    LOOKUP_PENDING_OVERLAY("lookupTotalPoints", "pending_overlay"),
+
+    GET_LEADERBOARD_SNAPSHOT("getLeaderboard", "snapshot_read"),
+    GET_LEADERBOARD_REDIS("getLeaderboard", "redis_read"),
+
+    UPDATE_REASON_READ("updateReason", "point_record_read"),
+    UPDATE_REASON_WRITE("updateReason", "point_record_update"),
+
+    DELETE_USER_POINTS_DELETE("deleteUserPoints", "user_points_delete"),
+    DELETE_LEADERBOARD_REMOVE("deleteUserPoints", "leaderboard_remove"),
+    DELETE_PURGE_SUBMIT("deleteUserPoints", "purge_submit");
+
+    private final String operation;
+    private final String stage;
+}
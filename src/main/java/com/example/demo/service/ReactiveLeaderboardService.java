@@ -0,0 +1,140 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.LeaderboardPage;
+import com.example.demo.model.dto.UserRank;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.demo.service.LeaderboardService.DAY_BUCKET_TTL;
+import static com.example.demo.service.LeaderboardService.LEADERBOARD_KEY;
+
+/**
+ * {@link LeaderboardService} for the reactive stack: same keys, same day buckets and windowed views, on the
+ * reactive Redis client. Commands that the blocking service pipelines are issued together here, which the
+ * client writes to the shared connection without waiting for each reply.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveLeaderboardService {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final PointsProperties properties;
+
+    /**
+     * ZINCRBY on the all-time leaderboard and today's bucket.
+     */
+    public Mono<Void> increment(String userId, long delta) {
+        return incrementAll(Map.of(userId, delta));
+    }
+
+    public Mono<Void> incrementAll(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.empty();
+        }
+        String dayKey = LeaderboardService.dayKey(today());
+        ReactiveZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        List<Mono<?>> commands = new ArrayList<>(deltas.size() * 2 + 1);
+        deltas.forEach((userId, delta) -> {
+            commands.add(zSet.incrementScore(LEADERBOARD_KEY, userId, delta));
+            commands.add(zSet.incrementScore(dayKey, userId, delta));
+        });
+        commands.add(redisTemplate.expire(dayKey, DAY_BUCKET_TTL));
+        return Mono.when(commands);
+    }
+
+    /**
+     * Removes the user from the all-time leaderboard and every live day bucket, and drops today's weekly and
+     * monthly views so they are rebuilt without the user.
+     */
+    public Mono<Void> remove(String userId) {
+        LocalDate today = today();
+        ReactiveZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        List<Mono<?>> commands = new ArrayList<>();
+        commands.add(zSet.remove(LEADERBOARD_KEY, userId));
+        for (int i = 0; i < DAY_BUCKET_TTL.toDays(); i++) {
+            commands.add(zSet.remove(LeaderboardService.dayKey(today.minusDays(i)), userId));
+        }
+        commands.add(redisTemplate.delete(LeaderboardService.windowKey(LeaderboardWindow.WEEK, today),
+                LeaderboardService.windowKey(LeaderboardWindow.MONTH, today)));
+        return Mono.when(commands);
+    }
+
+    public Mono<List<LeaderboardEntry>> top(LeaderboardWindow window, int count) {
+        return readKey(window)
+                .flatMap(key -> redisTemplate.opsForZSet().reverseRangeWithScores(key, Range.closed(0L, count - 1L))
+                        .collectList())
+                .map(LeaderboardService::entries);
+    }
+
+    public Mono<LeaderboardPage> page(LeaderboardWindow window, int page, int size) {
+        long start = (long) page * size;
+        return readKey(window).flatMap(key -> Mono.zip(
+                redisTemplate.opsForZSet().reverseRangeWithScores(key, Range.closed(start, start + size - 1))
+                        .collectList(),
+                redisTemplate.opsForZSet().size(key).defaultIfEmpty(0L),
+                (tuples, totalUsers) -> new LeaderboardPage(page, size, totalUsers,
+                        LeaderboardService.ranked(tuples, start))));
+    }
+
+    /**
+     * ZREVRANK and ZSCORE together, then at most {@code 2 * neighbours + 1} entries around the user. Empty when
+     * the user is not on the leaderboard.
+     */
+    public Mono<UserRank> rankOf(String userId, int neighbours) {
+        ReactiveZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        return Mono.zip(zSet.reverseRank(LEADERBOARD_KEY, userId), zSet.score(LEADERBOARD_KEY, userId))
+                .flatMap(rankAndScore -> {
+                    long rank = rankAndScore.getT1();
+                    long start = Math.max(0, rank - neighbours);
+                    return zSet.reverseRangeWithScores(LEADERBOARD_KEY, Range.closed(start, rank + neighbours))
+                            .collectList()
+                            .map(around -> new UserRank(userId, rank + 1, rankAndScore.getT2(),
+                                    LeaderboardService.ranked(around, start)));
+                });
+    }
+
+    /**
+     * Key to read a window from, rebuilding a weekly or monthly view that has expired.
+     */
+    private Mono<String> readKey(LeaderboardWindow window) {
+        return switch (window) {
+            case ALL_TIME -> Mono.just(LEADERBOARD_KEY);
+            case DAY -> Mono.just(LeaderboardService.dayKey(today()));
+            case WEEK, MONTH -> {
+                LocalDate today = today();
+                String key = LeaderboardService.windowKey(window, today);
+                yield redisTemplate.hasKey(key)
+                        .flatMap(exists -> exists ? Mono.empty() : rebuildWindow(window, today, key))
+                        .thenReturn(key);
+            }
+        };
+    }
+
+    private Mono<Void> rebuildWindow(LeaderboardWindow window, LocalDate today, String key) {
+        List<String> otherDays = new ArrayList<>(window.getDays() - 1);
+        for (int i = 1; i < window.getDays(); i++) {
+            otherDays.add(LeaderboardService.dayKey(today.minusDays(i)));
+        }
+        // Concurrent rebuilds on other nodes store the same union, so no lock is needed
+        return redisTemplate.opsForZSet().unionAndStore(LeaderboardService.dayKey(today), otherDays, key)
+                .then(redisTemplate.expire(key, properties.getLeaderboard().getWindowRefresh()))
+                .then();
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(properties.getLeaderboard().getZone());
+    }
+}
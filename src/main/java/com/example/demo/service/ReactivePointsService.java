@@ -0,0 +1,49 @@
+package com.example.demo.service;
+
+import com.example.demo.model.dto.AddPointsRequest;
+import com.example.demo.model.dto.BatchAddPointsResponse;
+import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.LeaderboardPage;
+import com.example.demo.model.dto.PointRecordPage;
+import com.example.demo.model.dto.PurgeJobStatus;
+import com.example.demo.model.dto.UpdateReasonRequest;
+import com.example.demo.model.dto.UserRank;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.model.entity.UserPoints;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * {@link PointsService} for the reactive stack, with the same semantics. Lookups that find nothing complete
+ * empty instead of returning null, and invalid arguments are signalled as {@link IllegalArgumentException}.
+ */
+public interface ReactivePointsService {
+
+    Mono<PointRecord> addPoints(AddPointsRequest request);
+
+    /**
+     * Reads the batch as it arrives; items are validated and written {@code points.batch.ingest-chunk-size} at a
+     * time, and the next chunk is only requested once the previous one is written.
+     */
+    Mono<BatchAddPointsResponse> addPointsBatch(Flux<AddPointsRequest> requests);
+
+    Mono<UserPoints> getTotalPoints(String userId);
+
+    Mono<List<LeaderboardEntry>> getLeaderboard(LeaderboardWindow window);
+
+    Mono<LeaderboardPage> getLeaderboardPage(LeaderboardWindow window, int page, int size);
+
+    Mono<UserRank> getUserRank(String userId, int neighbours);
+
+    Mono<PointRecordPage> getPointRecords(String userId, Long before, int limit);
+
+    Flux<PointRecord> exportPointRecords(String userId);
+
+    Mono<PointRecord> updateReason(Long id, UpdateReasonRequest request);
+
+    Mono<PurgeJobStatus> deleteUserPoints(String userId);
+
+    Mono<PurgeJobStatus> getPurgeStatus(String jobId);
+}
@@ -0,0 +1,336 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.ReactiveUserPointsCache;
+import com.example.demo.config.PointsProperties;
+import com.example.demo.messaging.ReactivePointsEventPublisher;
+import com.example.demo.model.dto.AddPointsRequest;
+import com.example.demo.model.dto.BatchAddPointsResponse;
+import com.example.demo.model.dto.BatchItemResult;
+import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.LeaderboardPage;
+import com.example.demo.model.dto.PointRecordPage;
+import com.example.demo.model.dto.PurgeJobStatus;
+import com.example.demo.model.dto.UpdateReasonRequest;
+import com.example.demo.model.dto.UserRank;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.model.entity.UserPoints;
+import com.example.demo.repository.ReactivePointsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serves the points operations without blocking: R2DBC in a reactive transaction for the tables, the reactive
+ * Redis client for the cache and the leaderboard, and the outbox insert or RocketMQ's async send for events.
+ * <p>
+ * Differences from {@link PointsServiceImpl}: the leaderboard, the write-behind buffer and the cache are only
+ * touched once the database transaction has committed, so a rolled back credit leaves no trace in Redis; and
+ * {@code READ_MODIFY_WRITE} accrual is not supported, as it exists to compare against the atomic upsert, and
+ * neither is a sharded leaderboard ({@code points.leaderboard.shards} above 1) or pooled record ids, which are
+ * reserved over blocking JDBC.
+ * The purge of a deleted user's records still runs on the blocking {@link PointRecordPurger}.
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePointsServiceImpl implements ReactivePointsService {
+
+    private final ReactivePointsRepository pointsRepository;
+    private final ReactiveLeaderboardService leaderboardService;
+    private final ReactiveUserPointsCache userPointsCache;
+    private final PendingPointsDeltas pendingDeltas;
+    private final PointRecordPurger pointRecordPurger;
+    private final ReactivePointsEventPublisher eventPublisher;
+    private final TransactionalOperator transactionalOperator;
+    private final PointsProperties properties;
+    private final PointsStageTimers stageTimers;
+
+    private volatile Mono<List<LeaderboardEntry>> topSnapshot;
+    private volatile List<LeaderboardEntry> lastTop;
+
+    public ReactivePointsServiceImpl(ReactivePointsRepository pointsRepository,
+                                     ReactiveLeaderboardService leaderboardService,
+                                     ReactiveUserPointsCache userPointsCache,
+                                     PendingPointsDeltas pendingDeltas,
+                                     PointRecordPurger pointRecordPurger,
+                                     ReactivePointsEventPublisher eventPublisher,
+                                     TransactionalOperator transactionalOperator,
+                                     PointsProperties properties,
+                                     PointsStageTimers stageTimers) {
+        PointsProperties.AccrualMode mode = properties.getAccrual().getMode();
+        if (mode == PointsProperties.AccrualMode.READ_MODIFY_WRITE || mode == PointsProperties.AccrualMode.PROJECTION) {
+            throw new IllegalStateException("points.accrual.mode=" + mode + " is not supported by the reactive "
+                    + "stack; use ATOMIC or WRITE_BEHIND");
+        }
+        if (properties.getLeaderboard().getShards() > 1) {
+            throw new IllegalStateException("points.leaderboard.shards > 1 is not supported by the reactive stack");
+        }
+        if (properties.getIds().getStrategy() != PointsProperties.IdStrategy.IDENTITY) {
+            throw new IllegalStateException("points.ids.strategy=" + properties.getIds().getStrategy()
+                    + " is not supported by the reactive stack; use IDENTITY");
+        }
+        this.pointsRepository = pointsRepository;
+        this.leaderboardService = leaderboardService;
+        this.userPointsCache = userPointsCache;
+        this.pendingDeltas = pendingDeltas;
+        this.pointRecordPurger = pointRecordPurger;
+        this.eventPublisher = eventPublisher;
+        this.transactionalOperator = transactionalOperator;
+        this.properties = properties;
+        this.stageTimers = stageTimers;
+        this.topSnapshot = newTopSnapshot();
+    }
+
+    @Override
+    public Mono<PointRecord> addPoints(AddPointsRequest request) {
+        return Mono.defer(() -> {
+            String userId = request.getUserId();
+            PointRecord pointRecord = PointsServiceImpl.toPointRecord(request);
+            boolean writeBehind = properties.getAccrual().getMode() == PointsProperties.AccrualMode.WRITE_BEHIND;
+
+            // 1. Store the points record, 2. update the user's total points and 4. publish the event, in one
+            // transaction
+            Mono<Void> write = stageTimers.record(PointsStage.ADD_POINT_RECORD_INSERT,
+                            pointsRepository.insertRecords(List.of(pointRecord)))
+                    .then(writeBehind ? Mono.empty() : stageTimers.record(PointsStage.ADD_USER_POINTS_UPDATE,
+                            pointsRepository.accrue(userId, request.getAmount(), LocalDateTime.now())))
+                    .then(stageTimers.record(PointsStage.ADD_EVENT_PUBLISH, eventPublisher.publish(pointRecord)));
+
+            // 3. Then the leaderboard in Redis, or the write-behind buffer that the flusher applies later
+            Mono<Void> afterCommit = writeBehind
+                    ? Mono.fromRunnable(() -> stageTimers.record(PointsStage.ADD_USER_POINTS_BUFFER,
+                            () -> pendingDeltas.add(userId, request.getAmount())))
+                    : Mono.defer(() -> stageTimers.record(PointsStage.ADD_LEADERBOARD_UPDATE,
+                                    leaderboardService.increment(userId, request.getAmount()))
+                            .then(userPointsCache.evict(userId)));
+
+            return transactionalOperator.transactional(write)
+                    .then(afterCommit)
+                    .doOnSuccess(done -> log.info("Added {} points to user {} for reason: {}",
+                            request.getAmount(), userId, request.getReason()))
+                    .thenReturn(pointRecord);
+        });
+    }
+
+    /**
+     * Always accrues with the batched upsert regardless of the accrual mode. Each chunk is one insert batch per
+     * table and one batched event publish; the whole batch is one transaction, rolled back when the body turns
+     * out to hold more than {@code points.batch.max-size} items.
+     */
+    @Override
+    public Mono<BatchAddPointsResponse> addPointsBatch(Flux<AddPointsRequest> requests) {
+        int maxSize = properties.getBatch().getMaxSize();
+        int chunkSize = properties.getBatch().getIngestChunkSize();
+        return Mono.defer(() -> {
+            Map<String, Long> deltas = new LinkedHashMap<>();
+            Mono<List<BatchItemResult>> write = requests
+                    .index()
+                    .doOnNext(item -> {
+                        if (item.getT1() >= maxSize) {
+                            throw batchSizeError(maxSize);
+                        }
+                    })
+                    .buffer(chunkSize)
+                    // One chunk at a time: the next is only read from the body once this one is written
+                    .concatMap(chunk -> writeChunk(chunk, deltas), 0)
+                    .flatMapIterable(results -> results)
+                    .collectList()
+                    .filter(results -> !results.isEmpty())
+                    .switchIfEmpty(Mono.error(() -> batchSizeError(maxSize)));
+
+            return transactionalOperator.transactional(write)
+                    .flatMap(results -> leaderboardService.incrementAll(deltas)
+                            .then(userPointsCache.evictAll(deltas.keySet()))
+                            .then(Mono.fromSupplier(() -> {
+                                BatchAddPointsResponse response = BatchAddPointsResponse.of(results);
+                                log.info("Added points batch: {} records for {} users, {} rejected",
+                                        response.getSucceeded(), deltas.size(), response.getFailed());
+                                return response;
+                            })));
+        });
+    }
+
+    private Mono<List<BatchItemResult>> writeChunk(List<Tuple2<Long, AddPointsRequest>> chunk,
+                                                   Map<String, Long> deltas) {
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+        List<PointRecord> pointRecords = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        Map<String, Long> chunkDeltas = new LinkedHashMap<>();
+        for (Tuple2<Long, AddPointsRequest> item : chunk) {
+            int index = item.getT1().intValue();
+            AddPointsRequest request = item.getT2();
+            String error = PointsServiceImpl.validate(request);
+            if (error != null) {
+                results.add(BatchItemResult.failed(index, request.getUserId(), error));
+                continue;
+            }
+            acceptedIndexes.add(results.size());
+            results.add(null);
+            pointRecords.add(PointsServiceImpl.toPointRecord(request));
+            chunkDeltas.merge(request.getUserId(), (long) request.getAmount(), Long::sum);
+        }
+        if (pointRecords.isEmpty()) {
+            return Mono.just(results);
+        }
+        return pointsRepository.insertRecords(pointRecords)
+                .then(pointsRepository.accrueAll(chunkDeltas, LocalDateTime.now()))
+                .then(eventPublisher.publishAll(pointRecords))
+                .then(Mono.fromSupplier(() -> {
+                    chunkDeltas.forEach((userId, delta) -> deltas.merge(userId, delta, Long::sum));
+                    for (int i = 0; i < pointRecords.size(); i++) {
+                        int position = acceptedIndexes.get(i);
+                        PointRecord pointRecord = pointRecords.get(i);
+                        results.set(position, BatchItemResult.succeeded(chunk.get(position).getT1().intValue(),
+                                pointRecord.getUserId(), pointRecord.getId()));
+                    }
+                    return results;
+                }));
+    }
+
+    private static IllegalArgumentException batchSizeError(int maxSize) {
+        return new IllegalArgumentException("Batch must contain between 1 and " + maxSize + " items");
+    }
+
+    @Override
+    public Mono<UserPoints> getTotalPoints(String userId) {
+        // Cached row plus any write-behind deltas this node has accepted but not flushed yet
+        return stageTimers.record(PointsStage.GET_TOTAL_USER_POINTS_LOAD,
+                        userPointsCache.get(userId, pointsRepository::findUserPoints))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .mapNotNull(persisted -> stageTimers.record(PointsStage.GET_TOTAL_PENDING_OVERLAY,
+                        () -> pendingDeltas.overlay(userId, persisted.orElse(null))));
+    }
+
+    @Override
+    public Mono<List<LeaderboardEntry>> getLeaderboard(LeaderboardWindow window) {
+        if (window == LeaderboardWindow.ALL_TIME) {
+            return stageTimers.record(PointsStage.GET_LEADERBOARD_SNAPSHOT, topSnapshot);
+        }
+        return stageTimers.record(PointsStage.GET_LEADERBOARD_REDIS,
+                leaderboardService.top(window, properties.getLeaderboard().getTopSize()));
+    }
+
+    /**
+     * Like {@link LeaderboardSnapshot}: the top is re-read from Redis at most once per
+     * {@code points.leaderboard.snapshot-refresh}, concurrent readers share one read, and a failed refresh serves
+     * the previous top for another interval.
+     */
+    private Mono<List<LeaderboardEntry>> newTopSnapshot() {
+        Duration refresh = properties.getLeaderboard().getSnapshotRefresh();
+        return leaderboardService.top(LeaderboardWindow.ALL_TIME, properties.getLeaderboard().getTopSize())
+                .map(List::copyOf)
+                .doOnNext(top -> lastTop = top)
+                .onErrorResume(e -> {
+                    List<LeaderboardEntry> previous = lastTop;
+                    if (previous == null) {
+                        return Mono.error(e);
+                    }
+                    log.warn("Leaderboard snapshot refresh failed, serving the previous snapshot", e);
+                    return Mono.just(previous);
+                })
+                .cache(top -> refresh, e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    private void invalidateTopSnapshot() {
+        lastTop = null;
+        topSnapshot = newTopSnapshot();
+    }
+
+    @Override
+    public Mono<LeaderboardPage> getLeaderboardPage(LeaderboardWindow window, int page, int size) {
+        int maxPageSize = properties.getLeaderboard().getMaxPageSize();
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            return Mono.error(new IllegalArgumentException(
+                    "page must be >= 0 and size between 1 and " + maxPageSize));
+        }
+        int maxOffset = properties.getLeaderboard().getMaxOffset();
+        if ((long) page * size > maxOffset) {
+            return Mono.error(new IllegalArgumentException("page * size must be at most " + maxOffset));
+        }
+        return leaderboardService.page(window, page, size);
+    }
+
+    @Override
+    public Mono<UserRank> getUserRank(String userId, int neighbours) {
+        int maxNeighbours = properties.getLeaderboard().getMaxNeighbours();
+        if (neighbours < 0 || neighbours > maxNeighbours) {
+            return Mono.error(new IllegalArgumentException("neighbours must be between 0 and " + maxNeighbours));
+        }
+        return leaderboardService.rankOf(userId, neighbours);
+    }
+
+    @Override
+    public Mono<PointRecordPage> getPointRecords(String userId, Long before, int limit) {
+        int maxPageSize = properties.getHistory().getMaxPageSize();
+        if (limit < 1 || limit > maxPageSize) {
+            return Mono.error(new IllegalArgumentException("limit must be between 1 and " + maxPageSize));
+        }
+        return pointsRepository.findPageByUserId(userId, before, limit)
+                .collectList()
+                .map(records -> new PointRecordPage(records,
+                        records.size() == limit ? records.get(records.size() - 1).getId() : null));
+    }
+
+    @Override
+    public Flux<PointRecord> exportPointRecords(String userId) {
+        return pointsRepository.streamByUserId(userId, properties.getHistory().getExportFetchSize());
+    }
+
+    @Override
+    public Mono<PointRecord> updateReason(Long id, UpdateReasonRequest request) {
+        Mono<PointRecord> update = stageTimers.record(PointsStage.UPDATE_REASON_READ, pointsRepository.findRecord(id))
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Point record not found with id: " + id)))
+                .flatMap(pointRecord -> {
+                    pointRecord.setReason(request.getReason());
+                    return stageTimers.record(PointsStage.UPDATE_REASON_WRITE,
+                                    pointsRepository.updateReason(id, request.getReason()))
+                            .thenReturn(pointRecord);
+                });
+        return transactionalOperator.transactional(update)
+                .doOnSuccess(updated -> log.info("Updated reason for point record id {}: {}", id,
+                        request.getReason()));
+    }
+
+    /**
+     * Removes the user from user_points, then from the leaderboard and the cache; the point_records rows are
+     * purged in the background by {@link PointRecordPurger}.
+     */
+    @Override
+    public Mono<PurgeJobStatus> deleteUserPoints(String userId) {
+        // 1. Drop unflushed write-behind deltas first, so a flush racing the delete undoes what it writes, then
+        // remove user's total points summary
+        return Mono.fromRunnable(() -> pendingDeltas.discard(userId))
+                .then(transactionalOperator.transactional(stageTimers.record(PointsStage.DELETE_USER_POINTS_DELETE,
+                        pointsRepository.deleteUserPoints(userId))))
+                // 2. Remove user from Redis leaderboard
+                .then(stageTimers.record(PointsStage.DELETE_LEADERBOARD_REMOVE, leaderboardService.remove(userId)))
+                .then(Mono.fromRunnable(this::invalidateTopSnapshot))
+                .then(userPointsCache.evict(userId))
+                // 3. Purge the point records for the user from MySQL in chunks; submitting reads the max id
+                // with JPA, so it runs off the event loop
+                .then(stageTimers.record(PointsStage.DELETE_PURGE_SUBMIT,
+                        Mono.fromCallable(() -> pointRecordPurger.submit(userId))
+                                .subscribeOn(Schedulers.boundedElastic())))
+                .doOnNext(purge -> log.info("Deleted points for user {}, purging point records in job {}",
+                        userId, purge.getJobId()));
+    }
+
+    @Override
+    public Mono<PurgeJobStatus> getPurgeStatus(String jobId) {
+        return Mono.justOrEmpty(pointRecordPurger.status(jobId));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.DeferredCacheEvictions;
+import com.example.demo.config.PointsProperties;
+import com.example.demo.redis.RedisCircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Every {@code points.redis.recovery-interval}: while the {@link RedisCircuitBreaker} is not closed, sends a PING
+ * through it, which is the trial call that closes it once Redis answers in time. With the circuit closed, replays
+ * what was deferred meanwhile: the {@link LeaderboardReplayQueue} (removals first, then the credits in one
+ * pipeline) and the {@link DeferredCacheEvictions}. Writes that fail again are deferred anew for the next run.
+ * <p>
+ * If the replay queue overflowed, its credits are incomplete, so the all-time leaderboard is rebuilt from
+ * user_points with {@link LeaderboardRebuildJob} instead; the day buckets then miss the dropped credits.
+ */
+@Slf4j
+@Component
+public class RedisRecoveryJob implements SmartLifecycle {
+
+    static final String REBUILD_TRIGGER = "redis-recovery";
+
+    private final RedisCircuitBreaker circuitBreaker;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final LeaderboardReplayQueue replayQueue;
+    private final LeaderboardService leaderboardService;
+    private final LeaderboardRebuildJob leaderboardRebuildJob;
+    private final DeferredCacheEvictions deferredEvictions;
+    private final TaskScheduler taskScheduler;
+    private final PointsProperties.Redis settings;
+
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private final ReentrantLock recoveryLock = new ReentrantLock();
+    private ScheduledFuture<?> scheduledRecovery;
+    private volatile boolean running;
+
+    public RedisRecoveryJob(RedisCircuitBreaker circuitBreaker,
+                            RedisTemplate<String, String> redisTemplate,
+                            LeaderboardReplayQueue replayQueue,
+                            LeaderboardService leaderboardService,
+                            LeaderboardRebuildJob leaderboardRebuildJob,
+                            DeferredCacheEvictions deferredEvictions,
+                            TaskScheduler taskScheduler,
+                            PointsProperties properties) {
+        this.circuitBreaker = circuitBreaker;
+        this.redisTemplate = redisTemplate;
+        this.replayQueue = replayQueue;
+        this.leaderboardService = leaderboardService;
+        this.leaderboardRebuildJob = leaderboardRebuildJob;
+        this.deferredEvictions = deferredEvictions;
+        this.taskScheduler = taskScheduler;
+        this.settings = properties.getRedis();
+    }
+
+    @Override
+    public void start() {
+        lifecycleLock.lock();
+        try {
+            scheduledRecovery = taskScheduler.scheduleWithFixedDelay(this::recover, settings.getRecoveryInterval());
+            running = true;
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        lifecycleLock.lock();
+        try {
+            running = false;
+            if (scheduledRecovery != null) {
+                scheduledRecovery.cancel(false);
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    void recover() {
+        if (!recoveryLock.tryLock()) {
+            return;
+        }
+        try {
+            if (!circuitBreaker.isClosed()) {
+                probe();
+            }
+            if (circuitBreaker.isClosed()) {
+                replayLeaderboard();
+                deferredEvictions.replay();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Replay of the writes deferred while Redis was unavailable failed", e);
+        } finally {
+            recoveryLock.unlock();
+        }
+    }
+
+    private void probe() {
+        try {
+            circuitBreaker.execute(() -> redisTemplate.execute((RedisCallback<String>) RedisConnection::ping));
+        } catch (DataAccessException e) {
+            log.debug("Redis probe failed or refused", e);
+        }
+    }
+
+    private void replayLeaderboard() {
+        LeaderboardReplayQueue.Deferred deferred = replayQueue.drain();
+        if (deferred.isEmpty()) {
+            return;
+        }
+        deferred.removals().forEach(leaderboardService::remove);
+        if (deferred.overflowed()) {
+            log.warn("Leaderboard replay queue overflowed while Redis was unavailable, rebuilding from user_points");
+            if (!leaderboardRebuildJob.start(REBUILD_TRIGGER)) {
+                log.warn("A leaderboard rebuild is already running; run another one once it has finished");
+            }
+            return;
+        }
+        if (!circuitBreaker.isClosed()) {
+            // The removals were queued again, and the credits must not overtake them
+            replayQueue.incrementAll(deferred.deltas());
+            return;
+        }
+        leaderboardService.incrementAll(deferred.deltas());
+        log.info("Replayed {} leaderboard removals and the credits of {} users deferred while Redis was unavailable",
+                deferred.removals().size(), deferred.deltas().size());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.UserPointsBulkCache;
+import com.example.demo.datasource.PrimaryStickiness;
+import com.example.demo.model.entity.UserPoints;
+import com.example.demo.redis.RedisCircuitBreaker;
+import com.example.demo.repository.UserPointsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cached read of the persisted user_points row. Kept apart from {@link PointsServiceImpl} so the service
+ * can adjust the cached value (e.g. with unflushed write-behind deltas) after the cache lookup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserPointsReader {
+
+    public static final String USER_POINTS_CACHE_KEY = "user_points";
+
+    private final UserPointsRepository userPointsRepository;
+    private final UserPointsBulkCache bulkCache;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final PrimaryStickiness primaryStickiness;
+
+    /**
+     * A miss for a popular user loads it once per node while concurrent callers wait ({@code sync}); an
+     * unknown user is cached as null for {@code points.cache.negative-ttl}. While the Redis circuit is open the
+     * loads are capped by {@link RedisCircuitBreaker#fallback}. With read replicas the row is read from one,
+     * unless the user wrote on this node within the sticky-primary window.
+     */
+    @Cacheable(value = USER_POINTS_CACHE_KEY, key = "#userId", sync = true)
+    public UserPoints load(String userId) {
+        log.info("Fetching points for user {} from database", userId);
+        return circuitBreaker.fallback(() -> primaryStickiness.read(userId,
+                () -> userPointsRepository.findById(userId).orElse(null)));
+    }
+
+    /**
+     * Cached rows of several users, by userId; unknown users are absent. Users missing from the cache are read
+     * with a single findAllById and cached like {@link #load} would, unknown ones as null.
+     */
+    public Map<String, UserPoints> loadAll(Collection<String> userIds) {
+        return bulkCache.getAll(userIds, misses -> circuitBreaker.fallback(() -> primaryStickiness.readAll(misses,
+                () -> userPointsRepository.findAllById(misses).stream()
+                        .collect(Collectors.toMap(UserPoints::getUserId, Function.identity())))));
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.repository.UserPointsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flushes {@link PendingPointsDeltas} in write-behind mode: one upsert per user in a single JDBC batch and one
+ * pipelined ZINCRBY batch, every {@code points.write-behind.flush-interval} or as soon as
+ * {@code max-pending-users} users are waiting.
+ * <p>
+ * Runs in a phase after the web server has stopped accepting requests, so the final flush on shutdown drains
+ * every credit accepted by this node. Deltas still pending on a crash are lost from user_points and the
+ * leaderboard, but the PointRecord rows are durable and the totals can be rebuilt from them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "points.accrual", name = "mode", havingValue = "write-behind")
+public class WriteBehindFlusher implements SmartLifecycle {
+
+    private final PendingPointsDeltas pendingDeltas;
+    private final UserPointsRepository userPointsRepository;
+    private final LeaderboardService leaderboardService;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final PointsProperties.WriteBehind settings;
+
+    // Locks rather than synchronized: stop() flushes to MySQL and Redis, which would pin a virtual thread
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private ScheduledFuture<?> scheduledFlush;
+    private volatile boolean running;
+
+    public WriteBehindFlusher(PendingPointsDeltas pendingDeltas,
+                              UserPointsRepository userPointsRepository,
+                              LeaderboardService leaderboardService,
+                              CacheManager cacheManager,
+                              PlatformTransactionManager transactionManager,
+                              TaskScheduler taskScheduler,
+                              PointsProperties properties) {
+        this.pendingDeltas = pendingDeltas;
+        this.userPointsRepository = userPointsRepository;
+        this.leaderboardService = leaderboardService;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+        this.settings = properties.getWriteBehind();
+    }
+
+    @Override
+    public void start() {
+        lifecycleLock.lock();
+        try {
+            pendingDeltas.onThresholdReached(settings.getMaxPendingUsers(), this::requestFlush);
+            scheduledFlush = taskScheduler.scheduleWithFixedDelay(this::flush, settings.getFlushInterval());
+            running = true;
+        } finally {
+            lifecycleLock.unlock();
+        }
+        log.info("Write-behind accrual enabled, flushing every {} or at {} pending users",
+                settings.getFlushInterval(), settings.getMaxPendingUsers());
+    }
+
+    @Override
+    public void stop() {
+        lifecycleLock.lock();
+        try {
+            running = false;
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+            }
+            flush();
+        } finally {
+            lifecycleLock.unlock();
+        }
+        log.info("Write-behind accumulator drained on shutdown");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server (DEFAULT_PHASE - 2048) so no credit arrives after the final flush
+        return DEFAULT_PHASE - 4096;
+    }
+
+    void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+    }
+
+    void flush() {
+        flushRequested.set(false);
+        flushLock.lock();
+        try {
+            // The drained batch and the rows it writes share one timestamp, which overlay() relies on
+            LocalDateTime flushedAt = LocalDateTime.now();
+            Map<String, Long> deltas = pendingDeltas.drain(flushedAt);
+            if (deltas.isEmpty()) {
+                pendingDeltas.completeFlush();
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        userPointsRepository.accrueAll(withoutDiscarded(deltas), flushedAt));
+            } catch (RuntimeException e) {
+                pendingDeltas.abortFlush();
+                log.warn("Write-behind flush of {} users failed, deltas kept for retry", deltas.size(), e);
+                return;
+            }
+            try {
+                leaderboardService.incrementAll(withoutDiscarded(deltas));
+            } catch (RuntimeException e) {
+                // user_points is committed; retrying would double count it, so only the leaderboard drifts
+                log.error("Write-behind leaderboard update failed for {} users", deltas.size(), e);
+            }
+            undoDiscarded();
+            Cache cache = cacheManager.getCache(UserPointsReader.USER_POINTS_CACHE_KEY);
+            if (cache != null) {
+                deltas.keySet().forEach(cache::evict);
+            }
+            pendingDeltas.completeFlush();
+            log.debug("Flushed write-behind deltas for {} users", deltas.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private Map<String, Long> withoutDiscarded(Map<String, Long> deltas) {
+        Set<String> discarded = pendingDeltas.discardedDuringFlush();
+        if (discarded.isEmpty()) {
+            return deltas;
+        }
+        Map<String, Long> kept = new HashMap<>(deltas);
+        kept.keySet().removeAll(discarded);
+        return kept;
+    }
+
+    /**
+     * Deletes again what this flush wrote for users deleted while it ran: their row may have been recreated by
+     * the upsert and their leaderboard entry by the ZINCRBY. Every delete discards the deltas before deleting
+     * the row, so a write it does not undo was overwritten by the delete itself.
+     */
+    private void undoDiscarded() {
+        Set<String> discarded = pendingDeltas.discardedDuringFlush();
+        if (discarded.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> userPointsRepository.deleteAllByIdInBatch(discarded));
+            discarded.forEach(leaderboardService::remove);
+        } catch (RuntimeException e) {
+            log.error("Could not remove {} users deleted during a write-behind flush", discarded.size(), e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void tryAcquire_AtLimit_ShouldReturnNullUntilAPermitIsReleased() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 2, TARGET, clock::get);
+        AdaptiveConcurrencyLimit.Permit first = limit.tryAcquire();
+        limit.tryAcquire();
+
+        // When
+        AdaptiveConcurrencyLimit.Permit rejected = limit.tryAcquire();
+        first.release();
+        first.release();
+
+        // Then
+        assertNull(rejected);
+        assertEquals(1, limit.getInFlight());
+        assertNotNull(limit.tryAcquire());
+    }
+
+    @Test
+    void release_SlowRequests_ShouldShrinkTheLimitOncePerTargetLatencyDownToTheMinimum() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(5, 10, TARGET, clock::get);
+        List<AdaptiveConcurrencyLimit.Permit> permits = acquire(limit, 3);
+        clock.addAndGet(2 * TARGET);
+
+        // When
+        permits.forEach(AdaptiveConcurrencyLimit.Permit::release);
+
+        // Then
+        assertEquals(9, limit.getLimit());
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            AdaptiveConcurrencyLimit.Permit permit = limit.tryAcquire();
+            clock.addAndGet(2 * TARGET);
+            permit.release();
+        }
+
+        // Then
+        assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    void release_FastRequestsUnderLoad_ShouldGrowTheLimitBack() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 10, TARGET, clock::get);
+        AdaptiveConcurrencyLimit.Permit slow = limit.tryAcquire();
+        clock.addAndGet(2 * TARGET);
+        slow.release();
+        assertEquals(9, limit.getLimit());
+
+        // When
+        for (int round = 0; round < 3; round++) {
+            acquire(limit, limit.getLimit()).forEach(AdaptiveConcurrencyLimit.Permit::release);
+        }
+
+        // Then
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void release_SkippedSample_ShouldNotChangeTheLimit() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 10, TARGET, clock::get);
+        AdaptiveConcurrencyLimit.Permit export = limit.tryAcquire();
+        export.skipSample();
+        clock.addAndGet(10 * TARGET);
+
+        // When
+        export.release();
+
+        // Then
+        assertEquals(10, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    private static List<AdaptiveConcurrencyLimit.Permit> acquire(AdaptiveConcurrencyLimit limit, int count) {
+        List<AdaptiveConcurrencyLimit.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(limit.tryAcquire());
+        }
+        return permits;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.admission;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.controller.PointsController;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.service.PointsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = PointsController.class, properties = {
+        "points.admission.enabled=true",
+        "points.admission.write.user-rate=0.1",
+        "points.admission.write.user-burst=1",
+        "points.admission.read.endpoint-rate=0.1",
+        "points.admission.read.endpoint-burst=2"
+})
+@Import({AdmissionControl.class, AdmissionControlWebTest.MetricsConfig.class})
+class AdmissionControlWebTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private PointsService pointsService;
+
+    @Test
+    void addPoints_UserOverWriteBudget_ShouldReturn429WithRetryAfterWithoutCallingService() throws Exception {
+        // Given
+        when(pointsService.addPoints(any())).thenReturn(new PointRecord());
+        String body = "{\"userId\":\"user1\",\"amount\":10,\"reason\":\"Test\"}";
+        mockMvc.perform(post("/points").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+
+        // When / Then
+        mockMvc.perform(post("/points").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+        mockMvc.perform(post("/points").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":\"user2\",\"amount\":10,\"reason\":\"Test\"}"))
+                .andExpect(status().isOk());
+        verify(pointsService, times(2)).addPoints(any());
+        assertEquals(1.0, meterRegistry.get("points.admission.rejected")
+                .tag("budget", "write").tag("reason", "user").counter().count());
+    }
+
+    @Test
+    void getLeaderboard_EndpointOverReadBudget_ShouldNotAffectOtherEndpoints() throws Exception {
+        // Given
+        when(pointsService.getLeaderboard(any())).thenReturn(List.of());
+        mockMvc.perform(get("/points/leaderboard")).andExpect(status().isOk());
+        mockMvc.perform(get("/points/leaderboard")).andExpect(status().isOk());
+
+        // When / Then
+        mockMvc.perform(get("/points/leaderboard")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/points/leaderboard/page")).andExpect(status().isOk());
+        assertEquals(0, meterRegistry.get("points.admission.concurrency.in_flight")
+                .tag("budget", "read").gauge().value());
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(PointsProperties.class)
+    static class MetricsConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
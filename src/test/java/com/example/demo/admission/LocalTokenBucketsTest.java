@@ -0,0 +1,46 @@
+package com.example.demo.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalTokenBucketsTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final LocalTokenBuckets buckets = new LocalTokenBuckets(100, clock::get);
+
+    @Test
+    void tryAcquire_BeyondBurst_ShouldReturnTheWaitForTheNextToken() {
+        // Given
+        buckets.tryAcquire("user1", 2, 2);
+        buckets.tryAcquire("user1", 2, 2);
+
+        // When
+        long wait = buckets.tryAcquire("user1", 2, 2);
+
+        // Then
+        assertEquals(500, wait);
+        assertEquals(0, buckets.tryAcquire("user2", 2, 2));
+    }
+
+    @Test
+    void tryAcquire_AfterWaiting_ShouldRefillAtTheRateUpToTheBurst() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            buckets.tryAcquire("user1", 2, 3);
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        // When
+        int admitted = 0;
+        while (buckets.tryAcquire("user1", 2, 3) == 0) {
+            admitted++;
+        }
+
+        // Then
+        assertEquals(3, admitted);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.redis.RedisCircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakingCacheTest {
+
+    @Mock
+    private Cache delegate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PointsProperties properties = new PointsProperties();
+    private RedisCircuitBreaker circuitBreaker;
+    private DeferredCacheEvictions deferredEvictions;
+    private CircuitBreakingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties.getRedis().setWindowSize(2);
+        properties.getRedis().setFailureRateThreshold(1.0);
+        circuitBreaker = new RedisCircuitBreaker(properties, meterRegistry);
+        deferredEvictions = new DeferredCacheEvictions(properties, meterRegistry);
+        cache = new CircuitBreakingCache(delegate, circuitBreaker, deferredEvictions);
+        lenient().when(delegate.getName()).thenReturn("user_points");
+    }
+
+    @Test
+    void get_RedisFails_ShouldBeAMiss() {
+        // Given
+        when(delegate.get("user1")).thenThrow(new RedisConnectionFailureException("redis down"));
+
+        // When
+        Cache.ValueWrapper result = cache.get("user1");
+
+        // Then
+        assertNull(result);
+    }
+
+    @Test
+    void getWithLoader_CircuitOpen_ShouldLoadWithoutTouchingRedis() {
+        // Given
+        open();
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        Integer value = cache.get("user1", loads::incrementAndGet);
+
+        // Then
+        assertEquals(1, value);
+        verify(delegate, never()).get(any());
+        verify(delegate, never()).get(any(), any(Callable.class));
+        verify(delegate, never()).put(any(), any());
+    }
+
+    @Test
+    void evict_RedisFails_ShouldDeferAndTreatTheKeyAsAMissUntilReplayed() {
+        // Given
+        doThrow(new RedisConnectionFailureException("redis down")).doNothing().when(delegate).evict("user1");
+        cache.evict("user1");
+        lenient().when(delegate.get("user1")).thenReturn(new SimpleValueWrapper("stale"));
+
+        // When
+        Cache.ValueWrapper beforeReplay = cache.get("user1");
+        deferredEvictions.replay();
+        Cache.ValueWrapper afterReplay = cache.get("user1");
+
+        // Then
+        assertNull(beforeReplay);
+        assertEquals("stale", afterReplay.get());
+        verify(delegate, times(2)).evict("user1");
+        assertEquals(0, deferredEvictions.size());
+    }
+
+    @Test
+    void put_RedisFails_ShouldBeSkipped() {
+        // Given
+        doThrow(new RedisConnectionFailureException("redis down")).when(delegate).put("user1", "value");
+
+        // When / Then
+        assertDoesNotThrow(() -> cache.put("user1", "value"));
+    }
+
+    private void open() {
+        when(delegate.get("warmup")).thenThrow(new RedisConnectionFailureException("redis down"));
+        cache.get("warmup");
+        cache.get("warmup");
+        assertFalse(circuitBreaker.isClosed());
+        clearInvocations(delegate);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CrossFormatEvictingCacheWriterTest {
+
+    private static final String CACHE = "user_points";
+
+    @Mock
+    private RedisCacheWriter delegate;
+
+    private CrossFormatEvictingCacheWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new CrossFormatEvictingCacheWriter(delegate, CACHE, "user_points:v2::", List.of("user_points::"));
+    }
+
+    @Test
+    void remove_ShouldAlsoRemoveKeyUnderOtherPrefixes() {
+        // When
+        writer.remove(CACHE, bytes("user_points:v2::user1"));
+
+        // Then
+        verify(delegate).remove(CACHE, bytes("user_points:v2::user1"));
+        verify(delegate).remove(CACHE, bytes("user_points::user1"));
+    }
+
+    @Test
+    void clean_ShouldAlsoCleanOtherPrefixes() {
+        // When
+        writer.clean(CACHE, bytes("user_points:v2::*"));
+
+        // Then
+        verify(delegate).clean(CACHE, bytes("user_points:v2::*"));
+        verify(delegate).clean(CACHE, bytes("user_points::*"));
+    }
+
+    @Test
+    void remove_OtherCache_ShouldOnlyRemoveKey() {
+        // When
+        writer.remove("other", bytes("other::user1"));
+
+        // Then
+        verify(delegate).remove("other", bytes("other::user1"));
+        verifyNoMoreInteractions(delegate);
+    }
+
+    @Test
+    void put_ShouldOnlyWriteCurrentFormat() {
+        // When
+        writer.put(CACHE, bytes("user_points:v2::user1"), new byte[]{1}, Duration.ofSeconds(5));
+
+        // Then
+        verify(delegate).put(eq(CACHE), aryEq(bytes("user_points:v2::user1")), any(), eq(Duration.ofSeconds(5)));
+        verifyNoMoreInteractions(delegate);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
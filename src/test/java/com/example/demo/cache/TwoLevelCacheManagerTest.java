@@ -0,0 +1,257 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.redis.RedisCircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerTest {
+
+    private static final String CACHE = "user_points";
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrentMapCacheManager sharedCacheManager = new ConcurrentMapCacheManager(CACHE);
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        PointsProperties.Cache settings = new PointsProperties().getCache();
+        settings.getL1().setMaxSize(100);
+        settings.getL1().setTtl(Duration.ofMinutes(1));
+        cacheManager = new TwoLevelCacheManager(sharedCacheManager, redisTemplate, meterRegistry, settings,
+                new RedisCircuitBreaker(new PointsProperties(), meterRegistry));
+    }
+
+    @Test
+    void get_RepeatedLookup_ShouldServeFromL1AfterFirstL2Hit() {
+        // Given
+        sharedCacheManager.getCache(CACHE).put("user1", 100L);
+        Cache cache = cacheManager.getCache(CACHE);
+
+        // When
+        cache.get("user1");
+        sharedCacheManager.getCache(CACHE).put("user1", 999L);
+        Cache.ValueWrapper second = cache.get("user1");
+
+        // Then
+        assertEquals(100L, second.get());
+        assertEquals(1.0, requests("l1", "miss"));
+        assertEquals(1.0, requests("l2", "hit"));
+        assertEquals(1.0, requests("l1", "hit"));
+    }
+
+    @Test
+    void get_MissingEverywhere_ShouldCountBothMisses() {
+        // When
+        Cache.ValueWrapper value = cacheManager.getCache(CACHE).get("unknown");
+
+        // Then
+        assertNull(value);
+        assertEquals(1.0, requests("l1", "miss"));
+        assertEquals(1.0, requests("l2", "miss"));
+    }
+
+    @Test
+    void get_CachedNull_ShouldBeServedFromL1() {
+        // Given
+        Cache cache = cacheManager.getCache(CACHE);
+        cache.put("ghost", null);
+
+        // When
+        Cache.ValueWrapper value = cache.get("ghost");
+
+        // Then
+        assertNotNull(value);
+        assertNull(value.get());
+        assertEquals(1.0, requests("l1", "hit"));
+    }
+
+    @Test
+    void getWithLoader_ConcurrentMisses_ShouldLoadOnce() throws Exception {
+        // Given
+        Cache cache = cacheManager.getCache(CACHE);
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch loaderEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // When
+        List<Future<Long>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get("hot", () -> {
+                    loaderCalls.incrementAndGet();
+                    loaderEntered.countDown();
+                    release.await();
+                    return 42L;
+                })));
+            }
+            assertTrue(loaderEntered.await(5, TimeUnit.SECONDS));
+            // Let the other callers reach the in-flight load before it completes
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<Long> result : results) {
+                assertEquals(42L, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals(1, loaderCalls.get());
+        assertEquals(42L, sharedCacheManager.getCache(CACHE).get("hot").get());
+        assertEquals(1.0, meterRegistry.get("points.cache.loads").tag("result", "loaded").counter().count());
+    }
+
+    @Test
+    void getWithLoader_LoaderFails_ShouldNotCacheAndAllowRetry() {
+        // Given
+        Cache cache = cacheManager.getCache(CACHE);
+
+        // When
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("user1", () -> {
+            throw new IllegalStateException("db down");
+        }));
+        Long retried = cache.get("user1", () -> 7L);
+
+        // Then
+        assertEquals(7L, retried);
+    }
+
+    @Test
+    void getWithLoader_UnknownKey_ShouldCacheNull() {
+        // Given
+        Cache cache = cacheManager.getCache(CACHE);
+        AtomicInteger loaderCalls = new AtomicInteger();
+
+        // When
+        cache.get("ghost", () -> {
+            loaderCalls.incrementAndGet();
+            return null;
+        });
+        Object second = cache.get("ghost", () -> {
+            loaderCalls.incrementAndGet();
+            return null;
+        });
+
+        // Then
+        assertNull(second);
+        assertEquals(1, loaderCalls.get());
+    }
+
+    @Test
+    void evict_ShouldClearBothLevelsAndBroadcast() {
+        // Given
+        Cache cache = cacheManager.getCache(CACHE);
+        cache.put("user1", 100L);
+
+        // When
+        cache.evict("user1");
+
+        // Then
+        assertNull(cache.get("user1"));
+        assertNull(sharedCacheManager.getCache(CACHE).get("user1"));
+        verify(redisTemplate).convertAndSend(TwoLevelCacheManager.INVALIDATION_CHANNEL,
+                cacheManager.getNodeId() + "|" + CACHE + "|user1");
+        assertEquals(1.0, meterRegistry.get("points.cache.l1.evictions")
+                .tag("cause", "explicit").counter().count());
+    }
+
+    @Test
+    void evict_PublishFails_ShouldStillEvictLocally() {
+        // Given
+        Cache cache = cacheManager.getCache(CACHE);
+        cache.put("user1", 100L);
+        when(redisTemplate.convertAndSend(anyString(), anyString())).thenThrow(new IllegalStateException("redis down"));
+
+        // When
+        cache.evict("user1");
+
+        // Then
+        assertNull(cache.get("user1"));
+    }
+
+    @Test
+    void onMessage_FromOtherNode_ShouldDropOnlyL1Entry() {
+        // Given
+        Cache cache = cacheManager.getCache(CACHE);
+        cache.put("user1", 100L);
+        sharedCacheManager.getCache(CACHE).put("user1", 150L);
+
+        // When
+        cacheManager.onMessage(message("other-node|" + CACHE + "|user1"), null);
+
+        // Then
+        assertEquals(150L, cache.get("user1").get());
+        assertEquals(1.0, meterRegistry.get("points.cache.remote.invalidations").counter().count());
+    }
+
+    @Test
+    void onMessage_FromSelf_ShouldBeIgnored() {
+        // Given
+        Cache cache = cacheManager.getCache(CACHE);
+        cache.put("user1", 100L);
+        sharedCacheManager.getCache(CACHE).put("user1", 150L);
+
+        // When
+        cacheManager.onMessage(message(cacheManager.getNodeId() + "|" + CACHE + "|user1"), null);
+
+        // Then
+        assertEquals(100L, cache.get("user1").get());
+    }
+
+    @Test
+    void onMessage_EmptyKey_ShouldClearL1() {
+        // Given
+        Cache cache = cacheManager.getCache(CACHE);
+        cache.put("user1", 100L);
+        sharedCacheManager.getCache(CACHE).clear();
+
+        // When
+        cacheManager.onMessage(message("other-node|" + CACHE + "|"), null);
+
+        // Then
+        assertNull(cache.get("user1"));
+    }
+
+    private double requests(String level, String result) {
+        return meterRegistry.get("points.cache.requests")
+                .tag("level", level)
+                .tag("result", result)
+                .counter().count();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(TwoLevelCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
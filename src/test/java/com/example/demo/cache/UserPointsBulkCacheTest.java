@@ -0,0 +1,200 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.UserPoints;
+import com.example.demo.redis.RedisCircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserPointsBulkCacheTest {
+
+    private static final String CACHE = "user_points";
+    private static final String PREFIX = CacheConfig.keyPrefix(CACHE, PointsProperties.CacheFormat.COMPACT);
+    private static final byte[] NULL_MARKER = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisStringCommands stringCommands;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrentMapCacheManager sharedCacheManager = new ConcurrentMapCacheManager(CACHE);
+    private final PointsProperties properties = new PointsProperties();
+    private final RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker(properties, meterRegistry);
+    private final DeferredCacheEvictions deferredEvictions = new DeferredCacheEvictions(properties, meterRegistry);
+    private final Map<String, byte[]> redis = new HashMap<>();
+    private final List<List<String>> loads = new ArrayList<>();
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new TwoLevelCacheManager(sharedCacheManager, redisTemplate, meterRegistry,
+                properties.getCache(), circuitBreaker);
+        lenient().when(connectionFactory.getConnection()).thenReturn(connection);
+        lenient().when(connection.stringCommands()).thenReturn(stringCommands);
+        lenient().when(stringCommands.mGet(any(byte[][].class))).thenAnswer(invocation -> Arrays.stream(
+                invocation.getArguments())
+                .map(key -> redis.get(new String((byte[]) key, StandardCharsets.UTF_8)))
+                .toList());
+    }
+
+    @Test
+    void getAll_ShouldServeL1HitsAndReadTheRestWithOneMget() {
+        // Given
+        cacheManager.getCache(CACHE).put("user1", userPoints("user1", 10));
+        redis.put(PREFIX + "user2", new UserPointsCodec().serialize(userPoints("user2", 20)));
+        UserPointsBulkCache bulkCache = new UserPointsBulkCache(connectionFactory, cacheManager, circuitBreaker,
+                deferredEvictions, properties);
+
+        // When
+        Map<String, UserPoints> result = bulkCache.getAll(List.of("user1", "user2", "user3", "user2"),
+                this::load);
+
+        // Then
+        assertEquals(10L, result.get("user1").getTotalPoints());
+        assertEquals(20L, result.get("user2").getTotalPoints());
+        assertFalse(result.containsKey("user3"));
+        verify(stringCommands).mGet(key("user2"), key("user3"));
+        assertEquals(List.of(List.of("user3")), loads);
+        assertEquals(1.0, requests("l1", "hit"));
+        assertEquals(1.0, requests("l2", "hit"));
+        assertEquals(1.0, requests("l2", "miss"));
+    }
+
+    @Test
+    void getAll_Misses_ShouldBeLoadedOnceAndWrittenBackInOnePipeline() {
+        // Given
+        properties.getCache().setRedisTtl(Duration.ofMinutes(1));
+        UserPointsBulkCache bulkCache = new UserPointsBulkCache(connectionFactory, cacheManager, circuitBreaker,
+                deferredEvictions, properties);
+
+        // When
+        Map<String, UserPoints> result = bulkCache.getAll(List.of("user1", "unknown"), this::load);
+
+        // Then
+        assertEquals(1L, result.get("user1").getTotalPoints());
+        assertEquals(List.of(List.of("user1", "unknown")), loads);
+        verify(connection).openPipeline();
+        verify(stringCommands).set(eq(key("user1")), argThat(bytes -> !Arrays.equals(bytes, NULL_MARKER)),
+                eq(Expiration.from(60, TimeUnit.SECONDS)), eq(RedisStringCommands.SetOption.upsert()));
+        verify(stringCommands).set(eq(key("unknown")), argThat(bytes -> Arrays.equals(bytes, NULL_MARKER)),
+                eq(Expiration.from(30, TimeUnit.SECONDS)), eq(RedisStringCommands.SetOption.upsert()));
+        verify(connection).closePipeline();
+    }
+
+    @Test
+    void getAll_ReadReplicas_ShouldExpireWrittenBackEntriesWithinMaxLag() {
+        // Given - entries would otherwise never expire
+        properties.getCache().setRedisTtl(Duration.ZERO);
+        properties.getReplicas().setEnabled(true);
+        properties.getReplicas().setMaxLag(Duration.ofSeconds(2));
+        UserPointsBulkCache bulkCache = new UserPointsBulkCache(connectionFactory, cacheManager, circuitBreaker,
+                deferredEvictions, properties);
+
+        // When
+        bulkCache.getAll(List.of("user1", "unknown"), this::load);
+
+        // Then
+        verify(stringCommands).set(eq(key("user1")), any(byte[].class),
+                eq(Expiration.from(2, TimeUnit.SECONDS)), eq(RedisStringCommands.SetOption.upsert()));
+        verify(stringCommands).set(eq(key("unknown")), any(byte[].class),
+                eq(Expiration.from(2, TimeUnit.SECONDS)), eq(RedisStringCommands.SetOption.upsert()));
+        // The @Cacheable load writes through the same configuration
+        RedisCacheConfiguration configuration =
+                CacheConfig.userPointsCacheConfiguration(getClass().getClassLoader(), properties);
+        assertEquals(Duration.ofSeconds(2),
+                configuration.getTtlFunction().getTimeToLive("user1", userPoints("user1", 1)));
+    }
+
+    @Test
+    void getAll_SecondCall_ShouldBeServedFromL1IncludingUnknownUsers() {
+        // Given
+        UserPointsBulkCache bulkCache = new UserPointsBulkCache(connectionFactory, cacheManager, circuitBreaker,
+                deferredEvictions, properties);
+        bulkCache.getAll(List.of("user1", "unknown"), this::load);
+
+        // When
+        Map<String, UserPoints> result = bulkCache.getAll(List.of("user1", "unknown"), this::load);
+
+        // Then
+        assertEquals(Set.of("user1"), result.keySet());
+        verify(stringCommands, times(1)).mGet(any(byte[][].class));
+        assertEquals(1, loads.size());
+    }
+
+    @Test
+    void getAll_WithoutL1_ShouldTreatCachedNullAsUnknownWithoutLoading() {
+        // Given
+        redis.put(PREFIX + "unknown", NULL_MARKER);
+        UserPointsBulkCache bulkCache = new UserPointsBulkCache(connectionFactory, sharedCacheManager,
+                circuitBreaker, deferredEvictions, properties);
+
+        // When
+        Map<String, UserPoints> result = bulkCache.getAll(List.of("unknown"), this::load);
+
+        // Then
+        assertTrue(result.isEmpty());
+        assertTrue(loads.isEmpty());
+        verify(connection, never()).openPipeline();
+    }
+
+    private Map<String, UserPoints> load(Collection<String> userIds) {
+        loads.add(List.copyOf(userIds));
+        return userIds.contains("user1") ? Map.of("user1", userPoints("user1", 1)) : Map.of();
+    }
+
+    private static byte[] key(String userId) {
+        return (PREFIX + userId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private double requests(String level, String result) {
+        return meterRegistry.get("points.cache.requests").tag("level", level).tag("result", result).counter().count();
+    }
+
+    private static UserPoints userPoints(String userId, long totalPoints) {
+        UserPoints userPoints = new UserPoints();
+        userPoints.setUserId(userId);
+        userPoints.setTotalPoints(totalPoints);
+        userPoints.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        return userPoints;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.cache;
+
+import com.example.demo.model.entity.UserPoints;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPointsCodecTest {
+
+    private final UserPointsCodec codec = new UserPointsCodec();
+
+    @Test
+    void roundTrip_ShouldRestoreAllFields() {
+        // Given
+        UserPoints userPoints = userPoints("user-42", 123_456L, LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_789));
+
+        // When
+        UserPoints decoded = (UserPoints) codec.deserialize(codec.serialize(userPoints));
+
+        // Then
+        assertEquals(userPoints, decoded);
+    }
+
+    @Test
+    void roundTrip_MissingFields_ShouldStayNull() {
+        // Given
+        UserPoints userPoints = userPoints("用户-1", null, null);
+
+        // When
+        UserPoints decoded = (UserPoints) codec.deserialize(codec.serialize(userPoints));
+
+        // Then
+        assertEquals("用户-1", decoded.getUserId());
+        assertNull(decoded.getTotalPoints());
+        assertNull(decoded.getUpdatedAt());
+    }
+
+    @Test
+    void serialize_ShouldBeAFractionOfJdkSerialization() {
+        // Given
+        UserPoints userPoints = userPoints("user-42", 123_456L, LocalDateTime.now());
+
+        // When
+        byte[] compact = codec.serialize(userPoints);
+        byte[] jdk = RedisSerializer.java().serialize(userPoints);
+
+        // Then
+        assertEquals(2 + 8 + 12 + "user-42".length(), compact.length);
+        assertTrue(compact.length * 5 < jdk.length, compact.length + " vs " + jdk.length);
+    }
+
+    @Test
+    void deserialize_OtherVersion_ShouldFail() {
+        // Given
+        byte[] encoded = codec.serialize(userPoints("user-42", 1L, null));
+        encoded[0] = UserPointsCodec.VERSION + 1;
+
+        // When & Then
+        assertThrows(SerializationException.class, () -> codec.deserialize(encoded));
+    }
+
+    @Test
+    void deserialize_Truncated_ShouldFail() {
+        // Given
+        byte[] encoded = codec.serialize(userPoints("user-42", 1L, LocalDateTime.now()));
+        byte[] truncated = Arrays.copyOf(encoded, 6);
+
+        // When & Then
+        assertThrows(SerializationException.class, () -> codec.deserialize(truncated));
+    }
+
+    @Test
+    void serialize_OtherType_ShouldFail() {
+        assertThrows(SerializationException.class, () -> codec.serialize("not user points"));
+    }
+
+    private static UserPoints userPoints(String userId, Long totalPoints, LocalDateTime updatedAt) {
+        UserPoints userPoints = new UserPoints();
+        userPoints.setUserId(userId);
+        userPoints.setTotalPoints(totalPoints);
+        userPoints.setUpdatedAt(updatedAt);
+        return userPoints;
+    }
+}
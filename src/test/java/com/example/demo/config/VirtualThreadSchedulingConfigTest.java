@@ -0,0 +1,89 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadSchedulingConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TaskSchedulingAutoConfiguration.class))
+            .withUserConfiguration(SchedulingEnabled.class, VirtualThreadSchedulingConfig.class)
+            .withPropertyValues("spring.task.scheduling.pool.size=4");
+
+    @Test
+    void taskScheduler_VirtualThreadsEnabled_ShouldRunTasksOnVirtualThreads() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            // Given
+            TaskScheduler taskScheduler = context.getBean(TaskScheduler.class);
+            CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+
+            // When
+            taskScheduler.schedule(() -> virtual.complete(Thread.currentThread().isVirtual()), Instant.now());
+
+            // Then
+            assertInstanceOf(ThreadPoolTaskScheduler.class, taskScheduler);
+            assertTrue(virtual.get(5, TimeUnit.SECONDS));
+        });
+    }
+
+    @Test
+    void taskScheduler_VirtualThreadsEnabled_ShouldRunFixedDelayTasksConcurrently() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            // Given - each task blocks until the other one is running too
+            TaskScheduler taskScheduler = context.getBean(TaskScheduler.class);
+            CountDownLatch bothRunning = new CountDownLatch(2);
+            Runnable blockingTask = () -> {
+                bothRunning.countDown();
+                try {
+                    bothRunning.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+
+            // When
+            ScheduledFuture<?> first = taskScheduler.scheduleWithFixedDelay(blockingTask, Duration.ofSeconds(1));
+            ScheduledFuture<?> second = taskScheduler.scheduleWithFixedDelay(blockingTask, Duration.ofSeconds(1));
+
+            // Then
+            try {
+                assertTrue(bothRunning.await(5, TimeUnit.SECONDS), "fixed-delay tasks were serialized");
+            } finally {
+                first.cancel(true);
+                second.cancel(true);
+            }
+        });
+    }
+
+    @Test
+    void taskScheduler_VirtualThreadsDisabled_ShouldKeepBootPlatformScheduler() {
+        contextRunner.run(context -> {
+            // Then
+            assertTrue(context.getBeansOfType(VirtualThreadSchedulingConfig.class).isEmpty());
+            ThreadPoolTaskScheduler taskScheduler = context.getBean(ThreadPoolTaskScheduler.class);
+            CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+            taskScheduler.schedule(() -> virtual.complete(Thread.currentThread().isVirtual()), Instant.now());
+            assertFalse(virtual.get(5, TimeUnit.SECONDS));
+        });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableScheduling
+    static class SchedulingEnabled {
+    }
+}
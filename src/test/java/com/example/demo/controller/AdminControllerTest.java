@@ -0,0 +1,64 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.dto.LeaderboardRebuildStatus;
+import com.example.demo.service.LeaderboardRebuildJob;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AdminController.class)
+class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LeaderboardRebuildJob leaderboardRebuildJob;
+
+    @Test
+    void rebuildLeaderboard_NotRunning_ShouldReturnAccepted() throws Exception {
+        // Given
+        when(leaderboardRebuildJob.start("admin")).thenReturn(true);
+        when(leaderboardRebuildJob.status()).thenReturn(rebuildStatus(LeaderboardRebuildStatus.State.RUNNING));
+
+        // When & Then
+        mockMvc.perform(post("/admin/leaderboard/rebuild"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+    }
+
+    @Test
+    void rebuildLeaderboard_AlreadyRunning_ShouldReturnConflict() throws Exception {
+        // Given
+        when(leaderboardRebuildJob.start("admin")).thenReturn(false);
+        when(leaderboardRebuildJob.status()).thenReturn(rebuildStatus(LeaderboardRebuildStatus.State.RUNNING));
+
+        // When & Then
+        mockMvc.perform(post("/admin/leaderboard/rebuild"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void getRebuildStatus_ShouldReturnProgress() throws Exception {
+        // Given
+        when(leaderboardRebuildJob.status()).thenReturn(rebuildStatus(LeaderboardRebuildStatus.State.RUNNING));
+
+        // When & Then
+        mockMvc.perform(get("/admin/leaderboard/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processedUsers").value(500))
+                .andExpect(jsonPath("$.totalUsers").value(2000));
+    }
+
+    private static LeaderboardRebuildStatus rebuildStatus(LeaderboardRebuildStatus.State state) {
+        return new LeaderboardRebuildStatus(state, "admin", LocalDateTime.now(), null, 500, 2000, 0, null);
+    }
+}
@@ -1,10 +1,19 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.dto.AddPointsRequest;
+import com.example.demo.model.dto.BatchAddPointsResponse;
+import com.example.demo.model.dto.BatchItemResult;
+import com.example.demo.model.dto.PointsLookupResponse;
 import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.LeaderboardPage;
+import com.example.demo.model.dto.RankedEntry;
+import com.example.demo.model.dto.PointRecordPage;
+import com.example.demo.model.dto.PurgeJobStatus;
 import com.example.demo.model.dto.UpdateReasonRequest;
+import com.example.demo.model.dto.UserRank;
 import com.example.demo.model.entity.PointRecord;
 import com.example.demo.model.entity.UserPoints;
+import com.example.demo.service.LeaderboardWindow;
 import com.example.demo.service.PointsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,13 +22,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -103,6 +119,18 @@ class PointsControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getTotalPoints_WithMinRecordId_ShouldReadYourWrites() throws Exception {
+        // Given
+        when(pointsService.getTotalPoints("user123", 42L)).thenReturn(userPoints);
+
+        // When & Then
+        mockMvc.perform(get("/points/user123").param("minRecordId", "42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPoints").value(500));
+        verify(pointsService, never()).getTotalPoints("user123");
+    }
+
     @Test
     void getLeaderboard_ShouldReturnLeaderboardList() throws Exception {
         // Given
@@ -110,7 +138,7 @@ class PointsControllerTest {
         LeaderboardEntry entry2 = new LeaderboardEntry("user2", 800.0);
         List<LeaderboardEntry> leaderboard = Arrays.asList(entry1, entry2);
 
-        when(pointsService.getLeaderboard()).thenReturn(leaderboard);
+        when(pointsService.getLeaderboard(LeaderboardWindow.ALL_TIME)).thenReturn(leaderboard);
 
         // When & Then
         mockMvc.perform(get("/points/leaderboard"))
@@ -121,6 +149,145 @@ class PointsControllerTest {
                 .andExpect(jsonPath("$[1].total").value(800.0));
     }
 
+    @Test
+    void getLeaderboard_StaleSnapshot_ShouldMarkResponseStale() throws Exception {
+        // Given
+        when(pointsService.getLeaderboard(LeaderboardWindow.ALL_TIME))
+                .thenReturn(List.of(new LeaderboardEntry("user1", 1000.0)));
+        when(pointsService.isLeaderboardStale()).thenReturn(true);
+
+        // When & Then
+        mockMvc.perform(get("/points/leaderboard"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PointsController.STALE_HEADER, "true"))
+                .andExpect(jsonPath("$[0].userId").value("user1"));
+    }
+
+    @Test
+    void getLeaderboard_MonthlyWindow_ShouldPassWindow() throws Exception {
+        // Given
+        when(pointsService.getLeaderboard(LeaderboardWindow.MONTH))
+                .thenReturn(List.of(new LeaderboardEntry("user2", 300.0)));
+
+        // When & Then
+        mockMvc.perform(get("/points/leaderboard").param("window", "Month"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].userId").value("user2"));
+    }
+
+    @Test
+    void getLeaderboard_UnknownWindow_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/points/leaderboard").param("window", "fortnight"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getLeaderboardPage_ShouldReturnRankedEntries() throws Exception {
+        // Given
+        LeaderboardPage page = new LeaderboardPage(1, 2, 57, List.of(
+                new RankedEntry(3, "user3", 700.0), new RankedEntry(4, "user4", 650.0)));
+        when(pointsService.getLeaderboardPage(LeaderboardWindow.WEEK, 1, 2)).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/points/leaderboard/page").param("window", "week").param("page", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalUsers").value(57))
+                .andExpect(jsonPath("$.entries[0].rank").value(3))
+                .andExpect(jsonPath("$.entries[1].userId").value("user4"));
+    }
+
+    @Test
+    void getLeaderboardPage_InvalidSize_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(pointsService.getLeaderboardPage(LeaderboardWindow.ALL_TIME, 0, 1000)).thenThrow(new IllegalArgumentException("too large"));
+
+        // When & Then
+        mockMvc.perform(get("/points/leaderboard/page").param("size", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUserRank_RankedUser_ShouldReturnRank() throws Exception {
+        // Given
+        UserRank rank = new UserRank("user123", 5, 500.0, List.of(new RankedEntry(5, "user123", 500.0)));
+        when(pointsService.getUserRank("user123", 2)).thenReturn(rank);
+
+        // When & Then
+        mockMvc.perform(get("/points/user123/rank"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank").value(5))
+                .andExpect(jsonPath("$.total").value(500.0))
+                .andExpect(jsonPath("$.neighbours[0].userId").value("user123"));
+    }
+
+    @Test
+    void getUserRank_UnrankedUser_ShouldReturnNotFound() throws Exception {
+        // Given
+        when(pointsService.getUserRank("ghost", 2)).thenReturn(null);
+
+        // When & Then
+        mockMvc.perform(get("/points/ghost/rank"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getPointRecords_ShouldReturnPageWithCursor() throws Exception {
+        // Given
+        when(pointsService.getPointRecords("user123", 10L, 1)).thenReturn(new PointRecordPage(List.of(pointRecord), 1L));
+
+        // When & Then
+        mockMvc.perform(get("/points/user123/records").param("before", "10").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.records[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportPointRecords_ShouldStreamNdjson() throws Exception {
+        // Given
+        PointRecord second = new PointRecord();
+        second.setId(2L);
+        second.setUserId("user123");
+        second.setAmount(5);
+        doAnswer(invocation -> {
+            Consumer<PointRecord> consumer = invocation.getArgument(1);
+            consumer.accept(second);
+            consumer.accept(pointRecord);
+            return null;
+        }).when(pointsService).exportPointRecords(eq("user123"), any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/points/user123/records/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2, objectMapper.readTree(lines[0]).get("id").asInt());
+        assertEquals(1, objectMapper.readTree(lines[1]).get("id").asInt());
+    }
+
+    @Test
+    void exportPointRecords_NoRecords_ShouldWriteEmptyBody() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/points/user123/records/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("", body);
+    }
+
     @Test
     void updateReason_ExistingRecord_ShouldReturnUpdatedRecord() throws Exception {
         // Given
@@ -157,10 +324,37 @@ class PointsControllerTest {
     }
 
     @Test
-    void deleteUserPoints_ShouldReturnNoContent() throws Exception {
+    void deleteUserPoints_ShouldReturnAcceptedWithPurgeJob() throws Exception {
+        // Given
+        when(pointsService.deleteUserPoints("user123")).thenReturn(new PurgeJobStatus("job-1", "user123",
+                PurgeJobStatus.State.RUNNING, 0, LocalDateTime.now(), null, null));
+
         // When & Then
         mockMvc.perform(delete("/points/user123"))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/points/purge-jobs/job-1"))
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+    }
+
+    @Test
+    void getPurgeStatus_KnownJob_ShouldReturnProgress() throws Exception {
+        // Given
+        when(pointsService.getPurgeStatus("job-1")).thenReturn(new PurgeJobStatus("job-1", "user123",
+                PurgeJobStatus.State.COMPLETED, 12000, LocalDateTime.now(), LocalDateTime.now(), null));
+
+        // When & Then
+        mockMvc.perform(get("/points/purge-jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deletedRecords").value(12000))
+                .andExpect(jsonPath("$.state").value("COMPLETED"));
+    }
+
+    @Test
+    void getPurgeStatus_UnknownJob_ShouldReturnNotFound() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/points/purge-jobs/unknown"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -177,4 +371,67 @@ class PointsControllerTest {
                 .content(objectMapper.writeValueAsString(invalidRequest)))
                 .andExpect(status().isOk()); // Note: Without validation annotations, this will still pass
     }
+
+    @Test
+    void addPointsBatch_ShouldReturnPerItemResults() throws Exception {
+        // Given
+        BatchAddPointsResponse response = BatchAddPointsResponse.of(List.of(
+                BatchItemResult.succeeded(0, "user123", 1L),
+                BatchItemResult.failed(1, null, "userId is required")));
+        when(pointsService.addPointsBatch(anyList())).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/points/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(addPointsRequest, new AddPointsRequest()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].recordId").value(1))
+                .andExpect(jsonPath("$.results[1].success").value(false))
+                .andExpect(jsonPath("$.results[1].error").value("userId is required"));
+    }
+
+    @Test
+    void addPointsBatch_TooLarge_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(pointsService.addPointsBatch(anyList())).thenThrow(new IllegalArgumentException("too large"));
+
+        // When & Then
+        mockMvc.perform(post("/points/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(addPointsRequest))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void lookupTotalPoints_ShouldReturnKnownAndUnknownUsers() throws Exception {
+        // Given
+        UserPoints userPoints = new UserPoints();
+        userPoints.setUserId("user123");
+        userPoints.setTotalPoints(500L);
+        when(pointsService.lookupTotalPoints(List.of("user123", "unknown")))
+                .thenReturn(new PointsLookupResponse(List.of(userPoints), List.of("unknown")));
+
+        // When & Then
+        mockMvc.perform(post("/points/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of("user123", "unknown"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].userId").value("user123"))
+                .andExpect(jsonPath("$.users[0].totalPoints").value(500))
+                .andExpect(jsonPath("$.unknownUserIds[0]").value("unknown"));
+    }
+
+    @Test
+    void lookupTotalPoints_TooManyUsers_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(pointsService.lookupTotalPoints(anyList())).thenThrow(new IllegalArgumentException("too many"));
+
+        // When & Then
+        mockMvc.perform(post("/points/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of("user123"))))
+                .andExpect(status().isBadRequest());
+    }
 }
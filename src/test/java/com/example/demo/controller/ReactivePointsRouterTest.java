@@ -0,0 +1,151 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.dto.AddPointsRequest;
+import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.PurgeJobStatus;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.model.entity.UserPoints;
+import com.example.demo.service.LeaderboardRebuildJob;
+import com.example.demo.service.LeaderboardWindow;
+import com.example.demo.service.ReactivePointsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePointsRouterTest {
+
+    @Mock
+    private ReactivePointsService pointsService;
+
+    @Mock
+    private LeaderboardRebuildJob leaderboardRebuildJob;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToRouterFunction(
+                new ReactivePointsRouter().pointsRoutes(new ReactivePointsHandler(pointsService, leaderboardRebuildJob)))
+                .build();
+    }
+
+    @Test
+    void addPoints_ShouldReturnRecord() {
+        // Given
+        PointRecord pointRecord = new PointRecord();
+        pointRecord.setId(1L);
+        pointRecord.setUserId("user1");
+        pointRecord.setAmount(100);
+        when(pointsService.addPoints(any(AddPointsRequest.class))).thenReturn(Mono.just(pointRecord));
+
+        // When & Then
+        webTestClient.post().uri("/points")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"userId\":\"user1\",\"amount\":100,\"reason\":\"test\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.userId").isEqualTo("user1");
+    }
+
+    @Test
+    void getTotalPoints_UnknownUser_ShouldReturnNotFound() {
+        // Given
+        when(pointsService.getTotalPoints("ghost")).thenReturn(Mono.empty());
+
+        // When & Then
+        webTestClient.get().uri("/points/ghost").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void getTotalPoints_ShouldReturnTotals() {
+        // Given
+        UserPoints userPoints = new UserPoints();
+        userPoints.setUserId("user1");
+        userPoints.setTotalPoints(150L);
+        when(pointsService.getTotalPoints("user1")).thenReturn(Mono.just(userPoints));
+
+        // When & Then
+        webTestClient.get().uri("/points/user1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.totalPoints").isEqualTo(150);
+    }
+
+    @Test
+    void getLeaderboard_ShouldNotBeRoutedAsUserId() {
+        // Given
+        when(pointsService.getLeaderboard(LeaderboardWindow.ALL_TIME))
+                .thenReturn(Mono.just(List.of(new LeaderboardEntry("user1", 10.0))));
+
+        // When & Then
+        webTestClient.get().uri("/points/leaderboard")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].userId").isEqualTo("user1");
+    }
+
+    @Test
+    void getLeaderboardPage_InvalidSize_ShouldReturnBadRequest() {
+        // Given
+        when(pointsService.getLeaderboardPage(any(), anyInt(), anyInt()))
+                .thenReturn(Mono.error(new IllegalArgumentException("size must be positive")));
+
+        // When & Then
+        webTestClient.get().uri("/points/leaderboard/page?size=0").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void updateReason_NonNumericId_ShouldReturnBadRequest() {
+        webTestClient.put().uri("/points/abc")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"reason\":\"new\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void exportPointRecords_ShouldStreamNdjson() {
+        // Given
+        PointRecord first = new PointRecord();
+        first.setId(2L);
+        PointRecord second = new PointRecord();
+        second.setId(1L);
+        when(pointsService.exportPointRecords("user1")).thenReturn(Flux.just(first, second));
+
+        // When & Then
+        webTestClient.get().uri("/points/user1/records/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(PointRecord.class).hasSize(2);
+    }
+
+    @Test
+    void deleteUserPoints_ShouldReturnAcceptedWithLocation() {
+        // Given
+        PurgeJobStatus purge = new PurgeJobStatus();
+        purge.setJobId("job-1");
+        when(pointsService.deleteUserPoints("user1")).thenReturn(Mono.just(purge));
+
+        // When & Then
+        webTestClient.delete().uri("/points/user1")
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectHeader().location("/points/purge-jobs/job-1");
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.entity.UserPoints;
+import com.example.demo.service.PointsService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives {@code GET /points/{userId}} at high concurrency through a real Tomcat, once on platform request
+ * threads and once with {@code spring.threads.virtual.enabled}. The service blocks for
+ * {@value #BACKEND_MILLIS} ms per call, standing in for the MySQL, Redis and RocketMQ round trips, so the
+ * platform run is bounded by {@code server.tomcat.threads.max} while the virtual run is not.
+ * <p>
+ * The throughput comparison only shows that cap for a backend that blocks, and its timing depends on the host,
+ * so it is in the {@code benchmark} group, which the default build excludes. The unit run checks that requests
+ * are served on the kind of thread the property selects.
+ * <p>
+ * Run with {@code -Djdk.tracePinnedThreads=short} to have the JDK report any virtual thread pinned while
+ * blocked in the request path.
+ */
+@Slf4j
+class VirtualThreadsLoadComparisonTest {
+
+    private static final int TOMCAT_MAX_THREADS = 10;
+    private static final int CONCURRENCY = 100;
+    private static final int REQUESTS_PER_CLIENT = 3;
+    private static final long BACKEND_MILLIS = 200;
+
+    @Test
+    void getTotalPoints_ShouldServeOnVirtualThreadsOnlyWhenEnabled() throws Exception {
+        // When
+        LoadResult platform = runLoad(false, 10, 1, 0);
+        LoadResult virtual = runLoad(true, 10, 1, 0);
+
+        // Then
+        assertFalse(platform.servedOnVirtualThreads());
+        assertTrue(virtual.servedOnVirtualThreads());
+        assertEquals(0, platform.failures());
+        assertEquals(0, virtual.failures());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void getTotalPoints_HighConcurrency_VirtualThreadsShouldOutperformPlatformThreads() throws Exception {
+        // Given / When
+        LoadResult platform = runLoad(false, CONCURRENCY, REQUESTS_PER_CLIENT, BACKEND_MILLIS);
+        LoadResult virtual = runLoad(true, CONCURRENCY, REQUESTS_PER_CLIENT, BACKEND_MILLIS);
+        log.info("platform threads: {}", platform);
+        log.info("virtual threads:  {}", virtual);
+
+        // Then
+        assertFalse(platform.servedOnVirtualThreads());
+        assertTrue(virtual.servedOnVirtualThreads());
+        assertEquals(0, platform.failures());
+        assertEquals(0, virtual.failures());
+        assertTrue(virtual.requestsPerSecond() > platform.requestsPerSecond(),
+                "virtual " + virtual + " vs platform " + platform);
+    }
+
+    private LoadResult runLoad(boolean virtualThreads, int concurrency, int requestsPerClient, long backendMillis)
+            throws Exception {
+        try (ServletWebServerApplicationContext context = startServer(virtualThreads);
+             HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            URI uri = URI.create("http://localhost:" + context.getWebServer().getPort() + "/points/user-1");
+            HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+            BackendStub backend = context.getBean(BackendStub.class);
+            backend.millis = backendMillis;
+
+            // Warm up connections, the JIT and Tomcat's worker pool before measuring
+            fire(client, request, clients, concurrency, 2);
+
+            long started = System.nanoTime();
+            List<long[]> latencies = fire(client, request, clients, concurrency, requestsPerClient);
+            long elapsedNanos = System.nanoTime() - started;
+
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            int failures = (int) Arrays.stream(all).filter(latency -> latency < 0).count();
+            long[] succeeded = Arrays.stream(all).filter(latency -> latency >= 0).toArray();
+            return new LoadResult(virtualThreads, all.length * 1_000_000_000.0 / elapsedNanos,
+                    percentileMillis(succeeded, 0.50), percentileMillis(succeeded, 0.99), failures,
+                    backend.servedOnVirtualThreads.get());
+        }
+    }
+
+    /**
+     * Each client sends its requests back to back and records each latency in nanoseconds, or -1 on failure.
+     */
+    private static List<long[]> fire(HttpClient client, HttpRequest request, ExecutorService clients,
+                                     int concurrency, int requestsPerClient) throws Exception {
+        List<Future<long[]>> results = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            results.add(clients.submit(() -> {
+                long[] latencies = new long[requestsPerClient];
+                for (int r = 0; r < requestsPerClient; r++) {
+                    long sent = System.nanoTime();
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    latencies[r] = response.statusCode() == 200 ? System.nanoTime() - sent : -1;
+                }
+                return latencies;
+            }));
+        }
+        List<long[]> latencies = new ArrayList<>(concurrency);
+        for (Future<long[]> result : results) {
+            latencies.add(result.get());
+        }
+        return latencies;
+    }
+
+    private static ServletWebServerApplicationContext startServer(boolean virtualThreads) {
+        return (ServletWebServerApplicationContext) new SpringApplicationBuilder(LoadTestApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + TOMCAT_MAX_THREADS,
+                        "server.tomcat.max-connections=" + (CONCURRENCY * 2),
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.main.banner-mode=off")
+                .run();
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private record LoadResult(boolean virtualThreads, double requestsPerSecond, double p50Millis,
+                              double p99Millis, int failures, boolean servedOnVirtualThreads) {
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p50 %.1f ms, p99 %.1f ms, %d failures",
+                    requestsPerSecond, p50Millis, p99Millis, failures);
+        }
+    }
+
+    static class BackendStub {
+        final AtomicBoolean servedOnVirtualThreads = new AtomicBoolean();
+        volatile long millis;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class,
+            JacksonAutoConfiguration.class,
+            TaskExecutionAutoConfiguration.class
+    })
+    @Import(PointsController.class)
+    static class LoadTestApplication {
+
+        @Bean
+        BackendStub backendStub() {
+            return new BackendStub();
+        }
+
+        @Bean
+        PointsService pointsService(BackendStub backend) {
+            // A plain proxy rather than a Mockito mock, whose invocation handling takes locks of its own
+            return (PointsService) Proxy.newProxyInstance(PointsService.class.getClassLoader(),
+                    new Class<?>[]{PointsService.class}, (proxy, method, args) -> {
+                        if (method.getDeclaringClass() == Object.class) {
+                            return switch (method.getName()) {
+                                case "equals" -> proxy == args[0];
+                                case "hashCode" -> System.identityHashCode(proxy);
+                                default -> "PointsService stub";
+                            };
+                        }
+                        if (!method.getName().equals("getTotalPoints")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        if (Thread.currentThread().isVirtual()) {
+                            backend.servedOnVirtualThreads.set(true);
+                        }
+                        Thread.sleep(backend.millis);
+                        UserPoints userPoints = new UserPoints();
+                        userPoints.setUserId((String) args[0]);
+                        userPoints.setTotalPoints(100L);
+                        userPoints.setUpdatedAt(LocalDateTime.now());
+                        return userPoints;
+                    });
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.datasource;
+
+import com.example.demo.config.PointsProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimaryStickinessTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final PointsProperties properties = new PointsProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.getReplicas().setEnabled(true);
+        properties.getReplicas().setStickyPrimaryWindow(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void read_WithinWindowAfterWrite_ShouldRequirePrimary() {
+        // Given
+        PrimaryStickiness stickiness = new PrimaryStickiness(properties, clock::get);
+        stickiness.wrote("user1");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(4));
+
+        // When
+        boolean onPrimary = stickiness.read("user1", ReplicaRoutingDataSource::isPrimaryRequired);
+        boolean otherUserOnPrimary = stickiness.read("user2", ReplicaRoutingDataSource::isPrimaryRequired);
+
+        // Then
+        assertTrue(onPrimary);
+        assertFalse(otherUserOnPrimary);
+        assertFalse(ReplicaRoutingDataSource.isPrimaryRequired());
+    }
+
+    @Test
+    void read_AfterWindow_ShouldUseReplicas() {
+        // Given
+        PrimaryStickiness stickiness = new PrimaryStickiness(properties, clock::get);
+        stickiness.wrote("user1");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        // When
+        boolean onPrimary = stickiness.read("user1", ReplicaRoutingDataSource::isPrimaryRequired);
+
+        // Then
+        assertFalse(onPrimary);
+    }
+
+    @Test
+    void wrote_AgainWithinWindow_ShouldExtendIt() {
+        // Given
+        PrimaryStickiness stickiness = new PrimaryStickiness(properties, clock::get);
+        stickiness.wrote("user1");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        stickiness.wrote("user1");
+
+        // When
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(4));
+
+        // Then
+        assertTrue(stickiness.isSticky("user1"));
+    }
+
+    @Test
+    void wrote_BeyondMaxUsers_ShouldForgetOldestWrite() {
+        // Given
+        properties.getReplicas().setMaxStickyUsers(2);
+        PrimaryStickiness stickiness = new PrimaryStickiness(properties, clock::get);
+
+        // When
+        stickiness.wroteAll(List.of("user1", "user2", "user3"));
+
+        // Then
+        assertFalse(stickiness.isSticky("user1"));
+        assertTrue(stickiness.isSticky("user2"));
+        assertTrue(stickiness.isSticky("user3"));
+    }
+
+    @Test
+    void readAll_AnyUserSticky_ShouldRequirePrimary() {
+        // Given
+        PrimaryStickiness stickiness = new PrimaryStickiness(properties, clock::get);
+        stickiness.wrote("user2");
+
+        // When
+        boolean onPrimary = stickiness.readAll(List.of("user1", "user2"), ReplicaRoutingDataSource::isPrimaryRequired);
+
+        // Then
+        assertTrue(onPrimary);
+    }
+
+    @Test
+    void wrote_ReplicasDisabled_ShouldTrackNothing() {
+        // Given
+        properties.getReplicas().setEnabled(false);
+        PrimaryStickiness stickiness = new PrimaryStickiness(properties, clock::get);
+
+        // When
+        stickiness.wrote("user1");
+
+        // Then
+        assertFalse(stickiness.isSticky("user1"));
+    }
+}
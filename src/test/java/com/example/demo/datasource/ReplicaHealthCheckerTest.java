@@ -0,0 +1,121 @@
+package com.example.demo.datasource;
+
+import com.example.demo.config.PointsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaHealthCheckerTest {
+
+    private static final String CREATE_SQL =
+            "CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP(6) NOT NULL)";
+
+    private final PointsProperties properties = new PointsProperties();
+    private JdbcTemplate primary;
+    private JdbcTemplate replicaDatabase;
+    private Replica replica;
+    private ReplicaHealthChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        properties.getReplicas().setMaxLag(Duration.ofSeconds(2));
+        primary = new JdbcTemplate(database("primary"));
+        DataSource replicaDataSource = database("replica");
+        replicaDatabase = new JdbcTemplate(replicaDataSource);
+        primary.execute(CREATE_SQL);
+        replicaDatabase.execute(CREATE_SQL);
+        replica = new Replica("local", replicaDataSource);
+        checker = new ReplicaHealthChecker(primary.getDataSource(),
+                new ReadReplicas(List.of(replica), new SimpleMeterRegistry()), mock(TaskScheduler.class), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.execute("DROP TABLE replica_heartbeat");
+        replicaDatabase.execute("DROP TABLE replica_heartbeat");
+    }
+
+    @Test
+    void check_ShouldSeedAndThenAdvanceTheHeartbeatOnThePrimary() {
+        // When
+        checker.check();
+        primary.update("UPDATE replica_heartbeat SET beat_at = DATEADD('SECOND', -10, beat_at)");
+        checker.check();
+
+        // Then
+        Double age = primary.queryForObject(
+                "SELECT DATEDIFF('MILLISECOND', beat_at, LOCALTIMESTAMP(6)) / 1000.0 FROM replica_heartbeat",
+                Double.class);
+        assertTrue(age < 1, "heartbeat age " + age);
+    }
+
+    @Test
+    void check_ReplicaCaughtUp_ShouldServeReads() {
+        // Given
+        replicaDatabase.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, LOCALTIMESTAMP(6))");
+
+        // When
+        checker.check();
+
+        // Then
+        assertTrue(replica.isUsable());
+        assertTrue(replica.getLagSeconds() < 2);
+    }
+
+    @Test
+    void check_ReplicaLagging_ShouldServeNoReads() {
+        // Given
+        replicaDatabase.update(
+                "INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, DATEADD('SECOND', -10, LOCALTIMESTAMP(6)))");
+
+        // When
+        checker.check();
+
+        // Then
+        assertFalse(replica.isUsable());
+        assertEquals(10, replica.getLagSeconds(), 1);
+    }
+
+    @Test
+    void check_ReplicaWithoutHeartbeat_ShouldServeNoReads() {
+        // When
+        checker.check();
+
+        // Then
+        assertFalse(replica.isUsable());
+        assertTrue(Double.isNaN(replica.getLagSeconds()));
+    }
+
+    @Test
+    void check_ReplicaUnreachable_ShouldServeNoReadsUntilItRecovers() {
+        // Given
+        replicaDatabase.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, LOCALTIMESTAMP(6))");
+        checker.check();
+        replicaDatabase.execute("DROP TABLE replica_heartbeat");
+
+        // When
+        checker.check();
+
+        // Then
+        assertFalse(replica.isUsable());
+        replicaDatabase.execute(CREATE_SQL);
+        replicaDatabase.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, LOCALTIMESTAMP(6))");
+        checker.check();
+        assertTrue(replica.isUsable());
+    }
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + "_heartbeat;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
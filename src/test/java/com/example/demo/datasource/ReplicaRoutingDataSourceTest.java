@@ -0,0 +1,178 @@
+package com.example.demo.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource firstReplicaPool;
+
+    @Mock
+    private DataSource secondReplicaPool;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection firstReplicaConnection;
+
+    @Mock
+    private Connection secondReplicaConnection;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Replica firstReplica;
+    private Replica secondReplica;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        firstReplica = new Replica("first", firstReplicaPool);
+        secondReplica = new Replica("second", secondReplicaPool);
+        routing = new ReplicaRoutingDataSource(primary,
+                new ReadReplicas(List.of(firstReplica, secondReplica), meterRegistry), meterRegistry);
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(firstReplicaPool.getConnection()).thenReturn(firstReplicaConnection);
+        lenient().when(secondReplicaPool.getConnection()).thenReturn(secondReplicaConnection);
+    }
+
+    @Test
+    void getConnection_UsableReplicas_ShouldTakeThemInTurn() throws SQLException {
+        // Given
+        caughtUp(firstReplica);
+        caughtUp(secondReplica);
+
+        // When
+        List<Connection> connections = List.of(routing.getConnection(), routing.getConnection(),
+                routing.getConnection());
+
+        // Then
+        assertEquals(List.of(firstReplicaConnection, secondReplicaConnection, firstReplicaConnection), connections);
+        assertEquals(2.0, reads("first"));
+        assertEquals(1.0, reads("second"));
+    }
+
+    @Test
+    void getConnection_LaggingReplicaSkipped_ShouldUseTheOther() throws SQLException {
+        // Given
+        firstReplica.checked(Duration.ofSeconds(10), Duration.ofSeconds(2));
+        caughtUp(secondReplica);
+
+        // When
+        Connection first = routing.getConnection();
+        Connection second = routing.getConnection();
+
+        // Then
+        assertSame(secondReplicaConnection, first);
+        assertSame(secondReplicaConnection, second);
+        assertEquals(10.0, meterRegistry.get("points.datasource.replica.lag").tag("replica", "first").gauge().value());
+    }
+
+    @Test
+    void getConnection_NoUsableReplica_ShouldFallBackToPrimary() throws SQLException {
+        // When
+        Connection connection = routing.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+        assertEquals(1.0, fallbacks("no_usable_replica"));
+        verifyNoInteractions(firstReplicaPool, secondReplicaPool);
+    }
+
+    @Test
+    void getConnection_PrimaryRequired_ShouldSkipReplicas() throws SQLException {
+        // Given
+        caughtUp(firstReplica);
+
+        // When
+        Connection connection = ReplicaRoutingDataSource.onPrimary(() -> {
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Then
+        assertSame(primaryConnection, connection);
+        assertEquals(1.0, fallbacks("sticky"));
+    }
+
+    @Test
+    void getConnection_ReplicaPoolFails_ShouldFallBackAndTakeReplicaOutOfRotation() throws SQLException {
+        // Given
+        caughtUp(firstReplica);
+        when(firstReplicaPool.getConnection()).thenThrow(new SQLTransientConnectionException("pool timeout"));
+
+        // When
+        Connection connection = routing.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+        assertFalse(firstReplica.isUsable());
+        assertEquals(1.0, fallbacks("connection_failure"));
+    }
+
+    @Test
+    void lazyProxy_ShouldSendReadOnlyTransactionsToReplicaAndTheRestToPrimary() throws SQLException {
+        // Given
+        caughtUp(firstReplica);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(routing);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        when(firstReplicaConnection.createStatement()).thenReturn(mock(Statement.class));
+        when(primaryConnection.createStatement()).thenReturn(mock(Statement.class));
+
+        // When
+        readOnly.executeWithoutResult(status -> jdbcTemplate.execute("SELECT 1"));
+        readWrite.executeWithoutResult(status -> jdbcTemplate.execute("UPDATE user_points SET total_points = 0"));
+
+        // Then
+        verify(firstReplicaConnection).createStatement();
+        verify(primaryConnection).createStatement();
+        verify(firstReplicaConnection, never()).setReadOnly(false);
+        assertEquals(1.0, reads("first"));
+    }
+
+    private static void caughtUp(Replica replica) {
+        replica.checked(Duration.ofMillis(10), Duration.ofSeconds(2));
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("points.datasource.reads").tag("target", target).counter().count();
+    }
+
+    private double fallbacks(String reason) {
+        return meterRegistry.get("points.datasource.primary_fallbacks").tag("reason", reason).counter().count();
+    }
+}
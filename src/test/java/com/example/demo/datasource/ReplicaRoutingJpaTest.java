@@ -0,0 +1,133 @@
+package com.example.demo.datasource;
+
+import com.example.demo.model.entity.UserPoints;
+import com.example.demo.repository.UserPointsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Wires the primary and one replica the way ReplicaRoutingConfig does, over two H2 databases, to check where
+ * Spring Data's transactions end up.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaRoutingJpaTest {
+
+    private static final DataSource REPLICA_DATABASE = new DriverManagerDataSource(
+            "jdbc:h2:mem:replica_jpa;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+    private static final Replica REPLICA = new Replica("local", REPLICA_DATABASE);
+
+    @Autowired
+    private UserPointsRepository userPointsRepository;
+
+    private final JdbcTemplate replica = new JdbcTemplate(REPLICA_DATABASE);
+
+    @BeforeEach
+    void setUp() {
+        replica.execute("CREATE TABLE user_points (user_id VARCHAR(255) PRIMARY KEY, total_points BIGINT NOT NULL, "
+                + "updated_at TIMESTAMP(6))");
+        REPLICA.checked(Duration.ZERO, Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        replica.execute("DROP TABLE user_points");
+        userPointsRepository.deleteAll();
+    }
+
+    @Test
+    void findById_ShouldReadFromTheReplica() {
+        // Given
+        userPointsRepository.save(userPoints("user1", 100));
+        replica.update("INSERT INTO user_points (user_id, total_points) VALUES ('user1', 90)");
+
+        // When
+        UserPoints userPoints = userPointsRepository.findById("user1").orElseThrow();
+
+        // Then
+        assertEquals(90L, userPoints.getTotalPoints());
+    }
+
+    @Test
+    void findById_PrimaryRequired_ShouldReadFromThePrimary() {
+        // Given
+        userPointsRepository.save(userPoints("user1", 100));
+        replica.update("INSERT INTO user_points (user_id, total_points) VALUES ('user1', 90)");
+
+        // When
+        UserPoints userPoints = ReplicaRoutingDataSource.onPrimary(
+                () -> userPointsRepository.findById("user1").orElseThrow());
+
+        // Then
+        assertEquals(100L, userPoints.getTotalPoints());
+    }
+
+    @Test
+    void findById_ReplicaUnusable_ShouldReadFromThePrimary() {
+        // Given
+        userPointsRepository.save(userPoints("user1", 100));
+        REPLICA.checked(Duration.ofSeconds(10), Duration.ofSeconds(2));
+
+        // When
+        UserPoints userPoints = userPointsRepository.findById("user1").orElseThrow();
+
+        // Then
+        assertEquals(100L, userPoints.getTotalPoints());
+    }
+
+    @Test
+    void save_ShouldWriteToThePrimaryOnly() {
+        // When
+        userPointsRepository.save(userPoints("user2", 50));
+
+        // Then
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM user_points", Integer.class));
+        assertEquals(50L, ReplicaRoutingDataSource.onPrimary(
+                () -> userPointsRepository.findById("user2").orElseThrow()).getTotalPoints());
+    }
+
+    private static UserPoints userPoints(String userId, long totalPoints) {
+        UserPoints userPoints = new UserPoints();
+        userPoints.setUserId(userId);
+        userPoints.setTotalPoints(totalPoints);
+        return userPoints;
+    }
+
+    @TestConfiguration
+    static class RoutingConfig {
+
+        @Bean
+        @Primary
+        DataSource dataSource(DataSourceProperties properties) {
+            DataSource primary = properties.initializeDataSourceBuilder().build();
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+            dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary,
+                    new ReadReplicas(List.of(REPLICA), meterRegistry), meterRegistry));
+            return dataSource;
+        }
+    }
+}
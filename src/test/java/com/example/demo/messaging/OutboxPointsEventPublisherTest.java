@@ -0,0 +1,123 @@
+package com.example.demo.messaging;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.OutboxEvent;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxPointsEventPublisherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Captor
+    private ArgumentCaptor<List<OutboxEvent>> eventsCaptor;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final PointsProperties properties = new PointsProperties();
+
+    private OutboxPointsEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new OutboxPointsEventPublisher(outboxEventRepository,
+                new PointsEventSerializer(objectMapper, properties));
+    }
+
+    @Test
+    void publish_ShouldStoreKeyedJsonEvent() throws Exception {
+        // Given
+        PointRecord pointRecord = record(1L, "user123");
+
+        // When
+        publisher.publish(pointRecord);
+
+        // Then
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+        OutboxEvent event = captor.getValue();
+        assertEquals("user-points-topic", event.getTopic());
+        assertEquals("user123", event.getMessageKey());
+        assertNull(event.getSentAt());
+        PointRecord payload = objectMapper.readValue(event.getPayload(), PointRecord.class);
+        assertEquals(1L, payload.getId());
+        assertEquals(100, payload.getAmount());
+    }
+
+    @Test
+    void publishAll_ShouldStoreAllEventsInOneBatch() {
+        // When
+        publisher.publishAll(List.of(record(1L, "a"), record(2L, "b")));
+
+        // Then
+        verify(outboxEventRepository).saveAllInBatch(argThat(events -> events.size() == 2
+                && events.get(1).getMessageKey().equals("b")));
+        verify(outboxEventRepository, never()).save(any());
+    }
+
+    @Test
+    void publishAll_Binary_ShouldStoreOneEnvelopePerMessageBatch() {
+        // Given
+        properties.getEvents().setFormat(PointsProperties.EventFormat.BINARY);
+        properties.getBatch().setMessageBatchSize(2);
+
+        // When
+        publisher.publishAll(List.of(record(1L, "a"), record(2L, "b"), record(3L, "c")));
+
+        // Then
+        verify(outboxEventRepository).saveAllInBatch(eventsCaptor.capture());
+        List<OutboxEvent> events = eventsCaptor.getValue();
+        assertEquals(2, events.size());
+        assertEquals("a", events.get(0).getMessageKey());
+        assertEquals(PointsEventCodec.FORMAT, events.get(0).getPayloadFormat());
+        List<PointsEvent> decoded = PointsEventCodec.decode(Base64.getDecoder().decode(events.get(0).getPayload()));
+        assertEquals(List.of(1L, 2L), decoded.stream().map(PointsEvent::recordId).toList());
+        assertEquals("Test reward", decoded.get(1).reason());
+    }
+
+    @Test
+    void publishAll_BinaryProjection_ShouldNotMixOrderingKeysInAnEnvelope() {
+        // Given
+        properties.getEvents().setFormat(PointsProperties.EventFormat.BINARY);
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.PROJECTION);
+        properties.getProjection().setOrderingKeys(2);
+
+        // When
+        publisher.publishAll(List.of(record(1L, "a"), record(2L, "b"), record(3L, "a")));
+
+        // Then
+        verify(outboxEventRepository).saveAllInBatch(eventsCaptor.capture());
+        List<OutboxEvent> events = eventsCaptor.getValue();
+        assertEquals(List.of("a", "b"), events.stream().map(OutboxEvent::getMessageKey).toList());
+        assertEquals(List.of(1L, 3L), PointsEventCodec.decode(Base64.getDecoder().decode(events.get(0).getPayload()))
+                .stream().map(PointsEvent::recordId).toList());
+    }
+
+    private static PointRecord record(Long id, String userId) {
+        PointRecord pointRecord = new PointRecord();
+        pointRecord.setId(id);
+        pointRecord.setUserId(userId);
+        pointRecord.setAmount(100);
+        pointRecord.setReason("Test reward");
+        pointRecord.setCreatedAt(LocalDateTime.now());
+        return pointRecord;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.demo.messaging;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.OutboxEvent;
+import com.example.demo.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private RocketMQTemplate rocketMQTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PointsProperties properties = new PointsProperties();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxEventRepository, rocketMQTemplate,
+                new RocketMQSendMetrics(meterRegistry), transactionManager,
+                taskScheduler, properties, meterRegistry);
+    }
+
+    @Test
+    void relayBatch_ShouldBatchSendAndMarkRowsSent() {
+        // Given
+        when(outboxEventRepository.lockPending(200)).thenReturn(List.of(event(1L, "a"), event(2L, "b")));
+
+        // When
+        int sent = relay.relayBatch();
+
+        // Then
+        assertEquals(2, sent);
+        verify(rocketMQTemplate).syncSend(eq("user-points-topic"), argThat((List<Message<?>> messages) ->
+                messages.size() == 2 && "{\"id\":2}".equals(messages.get(1).getPayload())));
+        verify(outboxEventRepository).markSent(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(transactionManager).commit(any());
+        assertEquals(2.0, meterRegistry.get("points.outbox.relayed").counter().count());
+        assertEquals(1, meterRegistry.get("points.mq.send").tag("topic", "user-points-topic").timer().count());
+    }
+
+    @Test
+    void relayBatch_SendFails_ShouldRollBackAndLeaveRowsPending() {
+        // Given
+        when(outboxEventRepository.lockPending(200)).thenReturn(List.of(event(1L, "a")));
+        when(rocketMQTemplate.syncSend(eq("user-points-topic"), anyCollection()))
+                .thenThrow(new MessagingException("broker down"));
+
+        // When
+        int sent = relay.relayBatch();
+
+        // Then
+        assertEquals(0, sent);
+        verify(outboxEventRepository, never()).markSent(any(), any());
+        verify(transactionManager).rollback(any());
+        assertEquals(1.0, meterRegistry.get("points.outbox.relay.failures").counter().count());
+        assertEquals(1.0, meterRegistry.get("points.mq.send.failures").counter().count());
+    }
+
+    @Test
+    void relayBatch_Projection_ShouldSendOrderlyBatchPerOrderingKey() {
+        // Given
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.PROJECTION);
+        properties.getProjection().setOrderingKeys(2);
+        relay = new OutboxRelay(outboxEventRepository, rocketMQTemplate,
+                new RocketMQSendMetrics(meterRegistry), transactionManager,
+                taskScheduler, properties, meterRegistry);
+        String keyOfA = PointsEventPublisher.orderingKey("a", 2);
+        String keyOfB = PointsEventPublisher.orderingKey("b", 2);
+        when(outboxEventRepository.lockPending(200))
+                .thenReturn(List.of(event(1L, "a"), event(2L, "b"), event(3L, "a")));
+
+        // When
+        int sent = relay.relayBatch();
+
+        // Then
+        assertEquals(3, sent);
+        assertNotEquals(keyOfA, keyOfB);
+        verify(rocketMQTemplate).syncSendOrderly(eq("user-points-topic"), argThat((List<Message<?>> messages) ->
+                messages.size() == 2 && "{\"id\":3}".equals(messages.get(1).getPayload())), eq(keyOfA));
+        verify(rocketMQTemplate).syncSendOrderly(eq("user-points-topic"), argThat((List<Message<?>> messages) ->
+                messages.size() == 1), eq(keyOfB));
+        verify(rocketMQTemplate, never()).syncSend(anyString(), anyCollection());
+    }
+
+    @Test
+    void relayBatch_BinaryRow_ShouldSendDecodedEnvelopeWithFormatProperty() {
+        // Given
+        byte[] envelope = PointsEventCodec.encode(new PointsEvent(7L, "a", 10, null, null));
+        OutboxEvent binary = event(7L, "a");
+        binary.setPayload(Base64.getEncoder().encodeToString(envelope));
+        binary.setPayloadFormat(PointsEventCodec.FORMAT);
+        when(outboxEventRepository.lockPending(200)).thenReturn(List.of(binary, event(8L, "b")));
+
+        // When
+        relay.relayBatch();
+
+        // Then
+        verify(rocketMQTemplate).syncSend(eq("user-points-topic"), argThat((List<Message<?>> messages) ->
+                messages.get(0).getPayload() instanceof byte[] bytes && Arrays.equals(envelope, bytes)
+                        && PointsEventCodec.FORMAT.equals(messages.get(0).getHeaders().get(PointsEventCodec.FORMAT_PROPERTY))
+                        && "{\"id\":8}".equals(messages.get(1).getPayload())));
+    }
+
+    @Test
+    void drain_ShouldKeepPollingWhileBatchesAreFull() {
+        // Given
+        properties.getOutbox().setBatchSize(1);
+        when(outboxEventRepository.lockPending(1))
+                .thenReturn(List.of(event(1L, "a")), List.of(event(2L, "b")), List.of());
+        relay.start();
+
+        // When
+        relay.drain();
+
+        // Then
+        verify(outboxEventRepository, times(3)).lockPending(1);
+        verify(outboxEventRepository, times(2)).markSent(any(), any());
+    }
+
+    @Test
+    void refreshMetrics_ShouldExposePendingCountAndLag() {
+        // Given
+        when(outboxEventRepository.countBySentAtIsNull()).thenReturn(42L);
+        when(outboxEventRepository.findOldestPendingCreatedAt()).thenReturn(LocalDateTime.now().minusSeconds(5));
+
+        // When
+        relay.refreshMetrics();
+
+        // Then
+        assertEquals(42.0, meterRegistry.get("points.outbox.pending").gauge().value());
+        assertTrue(relay.getLagMillis() >= 5000);
+    }
+
+    private static OutboxEvent event(Long id, String key) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setTopic("user-points-topic");
+        event.setMessageKey(key);
+        event.setPayload("{\"id\":" + id + "}");
+        event.setCreatedAt(LocalDateTime.now().minusSeconds(1));
+        return event;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointsEventCodecTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000);
+
+    @Test
+    void encode_SingleEvent_ShouldRoundTripAllFields() {
+        // Given
+        PointsEvent event = new PointsEvent(1234567L, "user-42", -150, "Späte Korrektur", CREATED_AT);
+
+        // When
+        byte[] bytes = PointsEventCodec.encode(event);
+
+        // Then
+        assertEquals(PointsEventCodec.VERSION, bytes[0]);
+        assertEquals(List.of(event), PointsEventCodec.decode(bytes));
+        assertTrue(bytes.length < 48, "encoded in " + bytes.length + " bytes");
+    }
+
+    @Test
+    void encode_AbsentOptionalFields_ShouldStayAbsent() {
+        // Given
+        PointsEvent event = new PointsEvent(1L, "", 0, null, null);
+
+        // When
+        List<PointsEvent> decoded = PointsEventCodec.decode(PointsEventCodec.encode(event));
+
+        // Then
+        assertEquals(List.of(event), decoded);
+    }
+
+    @Test
+    void encode_Envelope_ShouldKeepOrderAndDeltaEncodeIdsAndTimestamps() {
+        // Given
+        List<PointsEvent> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(new PointsEvent(900_000L + i, "user-" + i, 10, "campaign", CREATED_AT.plusNanos(i * 1000L)));
+        }
+
+        // When
+        byte[] plain = PointsEventCodec.encode(events, -1);
+        byte[] deflated = PointsEventCodec.encode(events, 0);
+
+        // Then
+        assertEquals(events, PointsEventCodec.decode(plain));
+        assertEquals(events, PointsEventCodec.decode(deflated));
+        assertEquals(0, plain[1]);
+        assertEquals(PointsEventCodec.DEFLATED, deflated[1]);
+        assertTrue(deflated.length < plain.length);
+    }
+
+    @Test
+    void encode_BodyBelowCompressionThreshold_ShouldNotDeflate() {
+        // When
+        byte[] bytes = PointsEventCodec.encode(List.of(new PointsEvent(1L, "user1", 5, null, CREATED_AT)), 512);
+
+        // Then
+        assertEquals(0, bytes[1]);
+    }
+
+    @Test
+    void encode_EmptyEnvelope_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> PointsEventCodec.encode(List.of(), -1));
+    }
+
+    @Test
+    void decode_OtherVersion_ShouldThrow() {
+        // Given
+        byte[] bytes = PointsEventCodec.encode(new PointsEvent(1L, "user1", 5, null, null));
+        bytes[0] = 2;
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> PointsEventCodec.decode(bytes));
+    }
+
+    @Test
+    void decode_JsonBody_ShouldThrow() {
+        byte[] json = "{\"id\":1,\"userId\":\"user1\"}".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, () -> PointsEventCodec.decode(json));
+    }
+
+    @Test
+    void decode_Truncated_ShouldThrow() {
+        // Given
+        byte[] bytes = PointsEventCodec.encode(new PointsEvent(1L, "user1", 5, "reason", CREATED_AT));
+
+        // When & Then
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(IllegalArgumentException.class, () -> PointsEventCodec.decode(truncated));
+        }
+    }
+
+    @Test
+    void decode_CorruptDeflatedBody_ShouldThrow() {
+        // Given
+        List<PointsEvent> events = List.of(new PointsEvent(1L, "user1", 5, "reason", CREATED_AT),
+                new PointsEvent(2L, "user1", 5, "reason", CREATED_AT));
+        byte[] bytes = PointsEventCodec.encode(events, 0);
+        bytes[bytes.length - 1] ^= 0x5A;
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> PointsEventCodec.decode(bytes));
+    }
+}
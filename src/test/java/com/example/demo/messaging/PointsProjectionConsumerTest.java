@@ -0,0 +1,135 @@
+package com.example.demo.messaging;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.service.PointsProjector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.rocketmq.client.consumer.listener.ConsumeOrderlyStatus;
+import org.apache.rocketmq.common.message.MessageAccessor;
+import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PointsProjectionConsumerTest {
+
+    private static final MessageQueue QUEUE = new MessageQueue("user-points-topic", "broker-a", 3);
+
+    @Mock
+    private PointsProjector projector;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PointsProjectionConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new PointsProjectionConsumer(projector, objectMapper, taskScheduler, meterRegistry,
+                new PointsProperties(), "localhost:9876");
+    }
+
+    @Test
+    void consume_ShouldApplyBatchAndTrackQueueLag() throws Exception {
+        // Given
+        MessageExt first = message(record(1L, "user1", 10), 40);
+        MessageExt second = message(record(2L, "user2", 5), 41);
+        second.setStoreTimestamp(System.currentTimeMillis() - 2000);
+        MessageAccessor.putProperty(second, MessageConst.PROPERTY_MAX_OFFSET, "50");
+
+        // When
+        ConsumeOrderlyStatus status = consumer.consume(List.of(first, second), QUEUE);
+
+        // Then
+        assertEquals(ConsumeOrderlyStatus.SUCCESS, status);
+        verify(projector).apply(argThat(records -> records.size() == 2
+                && records.get(0).getId() == 1L && "user2".equals(records.get(1).getUserId())));
+        assertTrue(consumer.lagMillis("broker-a-3") >= 2000);
+        assertEquals(8, consumer.lagMessages("broker-a-3"));
+        assertEquals(8.0, meterRegistry.get("points.projection.lag.messages").tag("queue", "broker-a-3")
+                .gauge().value());
+    }
+
+    @Test
+    void consume_ProjectionFails_ShouldSuspendQueueForRetry() throws Exception {
+        // Given
+        doThrow(new QueryTimeoutException("timeout")).when(projector).apply(anyList());
+
+        // When
+        ConsumeOrderlyStatus status = consumer.consume(List.of(message(record(1L, "user1", 10), 0)), QUEUE);
+
+        // Then
+        assertEquals(ConsumeOrderlyStatus.SUSPEND_CURRENT_QUEUE_A_MOMENT, status);
+        assertEquals(-1, consumer.lagMillis("broker-a-3"));
+    }
+
+    @Test
+    void consume_MalformedMessage_ShouldSkipItAndApplyTheRest() throws Exception {
+        // Given
+        MessageExt malformed = new MessageExt();
+        malformed.setTopic("user-points-topic");
+        malformed.setBody("not json".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        ConsumeOrderlyStatus status = consumer.consume(List.of(malformed, message(record(2L, "user1", 5), 1)), QUEUE);
+
+        // Then
+        assertEquals(ConsumeOrderlyStatus.SUCCESS, status);
+        verify(projector).apply(argThat(records -> records.size() == 1 && records.get(0).getId() == 2L));
+        assertEquals(1.0, meterRegistry.get("points.projection.malformed").counter().count());
+    }
+
+    @Test
+    void consume_BinaryEnvelope_ShouldApplyEveryEventItCarries() throws Exception {
+        // Given
+        MessageExt envelope = new MessageExt();
+        envelope.setTopic("user-points-topic");
+        envelope.setBody(PointsEventCodec.encode(List.of(new PointsEvent(5L, "user1", 10, "a", null),
+                new PointsEvent(6L, "user2", -3, null, null)), -1));
+        MessageAccessor.putProperty(envelope, PointsEventCodec.FORMAT_PROPERTY, PointsEventCodec.FORMAT);
+
+        // When
+        ConsumeOrderlyStatus status = consumer.consume(List.of(envelope, message(record(7L, "user1", 1), 2)), QUEUE);
+
+        // Then
+        assertEquals(ConsumeOrderlyStatus.SUCCESS, status);
+        verify(projector).apply(argThat(records -> records.size() == 3
+                && records.get(1).getId() == 6L && records.get(1).getAmount() == -3
+                && records.get(2).getId() == 7L));
+    }
+
+    private MessageExt message(PointRecord pointRecord, long queueOffset) throws Exception {
+        MessageExt message = new MessageExt();
+        message.setTopic("user-points-topic");
+        message.setBody(objectMapper.writeValueAsBytes(pointRecord));
+        message.setQueueOffset(queueOffset);
+        message.setStoreTimestamp(System.currentTimeMillis());
+        return message;
+    }
+
+    private static PointRecord record(Long id, String userId, int amount) {
+        PointRecord pointRecord = new PointRecord();
+        pointRecord.setId(id);
+        pointRecord.setUserId(userId);
+        pointRecord.setAmount(amount);
+        return pointRecord;
+    }
+}
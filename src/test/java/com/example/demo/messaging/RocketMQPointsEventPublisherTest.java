@@ -0,0 +1,139 @@
+package com.example.demo.messaging;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.PointRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RocketMQPointsEventPublisherTest {
+
+    @Mock
+    private RocketMQTemplate rocketMQTemplate;
+
+    private final PointsProperties properties = new PointsProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RocketMQPointsEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new RocketMQPointsEventPublisher(rocketMQTemplate, properties,
+                new RocketMQSendMetrics(meterRegistry), new PointsEventSerializer(new ObjectMapper(), properties));
+    }
+
+    @Test
+    void publish_ShouldSendPointRecord() {
+        // Given
+        PointRecord pointRecord = record("user123");
+
+        // When
+        publisher.publish(pointRecord);
+
+        // Then
+        verify(rocketMQTemplate).convertAndSend("user-points-topic", pointRecord);
+        assertEquals(1, meterRegistry.get("points.mq.send").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void publish_SendFails_ShouldCountFailureAndRethrow() {
+        // Given
+        PointRecord pointRecord = record("user123");
+        doThrow(new MessagingException("broker down"))
+                .when(rocketMQTemplate).convertAndSend("user-points-topic", pointRecord);
+
+        // When & Then
+        assertThrows(MessagingException.class, () -> publisher.publish(pointRecord));
+        assertEquals(1, meterRegistry.get("points.mq.send").tag("outcome", "failure").timer().count());
+        assertEquals(1.0, meterRegistry.get("points.mq.send.failures")
+                .tag("exception", "MessagingException").counter().count());
+    }
+
+    @Test
+    void publishAll_ShouldSplitIntoKeyedMessageBatches() {
+        // Given
+        properties.getBatch().setMessageBatchSize(2);
+
+        // When
+        publisher.publishAll(List.of(record("a"), record("b"), record("c")));
+
+        // Then
+        verify(rocketMQTemplate).syncSend(eq("user-points-topic"), argThat((List<Message<?>> messages) ->
+                messages.size() == 2 && "a".equals(messages.get(0).getHeaders().get("KEYS"))));
+        verify(rocketMQTemplate).syncSend(eq("user-points-topic"), argThat((List<Message<?>> messages) ->
+                messages.size() == 1 && "c".equals(messages.get(0).getHeaders().get("KEYS"))));
+    }
+
+    @Test
+    void publish_Projection_ShouldSendOrderlyByUser() {
+        // Given
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.PROJECTION);
+        PointRecord pointRecord = record("user123");
+
+        // When
+        publisher.publish(pointRecord);
+
+        // Then
+        verify(rocketMQTemplate).syncSendOrderly("user-points-topic", pointRecord,
+                PointsEventPublisher.orderingKey("user123", 64));
+        verify(rocketMQTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void publishAll_Projection_ShouldSplitEachChunkByOrderingKey() {
+        // Given
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.PROJECTION);
+        properties.getProjection().setOrderingKeys(1);
+
+        // When
+        publisher.publishAll(List.of(record("a"), record("b"), record("a")));
+
+        // Then
+        verify(rocketMQTemplate).syncSendOrderly(eq("user-points-topic"),
+                argThat((List<Message<?>> messages) -> messages.size() == 3), eq("k0"));
+        verify(rocketMQTemplate, never()).syncSend(anyString(), anyCollection());
+    }
+
+    @Test
+    void publishAll_Binary_ShouldSendOneEnvelopeMessagePerBatch() {
+        // Given
+        properties.getEvents().setFormat(PointsProperties.EventFormat.BINARY);
+        properties.getBatch().setMessageBatchSize(2);
+
+        // When
+        publisher.publishAll(List.of(record("a"), record("b"), record("c")));
+
+        // Then
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rocketMQTemplate, times(2)).syncSend(eq("user-points-topic"), captor.capture());
+        Message<byte[]> first = captor.getAllValues().get(0);
+        assertEquals(PointsEventCodec.FORMAT, first.getHeaders().get(PointsEventCodec.FORMAT_PROPERTY));
+        assertEquals("a", first.getHeaders().get("KEYS"));
+        assertEquals(List.of("a", "b"), PointsEventCodec.decode(first.getPayload()).stream()
+                .map(PointsEvent::userId).toList());
+        verify(rocketMQTemplate, never()).syncSend(anyString(), anyCollection());
+    }
+
+    private static PointRecord record(String userId) {
+        PointRecord pointRecord = new PointRecord();
+        pointRecord.setId((long) userId.hashCode());
+        pointRecord.setUserId(userId);
+        pointRecord.setAmount(10);
+        return pointRecord;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.redis;
+
+import com.example.demo.config.PointsProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisCircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PointsProperties properties = new PointsProperties();
+    private RedisCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        properties.getRedis().setWindowSize(4);
+        properties.getRedis().setFailureRateThreshold(0.5);
+        properties.getRedis().setSlowCallThreshold(Duration.ofMillis(100));
+        properties.getRedis().setOpenDuration(Duration.ofSeconds(5));
+        circuitBreaker = new RedisCircuitBreaker(properties, meterRegistry, clock::get);
+    }
+
+    @Test
+    void execute_FailureRateReachedOverFullWindow_ShouldOpenAndFailFast() {
+        // Given
+        succeed();
+        succeed();
+        fail();
+        assertTrue(circuitBreaker.isClosed());
+        fail();
+
+        // When
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(RedisCircuitOpenException.class, () -> circuitBreaker.execute(calls::incrementAndGet));
+
+        // Then
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(0, calls.get());
+        assertEquals(1.0, transitions("closed", "open"));
+        assertEquals(1.0, gauge("open"));
+        assertEquals(0.0, gauge("closed"));
+    }
+
+    @Test
+    void execute_SlowCalls_ShouldCountAsFailures() {
+        // When
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.execute(() -> clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(150)));
+        }
+
+        // Then
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(4.0, meterRegistry.get("points.redis.circuit.calls").tag("outcome", "slow").counter().count());
+    }
+
+    @Test
+    void execute_AfterOpenDuration_ShouldLetOneTrialThroughAndCloseOnSuccess() throws Exception {
+        // Given
+        open();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        CountDownLatch trialStarted = new CountDownLatch(1);
+        CountDownLatch finishTrial = new CountDownLatch(1);
+        Thread trial = Thread.ofVirtual().start(() -> circuitBreaker.execute(() -> {
+            trialStarted.countDown();
+            await(finishTrial);
+            return "PONG";
+        }));
+        trialStarted.await();
+
+        // When
+        assertThrows(RedisCircuitOpenException.class, () -> circuitBreaker.execute(() -> "second trial"));
+        finishTrial.countDown();
+        trial.join();
+
+        // Then
+        assertTrue(circuitBreaker.isClosed());
+        assertEquals(1.0, transitions("open", "half_open"));
+        assertEquals(1.0, transitions("half_open", "closed"));
+    }
+
+    @Test
+    void execute_FailedTrial_ShouldOpenAgain() {
+        // Given
+        open();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        // When
+        fail();
+
+        // Then
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1.0, transitions("half_open", "open"));
+        assertThrows(RedisCircuitOpenException.class, () -> circuitBreaker.execute(() -> "refused"));
+    }
+
+    @Test
+    void executeWithFallback_OpenCircuit_ShouldAnswerWithFallback() {
+        // Given
+        open();
+
+        // When
+        String result = circuitBreaker.execute(() -> "redis", () -> "fallback");
+
+        // Then
+        assertEquals("fallback", result);
+    }
+
+    @Test
+    void fallback_OpenCircuitAtConcurrencyCap_ShouldRejectWithoutLoading() throws Exception {
+        // Given
+        properties.getRedis().setFallbackConcurrency(1);
+        properties.getRedis().setFallbackMaxWait(Duration.ofMillis(10));
+        circuitBreaker = new RedisCircuitBreaker(properties, meterRegistry, clock::get);
+        open();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch finishLoad = new CountDownLatch(1);
+        Thread first = Thread.ofVirtual().start(() -> circuitBreaker.fallback(() -> {
+            loading.countDown();
+            await(finishLoad);
+            return "row";
+        }));
+        loading.await();
+
+        // When
+        AtomicInteger loads = new AtomicInteger();
+        assertThrows(RedisCircuitOpenException.class, () -> circuitBreaker.fallback(loads::incrementAndGet));
+        finishLoad.countDown();
+        first.join();
+
+        // Then
+        assertEquals(0, loads.get());
+        assertEquals(1.0, meterRegistry.get("points.redis.fallback.rejected").counter().count());
+        assertEquals(1, circuitBreaker.fallback(loads::incrementAndGet));
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private void succeed() {
+        circuitBreaker.execute(() -> "OK");
+    }
+
+    private void fail() {
+        assertThrows(RedisConnectionFailureException.class, () -> circuitBreaker.execute(() -> {
+            throw new RedisConnectionFailureException("Connection refused");
+        }));
+    }
+
+    private double transitions(String from, String to) {
+        return meterRegistry.get("points.redis.circuit.transitions").tag("from", from).tag("to", to).counter().count();
+    }
+
+    private double gauge(String state) {
+        return meterRegistry.get("points.redis.circuit.state").tag("state", state).gauge().value();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AutoIncrementLockModeCheckTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void constructor_InterleavedLockMode_ShouldRefuseToStart() {
+        // Given
+        database("MySQL");
+        when(jdbcTemplate.queryForObject("SELECT @@innodb_autoinc_lock_mode", Integer.class)).thenReturn(2);
+
+        // When / Then
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new AutoIncrementLockModeCheck(jdbcTemplate));
+        assertTrue(e.getMessage().contains("innodb_autoinc_lock_mode=1"));
+    }
+
+    @Test
+    void constructor_ConsecutiveLockMode_ShouldStart() {
+        // Given
+        database("MySQL");
+        when(jdbcTemplate.queryForObject("SELECT @@innodb_autoinc_lock_mode", Integer.class)).thenReturn(1);
+
+        // When / Then
+        assertDoesNotThrow(() -> new AutoIncrementLockModeCheck(jdbcTemplate));
+    }
+
+    @Test
+    void constructor_OtherDatabase_ShouldNotQueryTheLockMode() {
+        // Given
+        database("H2");
+
+        // When
+        new AutoIncrementLockModeCheck(jdbcTemplate);
+
+        // Then
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Integer.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void database(String productName) {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(productName);
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.demo.repository;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.dto.PurgeJobStatus;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.service.PointRecordPurger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs without a test transaction, as the allocator reserves its blocks in transactions of its own.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PointRecordIdAllocatorTest {
+
+    @Autowired
+    private PointRecordRepository pointRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM points_id_sequence");
+        jdbcTemplate.update("DELETE FROM point_records");
+    }
+
+    @Test
+    void assignIds_NoSequenceRow_ShouldContinueAfterExistingIds() {
+        // Given
+        List<PointRecord> existing = pointRecordRepository.saveAllInBatch(List.of(record("user1"), record("user2")));
+        long maxId = existing.get(1).getId();
+
+        // When
+        List<PointRecord> records = List.of(record("user1"), record("user3"));
+        allocator(10).assignIds(records);
+
+        // Then
+        assertEquals(maxId + 1, records.get(0).getId());
+        assertEquals(maxId + 2, records.get(1).getId());
+        assertEquals(maxId + 11, nextValue());
+    }
+
+    @Test
+    void assignIds_TwoNodes_ShouldHandOutDisjointBlocks() {
+        // Given
+        PointRecordIdAllocator first = allocator(3);
+        PointRecordIdAllocator second = allocator(3);
+        Set<Long> ids = new HashSet<>();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            for (PointRecordIdAllocator allocator : List.of(first, second)) {
+                List<PointRecord> records = List.of(record("user1"), record("user2"));
+                allocator.assignIds(records);
+                records.forEach(pointRecord -> ids.add(pointRecord.getId()));
+            }
+        }
+
+        // Then
+        assertEquals(20, ids.size());
+    }
+
+    @Test
+    void assignIds_BatchLargerThanBlock_ShouldReserveOneBlockThatFitsIt() {
+        // Given
+        PointRecordIdAllocator allocator = allocator(4);
+        List<PointRecord> records = IntStream.range(0, 10).mapToObj(i -> record("user" + i)).toList();
+
+        // When
+        allocator.assignIds(records);
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L),
+                records.stream().map(PointRecord::getId).toList());
+        assertEquals(11L, nextValue());
+    }
+
+    @Test
+    void assignIds_ShouldKeepIdsAlreadySet() {
+        // Given
+        PointRecord preset = record("user1");
+        preset.setId(500L);
+        List<PointRecord> records = List.of(preset, record("user2"));
+
+        // When
+        allocator(10).assignIds(records);
+
+        // Then
+        assertEquals(500L, records.get(0).getId());
+        assertEquals(1L, records.get(1).getId());
+    }
+
+    @Test
+    void saveAllInBatch_PooledIds_ShouldInsertRowsWithAssignedIds() {
+        // Given
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("allocator", allocator(100)));
+        PointRecordRepositoryCustomImpl repository = new PointRecordRepositoryCustomImpl(jdbcTemplate,
+                beanFactory.getBeanProvider(PointRecordIdAllocator.class));
+        List<PointRecord> records = new ArrayList<>(List.of(record("user1"), record("user2"), record("user1")));
+
+        // When
+        repository.saveAllInBatch(records);
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), records.stream().map(PointRecord::getId).toList());
+        assertNotNull(records.get(0).getCreatedAt());
+        assertEquals(2, pointRecordRepository.findByUserId("user1").size());
+        assertEquals("user2", pointRecordRepository.findById(2L).orElseThrow().getUserId());
+    }
+
+    @Test
+    void saveAllInBatch_PooledIds_ShouldStampCreatedAtWithTheDatabaseClock() {
+        // Given
+        PointRecordRepositoryCustomImpl repository = repository(allocator(100));
+        List<PointRecord> records = List.of(record("user1"));
+        LocalDateTime before = pointRecordRepository.databaseNow();
+
+        // When
+        repository.saveAllInBatch(records);
+
+        // Then
+        LocalDateTime createdAt = records.get(0).getCreatedAt();
+        assertFalse(createdAt.isBefore(before));
+        assertFalse(createdAt.isAfter(pointRecordRepository.databaseNow()));
+        assertEquals(records.get(0).getCreatedAt(),
+                pointRecordRepository.findById(records.get(0).getId()).orElseThrow().getCreatedAt());
+    }
+
+    @Test
+    void purge_PooledIdsFromTwoNodes_ShouldKeepCreditsMadeAfterTheDelete() {
+        // Given - node A reserved the lower block, and the user's records so far came from node B's higher one
+        PointRecordRepositoryCustomImpl nodeA = repository(allocator(100));
+        PointRecordRepositoryCustomImpl nodeB = repository(allocator(100));
+        nodeA.saveAllInBatch(List.of(record("user2")));
+        List<PointRecord> beforeDelete = nodeB.saveAllInBatch(List.of(record("user1"), record("user1")));
+        PointsProperties properties = new PointsProperties();
+        properties.getIds().setStrategy(PointsProperties.IdStrategy.POOLED);
+        TaskScheduler taskScheduler = mock(TaskScheduler.class);
+        PointRecordPurger purger =
+                new PointRecordPurger(pointRecordRepository, transactionManager, taskScheduler, properties);
+
+        // When - the user is deleted, then credited on node A before the purge runs
+        PurgeJobStatus submitted = purger.submit("user1");
+        PointRecord afterDelete = record("user1");
+        // Later than the submission even where the clock does not advance between the two calls
+        afterDelete.setCreatedAt(LocalDateTime.now().plusSeconds(1));
+        nodeA.saveAllInBatch(List.of(afterDelete));
+        ArgumentCaptor<Runnable> purge = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(purge.capture(), any(Instant.class));
+        purge.getValue().run();
+
+        // Then
+        assertTrue(afterDelete.getId() < beforeDelete.get(0).getId());
+        assertEquals(List.of(afterDelete.getId()),
+                pointRecordRepository.findByUserId("user1").stream().map(PointRecord::getId).toList());
+        assertEquals(2, purger.status(submitted.getJobId()).orElseThrow().getDeletedRecords());
+    }
+
+    private PointRecordRepositoryCustomImpl repository(PointRecordIdAllocator allocator) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("allocator", allocator));
+        return new PointRecordRepositoryCustomImpl(jdbcTemplate,
+                beanFactory.getBeanProvider(PointRecordIdAllocator.class));
+    }
+
+    private PointRecordIdAllocator allocator(int allocationSize) {
+        PointsProperties properties = new PointsProperties();
+        properties.getIds().setAllocationSize(allocationSize);
+        return new PointRecordIdAllocator(jdbcTemplate, transactionManager, properties);
+    }
+
+    private long nextValue() {
+        return jdbcTemplate.queryForObject("SELECT next_val FROM points_id_sequence WHERE name = ?", Long.class,
+                PointRecordIdAllocator.SEQUENCE_NAME);
+    }
+
+    private static PointRecord record(String userId) {
+        PointRecord pointRecord = new PointRecord();
+        pointRecord.setUserId(userId);
+        pointRecord.setAmount(1);
+        return pointRecord;
+    }
+}
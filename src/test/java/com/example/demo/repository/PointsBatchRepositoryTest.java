@@ -0,0 +1,154 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.entity.PointRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PointsBatchRepositoryTest {
+
+    @Autowired
+    private PointRecordRepository pointRecordRepository;
+
+    @Autowired
+    private UserPointsRepository userPointsRepository;
+
+    @BeforeEach
+    void setUp() {
+        // The H2 database outlives the test class; rolled back with the test's transaction
+        userPointsRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void saveAllInBatch_ShouldInsertRowsAndAssignGeneratedIds() {
+        // Given
+        List<PointRecord> records = List.of(record("user1", 10), record("user2", 20), record("user1", 5));
+
+        // When
+        pointRecordRepository.saveAllInBatch(records);
+
+        // Then
+        records.forEach(r -> {
+            assertNotNull(r.getId());
+            assertNotNull(r.getCreatedAt());
+        });
+        assertEquals(3, records.stream().map(PointRecord::getId).distinct().count());
+        assertEquals(2, pointRecordRepository.findByUserId("user1").size());
+        assertEquals(20, pointRecordRepository.findById(records.get(1).getId()).orElseThrow().getAmount());
+    }
+
+    @Test
+    void accrueAll_ShouldCreateAndIncrementTotals() {
+        // Given
+        userPointsRepository.accrueAll(Map.of("user1", 100L), LocalDateTime.now());
+
+        // When
+        userPointsRepository.accrueAll(Map.of("user1", 50L, "user2", 30L), LocalDateTime.now());
+
+        // Then
+        assertEquals(150L, userPointsRepository.findById("user1").orElseThrow().getTotalPoints());
+        assertEquals(30L, userPointsRepository.findById("user2").orElseThrow().getTotalPoints());
+    }
+
+    @Test
+    void findTotalsAfter_ShouldPageInUserIdOrder() {
+        // Given
+        userPointsRepository.accrueAll(Map.of("user3", 30L, "user1", 10L, "user2", 20L), LocalDateTime.now());
+
+        // When
+        Map<String, Long> first = userPointsRepository.findTotalsAfter(null, 2);
+        Map<String, Long> second = userPointsRepository.findTotalsAfter("user2", 2);
+
+        // Then
+        assertEquals(List.of("user1", "user2"), List.copyOf(first.keySet()));
+        assertEquals(Map.of("user3", 30L), second);
+    }
+
+    @Test
+    void findTotalsUpdatedSince_ShouldSkipRowsUpdatedEarlier() {
+        // Given - whole seconds, so the stored updated_at compares equal to the bound
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        userPointsRepository.accrueAll(Map.of("user1", 10L), now.minusHours(1));
+        userPointsRepository.accrueAll(Map.of("user2", 20L, "user3", 30L), now);
+
+        // When
+        Map<String, Long> first = userPointsRepository.findTotalsUpdatedSince(now, null, 1);
+        Map<String, Long> second = userPointsRepository.findTotalsUpdatedSince(now, "user2", 1);
+
+        // Then
+        assertEquals(Map.of("user2", 20L), first);
+        assertEquals(Map.of("user3", 30L), second);
+    }
+
+    @Test
+    void deleteChunkByUserId_ShouldDeleteAtMostLimitRowsUpToMaxId() {
+        // Given
+        List<PointRecord> records = List.of(record("user1", 1), record("user1", 2), record("user1", 3),
+                record("user2", 4));
+        pointRecordRepository.saveAllInBatch(records);
+        long maxId = pointRecordRepository.findMaxIdByUserId("user1");
+        pointRecordRepository.saveAllInBatch(List.of(record("user1", 5)));
+
+        // When
+        int first = pointRecordRepository.deleteChunkByUserId("user1", maxId, 2);
+        int second = pointRecordRepository.deleteChunkByUserId("user1", maxId, 2);
+
+        // Then
+        assertEquals(2, first);
+        assertEquals(1, second);
+        assertEquals(List.of(5), pointRecordRepository.findByUserId("user1").stream()
+                .map(PointRecord::getAmount).toList());
+        assertEquals(1, pointRecordRepository.findByUserId("user2").size());
+    }
+
+    @Test
+    void findPageByUserId_ShouldWalkHistoryNewestFirstByKeyset() {
+        // Given
+        pointRecordRepository.saveAllInBatch(List.of(record("user1", 1), record("user2", 9), record("user1", 2),
+                record("user1", 3)));
+
+        // When
+        List<PointRecord> first = pointRecordRepository.findPageByUserId("user1", null, 2);
+        List<PointRecord> second = pointRecordRepository.findPageByUserId("user1", first.get(1).getId(), 2);
+
+        // Then
+        assertEquals(List.of(3, 2), first.stream().map(PointRecord::getAmount).toList());
+        assertEquals(List.of(1), second.stream().map(PointRecord::getAmount).toList());
+        assertNotNull(second.get(0).getCreatedAt());
+    }
+
+    @Test
+    void streamByUserId_ShouldVisitEveryRecordOfTheUser() {
+        // Given
+        pointRecordRepository.saveAllInBatch(List.of(record("user1", 1), record("user2", 9), record("user1", 2)));
+        List<Integer> amounts = new ArrayList<>();
+
+        // When
+        pointRecordRepository.streamByUserId("user1", 1, r -> amounts.add(r.getAmount()));
+
+        // Then
+        assertEquals(List.of(2, 1), amounts);
+    }
+
+    private static PointRecord record(String userId, int amount) {
+        PointRecord pointRecord = new PointRecord();
+        pointRecord.setUserId(userId);
+        pointRecord.setAmount(amount);
+        pointRecord.setReason("batch");
+        return pointRecord;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.entity.OutboxEvent;
+import com.example.demo.model.entity.PointRecord;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactivePointsRepositoryTest {
+
+    private DatabaseClient databaseClient;
+    private ReactivePointsRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient = DatabaseClient.create(ConnectionFactories.get(
+                "r2dbc:h2:mem:///reactive?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"));
+        repository = new ReactivePointsRepository(databaseClient);
+        execute("""
+                CREATE TABLE point_records (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    user_id VARCHAR(255) NOT NULL,
+                    amount INT NOT NULL,
+                    reason VARCHAR(255),
+                    created_at TIMESTAMP)""");
+        execute("""
+                CREATE TABLE user_points (
+                    user_id VARCHAR(255) PRIMARY KEY,
+                    total_points BIGINT NOT NULL,
+                    updated_at TIMESTAMP)""");
+        execute("""
+                CREATE TABLE points_outbox (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    topic VARCHAR(255) NOT NULL,
+                    message_key VARCHAR(255),
+                    payload CLOB NOT NULL,
+                    payload_format VARCHAR(16),
+                    created_at TIMESTAMP NOT NULL,
+                    sent_at TIMESTAMP)""");
+    }
+
+    @AfterEach
+    void tearDown() {
+        execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void insertRecords_ShouldInsertRowsAndAssignGeneratedIds() {
+        // Given
+        List<PointRecord> records = List.of(record("user1", 10, "a"), record("user2", 20, null), record("user1", 5, "c"));
+
+        // When
+        repository.insertRecords(records).block();
+
+        // Then
+        records.forEach(r -> {
+            assertNotNull(r.getId());
+            assertNotNull(r.getCreatedAt());
+        });
+        assertEquals(3, records.stream().map(PointRecord::getId).distinct().count());
+        PointRecord second = repository.findRecord(records.get(1).getId()).block();
+        assertEquals("user2", second.getUserId());
+        assertEquals(20, second.getAmount());
+        assertNull(second.getReason());
+    }
+
+    @Test
+    void accrueAll_ShouldCreateAndIncrementTotals() {
+        // Given
+        repository.accrue("user1", 100L, LocalDateTime.now()).block();
+
+        // When
+        repository.accrueAll(Map.of("user1", 50L, "user2", 30L), LocalDateTime.now()).block();
+
+        // Then
+        assertEquals(150L, repository.findUserPoints("user1").block().getTotalPoints());
+        assertEquals(30L, repository.findUserPoints("user2").block().getTotalPoints());
+    }
+
+    @Test
+    void findPageByUserId_ShouldPageNewestFirst() {
+        // Given
+        List<PointRecord> records = List.of(record("user1", 1, null), record("user1", 2, null),
+                record("user1", 3, null), record("user2", 4, null));
+        repository.insertRecords(records).block();
+
+        // When
+        List<PointRecord> firstPage = repository.findPageByUserId("user1", null, 2).collectList().block();
+        List<PointRecord> nextPage = repository.findPageByUserId("user1", firstPage.get(1).getId(), 2)
+                .collectList().block();
+
+        // Then
+        assertEquals(List.of(3, 2), firstPage.stream().map(PointRecord::getAmount).toList());
+        assertEquals(List.of(1), nextPage.stream().map(PointRecord::getAmount).toList());
+    }
+
+    @Test
+    void streamByUserId_ShouldEmitAllRecordsNewestFirst() {
+        // Given
+        repository.insertRecords(List.of(record("user1", 1, null), record("user1", 2, null))).block();
+
+        // When & Then
+        StepVerifier.create(repository.streamByUserId("user1", 1).map(PointRecord::getAmount))
+                .expectNext(2, 1)
+                .verifyComplete();
+    }
+
+    @Test
+    void updateReasonAndDelete_ShouldChangeRows() {
+        // Given
+        PointRecord pointRecord = record("user1", 1, "old");
+        repository.insertRecords(List.of(pointRecord)).block();
+        repository.accrue("user1", 1L, LocalDateTime.now()).block();
+
+        // When
+        Long updated = repository.updateReason(pointRecord.getId(), "new").block();
+        Long deleted = repository.deleteUserPoints("user1").block();
+
+        // Then
+        assertEquals(1L, updated);
+        assertEquals("new", repository.findRecord(pointRecord.getId()).block().getReason());
+        assertEquals(1L, deleted);
+        StepVerifier.create(repository.findUserPoints("user1")).verifyComplete();
+    }
+
+    @Test
+    void insertOutboxEvents_ShouldInsertUnsentRows() {
+        // Given
+        OutboxEvent event = new OutboxEvent();
+        event.setTopic("user-points-topic");
+        event.setMessageKey("user1");
+        event.setPayload("{}");
+
+        // When
+        repository.insertOutboxEvents(List.of(event, event)).block();
+
+        // Then
+        Long pending = databaseClient.sql("SELECT COUNT(*) FROM points_outbox WHERE sent_at IS NULL")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+        assertEquals(2L, pending);
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+
+    private static PointRecord record(String userId, int amount, String reason) {
+        PointRecord pointRecord = new PointRecord();
+        pointRecord.setUserId(userId);
+        pointRecord.setAmount(amount);
+        pointRecord.setReason(reason);
+        return pointRecord;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.entity.UserPoints;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers a single hot userId from many threads against H2 in MySQL mode. The exact-total check runs with the
+ * unit tests; the throughput comparison with the legacy read-modify-write accrual depends on the host and is in
+ * the {@code benchmark} group, which the default build excludes.
+ */
+@Slf4j
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserPointsRepositoryContentionTest {
+
+    private static final String HOT_USER = "hot-user";
+    private static final int THREADS = 8;
+    private static final int CREDITS_PER_THREAD = 100;
+
+    @Autowired
+    private UserPointsRepository userPointsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        userPointsRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Not rolled back like the other repository tests, so leave user_points empty for them
+        userPointsRepository.deleteAll();
+    }
+
+    @Test
+    void accrue_FirstCredit_ShouldCreateRow() {
+        // When
+        transactionTemplate.executeWithoutResult(status ->
+                userPointsRepository.accrue("new-user", 100, LocalDateTime.now()));
+
+        // Then
+        UserPoints userPoints = userPointsRepository.findById("new-user").orElseThrow();
+        assertEquals(100L, userPoints.getTotalPoints());
+        assertNotNull(userPoints.getUpdatedAt());
+    }
+
+    @Test
+    void accrue_HotUserFromManyThreads_ShouldKeepExactTotal() throws Exception {
+        // When
+        RunResult atomic = runConcurrently(THREADS, CREDITS_PER_THREAD, this::creditAtomically);
+
+        // Then
+        assertEquals(0, atomic.failed());
+        assertEquals((long) THREADS * CREDITS_PER_THREAD,
+                userPointsRepository.findById(HOT_USER).orElseThrow().getTotalPoints());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void accrue_HotUserFromManyThreads_ShouldOutperformReadModifyWrite() throws Exception {
+        // Given - warm up both paths so JIT and connection pool setup do not skew the comparison
+        runConcurrently(2, 50, this::creditAtomically);
+        runConcurrently(2, 50, this::creditReadModifyWrite);
+        userPointsRepository.deleteAll();
+
+        // When
+        long atomicNanos = runConcurrently(THREADS, CREDITS_PER_THREAD, this::creditAtomically).nanos();
+        long atomicTotal = userPointsRepository.findById(HOT_USER).orElseThrow().getTotalPoints();
+
+        userPointsRepository.deleteAll();
+        transactionTemplate.executeWithoutResult(status -> {
+            UserPoints seed = new UserPoints();
+            seed.setUserId(HOT_USER);
+            userPointsRepository.save(seed);
+        });
+        RunResult readModifyWrite = runConcurrently(THREADS, CREDITS_PER_THREAD, this::creditReadModifyWrite);
+        long readModifyWriteTotal = userPointsRepository.findById(HOT_USER).orElseThrow().getTotalPoints();
+
+        // Then
+        long expected = (long) THREADS * CREDITS_PER_THREAD;
+        double atomicThroughput = expected * 1e9 / atomicNanos;
+        // Lost updates do not count: throughput is measured in credits that actually reached the total
+        double readModifyWriteThroughput = readModifyWriteTotal * 1e9 / readModifyWrite.nanos();
+        log.info("atomic: {} applied credits/s, total {}; read-modify-write: {} applied credits/s, total {} of {} ({} failed)",
+                Math.round(atomicThroughput), atomicTotal, Math.round(readModifyWriteThroughput),
+                readModifyWriteTotal, expected, readModifyWrite.failed());
+
+        assertEquals(expected, atomicTotal);
+        assertTrue(atomicThroughput > readModifyWriteThroughput,
+                "atomic accrual should apply more credits/s than read-modify-write");
+    }
+
+    private void creditAtomically() {
+        transactionTemplate.executeWithoutResult(status ->
+                userPointsRepository.accrue(HOT_USER, 1, LocalDateTime.now()));
+    }
+
+    private void creditReadModifyWrite() {
+        transactionTemplate.executeWithoutResult(status -> {
+            UserPoints userPoints = userPointsRepository.findById(HOT_USER).orElseGet(() -> {
+                UserPoints newUser = new UserPoints();
+                newUser.setUserId(HOT_USER);
+                return newUser;
+            });
+            userPoints.setTotalPoints(userPoints.getTotalPoints() + 1);
+            userPointsRepository.save(userPoints);
+        });
+    }
+
+    private RunResult runConcurrently(int threads, int creditsPerThread, Runnable credit) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < creditsPerThread; i++) {
+                        try {
+                            credit.run();
+                        } catch (RuntimeException e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            return new RunResult(System.nanoTime() - begin, threads * creditsPerThread - failed.get(), failed.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private record RunResult(long nanos, int succeeded, int failed) {
+    }
+}
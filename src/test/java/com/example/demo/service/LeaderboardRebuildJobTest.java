@@ -0,0 +1,242 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.LeaderboardRebuildStatus;
+import com.example.demo.model.entity.UserPoints;
+import com.example.demo.repository.UserPointsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardRebuildJobTest {
+
+    @Mock
+    private UserPointsRepository userPointsRepository;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final PointsProperties properties = new PointsProperties();
+    private LeaderboardRebuildJob job;
+
+    @BeforeEach
+    void setUp() {
+        properties.getRebuild().setChunkSize(2);
+        properties.getRebuild().setMaxUsersPerSecond(0);
+        job = new LeaderboardRebuildJob(userPointsRepository, leaderboardService, cacheManager, redisTemplate,
+                taskScheduler, properties);
+    }
+
+    @Test
+    void run_ShouldStreamKeysetPagesIntoLeaderboardAndWarmCache() {
+        // Given
+        lockAcquired(true);
+        when(userPointsRepository.count()).thenReturn(3L);
+        when(userPointsRepository.findTotalsAfter(null, 2)).thenReturn(totals("user1", 100L, "user2", 300L));
+        when(userPointsRepository.findTotalsAfter("user2", 2)).thenReturn(totals("user3", 200L));
+        // user2 was credited after its page was read
+        when(userPointsRepository.findTotalsUpdatedSince(any(LocalDateTime.class), isNull(), eq(2)))
+                .thenReturn(totals("user2", 350L));
+        when(cacheManager.getCache("user_points")).thenReturn(cache);
+        when(leaderboardService.top(1000)).thenReturn(List.of(new LeaderboardEntry("user2", 300.0)));
+        UserPoints user2 = new UserPoints();
+        user2.setUserId("user2");
+        user2.setTotalPoints(300L);
+        when(userPointsRepository.findAllById(List.of("user2"))).thenReturn(List.of(user2));
+
+        // When
+        job.start("test");
+        job.run();
+
+        // Then
+        verify(leaderboardService).setScores(Map.of("user1", 100L, "user2", 300L));
+        verify(leaderboardService).setScores(Map.of("user3", 200L));
+        verify(leaderboardService).setScores(Map.of("user2", 350L));
+        verify(cache).put("user2", user2);
+        verify(redisTemplate, times(3)).execute(eq(LeaderboardRebuildJob.RENEW_LOCK_SCRIPT),
+                eq(List.of(LeaderboardRebuildJob.LOCK_KEY)), anyString(), eq("60000"));
+        verify(redisTemplate).execute(eq(LeaderboardRebuildJob.RELEASE_LOCK_SCRIPT),
+                eq(List.of(LeaderboardRebuildJob.LOCK_KEY)), anyString());
+        LeaderboardRebuildStatus status = job.status();
+        assertEquals(LeaderboardRebuildStatus.State.COMPLETED, status.getState());
+        assertEquals(3, status.getProcessedUsers());
+        assertEquals(3, status.getTotalUsers());
+        assertEquals(1, status.getWarmedCacheEntries());
+    }
+
+    @Test
+    void run_LockHeldElsewhere_ShouldSkip() {
+        // Given
+        lockAcquired(false);
+
+        // When
+        job.start("test");
+        job.run();
+
+        // Then
+        assertEquals(LeaderboardRebuildStatus.State.SKIPPED, job.status().getState());
+        verifyNoInteractions(userPointsRepository, leaderboardService);
+    }
+
+    @Test
+    void run_DatabaseFails_ShouldReportFailureAndAllowRestart() {
+        // Given
+        lockAcquired(true);
+        when(userPointsRepository.count()).thenThrow(new QueryTimeoutException("timeout"));
+
+        // When
+        job.start("test");
+        job.run();
+
+        // Then
+        assertEquals(LeaderboardRebuildStatus.State.FAILED, job.status().getState());
+        assertTrue(job.start("retry"));
+    }
+
+    @Test
+    void run_LockAcquisitionFails_ShouldReportFailureAndAllowRestart() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(LeaderboardRebuildJob.LOCK_KEY), anyString(), any(Duration.class)))
+                .thenThrow(new QueryTimeoutException("Redis timeout"));
+
+        // When
+        job.start("test");
+        job.run();
+
+        // Then
+        assertEquals(LeaderboardRebuildStatus.State.FAILED, job.status().getState());
+        verify(redisTemplate, never()).execute(eq(LeaderboardRebuildJob.RELEASE_LOCK_SCRIPT), anyList(), anyString());
+        verifyNoInteractions(userPointsRepository, leaderboardService);
+        assertTrue(job.start("retry"));
+    }
+
+    @Test
+    void run_LockReleaseFails_ShouldStillAllowRestart() {
+        // Given
+        lockAcquired(true);
+        when(userPointsRepository.count()).thenReturn(0L);
+        when(userPointsRepository.findTotalsAfter(null, 2)).thenReturn(new LinkedHashMap<>());
+        when(redisTemplate.execute(eq(LeaderboardRebuildJob.RELEASE_LOCK_SCRIPT), anyList(), anyString()))
+                .thenThrow(new QueryTimeoutException("Redis timeout"));
+
+        // When
+        job.start("test");
+        job.run();
+
+        // Then
+        assertEquals(LeaderboardRebuildStatus.State.COMPLETED, job.status().getState());
+        assertTrue(job.start("retry"));
+    }
+
+    @Test
+    void run_LockTakenOver_ShouldStopAndFail() {
+        // Given
+        lockAcquired(true);
+        when(userPointsRepository.count()).thenReturn(4L);
+        when(userPointsRepository.findTotalsAfter(null, 2)).thenReturn(totals("user1", 100L, "user2", 300L));
+        when(redisTemplate.execute(eq(LeaderboardRebuildJob.RENEW_LOCK_SCRIPT), anyList(), anyString(), anyString()))
+                .thenReturn(0L);
+
+        // When
+        job.start("test");
+        job.run();
+
+        // Then
+        assertEquals(LeaderboardRebuildStatus.State.FAILED, job.status().getState());
+        verify(userPointsRepository, never()).findTotalsAfter("user2", 2);
+        verify(userPointsRepository, never()).findTotalsUpdatedSince(any(), any(), anyInt());
+        assertTrue(job.start("retry"));
+    }
+
+    @Test
+    void start_AlreadyRunning_ShouldNotScheduleTwice() {
+        // When
+        boolean first = job.start("test");
+        boolean second = job.start("test");
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void rebuildIfEmpty_LeaderboardPopulated_ShouldNotStart() {
+        // Given
+        when(leaderboardService.size()).thenReturn(42L);
+
+        // When
+        job.rebuildIfEmpty();
+
+        // Then
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    void rebuildIfEmpty_LeaderboardEmpty_ShouldStart() {
+        // Given
+        when(leaderboardService.size()).thenReturn(0L);
+
+        // When
+        job.rebuildIfEmpty();
+
+        // Then
+        assertEquals(LeaderboardRebuildStatus.State.RUNNING, job.status().getState());
+        assertEquals("startup", job.status().getTrigger());
+    }
+
+    private void lockAcquired(boolean acquired) {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(LeaderboardRebuildJob.LOCK_KEY), anyString(), any(Duration.class)))
+                .thenReturn(acquired);
+        if (acquired) {
+            lenient().when(redisTemplate.execute(eq(LeaderboardRebuildJob.RENEW_LOCK_SCRIPT), anyList(), anyString(),
+                    anyString())).thenReturn(1L);
+        }
+    }
+
+    private static LinkedHashMap<String, Long> totals(Object... userIdsAndTotals) {
+        LinkedHashMap<String, Long> totals = new LinkedHashMap<>();
+        for (int i = 0; i < userIdsAndTotals.length; i += 2) {
+            totals.put((String) userIdsAndTotals[i], (Long) userIdsAndTotals[i + 1]);
+        }
+        return totals;
+    }
+}
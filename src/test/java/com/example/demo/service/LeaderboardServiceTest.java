@@ -0,0 +1,450 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.LeaderboardPage;
+import com.example.demo.model.dto.RankedEntry;
+import com.example.demo.model.dto.UserRank;
+import com.example.demo.redis.RedisCircuitBreaker;
+import io.lettuce.core.cluster.SlotHash;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Spy
+    private PointsProperties properties = new PointsProperties();
+
+    @Spy
+    private RedisCircuitBreaker circuitBreaker =
+            new RedisCircuitBreaker(new PointsProperties(), new SimpleMeterRegistry());
+
+    @Mock
+    private LeaderboardReplayQueue replayQueue;
+
+    @InjectMocks
+    private LeaderboardService leaderboardService;
+
+    private final String todayKey = LeaderboardService.dayKey(LocalDate.now(ZoneOffset.UTC));
+
+    @Test
+    void increment_ShouldZIncrByAllTimeAndTodayInOnePipeline() {
+        // Given
+        RedisOperations<String, String> operations = pipelineOperations();
+
+        // When
+        leaderboardService.increment("user123", 100);
+
+        // Then
+        verify(redisTemplate).executePipelined(any(SessionCallback.class));
+        verify(zSetOperations).incrementScore("leaderboard", "user123", 100.0);
+        verify(zSetOperations).incrementScore(todayKey, "user123", 100.0);
+        verify(operations).expire(eq(todayKey), any(Duration.class));
+    }
+
+    @Test
+    void increment_RedisFails_ShouldQueueTheCreditForReplay() {
+        // Given
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("redis down"));
+
+        // When
+        leaderboardService.increment("user123", 100);
+
+        // Then
+        verify(replayQueue).increment("user123", 100L);
+    }
+
+    @Test
+    void incrementAll_ShouldPipelineOneZIncrByPerUser() {
+        // Given
+        RedisOperations<String, String> operations = pipelineOperations();
+
+        // When
+        leaderboardService.incrementAll(Map.of("user1", 10L, "user2", -5L));
+
+        // Then
+        verify(redisTemplate).executePipelined(any(SessionCallback.class));
+        verify(zSetOperations).incrementScore("leaderboard", "user1", 10.0);
+        verify(zSetOperations).incrementScore("leaderboard", "user2", -5.0);
+        verify(zSetOperations).incrementScore(todayKey, "user1", 10.0);
+        verify(operations, times(1)).expire(eq(todayKey), any(Duration.class));
+    }
+
+    @Test
+    void incrementAll_Empty_ShouldSkipRoundTrip() {
+        // When
+        leaderboardService.incrementAll(Map.of());
+
+        // Then
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void setScore_ShouldZAddAbsoluteTotalAndIncrementToday() {
+        // Given
+        pipelineOperations();
+
+        // When
+        leaderboardService.setScore("user123", 600, 100);
+
+        // Then
+        verify(zSetOperations).add("leaderboard", "user123", 600.0);
+        verify(zSetOperations).incrementScore(todayKey, "user123", 100.0);
+    }
+
+    @Test
+    void top_WithData_ShouldReturnEntriesInRankOrder() {
+        // Given
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        Set<ZSetOperations.TypedTuple<String>> tuples = new LinkedHashSet<>();
+        tuples.add(ZSetOperations.TypedTuple.of("user1", 1000.0));
+        tuples.add(ZSetOperations.TypedTuple.of("user2", 800.0));
+        when(zSetOperations.reverseRangeWithScores("leaderboard", 0, 9)).thenReturn(tuples);
+
+        // When
+        List<LeaderboardEntry> result = leaderboardService.top(10);
+
+        // Then
+        assertEquals(List.of(new LeaderboardEntry("user1", 1000.0), new LeaderboardEntry("user2", 800.0)), result);
+    }
+
+    @Test
+    void top_EmptyData_ShouldReturnEmptyList() {
+        // Given
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.reverseRangeWithScores("leaderboard", 0, 9)).thenReturn(Collections.emptySet());
+
+        // When & Then
+        assertTrue(leaderboardService.top(10).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void remove_ShouldZRemEverywhereAndDropWindowViews() {
+        // Given
+        RedisOperations<String, String> operations = pipelineOperations();
+
+        // When
+        leaderboardService.remove("user123");
+
+        // Then
+        verify(zSetOperations).remove("leaderboard", "user123");
+        verify(zSetOperations).remove(todayKey, "user123");
+        verify(operations).delete(argThat((Collection<String> keys) -> keys.size() == 2));
+    }
+
+    @Test
+    void top_DailyWindow_ShouldReadTodaysBucket() {
+        // Given
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.reverseRangeWithScores(todayKey, 0, 9)).thenReturn(Collections.emptySet());
+
+        // When & Then
+        assertTrue(leaderboardService.top(LeaderboardWindow.DAY, 10).isEmpty());
+    }
+
+    @Test
+    void top_WeeklyWindowMissing_ShouldRebuildWithZUnionStore() {
+        // Given
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        String weekKey = LeaderboardService.windowKey(LeaderboardWindow.WEEK, today);
+        RedisOperations<String, String> operations = pipelineOperations();
+        when(redisTemplate.hasKey(weekKey)).thenReturn(false);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.reverseRangeWithScores(weekKey, 0, 9)).thenReturn(Collections.emptySet());
+
+        // When
+        leaderboardService.top(LeaderboardWindow.WEEK, 10);
+
+        // Then
+        verify(zSetOperations).unionAndStore(eq(todayKey),
+                argThat((Collection<String> others) -> others.size() == 6
+                        && others.contains(LeaderboardService.dayKey(today.minusDays(6)))),
+                eq(weekKey));
+        verify(operations).expire(weekKey, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void top_WeeklyWindowCached_ShouldNotRebuild() {
+        // Given
+        String weekKey = LeaderboardService.windowKey(LeaderboardWindow.WEEK, LocalDate.now(ZoneOffset.UTC));
+        when(redisTemplate.hasKey(weekKey)).thenReturn(true);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.reverseRangeWithScores(weekKey, 0, 9)).thenReturn(Collections.emptySet());
+
+        // When
+        leaderboardService.top(LeaderboardWindow.WEEK, 10);
+
+        // Then
+        verify(redisTemplate, never()).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void page_ShouldReadRangeAndSizeInOnePipeline() {
+        // Given
+        Set<ZSetOperations.TypedTuple<String>> tuples = new LinkedHashSet<>();
+        tuples.add(ZSetOperations.TypedTuple.of("user21", 300.0));
+        tuples.add(ZSetOperations.TypedTuple.of("user22", 290.0));
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(tuples, 57L));
+
+        // When
+        LeaderboardPage page = leaderboardService.page(LeaderboardWindow.ALL_TIME, 2, 10);
+
+        // Then
+        verify(redisTemplate).executePipelined(any(SessionCallback.class));
+        assertEquals(57L, page.getTotalUsers());
+        assertEquals(List.of(new RankedEntry(21, "user21", 300.0), new RankedEntry(22, "user22", 290.0)),
+                page.getEntries());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rankOf_RankedUser_ShouldReturnRankAndNeighbours() {
+        // Given
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(4L, 500.0));
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        Set<ZSetOperations.TypedTuple<String>> around = new LinkedHashSet<>();
+        around.add(ZSetOperations.TypedTuple.of("user4", 600.0));
+        around.add(ZSetOperations.TypedTuple.of("user123", 500.0));
+        around.add(ZSetOperations.TypedTuple.of("user6", 400.0));
+        when(zSetOperations.reverseRangeWithScores("leaderboard", 3, 5)).thenReturn(around);
+
+        // When
+        UserRank rank = leaderboardService.rankOf("user123", 1);
+
+        // Then
+        assertEquals(5L, rank.getRank());
+        assertEquals(500.0, rank.getTotal());
+        assertEquals(new RankedEntry(5, "user123", 500.0), rank.getNeighbours().get(1));
+        assertEquals(3, rank.getNeighbours().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rankOf_TopUser_ShouldClampRangeAtZero() {
+        // Given
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(0L, 900.0));
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.reverseRangeWithScores("leaderboard", 0, 2)).thenReturn(Collections.emptySet());
+
+        // When
+        UserRank rank = leaderboardService.rankOf("user1", 2);
+
+        // Then
+        assertEquals(1L, rank.getRank());
+        verify(zSetOperations).reverseRangeWithScores("leaderboard", 0, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rankOf_UnknownUser_ShouldReturnNull() {
+        // Given
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(null, null));
+
+        // When & Then
+        assertNull(leaderboardService.rankOf("ghost", 2));
+        verify(redisTemplate, never()).opsForZSet();
+    }
+
+    @Test
+    void merge_ShouldInterleaveShardsInZRevRangeOrder() {
+        // Given
+        List<Set<ZSetOperations.TypedTuple<String>>> shards = List.of(
+                tuples(ZSetOperations.TypedTuple.of("user1", 900.0), ZSetOperations.TypedTuple.of("user3", 500.0)),
+                tuples(ZSetOperations.TypedTuple.of("user2", 700.0), ZSetOperations.TypedTuple.of("user4", 500.0),
+                        ZSetOperations.TypedTuple.of("user5", 100.0)));
+
+        // When
+        List<ZSetOperations.TypedTuple<String>> merged = LeaderboardService.merge(shards, 1, 3);
+
+        // Then: ties rank the greater member first, like ZREVRANGE
+        assertEquals(List.of("user2", "user4", "user3"),
+                merged.stream().map(ZSetOperations.TypedTuple::getValue).toList());
+    }
+
+    @Test
+    void increment_Sharded_ShouldOnlyTouchTheUsersShard() {
+        // Given
+        properties.getLeaderboard().setShards(4);
+        int shard = LeaderboardService.shardOf("user123", 4);
+        RedisOperations<String, String> operations = pipelineOperations();
+
+        // When
+        leaderboardService.increment("user123", 100);
+
+        // Then
+        String shardTodayKey = "{leaderboard:s" + shard + "}" + todayKey.substring("leaderboard".length());
+        verify(zSetOperations).incrementScore("{leaderboard:s" + shard + "}", "user123", 100.0);
+        verify(zSetOperations).incrementScore(shardTodayKey, "user123", 100.0);
+        verify(zSetOperations, never()).incrementScore(eq("leaderboard"), anyString(), anyDouble());
+        verify(operations).expire(eq(shardTodayKey), any(Duration.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void top_Sharded_ShouldMergeShardsInOnePipelineAndReuseTheResult() {
+        // Given
+        properties.getLeaderboard().setShards(2);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(
+                tuples(ZSetOperations.TypedTuple.of("user1", 300.0), ZSetOperations.TypedTuple.of("user3", 100.0)),
+                tuples(ZSetOperations.TypedTuple.of("user2", 200.0))));
+
+        // When
+        List<LeaderboardEntry> first = leaderboardService.top(2);
+        List<LeaderboardEntry> second = leaderboardService.top(2);
+
+        // Then
+        assertEquals(List.of(new LeaderboardEntry("user1", 300.0), new LeaderboardEntry("user2", 200.0)), first);
+        assertEquals(first, second);
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(redisTemplate, never()).opsForZSet();
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void top_ShardedWeeklyWindowMissing_ShouldUnionEachShardWithinItsClusterSlot() {
+        // Given
+        properties.getLeaderboard().setShards(4);
+        RedisOperations<String, String> operations = mock(RedisOperations.class);
+        lenient().when(operations.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            ((SessionCallback) invocation.getArgument(0)).execute(operations);
+            return Collections.nCopies(4, false);
+        }).thenAnswer(invocation -> {
+            ((SessionCallback) invocation.getArgument(0)).execute(operations);
+            return List.of();
+        });
+
+        // When
+        leaderboardService.top(LeaderboardWindow.WEEK, 10);
+        leaderboardService.increment("user123", 100);
+        leaderboardService.remove("user123");
+
+        // Then
+        ArgumentCaptor<String> firsts = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Collection<String>> others = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<String> destinations = ArgumentCaptor.forClass(String.class);
+        verify(zSetOperations, times(4)).unionAndStore(firsts.capture(), others.capture(), destinations.capture());
+        Set<Integer> shardSlots = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            int slot = SlotHash.getSlot(destinations.getAllValues().get(i));
+            assertEquals(slot, SlotHash.getSlot(firsts.getAllValues().get(i)));
+            assertEquals(6, others.getAllValues().get(i).size());
+            others.getAllValues().get(i).forEach(key -> assertEquals(slot, SlotHash.getSlot(key)));
+            shardSlots.add(slot);
+        }
+        assertEquals(4, shardSlots.size());
+
+        int shard = LeaderboardService.shardOf("user123", 4);
+        ArgumentCaptor<String> zSetKeys = ArgumentCaptor.forClass(String.class);
+        verify(zSetOperations, atLeastOnce()).incrementScore(zSetKeys.capture(), eq("user123"), anyDouble());
+        verify(zSetOperations, atLeastOnce()).remove(zSetKeys.capture(), eq("user123"));
+        ArgumentCaptor<Collection<String>> deleted = ArgumentCaptor.forClass(Collection.class);
+        verify(operations).delete(deleted.capture());
+        int userSlot = SlotHash.getSlot("{leaderboard:s" + shard + "}");
+        zSetKeys.getAllValues().forEach(key -> assertEquals(userSlot, SlotHash.getSlot(key), key));
+        deleted.getValue().forEach(key -> assertEquals(userSlot, SlotHash.getSlot(key), key));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void page_Sharded_ShouldSliceMergedShardsAndSumSizes() {
+        // Given
+        properties.getLeaderboard().setShards(2);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(
+                tuples(ZSetOperations.TypedTuple.of("user1", 400.0), ZSetOperations.TypedTuple.of("user3", 200.0)),
+                tuples(ZSetOperations.TypedTuple.of("user2", 300.0), ZSetOperations.TypedTuple.of("user4", 100.0)),
+                2L, 5L));
+
+        // When
+        LeaderboardPage page = leaderboardService.page(LeaderboardWindow.ALL_TIME, 1, 2);
+
+        // Then
+        assertEquals(7L, page.getTotalUsers());
+        assertEquals(List.of(new RankedEntry(3, "user3", 200.0), new RankedEntry(4, "user4", 100.0)),
+                page.getEntries());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rankOf_Sharded_ShouldCountHigherScoresAndTiesInOtherShards() {
+        // Given: user5's shard holds top(700) above it; the other shard holds b(600), zz(500, tied but ranked
+        // above user5) and low(400)
+        properties.getLeaderboard().setShards(2);
+        int ownShard = LeaderboardService.shardOf("user5", 2);
+        Set<ZSetOperations.TypedTuple<String>> ownWindow =
+                tuples(ZSetOperations.TypedTuple.of("top", 700.0), ZSetOperations.TypedTuple.of("user5", 500.0));
+        Set<ZSetOperations.TypedTuple<String>> otherWindow =
+                tuples(ZSetOperations.TypedTuple.of("zz", 500.0), ZSetOperations.TypedTuple.of("low", 400.0));
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(
+                Arrays.asList(1L, 500.0),
+                ownShard == 0 ? List.of(ownWindow, otherWindow) : List.of(otherWindow, ownWindow));
+        // b and zz rank above user5 in the other shard, counted there without loading the tied members
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(2L));
+
+        // When
+        UserRank rank = leaderboardService.rankOf("user5", 1);
+
+        // Then
+        assertEquals(4L, rank.getRank());
+        assertEquals(500.0, rank.getTotal());
+        assertEquals(List.of(new RankedEntry(3, "zz", 500.0), new RankedEntry(4, "user5", 500.0),
+                new RankedEntry(5, "low", 400.0)), rank.getNeighbours());
+        verify(redisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @SafeVarargs
+    private static Set<ZSetOperations.TypedTuple<String>> tuples(ZSetOperations.TypedTuple<String>... tuples) {
+        return new LinkedHashSet<>(Arrays.asList(tuples));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private RedisOperations<String, String> pipelineOperations() {
+        RedisOperations<String, String> operations = mock(RedisOperations.class);
+        lenient().when(operations.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback callback = invocation.getArgument(0);
+            callback.execute(operations);
+            return List.of();
+        });
+        return operations;
+    }
+}
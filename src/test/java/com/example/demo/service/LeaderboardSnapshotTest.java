@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.dto.LeaderboardEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardSnapshotTest {
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    private final PointsProperties properties = new PointsProperties();
+
+    @Test
+    void top_WithinRefreshInterval_ShouldReadRedisOnce() {
+        // Given
+        properties.getLeaderboard().setSnapshotRefresh(Duration.ofMinutes(1));
+        LeaderboardSnapshot snapshot = new LeaderboardSnapshot(leaderboardService, properties);
+        when(leaderboardService.top(10)).thenReturn(List.of(new LeaderboardEntry("user1", 1000.0)));
+
+        // When
+        snapshot.top();
+        List<LeaderboardEntry> second = snapshot.top();
+
+        // Then
+        assertEquals(List.of(new LeaderboardEntry("user1", 1000.0)), second);
+        verify(leaderboardService, times(1)).top(10);
+    }
+
+    @Test
+    void top_Stale_ShouldRefresh() {
+        // Given
+        properties.getLeaderboard().setSnapshotRefresh(Duration.ZERO);
+        LeaderboardSnapshot snapshot = new LeaderboardSnapshot(leaderboardService, properties);
+        when(leaderboardService.top(10))
+                .thenReturn(List.of(new LeaderboardEntry("user1", 1000.0)))
+                .thenReturn(List.of(new LeaderboardEntry("user2", 1200.0)));
+
+        // When
+        snapshot.top();
+        List<LeaderboardEntry> second = snapshot.top();
+
+        // Then
+        assertEquals("user2", second.get(0).getUserId());
+    }
+
+    @Test
+    void top_RefreshFails_ShouldServePreviousSnapshot() {
+        // Given
+        properties.getLeaderboard().setSnapshotRefresh(Duration.ZERO);
+        LeaderboardSnapshot snapshot = new LeaderboardSnapshot(leaderboardService, properties);
+        when(leaderboardService.top(10))
+                .thenReturn(List.of(new LeaderboardEntry("user1", 1000.0)))
+                .thenThrow(new RedisConnectionFailureException("redis down"));
+
+        // When
+        snapshot.top();
+        List<LeaderboardEntry> second = snapshot.top();
+
+        // Then
+        assertEquals("user1", second.get(0).getUserId());
+        assertTrue(snapshot.isStale());
+    }
+
+    @Test
+    void top_RefreshSucceedsAgain_ShouldNoLongerBeStale() {
+        // Given
+        properties.getLeaderboard().setSnapshotRefresh(Duration.ZERO);
+        LeaderboardSnapshot snapshot = new LeaderboardSnapshot(leaderboardService, properties);
+        when(leaderboardService.top(10))
+                .thenReturn(List.of(new LeaderboardEntry("user1", 1000.0)))
+                .thenThrow(new RedisConnectionFailureException("redis down"))
+                .thenReturn(List.of(new LeaderboardEntry("user2", 1200.0)));
+        snapshot.top();
+        snapshot.top();
+
+        // When
+        List<LeaderboardEntry> third = snapshot.top();
+
+        // Then
+        assertEquals("user2", third.get(0).getUserId());
+        assertFalse(snapshot.isStale());
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        // Given
+        properties.getLeaderboard().setSnapshotRefresh(Duration.ofMinutes(1));
+        LeaderboardSnapshot snapshot = new LeaderboardSnapshot(leaderboardService, properties);
+        when(leaderboardService.top(10)).thenReturn(List.of());
+
+        // When
+        snapshot.top();
+        snapshot.invalidate();
+        snapshot.top();
+
+        // Then
+        verify(leaderboardService, times(2)).top(10);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.service;
+
+import com.example.demo.model.entity.UserPoints;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PendingPointsDeltasTest {
+
+    private final PendingPointsDeltas pendingDeltas = new PendingPointsDeltas();
+
+    @Test
+    void drain_ShouldReturnMergedDeltasAndReset() {
+        // Given
+        pendingDeltas.add("user1", 10);
+        pendingDeltas.add("user1", 5);
+        pendingDeltas.add("user2", -3);
+
+        // When
+        Map<String, Long> drained = pendingDeltas.drain(LocalDateTime.now());
+        pendingDeltas.completeFlush();
+
+        // Then
+        assertEquals(Map.of("user1", 15L, "user2", -3L), drained);
+        assertEquals(0, pendingDeltas.pending("user1"));
+        assertTrue(pendingDeltas.drain(LocalDateTime.now()).isEmpty());
+    }
+
+    @Test
+    void drain_IdleUsers_ShouldBeRetiredFromLiveMap() {
+        // Given
+        pendingDeltas.add("user1", 10);
+        pendingDeltas.drain(LocalDateTime.now());
+        pendingDeltas.completeFlush();
+
+        // When
+        pendingDeltas.drain(LocalDateTime.now());
+        pendingDeltas.completeFlush();
+        pendingDeltas.add("user1", 3);
+
+        // Then
+        assertEquals(1, pendingDeltas.size());
+        assertEquals(3, pendingDeltas.pending("user1"));
+    }
+
+    @Test
+    void overlay_InFlightDelta_ShouldCountOnlyUntilRowReflectsFlush() {
+        // Given
+        LocalDateTime flushedAt = LocalDateTime.now();
+        pendingDeltas.add("user1", 10);
+        pendingDeltas.drain(flushedAt);
+        pendingDeltas.add("user1", 1);
+
+        // When
+        UserPoints beforeFlush = pendingDeltas.overlay("user1", stored(100, flushedAt.minusSeconds(1)));
+        UserPoints afterFlush = pendingDeltas.overlay("user1", stored(110, flushedAt));
+
+        // Then
+        assertEquals(111, beforeFlush.getTotalPoints());
+        assertEquals(111, afterFlush.getTotalPoints());
+    }
+
+    @Test
+    void abortFlush_ShouldReturnDeltasForRetry() {
+        // Given
+        pendingDeltas.add("user1", 10);
+        pendingDeltas.drain(LocalDateTime.now());
+
+        // When
+        pendingDeltas.abortFlush();
+
+        // Then
+        assertEquals(10, pendingDeltas.pending("user1"));
+        assertEquals(Map.of("user1", 10L), pendingDeltas.drain(LocalDateTime.now()));
+    }
+
+    @Test
+    void discard_ShouldDropPendingDeltas() {
+        // Given
+        pendingDeltas.add("user1", 10);
+
+        // When
+        pendingDeltas.discard("user1");
+
+        // Then
+        assertEquals(0, pendingDeltas.pending("user1"));
+        assertNull(pendingDeltas.overlay("user1", null));
+    }
+
+    @Test
+    void discard_DuringFlush_ShouldHideInFlightDeltaAndNotRetryIt() {
+        // Given
+        pendingDeltas.add("user1", 10);
+        pendingDeltas.add("user2", 7);
+        pendingDeltas.drain(LocalDateTime.now());
+
+        // When
+        pendingDeltas.discard("user1");
+        Set<String> discarded = pendingDeltas.discardedDuringFlush();
+        UserPoints overlaid = pendingDeltas.overlay("user1", null);
+        pendingDeltas.abortFlush();
+
+        // Then
+        assertEquals(Set.of("user1"), discarded);
+        assertNull(overlaid);
+        assertEquals(Map.of("user2", 7L), pendingDeltas.drain(LocalDateTime.now()));
+        assertTrue(pendingDeltas.discardedDuringFlush().isEmpty());
+    }
+
+    @Test
+    void onThresholdReached_ShouldFireWhenEnoughUsersArePending() {
+        // Given
+        AtomicInteger fired = new AtomicInteger();
+        pendingDeltas.onThresholdReached(2, fired::incrementAndGet);
+
+        // When
+        pendingDeltas.add("user1", 1);
+        pendingDeltas.add("user1", 1);
+        pendingDeltas.add("user2", 1);
+
+        // Then
+        assertEquals(1, fired.get());
+    }
+
+    @Test
+    void addAndDrain_Concurrently_ShouldNotLoseCredits() throws Exception {
+        // Given
+        int threads = 8;
+        int creditsPerThread = 20_000;
+        AtomicLong flushed = new AtomicLong();
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        List<Future<?>> writers = new ArrayList<>();
+
+        // When
+        Future<?> flusher = executor.submit(() -> {
+            while (!done.get()) {
+                pendingDeltas.drain(LocalDateTime.now()).values().forEach(flushed::addAndGet);
+                pendingDeltas.completeFlush();
+            }
+        });
+        for (int t = 0; t < threads; t++) {
+            int user = t % 2;
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < creditsPerThread; i++) {
+                    pendingDeltas.add("hot-user-" + user, 1);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        done.set(true);
+        flusher.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        pendingDeltas.drain(LocalDateTime.now()).values().forEach(flushed::addAndGet);
+
+        // Then
+        assertEquals((long) threads * creditsPerThread, flushed.get());
+    }
+
+    private static UserPoints stored(long total, LocalDateTime updatedAt) {
+        UserPoints userPoints = new UserPoints();
+        userPoints.setUserId("user1");
+        userPoints.setTotalPoints(total);
+        userPoints.setUpdatedAt(updatedAt);
+        return userPoints;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.dto.PurgeJobStatus;
+import com.example.demo.repository.PointRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PointRecordPurgerTest {
+
+    @Mock
+    private PointRecordRepository pointRecordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final PointsProperties properties = new PointsProperties();
+    private PointRecordPurger purger;
+
+    @BeforeEach
+    void setUp() {
+        properties.getPurge().setChunkSize(2);
+        properties.getPurge().setPauseBetweenChunks(Duration.ZERO);
+        purger = new PointRecordPurger(pointRecordRepository, transactionManager, taskScheduler, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void submit_ShouldDeleteInChunksUpToMaxIdUntilExhausted() {
+        // Given
+        when(pointRecordRepository.findMaxIdByUserId("user1")).thenReturn(42L);
+        when(pointRecordRepository.deleteChunkByUserId("user1", 42L, 2)).thenReturn(2, 2, 1);
+
+        // When
+        PurgeJobStatus submitted = purger.submit("user1");
+        runScheduledTask();
+
+        // Then
+        verify(pointRecordRepository, times(3)).deleteChunkByUserId("user1", 42L, 2);
+        verify(transactionManager, times(3)).commit(any());
+        PurgeJobStatus status = purger.status(submitted.getJobId()).orElseThrow();
+        assertEquals(PurgeJobStatus.State.COMPLETED, status.getState());
+        assertEquals(5, status.getDeletedRecords());
+        assertNotNull(status.getFinishedAt());
+    }
+
+    @Test
+    void submit_NoRecords_ShouldCompleteWithoutScheduling() {
+        // Given
+        when(pointRecordRepository.findMaxIdByUserId("user1")).thenReturn(null);
+
+        // When
+        PurgeJobStatus status = purger.submit("user1");
+
+        // Then
+        assertEquals(PurgeJobStatus.State.COMPLETED, status.getState());
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    void submit_InsideTransaction_ShouldStartOnlyAfterCommit() {
+        // Given
+        when(pointRecordRepository.findMaxIdByUserId("user1")).thenReturn(42L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        purger.submit("user1");
+        verifyNoInteractions(taskScheduler);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Then
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void submit_TransactionRolledBack_ShouldMarkFailed() {
+        // Given
+        when(pointRecordRepository.findMaxIdByUserId("user1")).thenReturn(42L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        PurgeJobStatus submitted = purger.submit("user1");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertEquals(PurgeJobStatus.State.FAILED, purger.status(submitted.getJobId()).orElseThrow().getState());
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    void run_ChunkFails_ShouldReportProgressSoFar() {
+        // Given
+        when(pointRecordRepository.findMaxIdByUserId("user1")).thenReturn(42L);
+        when(pointRecordRepository.deleteChunkByUserId("user1", 42L, 2))
+                .thenReturn(2)
+                .thenThrow(new QueryTimeoutException("lock wait timeout"));
+
+        // When
+        PurgeJobStatus submitted = purger.submit("user1");
+        runScheduledTask();
+
+        // Then
+        PurgeJobStatus status = purger.status(submitted.getJobId()).orElseThrow();
+        assertEquals(PurgeJobStatus.State.FAILED, status.getState());
+        assertEquals(2, status.getDeletedRecords());
+    }
+
+    private void runScheduledTask() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(task.capture(), any(Instant.class));
+        task.getValue().run();
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.repository.ProjectedRecordRepository;
+import com.example.demo.repository.UserPointsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PointsProjectorTest {
+
+    @Mock
+    private ProjectedRecordRepository projectedRecordRepository;
+
+    @Mock
+    private UserPointsRepository userPointsRepository;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PointsProperties properties = new PointsProperties();
+    private PointsProjector projector;
+
+    @BeforeEach
+    void setUp() {
+        projector = new PointsProjector(projectedRecordRepository, userPointsRepository, leaderboardService,
+                cacheManager, transactionManager, properties, meterRegistry);
+    }
+
+    @Test
+    void apply_ShouldRecordIdsAccrueDeltasAndUpdateLeaderboard() {
+        // Given
+        when(cacheManager.getCache("user_points")).thenReturn(cache);
+
+        // When
+        int applied = projector.apply(List.of(record(1L, "user1", 10), record(2L, "user2", 7),
+                record(3L, "user1", 5)));
+
+        // Then
+        Map<String, Long> expected = Map.of("user1", 15L, "user2", 7L);
+        assertEquals(3, applied);
+        verify(projectedRecordRepository).saveAllInBatch(eq(Set.of(1L, 2L, 3L)), any(LocalDateTime.class));
+        verify(userPointsRepository).accrueAll(eq(expected), any(LocalDateTime.class));
+        verify(transactionManager).commit(any());
+        verify(leaderboardService).incrementAll(expected);
+        verify(cache).evict("user1");
+        verify(cache).evict("user2");
+        assertEquals(3.0, meterRegistry.get("points.projection.applied").counter().count());
+    }
+
+    @Test
+    void apply_Redelivered_ShouldSkipRecordsAlreadyProjected() {
+        // Given
+        when(projectedRecordRepository.lockProjectedIds(anyCollection())).thenReturn(List.of(1L));
+
+        // When
+        int applied = projector.apply(List.of(record(1L, "user1", 10), record(2L, "user1", 5),
+                record(2L, "user1", 5)));
+
+        // Then
+        assertEquals(1, applied);
+        verify(projectedRecordRepository).saveAllInBatch(eq(Set.of(2L)), any(LocalDateTime.class));
+        verify(userPointsRepository).accrueAll(eq(Map.of("user1", 5L)), any(LocalDateTime.class));
+        verify(leaderboardService).incrementAll(Map.of("user1", 5L));
+        assertEquals(2.0, meterRegistry.get("points.projection.duplicates").counter().count());
+    }
+
+    @Test
+    void apply_AllProjected_ShouldNotTouchTotalsOrRedis() {
+        // Given
+        when(projectedRecordRepository.lockProjectedIds(anyCollection())).thenReturn(List.of(1L));
+
+        // When
+        int applied = projector.apply(List.of(record(1L, "user1", 10)));
+
+        // Then
+        assertEquals(0, applied);
+        verify(projectedRecordRepository, never()).saveAllInBatch(any(), any());
+        verifyNoInteractions(userPointsRepository, leaderboardService);
+    }
+
+    @Test
+    void apply_DatabaseFailure_ShouldRollBackAndRethrow() {
+        // Given
+        doThrow(new DuplicateKeyException("record_id")).when(projectedRecordRepository)
+                .saveAllInBatch(anyCollection(), any());
+
+        // When & Then
+        assertThrows(DuplicateKeyException.class, () -> projector.apply(List.of(record(1L, "user1", 10))));
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(userPointsRepository, leaderboardService);
+    }
+
+    @Test
+    void apply_LeaderboardFailure_ShouldStillCountRecordsApplied() {
+        // Given
+        doThrow(new RedisConnectionFailureException("down")).when(leaderboardService).incrementAll(anyMap());
+
+        // When
+        int applied = projector.apply(List.of(record(1L, "user1", 10)));
+
+        // Then
+        assertEquals(1, applied);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteInChunksUntilDone() {
+        // Given
+        when(projectedRecordRepository.deleteProjectedBefore(any(), eq(1000))).thenReturn(1000, 3);
+
+        // When
+        projector.purgeExpired();
+
+        // Then
+        verify(projectedRecordRepository, times(2)).deleteProjectedBefore(
+                argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusDays(2))), eq(1000));
+    }
+
+    private static PointRecord record(Long id, String userId, int amount) {
+        PointRecord pointRecord = new PointRecord();
+        pointRecord.setId(id);
+        pointRecord.setUserId(userId);
+        pointRecord.setAmount(amount);
+        return pointRecord;
+    }
+}
@@ -1,28 +1,37 @@
 package com.example.demo.service;
 
+import com.example.demo.config.PointsProperties;
+import com.example.demo.datasource.PrimaryStickiness;
+import com.example.demo.messaging.PointsEventPublisher;
 import com.example.demo.model.dto.AddPointsRequest;
+import com.example.demo.model.dto.BatchAddPointsResponse;
 import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.LeaderboardPage;
+import com.example.demo.model.dto.PointRecordPage;
+import com.example.demo.model.dto.PointsLookupResponse;
+import com.example.demo.model.dto.PurgeJobStatus;
 import com.example.demo.model.dto.UpdateReasonRequest;
 import com.example.demo.model.entity.PointRecord;
 import com.example.demo.model.entity.UserPoints;
 import com.example.demo.repository.PointRecordRepository;
 import com.example.demo.repository.UserPointsRepository;
-import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -38,13 +47,45 @@ class PointsServiceImplTest {
     private UserPointsRepository userPointsRepository;
 
     @Mock
-    private RedisTemplate<String, String> redisTemplate;
+    private LeaderboardService leaderboardService;
 
     @Mock
-    private RocketMQTemplate rocketMQTemplate;
+    private LeaderboardSnapshot leaderboardSnapshot;
 
     @Mock
-    private ZSetOperations<String, String> zSetOperations;
+    private UserPointsReader userPointsReader;
+
+    @Spy
+    private PendingPointsDeltas pendingDeltas = new PendingPointsDeltas();
+
+    @Mock
+    private PointsEventPublisher eventPublisher;
+
+    @Mock
+    private PointRecordPurger pointRecordPurger;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private ObjectProvider<PointsProjector> projectorProvider;
+
+    @Mock
+    private PointsProjector projector;
+
+    @Spy
+    private PointsProperties properties = new PointsProperties();
+
+    @Spy
+    private PrimaryStickiness primaryStickiness = new PrimaryStickiness(new PointsProperties());
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PointsStageTimers stageTimers = new PointsStageTimers(meterRegistry);
 
     @InjectMocks
     private PointsServiceImpl pointsService;
@@ -75,7 +116,7 @@ class PointsServiceImplTest {
     @Test
     void addPoints_ExistingUser_ShouldUpdatePointsSuccessfully() {
         // Given
-        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.READ_MODIFY_WRITE);
         when(userPointsRepository.findById("user123")).thenReturn(Optional.of(existingUserPoints));
         when(pointRecordRepository.save(any(PointRecord.class))).thenReturn(pointRecord);
         when(userPointsRepository.save(any(UserPoints.class))).thenReturn(existingUserPoints);
@@ -92,14 +133,14 @@ class PointsServiceImplTest {
         verify(pointRecordRepository).save(any(PointRecord.class));
         verify(userPointsRepository).save(argThat(userPoints -> 
             userPoints.getTotalPoints() == 600)); // 500 + 100
-        verify(zSetOperations).add(eq("leaderboard"), eq("user123"), eq(600.0));
-        verify(rocketMQTemplate).convertAndSend(eq("user-points-topic"), any(PointRecord.class));
+        verify(leaderboardService).setScore("user123", 600.0, 100.0);
+        verify(eventPublisher).publish(any(PointRecord.class));
     }
 
     @Test
     void addPoints_NewUser_ShouldCreateNewUserAndAddPoints() {
         // Given
-        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.READ_MODIFY_WRITE);
         when(userPointsRepository.findById("user123")).thenReturn(Optional.empty());
         when(pointRecordRepository.save(any(PointRecord.class))).thenReturn(pointRecord);
         when(userPointsRepository.save(any(UserPoints.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -116,14 +157,14 @@ class PointsServiceImplTest {
         verify(pointRecordRepository).save(any(PointRecord.class));
         verify(userPointsRepository).save(argThat(userPoints -> 
             userPoints.getTotalPoints() == 100));
-        verify(zSetOperations).add(eq("leaderboard"), eq("user123"), eq(100.0));
-        verify(rocketMQTemplate).convertAndSend(eq("user-points-topic"), any(PointRecord.class));
+        verify(leaderboardService).setScore("user123", 100.0, 100.0);
+        verify(eventPublisher).publish(any(PointRecord.class));
     }
 
     @Test
     void getTotalPoints_ExistingUser_ShouldReturnUserPoints() {
         // Given
-        when(userPointsRepository.findById("user123")).thenReturn(Optional.of(existingUserPoints));
+        when(userPointsReader.load("user123")).thenReturn(existingUserPoints);
 
         // When
         UserPoints result = pointsService.getTotalPoints("user123");
@@ -132,48 +173,91 @@ class PointsServiceImplTest {
         assertNotNull(result);
         assertEquals("user123", result.getUserId());
         assertEquals(500, result.getTotalPoints());
-        verify(userPointsRepository).findById("user123");
+        verify(userPointsReader).load("user123");
+    }
+
+    @Test
+    void lookupTotalPoints_ShouldLoadDistinctUsersOnceAndOverlayPendingDeltas() {
+        // Given
+        pendingDeltas.add("user456", 30);
+        when(userPointsReader.loadAll(List.of("user123", "user456", "unknown")))
+                .thenReturn(Map.of("user123", existingUserPoints));
+
+        // When
+        PointsLookupResponse result = pointsService.lookupTotalPoints(
+                List.of("user123", "user456", "unknown", "user123"));
+
+        // Then
+        assertEquals(List.of("user123", "user456"), result.getUsers().stream().map(UserPoints::getUserId).toList());
+        assertEquals(500L, result.getUsers().get(0).getTotalPoints());
+        assertEquals(30L, result.getUsers().get(1).getTotalPoints());
+        assertEquals(List.of("unknown"), result.getUnknownUserIds());
+        verify(userPointsReader, never()).load(anyString());
+        assertEquals(1, meterRegistry.get("points.stage")
+                .tag("operation", "lookupTotalPoints").tag("stage", "user_points_load").timer().count());
+    }
+
+    @Test
+    void lookupTotalPoints_TooManyOrBlankUserIds_ShouldThrowException() {
+        // Given
+        properties.getLookup().setMaxUsers(2);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> pointsService.lookupTotalPoints(List.of("user1", "user2", "user3")));
+        assertThrows(IllegalArgumentException.class, () -> pointsService.lookupTotalPoints(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> pointsService.lookupTotalPoints(List.of("user1", " ")));
+        verifyNoInteractions(userPointsReader);
     }
 
     @Test
     void getTotalPoints_NonExistingUser_ShouldReturnNull() {
         // Given
-        when(userPointsRepository.findById("user123")).thenReturn(Optional.empty());
+        when(userPointsReader.load("user123")).thenReturn(null);
 
         // When
         UserPoints result = pointsService.getTotalPoints("user123");
 
         // Then
         assertNull(result);
-        verify(userPointsRepository).findById("user123");
+        verify(userPointsReader).load("user123");
     }
 
     @Test
     void getLeaderboard_WithData_ShouldReturnSortedLeaderboard() {
         // Given
-        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
-        Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
-        tuples.add(ZSetOperations.TypedTuple.of("user1", 1000.0));
-        tuples.add(ZSetOperations.TypedTuple.of("user2", 800.0));
-        when(zSetOperations.reverseRangeWithScores("leaderboard", 0, 9)).thenReturn(tuples);
+        when(leaderboardSnapshot.top()).thenReturn(List.of(
+                new LeaderboardEntry("user1", 1000.0), new LeaderboardEntry("user2", 800.0)));
 
         // When
-        List<LeaderboardEntry> result = pointsService.getLeaderboard();
+        List<LeaderboardEntry> result = pointsService.getLeaderboard(LeaderboardWindow.ALL_TIME);
 
         // Then
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(zSetOperations).reverseRangeWithScores("leaderboard", 0, 9);
+        verify(leaderboardSnapshot).top();
+    }
+
+    @Test
+    void getLeaderboard_WeeklyWindow_ShouldBypassSnapshot() {
+        // Given
+        when(leaderboardService.top(LeaderboardWindow.WEEK, 10)).thenReturn(List.of(new LeaderboardEntry("user1", 70.0)));
+
+        // When
+        List<LeaderboardEntry> result = pointsService.getLeaderboard(LeaderboardWindow.WEEK);
+
+        // Then
+        assertEquals(1, result.size());
+        verifyNoInteractions(leaderboardSnapshot);
     }
 
     @Test
     void getLeaderboard_EmptyData_ShouldReturnEmptyList() {
         // Given
-        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
-        when(zSetOperations.reverseRangeWithScores("leaderboard", 0, 9)).thenReturn(Collections.emptySet());
+        when(leaderboardSnapshot.top()).thenReturn(List.of());
 
         // When
-        List<LeaderboardEntry> result = pointsService.getLeaderboard();
+        List<LeaderboardEntry> result = pointsService.getLeaderboard(LeaderboardWindow.ALL_TIME);
 
         // Then
         assertNotNull(result);
@@ -187,7 +271,7 @@ class PointsServiceImplTest {
         updateRequest.setReason("Updated reason");
         
         when(pointRecordRepository.findById(1L)).thenReturn(Optional.of(pointRecord));
-        when(pointRecordRepository.save(any(PointRecord.class))).thenReturn(pointRecord);
+        when(pointRecordRepository.saveAndFlush(any(PointRecord.class))).thenReturn(pointRecord);
 
         // When
         PointRecord result = pointsService.updateReason(1L, updateRequest);
@@ -195,7 +279,7 @@ class PointsServiceImplTest {
         // Then
         assertNotNull(result);
         verify(pointRecordRepository).findById(1L);
-        verify(pointRecordRepository).save(argThat(record -> 
+        verify(pointRecordRepository).saveAndFlush(argThat(record ->
             record.getReason().equals("Updated reason")));
     }
 
@@ -215,30 +299,101 @@ class PointsServiceImplTest {
         
         assertEquals("Point record not found with id: 1", exception.getMessage());
         verify(pointRecordRepository).findById(1L);
-        verify(pointRecordRepository, never()).save(any());
+        verify(pointRecordRepository, never()).saveAndFlush(any());
     }
 
     @Test
     void deleteUserPoints_ShouldDeleteAllUserData() {
         // Given
-        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
         String userId = "user123";
-        doNothing().when(pointRecordRepository).deleteByUserId(userId);
         doNothing().when(userPointsRepository).deleteById(userId);
+        PurgeJobStatus purge = new PurgeJobStatus("job-1", userId, PurgeJobStatus.State.RUNNING, 0,
+                LocalDateTime.now(), null, null);
+        when(pointRecordPurger.submit(userId)).thenReturn(purge);
 
         // When
-        pointsService.deleteUserPoints(userId);
+        PurgeJobStatus result = pointsService.deleteUserPoints(userId);
 
         // Then
-        verify(pointRecordRepository).deleteByUserId(userId);
+        assertSame(purge, result);
+        verify(pointRecordRepository, never()).findByUserId(any());
         verify(userPointsRepository).deleteById(userId);
-        verify(zSetOperations).remove("leaderboard", userId);
+        verify(leaderboardService).remove(userId);
+        verify(leaderboardSnapshot).invalidate();
+        verify(primaryStickiness).wrote(userId);
+    }
+
+    @Test
+    void getLeaderboardPage_SizeAboveLimit_ShouldThrow() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> pointsService.getLeaderboardPage(LeaderboardWindow.ALL_TIME, 0, 101));
+        verifyNoInteractions(leaderboardService);
+    }
+
+    @Test
+    void getLeaderboardPage_BeyondMaxOffset_ShouldThrow() {
+        // Given
+        properties.getLeaderboard().setMaxOffset(1000);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> pointsService.getLeaderboardPage(LeaderboardWindow.ALL_TIME, 51, 20));
+        verifyNoInteractions(leaderboardService);
+    }
+
+    @Test
+    void getLeaderboardPage_ValidRequest_ShouldReadPage() {
+        // Given
+        LeaderboardPage page = new LeaderboardPage(2, 20, 100, List.of());
+        when(leaderboardService.page(LeaderboardWindow.WEEK, 2, 20)).thenReturn(page);
+
+        // When & Then
+        assertSame(page, pointsService.getLeaderboardPage(LeaderboardWindow.WEEK, 2, 20));
+    }
+
+    @Test
+    void getPointRecords_FullPage_ShouldReturnCursorOfLastRecord() {
+        // Given
+        PointRecord newer = new PointRecord();
+        newer.setId(9L);
+        PointRecord older = new PointRecord();
+        older.setId(4L);
+        when(pointRecordRepository.findPageByUserId("user123", null, 2)).thenReturn(List.of(newer, older));
+
+        // When
+        PointRecordPage page = pointsService.getPointRecords("user123", null, 2);
+
+        // Then
+        assertEquals(4L, page.getNextCursor());
+        assertEquals(2, page.getRecords().size());
+        verify(primaryStickiness).read(eq("user123"), any());
+    }
+
+    @Test
+    void getPointRecords_LastPage_ShouldHaveNoCursor() {
+        // Given
+        when(pointRecordRepository.findPageByUserId("user123", 4L, 2)).thenReturn(List.of(pointRecord));
+
+        // When & Then
+        assertNull(pointsService.getPointRecords("user123", 4L, 2).getNextCursor());
+    }
+
+    @Test
+    void getPointRecords_LimitAboveMax_ShouldThrow() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> pointsService.getPointRecords("user123", null, 501));
+    }
+
+    @Test
+    void getUserRank_TooManyNeighbours_ShouldThrow() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> pointsService.getUserRank("user123", 11));
     }
 
     @Test
     void addPoints_ShouldHandleNegativePoints() {
         // Given
-        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.READ_MODIFY_WRITE);
         addPointsRequest.setAmount(-50);
         when(userPointsRepository.findById("user123")).thenReturn(Optional.of(existingUserPoints));
         when(pointRecordRepository.save(any(PointRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -251,7 +406,254 @@ class PointsServiceImplTest {
         verify(pointRecordRepository).save(any(PointRecord.class));
         verify(userPointsRepository).save(argThat(userPoints -> 
             userPoints.getTotalPoints() == 450)); // 500 - 50
-        verify(zSetOperations).add(eq("leaderboard"), eq("user123"), eq(450.0));
-        verify(rocketMQTemplate).convertAndSend(eq("user-points-topic"), any(PointRecord.class));
+        verify(leaderboardService).setScore("user123", 450.0, -50.0);
+        verify(eventPublisher).publish(any(PointRecord.class));
+    }
+
+    @Test
+    void addPoints_AtomicMode_ShouldUpsertAndIncrementLeaderboard() {
+        // Given
+        when(pointRecordRepository.save(any(PointRecord.class))).thenReturn(pointRecord);
+
+        // When
+        PointRecord result = pointsService.addPoints(addPointsRequest);
+
+        // Then
+        assertNotNull(result);
+        verify(userPointsRepository).accrue(eq("user123"), eq(100L), any(LocalDateTime.class));
+        verify(userPointsRepository, never()).findById(any());
+        verify(userPointsRepository, never()).save(any());
+        verify(leaderboardService).increment("user123", 100.0);
+        verify(leaderboardService, never()).setScore(anyString(), anyDouble(), anyDouble());
+        verify(eventPublisher).publish(any(PointRecord.class));
+    }
+
+    @Test
+    void addPoints_PooledIds_ShouldInsertThroughBatchInsert() {
+        // Given
+        properties.getIds().setStrategy(PointsProperties.IdStrategy.POOLED);
+
+        // When
+        PointRecord result = pointsService.addPoints(addPointsRequest);
+
+        // Then
+        assertEquals("user123", result.getUserId());
+        verify(pointRecordRepository).saveAllInBatch(argThat(records -> records.size() == 1
+                && records.get(0) == result));
+        verify(pointRecordRepository, never()).save(any(PointRecord.class));
+        verify(userPointsRepository).accrue(eq("user123"), eq(100L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void addPoints_AtomicMode_ShouldTimeEachStage() {
+        // When
+        pointsService.addPoints(addPointsRequest);
+
+        // Then
+        for (String stage : List.of("point_record_insert", "user_points_update", "leaderboard_update",
+                "event_publish")) {
+            assertEquals(1, meterRegistry.get("points.stage")
+                    .tag("operation", "addPoints").tag("stage", stage).timer().count(), stage);
+        }
+        assertEquals(0, meterRegistry.get("points.stage")
+                .tag("operation", "addPoints").tag("stage", "user_points_read").timer().count());
+    }
+
+    @Test
+    void addPoints_AtomicMode_ShouldHandleNegativePoints() {
+        // Given
+        addPointsRequest.setAmount(-50);
+
+        // When
+        pointsService.addPoints(addPointsRequest);
+
+        // Then
+        verify(userPointsRepository).accrue(eq("user123"), eq(-50L), any(LocalDateTime.class));
+        verify(leaderboardService).increment("user123", -50.0);
+    }
+
+    @Test
+    void addPointsBatch_ShouldMergeDeltasPerUserAndReportEachItem() {
+        // Given
+        when(cacheManager.getCache("user_points")).thenReturn(cache);
+        AddPointsRequest second = request("user123", 50);
+        AddPointsRequest other = request("user456", 20);
+        AddPointsRequest missingAmount = request("user789", null);
+        when(pointRecordRepository.saveAllInBatch(anyList())).thenAnswer(invocation -> {
+            List<PointRecord> records = invocation.getArgument(0);
+            for (int i = 0; i < records.size(); i++) {
+                records.get(i).setId(10L + i);
+            }
+            return records;
+        });
+
+        // When
+        BatchAddPointsResponse response = pointsService.addPointsBatch(
+                List.of(addPointsRequest, missingAmount, second, other));
+
+        // Then
+        assertEquals(3, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals(10L, response.getResults().get(0).getRecordId());
+        assertFalse(response.getResults().get(1).isSuccess());
+        assertEquals("amount is required", response.getResults().get(1).getError());
+        assertEquals(11L, response.getResults().get(2).getRecordId());
+        assertEquals(12L, response.getResults().get(3).getRecordId());
+
+        verify(pointRecordRepository).saveAllInBatch(argThat(records -> records.size() == 3));
+        verify(userPointsRepository).accrueAll(eq(Map.of("user123", 150L, "user456", 20L)), any(LocalDateTime.class));
+        verify(leaderboardService).incrementAll(Map.of("user123", 150L, "user456", 20L));
+        verify(cache).evict("user123");
+        verify(cache).evict("user456");
+        verify(eventPublisher).publishAll(argThat(records -> records.size() == 3));
+        verify(userPointsRepository, never()).save(any());
+    }
+
+    @Test
+    void addPointsBatch_AllItemsInvalid_ShouldNotTouchStores() {
+        // When
+        BatchAddPointsResponse response = pointsService.addPointsBatch(List.of(request(" ", 10)));
+
+        // Then
+        assertEquals(0, response.getSucceeded());
+        assertEquals("userId is required", response.getResults().get(0).getError());
+        verifyNoInteractions(pointRecordRepository, userPointsRepository, leaderboardService, eventPublisher);
+    }
+
+    @Test
+    void addPointsBatch_TooLarge_ShouldThrowException() {
+        // Given
+        properties.getBatch().setMaxSize(1);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> pointsService.addPointsBatch(List.of(request("a", 1), request("b", 2))));
+    }
+
+    private static AddPointsRequest request(String userId, Integer amount) {
+        AddPointsRequest request = new AddPointsRequest();
+        request.setUserId(userId);
+        request.setAmount(amount);
+        request.setReason("Batch reward");
+        return request;
+    }
+
+    @Test
+    void addPoints_WriteBehindMode_ShouldOnlyAccumulateDelta() {
+        // Given
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.WRITE_BEHIND);
+
+        // When
+        pointsService.addPoints(addPointsRequest);
+        pointsService.addPoints(addPointsRequest);
+
+        // Then
+        assertEquals(200, pendingDeltas.pending("user123"));
+        assertFalse(pointsService.accruesSynchronously());
+        verify(pointRecordRepository, times(2)).save(any(PointRecord.class));
+        verify(eventPublisher, times(2)).publish(any(PointRecord.class));
+        verifyNoInteractions(userPointsRepository, leaderboardService);
+    }
+
+    @Test
+    void getTotalPoints_WithPendingDeltas_ShouldReadYourWrites() {
+        // Given
+        pendingDeltas.add("user123", 100);
+        when(userPointsReader.load("user123")).thenReturn(existingUserPoints);
+
+        // When
+        UserPoints result = pointsService.getTotalPoints("user123");
+
+        // Then
+        assertEquals(600, result.getTotalPoints());
+        assertEquals(500, existingUserPoints.getTotalPoints()); // cached instance untouched
+    }
+
+    @Test
+    void getTotalPoints_UnknownUserWithPendingDeltas_ShouldReturnPendingTotal() {
+        // Given
+        pendingDeltas.add("user123", 70);
+        when(userPointsReader.load("user123")).thenReturn(null);
+
+        // When
+        UserPoints result = pointsService.getTotalPoints("user123");
+
+        // Then
+        assertEquals(70, result.getTotalPoints());
+    }
+
+    @Test
+    void addPoints_ProjectionMode_ShouldOnlyStoreAndPublish() {
+        // Given
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.PROJECTION);
+
+        // When
+        pointsService.addPoints(addPointsRequest);
+
+        // Then
+        assertFalse(pointsService.accruesSynchronously());
+        verify(pointRecordRepository).save(any(PointRecord.class));
+        verify(eventPublisher).publish(any(PointRecord.class));
+        verifyNoInteractions(userPointsRepository, leaderboardService);
+        assertEquals(0, pendingDeltas.pending("user123"));
+    }
+
+    @Test
+    void addPointsBatch_ProjectionMode_ShouldLeaveTotalsToTheProjection() {
+        // Given
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.PROJECTION);
+
+        // When
+        BatchAddPointsResponse response = pointsService.addPointsBatch(List.of(addPointsRequest, request("user456", 5)));
+
+        // Then
+        assertEquals(2, response.getSucceeded());
+        verify(pointRecordRepository).saveAllInBatch(argThat(records -> records.size() == 2));
+        verify(eventPublisher).publishAll(argThat(records -> records.size() == 2));
+        verifyNoInteractions(userPointsRepository, leaderboardService, cacheManager);
+    }
+
+    @Test
+    void getTotalPoints_RecordNotProjectedYet_ShouldSumPointRecords() {
+        // Given
+        when(projectorProvider.getIfAvailable()).thenReturn(projector);
+        when(projector.isProjected(42L)).thenReturn(false);
+        when(pointRecordRepository.sumAmountByUserId("user123")).thenReturn(600L);
+
+        // When
+        UserPoints result = pointsService.getTotalPoints("user123", 42L);
+
+        // Then
+        assertEquals("user123", result.getUserId());
+        assertEquals(600, result.getTotalPoints());
+        verifyNoInteractions(userPointsReader);
+    }
+
+    @Test
+    void getTotalPoints_RecordProjected_ShouldReadUserPoints() {
+        // Given
+        when(projectorProvider.getIfAvailable()).thenReturn(projector);
+        when(projector.isProjected(42L)).thenReturn(true);
+        when(userPointsReader.load("user123")).thenReturn(existingUserPoints);
+
+        // When
+        UserPoints result = pointsService.getTotalPoints("user123", 42L);
+
+        // Then
+        assertEquals(500, result.getTotalPoints());
+        verify(pointRecordRepository, never()).sumAmountByUserId(any());
+    }
+
+    @Test
+    void getTotalPoints_WithMinRecordIdOutsideProjectionMode_ShouldReadUserPoints() {
+        // Given
+        when(userPointsReader.load("user123")).thenReturn(existingUserPoints);
+
+        // When
+        UserPoints result = pointsService.getTotalPoints("user123", 42L);
+
+        // Then
+        assertEquals(500, result.getTotalPoints());
+        verify(pointRecordRepository, never()).sumAmountByUserId(any());
     }
 }
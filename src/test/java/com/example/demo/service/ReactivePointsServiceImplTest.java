@@ -0,0 +1,305 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.ReactiveUserPointsCache;
+import com.example.demo.config.PointsProperties;
+import com.example.demo.messaging.ReactivePointsEventPublisher;
+import com.example.demo.model.dto.AddPointsRequest;
+import com.example.demo.model.dto.BatchItemResult;
+import com.example.demo.model.dto.LeaderboardEntry;
+import com.example.demo.model.dto.PurgeJobStatus;
+import com.example.demo.model.dto.UpdateReasonRequest;
+import com.example.demo.model.entity.PointRecord;
+import com.example.demo.model.entity.UserPoints;
+import com.example.demo.repository.ReactivePointsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePointsServiceImplTest {
+
+    @Mock
+    private ReactivePointsRepository pointsRepository;
+
+    @Mock
+    private ReactiveLeaderboardService leaderboardService;
+
+    @Mock
+    private ReactiveUserPointsCache userPointsCache;
+
+    @Mock
+    private PointRecordPurger pointRecordPurger;
+
+    @Mock
+    private ReactivePointsEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private final PendingPointsDeltas pendingDeltas = new PendingPointsDeltas();
+    private final PointsProperties properties = new PointsProperties();
+    private final AtomicLong ids = new AtomicLong();
+
+    private ReactivePointsServiceImpl pointsService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(pointsRepository.insertRecords(anyList())).thenAnswer(invocation -> {
+            List<PointRecord> records = invocation.getArgument(0);
+            return Mono.fromSupplier(() -> {
+                records.forEach(r -> r.setId(ids.incrementAndGet()));
+                return records;
+            });
+        });
+        lenient().when(pointsRepository.accrue(anyString(), anyLong(), any())).thenReturn(Mono.empty());
+        lenient().when(pointsRepository.accrueAll(anyMap(), any())).thenReturn(Mono.empty());
+        lenient().when(eventPublisher.publish(any())).thenReturn(Mono.empty());
+        lenient().when(eventPublisher.publishAll(anyList())).thenReturn(Mono.empty());
+        lenient().when(leaderboardService.increment(anyString(), anyLong())).thenReturn(Mono.empty());
+        lenient().when(leaderboardService.incrementAll(anyMap())).thenReturn(Mono.empty());
+        lenient().when(userPointsCache.evict(anyString())).thenReturn(Mono.empty());
+        lenient().when(userPointsCache.evictAll(anyCollection())).thenReturn(Mono.empty());
+        lenient().when(leaderboardService.top(any(), anyInt())).thenReturn(Mono.just(List.of()));
+        pointsService = newService();
+    }
+
+    private ReactivePointsServiceImpl newService() {
+        return new ReactivePointsServiceImpl(pointsRepository, leaderboardService, userPointsCache, pendingDeltas,
+                pointRecordPurger, eventPublisher, transactionalOperator, properties,
+                new PointsStageTimers(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void addPoints_Atomic_ShouldWriteInTransactionThenUpdateRedis() {
+        // When & Then
+        StepVerifier.create(pointsService.addPoints(request("user1", 100)))
+                .assertNext(pointRecord -> {
+                    assertEquals(1L, pointRecord.getId());
+                    assertEquals("user1", pointRecord.getUserId());
+                })
+                .verifyComplete();
+        verify(pointsRepository).accrue(eq("user1"), eq(100L), any(LocalDateTime.class));
+        verify(eventPublisher).publish(any(PointRecord.class));
+        verify(leaderboardService).increment("user1", 100L);
+        verify(userPointsCache).evict("user1");
+    }
+
+    @Test
+    void addPoints_PublishFails_ShouldLeaveRedisUntouched() {
+        // Given
+        when(eventPublisher.publish(any())).thenReturn(Mono.error(new IllegalStateException("outbox down")));
+
+        // When & Then
+        StepVerifier.create(pointsService.addPoints(request("user1", 100)))
+                .verifyError(IllegalStateException.class);
+        verify(leaderboardService, never()).increment(anyString(), anyLong());
+        verify(userPointsCache, never()).evict(anyString());
+    }
+
+    @Test
+    void addPoints_WriteBehind_ShouldBufferDeltaAfterCommit() {
+        // Given
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.WRITE_BEHIND);
+
+        // When & Then
+        StepVerifier.create(pointsService.addPoints(request("user1", 100))).expectNextCount(1).verifyComplete();
+        assertEquals(100L, pendingDeltas.pending("user1"));
+        verify(pointsRepository, never()).accrue(anyString(), anyLong(), any());
+        verify(leaderboardService, never()).increment(anyString(), anyLong());
+    }
+
+    @Test
+    void constructor_ReadModifyWrite_ShouldFailFast() {
+        // Given
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.READ_MODIFY_WRITE);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, this::newService);
+    }
+
+    @Test
+    void constructor_Projection_ShouldFailFast() {
+        // Given
+        properties.getAccrual().setMode(PointsProperties.AccrualMode.PROJECTION);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, this::newService);
+    }
+
+    @Test
+    void constructor_PooledIds_ShouldFailFast() {
+        // Given
+        properties.getIds().setStrategy(PointsProperties.IdStrategy.POOLED);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, this::newService);
+    }
+
+    @Test
+    void addPointsBatch_ShouldWriteChunksAndReportEveryItem() {
+        // Given
+        properties.getBatch().setIngestChunkSize(2);
+        AddPointsRequest invalid = request(" ", 5);
+        Flux<AddPointsRequest> requests = Flux.just(request("user1", 10), invalid, request("user2", 20),
+                request("user1", 5), request("user3", 1));
+
+        // When & Then
+        StepVerifier.create(pointsService.addPointsBatch(requests))
+                .assertNext(response -> {
+                    assertEquals(4, response.getSucceeded());
+                    assertEquals(1, response.getFailed());
+                    assertEquals(List.of(0, 1, 2, 3, 4),
+                            response.getResults().stream().map(BatchItemResult::getIndex).toList());
+                    assertFalse(response.getResults().get(1).isSuccess());
+                    assertEquals(List.of(1L, 2L, 3L, 4L), response.getResults().stream()
+                            .filter(BatchItemResult::isSuccess).map(BatchItemResult::getRecordId).toList());
+                })
+                .verifyComplete();
+        verify(pointsRepository, times(3)).insertRecords(anyList());
+        verify(leaderboardService).incrementAll(Map.of("user1", 15L, "user2", 20L, "user3", 1L));
+        verify(userPointsCache).evictAll(argThat(userIds -> userIds.size() == 3));
+    }
+
+    @Test
+    void addPointsBatch_TooManyItems_ShouldFailWithoutTouchingRedis() {
+        // Given
+        properties.getBatch().setMaxSize(2);
+
+        // When & Then
+        StepVerifier.create(pointsService.addPointsBatch(Flux.just(request("user1", 1), request("user2", 2),
+                        request("user3", 3))))
+                .verifyError(IllegalArgumentException.class);
+        verify(leaderboardService, never()).incrementAll(anyMap());
+    }
+
+    @Test
+    void addPointsBatch_Empty_ShouldFail() {
+        StepVerifier.create(pointsService.addPointsBatch(Flux.empty()))
+                .verifyError(IllegalArgumentException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getTotalPoints_ShouldOverlayPendingDeltas() {
+        // Given
+        UserPoints stored = new UserPoints();
+        stored.setUserId("user1");
+        stored.setTotalPoints(100L);
+        stored.setUpdatedAt(LocalDateTime.now());
+        when(userPointsCache.get(eq("user1"), any(Function.class))).thenReturn(Mono.just(stored));
+        pendingDeltas.add("user1", 25);
+
+        // When & Then
+        StepVerifier.create(pointsService.getTotalPoints("user1"))
+                .assertNext(userPoints -> assertEquals(125L, userPoints.getTotalPoints()))
+                .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getTotalPoints_UnknownUser_ShouldBeEmpty() {
+        // Given
+        when(userPointsCache.get(eq("ghost"), any(Function.class))).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(pointsService.getTotalPoints("ghost")).verifyComplete();
+    }
+
+    @Test
+    void getLeaderboard_AllTime_ShouldReadRedisOncePerRefresh() {
+        // Given
+        AtomicLong reads = new AtomicLong();
+        when(leaderboardService.top(LeaderboardWindow.ALL_TIME, properties.getLeaderboard().getTopSize()))
+                .thenReturn(Mono.fromSupplier(() -> {
+                    reads.incrementAndGet();
+                    return List.of(new LeaderboardEntry("user1", 10.0));
+                }));
+        pointsService = newService();
+
+        // When
+        List<LeaderboardEntry> first = pointsService.getLeaderboard(LeaderboardWindow.ALL_TIME).block();
+        List<LeaderboardEntry> second = pointsService.getLeaderboard(LeaderboardWindow.ALL_TIME).block();
+
+        // Then
+        assertEquals(first, second);
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void getLeaderboardPage_InvalidSize_ShouldFail() {
+        StepVerifier.create(pointsService.getLeaderboardPage(LeaderboardWindow.ALL_TIME, 0, 0))
+                .verifyError(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getLeaderboardPage_BeyondMaxOffset_ShouldFail() {
+        StepVerifier.create(pointsService.getLeaderboardPage(LeaderboardWindow.ALL_TIME, Integer.MAX_VALUE, 100))
+                .verifyError(IllegalArgumentException.class);
+    }
+
+    @Test
+    void updateReason_NotFound_ShouldFail() {
+        // Given
+        when(pointsRepository.findRecord(999L)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(pointsService.updateReason(999L, new UpdateReasonRequest()))
+                .verifyError(IllegalArgumentException.class);
+        verify(pointsRepository, never()).updateReason(anyLong(), any());
+    }
+
+    @Test
+    void deleteUserPoints_ShouldCleanUpRedisAndSubmitPurge() {
+        // Given
+        PurgeJobStatus purge = new PurgeJobStatus();
+        purge.setJobId("job-1");
+        when(pointsRepository.deleteUserPoints("user1")).thenReturn(Mono.just(1L));
+        when(leaderboardService.remove("user1")).thenReturn(Mono.empty());
+        when(pointRecordPurger.submit("user1")).thenReturn(purge);
+        pendingDeltas.add("user1", 10);
+
+        // When & Then
+        StepVerifier.create(pointsService.deleteUserPoints("user1"))
+                .expectNext(purge)
+                .verifyComplete();
+        verify(userPointsCache).evict("user1");
+        assertEquals(0L, pendingDeltas.pending("user1"));
+    }
+
+    @Test
+    void getPurgeStatus_Unknown_ShouldBeEmpty() {
+        // Given
+        when(pointRecordPurger.status("missing")).thenReturn(Optional.empty());
+
+        // When & Then
+        StepVerifier.create(pointsService.getPurgeStatus("missing")).verifyComplete();
+    }
+
+    private static AddPointsRequest request(String userId, int amount) {
+        AddPointsRequest request = new AddPointsRequest();
+        request.setUserId(userId);
+        request.setAmount(amount);
+        request.setReason("test");
+        return request;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.DeferredCacheEvictions;
+import com.example.demo.config.PointsProperties;
+import com.example.demo.redis.RedisCircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisRecoveryJobTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private LeaderboardRebuildJob leaderboardRebuildJob;
+
+    @Mock
+    private DeferredCacheEvictions deferredEvictions;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PointsProperties properties = new PointsProperties();
+    private RedisCircuitBreaker circuitBreaker;
+    private LeaderboardReplayQueue replayQueue;
+    private RedisRecoveryJob job;
+
+    @BeforeEach
+    void setUp() {
+        properties.getRedis().setWindowSize(1);
+        properties.getRedis().setOpenDuration(Duration.ZERO);
+        properties.getRedis().setReplayMaxUsers(2);
+        circuitBreaker = new RedisCircuitBreaker(properties, meterRegistry);
+        replayQueue = new LeaderboardReplayQueue(properties, meterRegistry);
+        job = new RedisRecoveryJob(circuitBreaker, redisTemplate, replayQueue, leaderboardService,
+                leaderboardRebuildJob, deferredEvictions, taskScheduler, properties);
+    }
+
+    @Test
+    void recover_CircuitClosed_ShouldReplayRemovalsBeforeCredits() {
+        // Given
+        replayQueue.increment("user1", 10);
+        replayQueue.remove("user2");
+        replayQueue.increment("user2", 5);
+
+        // When
+        job.recover();
+
+        // Then
+        InOrder inOrder = inOrder(leaderboardService, deferredEvictions);
+        inOrder.verify(leaderboardService).remove("user2");
+        inOrder.verify(leaderboardService).incrementAll(Map.of("user1", 10L, "user2", 5L));
+        inOrder.verify(deferredEvictions).replay();
+        assertEquals(0, replayQueue.size());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void recover_CircuitOpenAndProbeFails_ShouldKeepTheQueue() {
+        // Given
+        open();
+        replayQueue.increment("user1", 10);
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("redis down"));
+
+        // When
+        job.recover();
+
+        // Then
+        assertFalse(circuitBreaker.isClosed());
+        assertEquals(1, replayQueue.size());
+        verifyNoInteractions(leaderboardService, deferredEvictions);
+    }
+
+    @Test
+    void recover_ProbeSucceeds_ShouldCloseTheCircuitAndReplay() {
+        // Given
+        open();
+        replayQueue.increment("user1", 10);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn("PONG");
+
+        // When
+        job.recover();
+
+        // Then
+        assertTrue(circuitBreaker.isClosed());
+        verify(leaderboardService).incrementAll(Map.of("user1", 10L));
+        verify(deferredEvictions).replay();
+    }
+
+    @Test
+    void recover_QueueOverflowed_ShouldRebuildInsteadOfReplayingCredits() {
+        // Given
+        replayQueue.increment("user1", 10);
+        replayQueue.increment("user2", 20);
+        replayQueue.increment("user3", 30);
+        when(leaderboardRebuildJob.start(RedisRecoveryJob.REBUILD_TRIGGER)).thenReturn(true);
+
+        // When
+        job.recover();
+
+        // Then
+        verify(leaderboardRebuildJob).start(RedisRecoveryJob.REBUILD_TRIGGER);
+        verify(leaderboardService, never()).incrementAll(any());
+        assertEquals(1.0, meterRegistry.get("points.leaderboard.replay.overflows").counter().count());
+    }
+
+    private void open() {
+        assertThrows(RedisConnectionFailureException.class, () -> circuitBreaker.execute(() -> {
+            throw new RedisConnectionFailureException("redis down");
+        }));
+        assertFalse(circuitBreaker.isClosed());
+    }
+}
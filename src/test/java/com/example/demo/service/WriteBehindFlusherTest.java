@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PointsProperties;
+import com.example.demo.repository.UserPointsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindFlusherTest {
+
+    @Mock
+    private UserPointsRepository userPointsRepository;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final PendingPointsDeltas pendingDeltas = new PendingPointsDeltas();
+    private WriteBehindFlusher flusher;
+
+    @BeforeEach
+    void setUp() {
+        flusher = new WriteBehindFlusher(pendingDeltas, userPointsRepository, leaderboardService, cacheManager,
+                transactionManager, taskScheduler, new PointsProperties());
+    }
+
+    @Test
+    void flush_ShouldUpsertIncrementLeaderboardAndEvictCache() {
+        // Given
+        when(cacheManager.getCache("user_points")).thenReturn(cache);
+        pendingDeltas.add("user1", 10);
+        pendingDeltas.add("user1", 5);
+        pendingDeltas.add("user2", 7);
+
+        // When
+        flusher.flush();
+
+        // Then
+        Map<String, Long> expected = Map.of("user1", 15L, "user2", 7L);
+        verify(userPointsRepository).accrueAll(eq(expected), any(LocalDateTime.class));
+        verify(leaderboardService).incrementAll(expected);
+        verify(cache).evict("user1");
+        verify(cache).evict("user2");
+        assertEquals(0, pendingDeltas.pending("user1"));
+    }
+
+    @Test
+    void flush_DatabaseFailure_ShouldKeepDeltasForRetry() {
+        // Given
+        pendingDeltas.add("user1", 10);
+        doThrow(new QueryTimeoutException("timeout")).when(userPointsRepository).accrueAll(anyMap(), any());
+
+        // When
+        flusher.flush();
+
+        // Then
+        assertEquals(10, pendingDeltas.pending("user1"));
+        verifyNoInteractions(leaderboardService);
+    }
+
+    @Test
+    void flush_UserDeletedDuringFlush_ShouldSkipAndUndoItsWrites() {
+        // Given: user1 is deleted while its upsert runs
+        pendingDeltas.add("user1", 10);
+        pendingDeltas.add("user2", 7);
+        doAnswer(invocation -> {
+            pendingDeltas.discard("user1");
+            return null;
+        }).when(userPointsRepository).accrueAll(anyMap(), any());
+
+        // When
+        flusher.flush();
+
+        // Then
+        verify(leaderboardService).incrementAll(Map.of("user2", 7L));
+        verify(userPointsRepository).deleteAllByIdInBatch(Set.of("user1"));
+        verify(leaderboardService).remove("user1");
+        verify(leaderboardService, never()).remove("user2");
+        assertEquals(0, pendingDeltas.pending("user1"));
+        assertNull(pendingDeltas.overlay("user1", null));
+    }
+
+    @Test
+    void flush_DatabaseFailureAfterUserDeleted_ShouldNotRetryItsDelta() {
+        // Given
+        pendingDeltas.add("user1", 10);
+        pendingDeltas.add("user2", 7);
+        doAnswer(invocation -> {
+            pendingDeltas.discard("user1");
+            throw new QueryTimeoutException("timeout");
+        }).when(userPointsRepository).accrueAll(anyMap(), any());
+
+        // When
+        flusher.flush();
+
+        // Then
+        assertEquals(0, pendingDeltas.pending("user1"));
+        assertEquals(7, pendingDeltas.pending("user2"));
+    }
+
+    @Test
+    void flush_NothingPending_ShouldNotTouchStores() {
+        // When
+        flusher.flush();
+
+        // Then
+        verifyNoInteractions(userPointsRepository, leaderboardService, cacheManager);
+    }
+
+    @Test
+    void stop_ShouldDrainPendingDeltas() {
+        // Given
+        pendingDeltas.add("user1", 10);
+
+        // When
+        flusher.stop();
+
+        // Then
+        verify(userPointsRepository).accrueAll(eq(Map.of("user1", 10L)), any(LocalDateTime.class));
+        assertFalse(flusher.isRunning());
+    }
+}